@@ -1,5 +1,14 @@
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import domain.*;
+import domain.batch.*;
+import domain.engine.*;
+import domain.io.*;
+import domain.node.ProgramNode;
 import globalexceptions.*;
 
 /**
@@ -8,36 +17,265 @@ import globalexceptions.*;
  * catches any exceptions
  */
 public class Main {
-    public static void main(String[] args){
+    public static void main(String[] args) throws InterruptedException{
+        //options come before the input file
+        String engineName = "interpreter";
+        String outputName = "text";
+        String inputName = "scanner";
+        boolean prompt = true;
+        boolean parallel = false;
+        boolean batch = false;
+        boolean compile = false;
+        boolean parallelParse = false;
+        int pipeline = 0;
+        long quota = FairScheduler.UNLIMITED;
+        long timeoutNanos = FairScheduler.UNLIMITED;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("--")){
+            String option = args[argIndex++];
+            if (option.startsWith("--engine=")){
+                engineName = option.substring("--engine=".length());
+            }
+            else if (option.startsWith("--output=")){
+                outputName = option.substring("--output=".length());
+            }
+            else if (option.startsWith("--input=")){
+                inputName = option.substring("--input=".length());
+            }
+            else if (option.equals("--no-prompt")){
+                prompt = false;
+            }
+            else if (option.equals("--parallel")){
+                parallel = true;
+            }
+            else if (option.equals("--batch")){
+                batch = true;
+            }
+            else if (option.equals("--compile")){
+                compile = true;
+            }
+            else if (option.equals("--parallel-parse")){
+                parallelParse = true;
+            }
+            else if (option.startsWith("--quota=")){
+                try {
+                    quota = Long.parseLong(option.substring("--quota=".length()));
+                }
+                catch (NumberFormatException e){
+                    quota = 0;
+                }
+                if (quota < 1){
+                    System.err.println("Invalid fuel quota: " + option);
+                    return;
+                }
+            }
+            else if (option.startsWith("--timeout=")){
+                long millis;
+                try {
+                    millis = Long.parseLong(option.substring("--timeout=".length()));
+                }
+                catch (NumberFormatException e){
+                    millis = 0;
+                }
+                if (millis < 1 || millis > Long.MAX_VALUE / 1_000_000){
+                    System.err.println("Invalid timeout: " + option);
+                    return;
+                }
+                timeoutNanos = millis * 1_000_000;
+            }
+            else if (option.equals("--pipeline")){
+                pipeline = TokenPipeline.DEFAULT_CAPACITY;
+            }
+            else if (option.startsWith("--pipeline=")){
+                try {
+                    pipeline = Integer.parseInt(option.substring("--pipeline=".length()));
+                }
+                catch (NumberFormatException e){
+                    pipeline = 0;
+                }
+                if (pipeline < 1 || pipeline > 1 << 30){
+                    System.err.println("Invalid pipeline capacity: " + option);
+                    return;
+                }
+            }
+            else if (option.startsWith("--jobs=")){
+                try {
+                    jobs = Integer.parseInt(option.substring("--jobs=".length()));
+                }
+                catch (NumberFormatException e){
+                    jobs = 0;
+                }
+                if (jobs < 1){
+                    System.err.println("Invalid job count: " + option);
+                    return;
+                }
+            }
+            else{
+                System.err.println("Unknown option: " + option);
+                return;
+            }
+        }
+
+        if (!batch && (quota != FairScheduler.UNLIMITED || timeoutNanos != FairScheduler.UNLIMITED)){
+            System.err.println("--quota and --timeout need --batch");
+            return;
+        }
+        if (parallelParse && pipeline > 0){
+            System.err.println("--parallel-parse and --pipeline cannot be combined");
+            return;
+        }
+
         //do not run program without a given input file
-        if (args.length == 0){
-            System.err.println("Usage: java Main <inputfile>");
+        if (argIndex >= args.length){
+            System.err.println("Usage: java Main [--engine=interpreter|closure|tiered|bytecode|vm] [--output=text|csv|binary] [--input=scanner|stdin|file:<path>] [--no-prompt] [--parallel] [--parallel-parse|--pipeline[=<tokens>]] <inputfile>|<compiledfile>.alc");
+            System.err.println("       java Main --batch [--engine=interpreter|closure|tiered|bytecode|vm] [--jobs=<n>] <inputfile>...");
+            System.err.println("       java Main --batch [--jobs=<n>] [--quota=<fuel>] [--timeout=<ms>] <inputfile>...");
+            System.err.println("       java Main --compile [--parallel-parse|--pipeline[=<tokens>]] <inputfile>");
+            return;
+        }
+
+        //batch mode runs every remaining file, each on its own thread
+        if (batch){
+            List<Path> files = new ArrayList<>();
+            for (int i = argIndex; i < args.length; i++){
+                files.add(Path.of(args[i]));
+            }
+            if (quota != FairScheduler.UNLIMITED || timeoutNanos != FairScheduler.UNLIMITED){
+                runScheduled(files, jobs, quota, timeoutNanos);
+            }
+            else{
+                runBatch(files, engineName, jobs);
+            }
+            return;
+        }
+
+        String inputFile = args[argIndex];
+        boolean parallelParsing = parallelParse;
+        int pipelineCapacity = pipeline;
+        if (compile){
+            //the passes after parsing recurse once per level of the tree, so a long expression needs a deep stack
+            Thread compiler = DeepStack.newThread(() -> compile(inputFile, parallelParsing, pipelineCapacity), "main");
+            compiler.start();
+            compiler.join();
             return;
         }
+        String engine = engineName;
+        String output = outputName;
+        String input = inputName;
+        boolean prompts = prompt;
+        boolean parallelLoops = parallel;
+        Thread runner = DeepStack.newThread(() -> run(inputFile, engine, output, input, prompts, parallelLoops, parallelParsing, pipelineCapacity), "main");
+        runner.start();
+        runner.join();
+    }
 
-        BufferedReader br = null;
+    /**
+     * method to lex, parse, and execute a program file, catches any exceptions
+     * a compiled program file, ending in .alc, is loaded instead of parsed
+     * @param inputFile - path of input file
+     * @param engineName - execution engine name
+     * @param outputName - output format name
+     * @param inputName - input source name
+     * @param prompt - true to prompt before each input statement
+     * @param parallel - true to run loops with independent iterations in parallel
+     * @param parallelParse - true to lex and parse pieces of the source in parallel
+     * @param pipeline - capacity of the token pipeline to lex on a thread of its own, or 0 to lex on demand
+     */
+    private static void run(String inputFile, String engineName, String outputName, String inputName, boolean prompt, boolean parallel, boolean parallelParse, int pipeline){
         try{
-            //file object of input file and buffered reader to read file
-            File source = new File(args[0]);
-            br = new BufferedReader(new FileReader(source));
+            ProgramNode programNode;
+            if (inputFile.endsWith(ProgramImage.EXTENSION)){
+                programNode = load(Path.of(inputFile));
+            }
+            else{
+                programNode = parse(new File(inputFile), parallelParse, pipeline);
+            }
+            if (parallel){
+                programNode = new LoopParallelizer().parallelize(programNode);
+            }
+            OutputSink output = output(outputName);
+            InputSource input = input(inputName);
+            if (prompt){
+                input = new PromptingInputSource(input, System.out);
+            }
+            ParseTree parseTree = new ParseTree(programNode, engine(engineName), output, input);
 
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                sb.append(line).append('\n');  // keep the newlines
+            //program execution, the banner is only part of text output so csv and binary stay machine readable
+            if (output instanceof TextOutputSink){
+                System.out.println("Program Start\n---------------");
             }
-            br.close();
+            parseTree.evaluate();
+        }
+        //catch exceptions
+        catch (InvalidTokenException e){
+            System.err.println(e.getMessage());
+        }
+        catch(InvalidArgumentException e){
+            System.err.println(e.getMessage());
+        }
+        catch (FileNotFoundException e){
+            System.err.println(e.getMessage());
+        }
+        catch(InvalidParseException e){
+            System.err.println(e.getMessage());
+        }
+        catch(Exception e){
+            System.err.println("Unexpected error... terminating");
+        }
+    }
 
+    /**
+     * method to lex and parse a program file and run the front end passes
+     * @param source - file object of input file, lexed straight from a memory-mapped channel
+     * @param parallelParse - true to lex and parse pieces of the source in parallel
+     * @param pipeline - capacity of the token pipeline to lex on a thread of its own, or 0 to lex on demand
+     * @throws IOException if the file cannot be read
+     * @return resolved and optimized program node
+     */
+    private static ProgramNode parse(File source, boolean parallelParse, int pipeline) throws IOException{
+        try (FileChannel channel = new FileInputStream(source).getChannel()){
+            if (parallelParse){
+                return ArithLang.prepare(new ParallelParser().parse(channel));
+            }
             //lexical analyzer, parser, and parse tree creation
-            LexicalAnalyzer lex = new LexicalAnalyzer(sb.toString());
-            Parser parser = new Parser(lex);
-            ParseTree parseTree = new ParseTree(parser.parse());
+            LexicalAnalyzer lex = new LexicalAnalyzer(channel);
+            if (pipeline > 0){
+                try (TokenPipeline tokens = lex.pipeline(pipeline)){
+                    return ArithLang.prepare(new Parser(tokens).parse());
+                }
+            }
+            return ArithLang.parse(lex);
+        }
+    }
 
-            //program execution
-            System.out.println("Program Start\n---------------");
-            parseTree.evaluate();
+    /**
+     * method to load a compiled program file, checked against the source file it was compiled from when that file still exists
+     * @param file - path of compiled program file
+     * @throws IOException if a file cannot be read
+     * @return resolved and optimized program node
+     */
+    private static ProgramNode load(Path file) throws IOException{
+        if (!Files.isRegularFile(file)){
+            throw new FileNotFoundException(file + " (No such file or directory)");
+        }
+        return ProgramImage.read(file);
+    }
+
+    /**
+     * method to compile a program file to a compiled program file next to it, catches any exceptions
+     * @param inputFile - path of input file
+     * @param parallelParse - true to lex and parse pieces of the source in parallel
+     * @param pipeline - capacity of the token pipeline to lex on a thread of its own, or 0 to lex on demand
+     */
+    private static void compile(String inputFile, boolean parallelParse, int pipeline){
+        try{
+            Path source = Path.of(inputFile);
+            ProgramNode programNode = parse(source.toFile(), parallelParse, pipeline);
+            Path target = compiledOf(source);
+            ProgramImage.write(programNode, source, target);
+            System.out.println("Compiled " + source + " to " + target);
         }
-        //catch exceptions
         catch (InvalidTokenException e){
             System.err.println(e.getMessage());
         }
@@ -54,4 +292,143 @@ public class Main {
             System.err.println("Unexpected error... terminating");
         }
     }
+
+    /**
+     * method to get the path of the compiled program file for a source file, the extension is replaced by .alc
+     * @param source - path of source file
+     * @return path of compiled program file
+     */
+    private static Path compiledOf(Path source){
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return source.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ProgramImage.EXTENSION);
+    }
+
+    /**
+     * method to run program files with a BatchRunner and print the output of each in the order given
+     * input statements of a program read the file next to it with extension .in
+     * @param files - paths of program files
+     * @param engineName - execution engine name
+     * @param jobs - maximum number of programs running at once
+     */
+    private static void runBatch(List<Path> files, String engineName, int jobs){
+        List<ProgramResult> results;
+        try (BatchRunner runner = new BatchRunner(engine(engineName), jobs)){
+            results = runner.runFiles(files);
+        }
+        catch (InvalidArgumentException e){
+            System.err.println(e.getMessage());
+            return;
+        }
+        printResults(results);
+    }
+
+    /**
+     * method to run program files with a FairScheduler on the metered VM and print the output of each in the order given
+     * input statements of a program read the file next to it with extension .in
+     * @param files - paths of program files
+     * @param jobs - number of worker threads
+     * @param quota - most fuel each program may spend, or FairScheduler.UNLIMITED
+     * @param timeoutNanos - time each program must end within, or FairScheduler.UNLIMITED
+     */
+    private static void runScheduled(List<Path> files, int jobs, long quota, long timeoutNanos){
+        List<ProgramResult> results;
+        try (FairScheduler scheduler = new FairScheduler(jobs)){
+            results = scheduler.runFiles(files, quota, timeoutNanos);
+        }
+        catch (InvalidArgumentException e){
+            System.err.println(e.getMessage());
+            return;
+        }
+        printResults(results);
+    }
+
+    /**
+     * method to print the output and error of each batch result, and the fuel spent by metered runs
+     * @param results - results in the order to print
+     */
+    private static void printResults(List<ProgramResult> results){
+        for (ProgramResult result : results){
+            System.out.println("== " + result.getName() + " ==");
+            System.out.print(result.getOutput());
+            if (!result.isSuccess()){
+                RuntimeException error = result.getError();
+                boolean reported = error instanceof InvalidTokenException || error instanceof InvalidArgumentException
+                        || error instanceof InvalidParseException || error instanceof ProgramStoppedException;
+                System.out.println(reported ? error.getMessage() : "Unexpected error... terminating");
+            }
+            if (result.getFuelUsed() >= 0){
+                System.out.println("(fuel " + result.getFuelUsed() + ")");
+            }
+        }
+        System.out.flush();
+    }
+
+    /**
+     * method to select an execution engine by name
+     * @param name - engine name from the command line
+     * @throws InvalidArgumentException if the name is unknown
+     * @return execution engine
+     */
+    private static Engine engine(String name){
+        switch (name){
+            case "interpreter":
+                return new InterpreterEngine();
+            case "bytecode":
+                return new BytecodeEngine();
+            case "vm":
+                return new VmEngine();
+            case "closure":
+                return new ClosureEngine();
+            case "tiered":
+                return new TieredEngine();
+            default:
+                throw new InvalidArgumentException("Unknown engine: " + name);
+        }
+    }
+
+    /**
+     * method to select an output sink on standard output by format name
+     * @param name - output format from the command line
+     * @throws InvalidArgumentException if the name is unknown
+     * @return output sink
+     */
+    private static OutputSink output(String name){
+        switch (name){
+            case "text":
+                return new TextOutputSink(System.out);
+            case "csv":
+                return new CsvOutputSink(System.out);
+            case "binary":
+                return new BinaryOutputSink(System.out);
+            default:
+                throw new InvalidArgumentException("Unknown output format: " + name);
+        }
+    }
+
+    /**
+     * method to select an input source by name
+     * @param name - input source from the command line, scanner, stdin, or file: followed by a path
+     * @throws InvalidArgumentException if the name is unknown or the file cannot be read
+     * @return input source
+     */
+    private static InputSource input(String name){
+        if (name.startsWith("file:")){
+            String path = name.substring("file:".length());
+            try {
+                return new MappedInputSource(Path.of(path));
+            }
+            catch (IOException e){
+                throw new InvalidArgumentException("Cannot read input file: " + path);
+            }
+        }
+        switch (name){
+            case "scanner":
+                return new ScannerInputSource(System.in);
+            case "stdin":
+                return new StreamInputSource(System.in);
+            default:
+                throw new InvalidArgumentException("Unknown input source: " + name);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * entry point of the benchmarks jar, takes the usual JMH options
+ * results are written as JSON to jmh-result.json unless -rf or -rff say otherwise, so runs can be diffed
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain(){
+    }
+
+    public static void main(String[] args) throws Exception{
+        CommandLineOptions options = new CommandLineOptions(args);
+        if(options.shouldHelp() || options.shouldList() || options.shouldListWithParams() || options.shouldListProfilers() || options.shouldListResultFormats()){
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if(!options.getResultFormat().hasValue()){
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if(!options.getResult().hasValue()){
+            builder.result("jmh-result.json");
+        }
+        new Runner(builder.build()).run();
+    }
+}
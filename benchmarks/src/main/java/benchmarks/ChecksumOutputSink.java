@@ -0,0 +1,28 @@
+package benchmarks;
+
+import domain.io.OutputSink;
+
+/**
+ * class for an output sink that only sums displayed values, so engine benchmarks measure execution rather than I/O
+ */
+final class ChecksumOutputSink implements OutputSink {
+    long checksum;
+
+    /**
+     * method to add a displayed value to the checksum
+     * @param slot - memory slot of identifier
+     * @param id - name of identifier
+     * @param value - value of identifier
+     */
+    @Override
+    public void display(int slot, String id, int value){
+        checksum += value;
+    }
+
+    /**
+     * method to flush, nothing is buffered
+     */
+    @Override
+    public void flush(){
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import domain.ParseTree;
+import domain.io.ArrayInputSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks for running the canonical programs on each execution engine, compiled once per trial
+ * loops are not summarized, so the engines run every iteration, summedFor measures the summarized nested loop
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({"nestedFor", "summedFor", "collatz", "elifChain"})
+    public String program;
+
+    @Param({"interpreter", "closure", "tiered", "bytecode", "vm"})
+    public String engine;
+
+    private ChecksumOutputSink output;
+    private ParseTree parseTree;
+
+    @Setup
+    public void setup(){
+        output = new ChecksumOutputSink();
+        parseTree = new ParseTree(Programs.compile(Programs.canonical(program), Programs.summarized(program)),
+                Programs.engine(engine), output, new ArrayInputSource(new int[0]));
+    }
+
+    /**
+     * one run of the program, every program assigns its variables before reading them so runs are identical
+     */
+    @Benchmark
+    public long run(){
+        parseTree.evaluate();
+        return output.checksum;
+    }
+}
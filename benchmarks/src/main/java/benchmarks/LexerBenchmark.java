@@ -0,0 +1,91 @@
+package benchmarks;
+
+import domain.LexicalAnalyzer;
+import domain.Token;
+import domain.TokenBuffer;
+import domain.TokenType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks for lexing synthetic sources of growing size, the tokens counter is reported as tokens per second
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    private String source;
+
+    /**
+     * class for the tokens per second counter
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tokens {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset(){
+            tokens = 0;
+        }
+    }
+
+    @Setup
+    public void setup(){
+        source = Programs.synthetic(lines);
+    }
+
+    /**
+     * lexing through get_token(), one Token object per token
+     */
+    @Benchmark
+    public void getToken(Tokens counter){
+        LexicalAnalyzer lex = new LexicalAnalyzer(source);
+        Token token;
+        do {
+            token = lex.get_token();
+            counter.tokens++;
+        } while(token.get_type() != TokenType.EOS);
+    }
+
+    /**
+     * lexing through the allocation free TokenStream view the parser uses
+     */
+    @Benchmark
+    public void stream(Tokens counter){
+        LexicalAnalyzer lex = new LexicalAnalyzer(source);
+        do {
+            lex.advance();
+            counter.tokens++;
+        } while(lex.type() != TokenType.EOS);
+    }
+
+    /**
+     * lexing into a TokenBuffer
+     */
+    @Benchmark
+    public TokenBuffer tokenize(Tokens counter){
+        TokenBuffer tokens = new LexicalAnalyzer(source).tokenize();
+        counter.tokens += tokens.size();
+        return tokens;
+    }
+}
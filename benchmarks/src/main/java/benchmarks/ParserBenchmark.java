@@ -0,0 +1,71 @@
+package benchmarks;
+
+import domain.LexicalAnalyzer;
+import domain.Parser;
+import domain.node.ProgramNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks for parse time against block nesting depth and expression length, lexing included
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    /**
+     * class for sources with nested if blocks
+     */
+    @State(Scope.Benchmark)
+    public static class Nesting {
+        @Param({"1", "16", "256", "2048"})
+        public int depth;
+
+        String source;
+
+        @Setup
+        public void setup(){
+            source = Programs.nested(depth);
+        }
+    }
+
+    /**
+     * class for sources with one long expression
+     */
+    @State(Scope.Benchmark)
+    public static class Expression {
+        @Param({"10", "1000", "100000"})
+        public int terms;
+
+        String source;
+
+        @Setup
+        public void setup(){
+            source = Programs.expression(terms);
+        }
+    }
+
+    @Benchmark
+    public ProgramNode nesting(Nesting state){
+        return new Parser(new LexicalAnalyzer(state.source)).parse();
+    }
+
+    @Benchmark
+    public ProgramNode expression(Expression state){
+        return new Parser(new LexicalAnalyzer(state.source)).parse();
+    }
+}
@@ -0,0 +1,187 @@
+package benchmarks;
+
+import domain.ArithLang;
+import domain.ConstantFolder;
+import domain.LexicalAnalyzer;
+import domain.Parser;
+import domain.Resolver;
+import domain.Specializer;
+import domain.engine.BytecodeEngine;
+import domain.engine.ClosureEngine;
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.engine.VmEngine;
+import domain.node.ProgramNode;
+
+/**
+ * class for the programs and sources measured by the benchmarks
+ */
+final class Programs {
+    //sum of i * j over a 300 x 300 grid, measured with loop summarization off unless run as summedFor
+    static final String NESTED_FOR =
+            "let s := 0\n" +
+            "for i in 1..300:\n" +
+            "    for j in 1..300:\n" +
+            "        let s := s + i * j\n" +
+            "display s\n";
+
+    //total Collatz steps for 1 to 3000
+    static final String COLLATZ =
+            "let steps := 0\n" +
+            "for n in 1..3000:\n" +
+            "    let x := n\n" +
+            "    while x > 1:\n" +
+            "        let h := x / 2\n" +
+            "        if h * 2 = x:\n" +
+            "            let x := h\n" +
+            "        else:\n" +
+            "            let x := 3 * x + 1\n" +
+            "        let steps := steps + 1\n" +
+            "display steps\n";
+
+    //histogram of i mod 8 through an eight way elif chain
+    static final String ELIF_CHAIN;
+
+    static {
+        StringBuilder sb = new StringBuilder();
+        for(int bucket = 0; bucket < 8; bucket++){
+            sb.append("let c").append(bucket).append(" := 0\n");
+        }
+        sb.append("for i in 1..20000:\n");
+        sb.append("    let r := i - i / 8 * 8\n");
+        for(int bucket = 0; bucket < 7; bucket++){
+            sb.append(bucket == 0 ? "    if" : "    elif").append(" r = ").append(bucket).append(":\n");
+            sb.append("        let c").append(bucket).append(" := c").append(bucket).append(" + 1\n");
+        }
+        sb.append("    else:\n");
+        sb.append("        let c7 := c7 + 1\n");
+        for(int bucket = 0; bucket < 8; bucket++){
+            sb.append("display c").append(bucket).append('\n');
+        }
+        ELIF_CHAIN = sb.toString();
+    }
+
+    private Programs(){
+    }
+
+    /**
+     * method to get a canonical program by name
+     * @param name - nestedFor, summedFor, collatz, or elifChain
+     * @return program source
+     */
+    static String canonical(String name){
+        switch(name){
+            case "nestedFor":
+            case "summedFor":
+                return NESTED_FOR;
+            case "collatz":
+                return COLLATZ;
+            case "elifChain":
+                return ELIF_CHAIN;
+            default:
+                throw new IllegalArgumentException("Unknown program: " + name);
+        }
+    }
+
+    /**
+     * method to generate a source using every statement and operator, repeated in blocks of ten lines
+     * @param lines - approximate number of lines
+     * @return program source
+     */
+    static String synthetic(int lines){
+        StringBuilder sb = new StringBuilder(lines * 24);
+        for(int block = 0; block * 10 < lines; block++){
+            sb.append("let value").append(block % 97).append(" := (x + 12) * y - 7 / z\n");
+            sb.append("if value").append(block % 97).append(" >= 100:\n");
+            sb.append("    display value").append(block % 97).append('\n');
+            sb.append("elif x /= y:\n");
+            sb.append("    let x := -x + 1\n");
+            sb.append("else:\n");
+            sb.append("    let y := y * 2\n");
+            sb.append("for i in 1..10:\n");
+            sb.append("    while x < i:\n");
+            sb.append("        let x := x + 1\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * method to generate if statements nested to a depth
+     * @param depth - number of nested blocks
+     * @return program source
+     */
+    static String nested(int depth){
+        StringBuilder sb = new StringBuilder();
+        sb.append("let x := 1\n");
+        for(int level = 0; level < depth; level++){
+            sb.append("    ".repeat(level)).append("if x = 1:\n");
+        }
+        sb.append("    ".repeat(depth)).append("display x\n");
+        return sb.toString();
+    }
+
+    /**
+     * method to generate an assignment whose expression has a number of terms
+     * @param terms - number of terms
+     * @return program source
+     */
+    static String expression(int terms){
+        StringBuilder sb = new StringBuilder(terms * 8);
+        sb.append("let x := 1\n");
+        sb.append("let y := x");
+        for(int term = 1; term < terms; term++){
+            sb.append(term % 3 == 0 ? " - " : " + ").append(term % 2 == 0 ? "x * 3" : "(x - 2)");
+        }
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * method to check if a canonical program is measured with its loops summarized,
+     * the others keep every loop so the engines' loop dispatch is what is measured
+     * @param name - name of canonical program
+     * @return true for summedFor
+     */
+    static boolean summarized(String name){
+        return name.equals("summedFor");
+    }
+
+    /**
+     * method to run the front end passes, optionally without loop summarization,
+     * which would replace a counting loop by one closed form evaluation
+     * @param source - program source
+     * @param summarize - true to run every pass Main runs, false to keep loops as written
+     * @return resolved and specialized program node
+     */
+    static ProgramNode compile(String source, boolean summarize){
+        if(summarize){
+            return ArithLang.parse(new LexicalAnalyzer(source));
+        }
+        ProgramNode programNode = new ConstantFolder().fold(new Parser(new LexicalAnalyzer(source)).parse());
+        new Resolver().resolve(programNode);
+        return new Specializer().specialize(programNode);
+    }
+
+    /**
+     * method to select an execution engine by name
+     * @param name - interpreter, closure, tiered, bytecode, or vm
+     * @return execution engine
+     */
+    static Engine engine(String name){
+        switch(name){
+            case "interpreter":
+                return new InterpreterEngine();
+            case "bytecode":
+                return new BytecodeEngine();
+            case "vm":
+                return new VmEngine();
+            case "closure":
+                return new ClosureEngine();
+            case "tiered":
+                return new TieredEngine();
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package domain;
+
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+import globalexceptions.InvalidTokenException;
+
+/**
+ * class for embedding the language, compiles source once into a CompiledProgram that can be run any number of times,
+ * from any number of threads, the recursive passes over a deep tree run on a DeepStack thread whichever thread calls them
+ */
+public final class ArithLang {
+    private ArithLang(){
+    }
+
+    /**
+     * method to compile source for the tree walking engine
+     * @param source - program source
+     * @throws InvalidArgumentException if source is null
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return compiled program
+     */
+    public static CompiledProgram compile(String source) throws InvalidArgumentException, InvalidTokenException, InvalidParseException{
+        return compile(source, new InterpreterEngine());
+    }
+
+    /**
+     * method to compile source for an engine
+     * @param source - program source
+     * @param engine - execution engine
+     * @throws InvalidArgumentException if any parameter is null
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return compiled program
+     */
+    public static CompiledProgram compile(String source, Engine engine) throws InvalidArgumentException, InvalidTokenException, InvalidParseException{
+        if(source == null){
+            throw new InvalidArgumentException("Null source in ArithLang compile().");
+        }
+        return new CompiledProgram(parse(new LexicalAnalyzer(source)), engine);
+    }
+
+    /**
+     * method to run the front end, parses the tokens of a lexer and runs the passes every engine expects:
+     * constant folding, slot resolution, loop summarization and specialization
+     * @param lexer - lexical analyzer positioned at the start of a program
+     * @throws InvalidArgumentException if lexer is null
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return resolved and optimized program node
+     */
+    public static ProgramNode parse(LexicalAnalyzer lexer) throws InvalidArgumentException, InvalidTokenException, InvalidParseException{
+        if(lexer == null){
+            throw new InvalidArgumentException("Null lexer in ArithLang parse().");
+        }
+        return prepare(new Parser(lexer).parse());
+    }
+
+    /**
+     * method to run the front end passes on a tree built by a parser, e.g. ParallelParser:
+     * constant folding, slot resolution, loop summarization and specialization
+     * @param parsed - program node straight from parsing
+     * @throws InvalidArgumentException if parsed is null
+     * @return resolved and optimized program node
+     */
+    public static ProgramNode prepare(ProgramNode parsed) throws InvalidArgumentException{
+        if(parsed == null){
+            throw new InvalidArgumentException("Null program node in ArithLang prepare().");
+        }
+        return DeepStack.call(parsed.getDepthBound(), () -> {
+            ProgramNode programNode = new ConstantFolder().fold(parsed);
+            new Resolver().resolve(programNode);
+            return optimize(programNode);
+        });
+    }
+
+    /**
+     * method to run the passes that work on a resolved tree: loop summarization and specialization
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return optimized program node
+     */
+    public static ProgramNode optimize(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in ArithLang optimize().");
+        }
+        return DeepStack.call(programNode.getDepthBound(), () -> new Specializer().specialize(new LoopSummarizer().summarize(programNode)));
+    }
+}
@@ -0,0 +1,91 @@
+package domain;
+
+import domain.engine.Engine;
+import domain.engine.Executable;
+import domain.io.InputSource;
+import domain.io.OutputSink;
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * class for a compiled program, created by ArithLang.compile
+ * the program is never changed after compilation and every run gets its own Memory,
+ * so run may be called from many threads at once, a program with a deep tree is compiled and run on a DeepStack thread
+ */
+public final class CompiledProgram {
+    private final ProgramNode programNode;
+    private final SymbolTable symbols;
+    private final Executable executable;
+    private final int depthBound;
+
+    /**
+     * constructor for CompiledProgram
+     * @param programNode - resolved program node
+     * @param engine - execution engine to compile with
+     * @throws InvalidArgumentException if any parameter is null or programNode is unresolved
+     */
+    public CompiledProgram(ProgramNode programNode, Engine engine) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in CompiledProgram constructor.");
+        }
+        if(engine == null){
+            throw new InvalidArgumentException("Null engine in CompiledProgram constructor.");
+        }
+        this.programNode = programNode;
+        this.symbols = programNode.getSymbolTable();
+        this.depthBound = programNode.getDepthBound();
+        this.executable = DeepStack.call(depthBound, () -> engine.compile(programNode));
+    }
+
+    /**
+     * method to run the program once, output is flushed when the run ends, also when it ends with an error
+     * @param bindings - starting values of identifiers, identifiers not bound start at 0
+     * @param input - source for input statements of this run
+     * @param output - sink for display statements of this run
+     * @throws InvalidArgumentException if any parameter is null or a binding names an identifier the program does not use
+     * @return final value of every identifier of the program, in slot order
+     */
+    public Map<String, Integer> run(Map<String, Integer> bindings, InputSource input, OutputSink output) throws InvalidArgumentException{
+        if(bindings == null || input == null || output == null){
+            throw new InvalidArgumentException("Null parameter in CompiledProgram run().");
+        }
+        Memory memory = new Memory(symbols, output, input);
+        for(Map.Entry<String, Integer> binding : bindings.entrySet()){
+            memory.set(binding.getKey(), binding.getValue());
+        }
+        try {
+            DeepStack.call(depthBound, () -> {
+                executable.run(memory);
+                return null;
+            });
+        }
+        finally {
+            output.flush();
+        }
+        Map<String, Integer> values = new LinkedHashMap<>();
+        for(int slot = 0; slot < symbols.size(); slot++){
+            values.put(symbols.name(slot), memory.get(slot));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * method to get the program node the program was compiled from
+     * @return resolved program node
+     */
+    public ProgramNode getProgramNode(){
+        return programNode;
+    }
+
+    /**
+     * method to get symbol table of program
+     * @return symbol table
+     */
+    public SymbolTable getSymbolTable(){
+        return symbols;
+    }
+}
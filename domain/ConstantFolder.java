@@ -0,0 +1,202 @@
+package domain;
+
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * class for the constant folding pass, run between Parser.parse() and the Resolver
+ * folds literal subtrees into NumNode, drops paren wrappers, and prunes branches whose conditions are constant
+ */
+public class ConstantFolder {
+
+    /**
+     * method to fold a program, returns a new unresolved program node
+     * @param programNode - root of parse tree
+     * @throws InvalidArgumentException if programNode is null
+     * @return folded program node
+     */
+    public ProgramNode fold(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null){
+            throw new InvalidArgumentException("Null program node in ConstantFolder fold().");
+        }
+        ArrayList<StatementNode> statements = new ArrayList<>();
+        foldStatements(programNode.getStatements(), statements);
+        ProgramNode folded = new ProgramNode(statements);
+        folded.setDepthBound(programNode.getDepthBound());
+        return folded;
+    }
+
+    /**
+     * method to fold a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     * @return folded list of statements, or null if statements is null
+     */
+    private List<StatementNode> foldBlock(List<StatementNode> statements){
+        if(statements == null){
+            return null;
+        }
+        List<StatementNode> folded = new ArrayList<>();
+        foldStatements(statements, folded);
+        return folded;
+    }
+
+    /**
+     * method to fold a list of statements into an output list, pruned branches are spliced in place
+     * @param statements - list of statements, may be null for a missing else block
+     * @param out - list receiving folded statements
+     */
+    private void foldStatements(List<StatementNode> statements, List<StatementNode> out){
+        if(statements == null){
+            return;
+        }
+        for(StatementNode statement : statements){
+            foldStatement(statement, out);
+        }
+    }
+
+    /**
+     * method to fold a single statement into an output list
+     * @param statement - statement node
+     * @param out - list receiving folded statements
+     * @throws InvalidParseException if statement type is unknown
+     */
+    private void foldStatement(StatementNode statement, List<StatementNode> out){
+        if(statement instanceof LetStatementNode let){
+            out.add(new LetStatementNode(let.getId(), let.getSymbol(), foldExpression(let.getExpression())));
+        }
+        else if(statement instanceof DisplayStatementNode display){
+            out.add(new DisplayStatementNode(display.getId(), display.getSymbol()));
+        }
+        else if(statement instanceof InputStatementNode input){
+            out.add(new InputStatementNode(input.getId(), input.getSymbol()));
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            BooleanExpressionNode condition = foldCondition(ifNode.getCondition());
+            Boolean constant = constantValue(condition);
+            if(constant == null){
+                out.add(new IfStatementNode(condition, foldBlock(ifNode.getIfBlock()), foldBlock(ifNode.getElseBlock())));
+            }
+            else if(constant){
+                foldStatements(ifNode.getIfBlock(), out);
+            }
+            else{
+                foldStatements(ifNode.getElseBlock(), out);
+            }
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            BooleanExpressionNode condition = foldCondition(whileNode.getCondition());
+            if(!Boolean.FALSE.equals(constantValue(condition))){
+                out.add(new WhileStatementNode(condition, foldBlock(whileNode.getStatements())));
+            }
+        }
+        else if(statement instanceof ForStatementNode forNode){
+            ArithmeticExpressionNode start = foldExpression(forNode.getStartExpression());
+            ArithmeticExpressionNode end = foldExpression(forNode.getEndExpression());
+            //a constant empty range never runs its body or sets its variable
+            if(start instanceof NumNode startNum && end instanceof NumNode endNum && startNum.getValue() > endNum.getValue()){
+                return;
+            }
+            out.add(new ForStatementNode(forNode.getId(), forNode.getSymbol(), start, end, foldBlock(forNode.getStatements())));
+        }
+        else{
+            throw new InvalidParseException("Unknown statement in ConstantFolder: " + statement);
+        }
+    }
+
+    /**
+     * method to fold both sides of a boolean expression
+     * @param condition - boolean expression node
+     * @throws InvalidParseException if condition type is unknown
+     * @return folded boolean expression node
+     */
+    private BooleanExpressionNode foldCondition(BooleanExpressionNode condition){
+        if(!(condition instanceof RelationalExpressionNode relational)){
+            throw new InvalidParseException("Unknown condition in ConstantFolder: " + condition);
+        }
+        return RelationalExpressionNode.create(foldExpression(relational.getLeft()), relational.getOperator(), foldExpression(relational.getRight()));
+    }
+
+    /**
+     * method to get the value of a condition with literal operands
+     * @param condition - folded boolean expression node
+     * @return value of condition, or null if it is not constant
+     */
+    private Boolean constantValue(BooleanExpressionNode condition){
+        RelationalExpressionNode relational = (RelationalExpressionNode) condition;
+        if(relational.getLeft() instanceof NumNode && relational.getRight() instanceof NumNode){
+            return relational.evaluate(null);
+        }
+        return null;
+    }
+
+    /**
+     * method to fold an arithmetic expression, literal subtrees become a single NumNode
+     * division by a literal zero is left in place so it still fails at run time
+     * @param expr - arithmetic expression node
+     * @throws InvalidParseException if expression type is unknown
+     * @return folded expression node
+     */
+    private ArithmeticExpressionNode foldExpression(ArithmeticExpressionNode expr){
+        if(expr instanceof NumNode || expr instanceof IdentifierNode){
+            return expr;
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            return foldExpression(paren.getExpression());
+        }
+        else if(expr instanceof NegFactorNode neg){
+            ArithmeticExpressionNode inner = foldExpression(neg.getExpression());
+            if(inner instanceof NumNode num){
+                return new NumNode(-num.getValue());
+            }
+            return new NegFactorNode(inner);
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            ArithmeticExpressionNode left = foldExpression(binary.getLeft());
+            ArithmeticExpressionNode right = foldExpression(binary.getRight());
+            BinaryExpressionNodeArithmetic folded = BinaryExpressionNodeArithmetic.create(left, binary.getOperator(), asTerm(right));
+            if(left instanceof NumNode && right instanceof NumNode){
+                return new NumNode(folded.evaluate(null));
+            }
+            return folded;
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary){
+            ArithmeticExpressionNode left = foldExpression(binary.getLeft());
+            ArithmeticExpressionNode right = foldExpression(binary.getRight());
+            BinaryTermNodeArithmetic folded = BinaryTermNodeArithmetic.create(asTerm(left), binary.getOperator(), asFactor(right));
+            boolean divideByZero = binary.getOperator() == TokenType.DIVISION && right instanceof NumNode num && num.getValue() == 0;
+            if(left instanceof NumNode && right instanceof NumNode && !divideByZero){
+                return new NumNode(folded.evaluate(null));
+            }
+            return folded;
+        }
+        throw new InvalidParseException("Unknown expression in ConstantFolder: " + expr);
+    }
+
+    /**
+     * method to use an expression where the grammar requires a term, keeping parens only where they are needed
+     * @param expr - folded expression node
+     * @return expr, or expr wrapped in a ParenFactorNode
+     */
+    private TermNodeArithmetic asTerm(ArithmeticExpressionNode expr){
+        if(expr instanceof TermNodeArithmetic term){
+            return term;
+        }
+        return new ParenFactorNode(expr);
+    }
+
+    /**
+     * method to use an expression where the grammar requires a factor, keeping parens only where they are needed
+     * @param expr - folded expression node
+     * @return expr, or expr wrapped in a ParenFactorNode
+     */
+    private FactorNodeArithmetic asFactor(ArithmeticExpressionNode expr){
+        if(expr instanceof FactorNodeArithmetic factor){
+            return factor;
+        }
+        return new ParenFactorNode(expr);
+    }
+}
@@ -0,0 +1,140 @@
+package domain;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * class for the threads programs are compiled and run on, every one has a stack of STACK_SIZE
+ * the lexer and parser are iterative, but the passes after parsing, the engine compilers and the tree walker recurse
+ * once per level of the tree, and a long expression is one level per operator, so it overflows a default stack
+ * every thread the library starts to walk a tree comes from here, and library calls on a deep tree made on any other thread
+ * move to a pooled deep stack thread for the length of the call, this includes virtual threads, whose stack cannot be made deeper
+ * fork join workers are not deep, so a ParallelForNode chunk of a deep body moves the same way,
+ * the lexer thread of TokenPipeline and the ParallelParser pieces only lex and parse, which never recurse, and keep default stacks
+ * a tree below SHALLOW_DEPTH is handled on the calling thread, the hand off costs a few microseconds
+ */
+public final class DeepStack {
+    //address space only, pages are committed as deep as a program recurses, enough for expressions of about 300k terms
+    public static final long STACK_SIZE = 1L << 29;
+    //a tree of fewer levels than this fits a 512k stack several times over in every pass and engine
+    public static final int SHALLOW_DEPTH = 1024;
+
+    private DeepStack(){
+    }
+
+    /**
+     * method to create a deep stack thread, not started
+     * @param task - task the thread runs
+     * @param name - name of thread
+     * @return thread
+     */
+    public static Thread newThread(Runnable task, String name){
+        return new DeepThread(task, name);
+    }
+
+    /**
+     * method to get a factory of daemon deep stack threads, for executors
+     * @param prefix - thread names are prefix-1, prefix-2, ...
+     * @return thread factory
+     */
+    public static ThreadFactory threadFactory(String prefix){
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new DeepThread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * method to check if the calling thread has a deep stack
+     * @return true on a thread from newThread or threadFactory
+     */
+    public static boolean isDeep(){
+        return Thread.currentThread() instanceof DeepThread;
+    }
+
+    /**
+     * method to run a task over a tree, on the calling thread if the tree is shallow or the thread has a deep stack,
+     * and on a pooled deep stack thread otherwise
+     * @param depth - bound on the depth of the tree, e.g. ProgramNode.getDepthBound()
+     * @param task - task to run
+     * @param <T> - result type
+     * @param <E> - checked exception the task throws
+     * @throws E the exception the task threw, unchecked exceptions and errors are rethrown as they are
+     * @throws IllegalStateException if the calling thread is interrupted while it waits, the task is interrupted too
+     * @return result of the task
+     */
+    public static <T, E extends Exception> T call(int depth, Task<T, E> task) throws E{
+        if(depth < SHALLOW_DEPTH){
+            return task.call();
+        }
+        return call(task);
+    }
+
+    /**
+     * method to run a task on a deep stack, on the calling thread if it has one and on a pooled thread otherwise
+     * @param task - task to run
+     * @param <T> - result type
+     * @param <E> - checked exception the task throws
+     * @throws E the exception the task threw, unchecked exceptions and errors are rethrown as they are
+     * @throws IllegalStateException if the calling thread is interrupted while it waits, the task is interrupted too
+     * @return result of the task
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, E extends Exception> T call(Task<T, E> task) throws E{
+        if(isDeep()){
+            return task.call();
+        }
+        Future<T> result = Pool.EXECUTOR.submit(task::call);
+        try {
+            return result.get();
+        }
+        catch (InterruptedException e){
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a deep stack thread.", e);
+        }
+        catch (ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException runtime){
+                throw runtime;
+            }
+            if(cause instanceof Error error){
+                throw error;
+            }
+            //the task can only throw E
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * interface for a task run on a deep stack
+     * @param <T> - result type
+     * @param <E> - checked exception the task throws, RuntimeException if none
+     */
+    @FunctionalInterface
+    public interface Task<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * class for a thread with a deep stack, the type marks threads that need no hand off
+     */
+    private static final class DeepThread extends Thread {
+        private DeepThread(Runnable task, String name){
+            super(null, task, name, STACK_SIZE);
+        }
+    }
+
+    /**
+     * class holding the pool calls from other threads run on, created on first use, idle threads exit after a minute
+     */
+    private static class Pool {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(threadFactory("deep-stack"));
+    }
+}
@@ -0,0 +1,113 @@
+package domain;
+
+import domain.io.OutputSink;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.ProgramStoppedException;
+
+/**
+ * class for a private copy of memory used by a parallel task, starts with the values of its parent
+ * and remembers which slots were written so only those are merged back
+ * a task whose result will be thrown away is abandoned, its next read or write of memory stops it
+ */
+public class ForkedMemory extends Memory {
+    private final boolean[] written;
+    private volatile boolean abandoned;
+
+    /**
+     * constructor for forked memory, shares the symbol table and input source of the parent
+     * @param parent - memory to copy values from
+     * @param output - sink for display statements of the task
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public ForkedMemory(Memory parent, OutputSink output) throws InvalidArgumentException{
+        super(parent, output);
+        this.written = new boolean[getSymbolTable().size()];
+    }
+
+    /**
+     * method to retrieve value of a slot
+     * @param slot - slot of identifier to get
+     * @throws ProgramStoppedException if the task was abandoned
+     * @return value of slot
+     */
+    @Override
+    public int get(int slot){
+        if(abandoned){
+            throw new ProgramStoppedException("Parallel task abandoned.");
+        }
+        return super.get(slot);
+    }
+
+    /**
+     * method to store value in memory for given slot and mark the slot written
+     * @param slot - slot of identifier to set
+     * @param value - value to set to slot
+     * @throws ProgramStoppedException if the task was abandoned
+     */
+    @Override
+    public void set(int slot, int value){
+        if(abandoned){
+            throw new ProgramStoppedException("Parallel task abandoned.");
+        }
+        super.set(slot, value);
+        written[slot] = true;
+    }
+
+    /**
+     * method to store value in memory for given identifier name and mark its slot written
+     * @param id - name of identifier to set
+     * @param value - value to set to identifier
+     * @throws InvalidArgumentException if id does not appear in the program
+     */
+    @Override
+    public void set(String id, int value){
+        super.set(id, value);
+        written[getSymbolTable().slotOf(id)] = true;
+    }
+
+    /**
+     * method to set the starting value of a slot for the task without marking it written
+     * @param slot - slot of identifier to set
+     * @param value - starting value
+     */
+    public void initialize(int slot, int value){
+        super.set(slot, value);
+    }
+
+    /**
+     * method to abandon the task using this memory, may be called from any thread,
+     * the task stops with a ProgramStoppedException at its next read or write of a slot
+     */
+    public void abandon(){
+        abandoned = true;
+    }
+
+    /**
+     * method to check if the task using this memory was abandoned
+     * @return true once abandon() was called
+     */
+    public boolean isAbandoned(){
+        return abandoned;
+    }
+
+    /**
+     * method to check if a slot was written since the fork
+     * @param slot - slot of identifier
+     * @return true if written
+     */
+    public boolean isWritten(int slot){
+        return written[slot];
+    }
+
+    /**
+     * method to copy every written slot into another memory
+     * @param target - memory to merge into
+     */
+    public void mergeInto(Memory target){
+        for(int slot = 0; slot < written.length; slot++){
+            if(written[slot]){
+                target.set(slot, get(slot));
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * class for a pool of lexemes interned straight from source chars, so looking up a repeated word does not allocate
+ * the pool is never trimmed, a lexer only interns identifiers and keywords into it, and literals only when tokenizing a whole source
+ * identifiers are interned case folded, so the id of an identifier doubles as its symbol id within one lexer
+ */
+class LexemePool {
+    private char[] chars = new char[1024];
+    private int charCount;
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int[] hashes = new int[64];
+    private String[] strings = new String[64];
+    private int size;
+    private int[] table = new int[128];
+
+    /**
+     * constructor for lexeme pool, table slots start empty
+     */
+    LexemePool(){
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * method to add a keyword to the pool, so its lexeme is shared with identifiers of the same spelling
+     * @param text - lowercase keyword text
+     * @return lexeme id
+     */
+    int keyword(char[] text){
+        return intern(text, 0, text.length, false);
+    }
+
+    /**
+     * method to intern a range of chars
+     * @param src - source chars
+     * @param offset - start of range
+     * @param length - length of range
+     * @param foldCase - true to lowercase the chars first
+     * @return lexeme id
+     */
+    int intern(char[] src, int offset, int length, boolean foldCase){
+        int hash = 0;
+        for(int i = 0; i < length; i++){
+            hash = 31 * hash + fold(src[offset + i], foldCase);
+        }
+        int mask = table.length - 1;
+        for(int slot = hash & mask; ; slot = (slot + 1) & mask){
+            int id = table[slot];
+            if(id < 0){
+                id = add(src, offset, length, foldCase, hash);
+                table[slot] = id;
+                if(size * 2 > table.length){
+                    rehash();
+                }
+                return id;
+            }
+            if(hashes[id] == hash && matches(id, src, offset, length, foldCase)){
+                return id;
+            }
+        }
+    }
+
+    /**
+     * method to materialize a lexeme, the string is created once per lexeme
+     * @param id - lexeme id
+     * @return lexeme text
+     */
+    String get(int id){
+        String text = strings[id];
+        if(text == null){
+            text = new String(chars, offsets[id], lengths[id]);
+            strings[id] = text;
+        }
+        return text;
+    }
+
+    /**
+     * method to compare a stored lexeme with a range of chars
+     * @param id - lexeme id
+     * @param src - source chars
+     * @param offset - start of range
+     * @param length - length of range
+     * @param foldCase - true to lowercase the source chars first
+     * @return true if equal
+     */
+    private boolean matches(int id, char[] src, int offset, int length, boolean foldCase){
+        if(lengths[id] != length){
+            return false;
+        }
+        int start = offsets[id];
+        for(int i = 0; i < length; i++){
+            if(chars[start + i] != fold(src[offset + i], foldCase)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * method to store a new lexeme
+     * @return lexeme id
+     */
+    private int add(char[] src, int offset, int length, boolean foldCase, int hash){
+        if(size == offsets.length){
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            strings = Arrays.copyOf(strings, capacity);
+        }
+        if(charCount + length > chars.length){
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+        }
+        for(int i = 0; i < length; i++){
+            chars[charCount + i] = fold(src[offset + i], foldCase);
+        }
+        offsets[size] = charCount;
+        lengths[size] = length;
+        hashes[size] = hash;
+        charCount += length;
+        return size++;
+    }
+
+    /**
+     * method to double the hash table
+     */
+    private void rehash(){
+        table = new int[table.length * 2];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        for(int id = 0; id < size; id++){
+            int slot = hashes[id] & mask;
+            while(table[slot] >= 0){
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+
+    /**
+     * method to lowercase a char when folding case
+     * @param c - char
+     * @param foldCase - true to lowercase
+     * @return folded char
+     */
+    private static char fold(char c, boolean foldCase){
+        return foldCase ? Character.toLowerCase(c) : c;
+    }
+}
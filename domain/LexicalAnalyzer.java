@@ -1,32 +1,231 @@
 package domain;
+import globalexceptions.InvalidArgumentException;
 import globalexceptions.InvalidTokenException;
-import java.util.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 /**
  * class for a lexical analyzer which contains information, get_token method, and additional helper methods
+ * source is read through a fixed size char buffer which is refilled as tokens are consumed,
+ * so memory use does not grow with the size of the source,
+ * identifiers and keywords are interned, integer literals are not, their text is read from the buffer while they are current
+ * implements TokenStream so the parser can read the current token without a Token object being created
  */
-public class LexicalAnalyzer {
-    private final String source;
+public class LexicalAnalyzer implements TokenStream {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String[] FIXED_LEXEMES = new String[TokenType.values().length];
+
+    //character classes, ASCII chars are classified by table, others only by Character.isDigit and isLetter
+    private static final int OTHER = 0;
+    private static final int SPACE = 1;
+    private static final int DIGIT = 2;
+    private static final int LETTER = 3;
+    private static final int LEFT_PAREN = 4;
+    private static final int RIGHT_PAREN = 5;
+    private static final int PLUS = 6;
+    private static final int MINUS = 7;
+    private static final int STAR = 8;
+    private static final int SLASH = 9;
+    private static final int COLON = 10;
+    private static final int DOT = 11;
+    private static final int LESS = 12;
+    private static final int GREATER = 13;
+    private static final int EQUALS = 14;
+    private static final int CLASSES = 15;
+
+    private static final int SPACE_MASK = 1 << SPACE;
+    private static final int DIGIT_MASK = 1 << DIGIT;
+    private static final int LETTER_MASK = 1 << LETTER;
+
+    private static final byte[] CLASS_TABLE = new byte[128];
+    //token of a char class on its own, and of a char class followed by another, null where there is none
+    private static final TokenType[] SINGLE = new TokenType[CLASSES];
+    private static final TokenType[][] PAIRS = new TokenType[CLASSES][CLASSES];
+    private static final boolean[] PAIRED = new boolean[CLASSES];
+
+    //keywords by a perfect hash of their length, first and last char, see keywordSlot()
+    private static final int KEYWORD_SLOTS = 16;
+    private static final int SHORTEST_KEYWORD = 2;
+    private static final int LONGEST_KEYWORD = 7;
+    private static final char[][] KEYWORD_TEXT = new char[KEYWORD_SLOTS][];
+    private static final TokenType[] KEYWORD_TYPES = new TokenType[KEYWORD_SLOTS];
+
+    static {
+        CLASS_TABLE[' '] = SPACE;
+        CLASS_TABLE['\t'] = SPACE;
+        for(char c = '0'; c <= '9'; c++){
+            CLASS_TABLE[c] = DIGIT;
+        }
+        for(char c = 'a'; c <= 'z'; c++){
+            CLASS_TABLE[c] = LETTER;
+            CLASS_TABLE[Character.toUpperCase(c)] = LETTER;
+        }
+        CLASS_TABLE['('] = LEFT_PAREN;
+        CLASS_TABLE[')'] = RIGHT_PAREN;
+        CLASS_TABLE['+'] = PLUS;
+        CLASS_TABLE['-'] = MINUS;
+        CLASS_TABLE['*'] = STAR;
+        CLASS_TABLE['/'] = SLASH;
+        CLASS_TABLE[':'] = COLON;
+        CLASS_TABLE['.'] = DOT;
+        CLASS_TABLE['<'] = LESS;
+        CLASS_TABLE['>'] = GREATER;
+        CLASS_TABLE['='] = EQUALS;
+
+        SINGLE[LEFT_PAREN] = TokenType.LEFT_PAREN;
+        SINGLE[RIGHT_PAREN] = TokenType.RIGHT_PAREN;
+        SINGLE[PLUS] = TokenType.ADDITION;
+        SINGLE[MINUS] = TokenType.SUBTRACTION;
+        SINGLE[STAR] = TokenType.MULTIPLICATION;
+        SINGLE[SLASH] = TokenType.DIVISION;
+        SINGLE[COLON] = TokenType.COLON;
+        SINGLE[LESS] = TokenType.LESS_THAN;
+        SINGLE[GREATER] = TokenType.GREATER_THAN;
+        SINGLE[EQUALS] = TokenType.EQUAL;
+
+        PAIRS[SLASH][EQUALS] = TokenType.NOT_EQUAL;
+        PAIRS[COLON][EQUALS] = TokenType.ASSIGNMENT;
+        PAIRS[LESS][EQUALS] = TokenType.LESS_EQUAL;
+        PAIRS[GREATER][EQUALS] = TokenType.GREATER_EQUAL;
+        PAIRS[DOT][DOT] = TokenType.RANGE;
+        for(int first = 0; first < CLASSES; first++){
+            for(TokenType pair : PAIRS[first]){
+                PAIRED[first] |= pair != null;
+            }
+        }
+
+        //the hash has no collisions for these words, a new keyword may need a new hash
+        keyword("let", TokenType.LET);
+        keyword("display", TokenType.DISPLAY);
+        keyword("input", TokenType.INPUT);
+        keyword("if", TokenType.IF);
+        keyword("else", TokenType.ELSE);
+        keyword("elif", TokenType.ELIF);
+        keyword("while", TokenType.WHILE);
+        keyword("for", TokenType.FOR);
+        keyword("in", TokenType.IN);
+        keyword("range", TokenType.RANGE);
+        keyword("colon", TokenType.COLON);
+    }
+
+    static {
+        FIXED_LEXEMES[TokenType.ADDITION.ordinal()] = "+";
+        FIXED_LEXEMES[TokenType.SUBTRACTION.ordinal()] = "-";
+        FIXED_LEXEMES[TokenType.MULTIPLICATION.ordinal()] = "*";
+        FIXED_LEXEMES[TokenType.DIVISION.ordinal()] = "/";
+        FIXED_LEXEMES[TokenType.LESS_THAN.ordinal()] = "<";
+        FIXED_LEXEMES[TokenType.GREATER_THAN.ordinal()] = ">";
+        FIXED_LEXEMES[TokenType.LESS_EQUAL.ordinal()] = "<=";
+        FIXED_LEXEMES[TokenType.GREATER_EQUAL.ordinal()] = ">=";
+        FIXED_LEXEMES[TokenType.EQUAL.ordinal()] = "=";
+        FIXED_LEXEMES[TokenType.NOT_EQUAL.ordinal()] = "/=";
+        FIXED_LEXEMES[TokenType.LEFT_PAREN.ordinal()] = "(";
+        FIXED_LEXEMES[TokenType.RIGHT_PAREN.ordinal()] = ")";
+        FIXED_LEXEMES[TokenType.ASSIGNMENT.ordinal()] = ":=";
+        FIXED_LEXEMES[TokenType.RANGE.ordinal()] = "..";
+        FIXED_LEXEMES[TokenType.COLON.ordinal()] = ":";
+        FIXED_LEXEMES[TokenType.INDENT.ordinal()] = "";
+        FIXED_LEXEMES[TokenType.DEDENT.ordinal()] = "";
+        FIXED_LEXEMES[TokenType.EOL.ordinal()] = "\n";
+        FIXED_LEXEMES[TokenType.EOS.ordinal()] = "";
+    }
+
+    private final Reader reader;
+    private final boolean normalizeLines;
+    private char[] buffer;
     private int index;
+    private int limit;
+    private int mark;
+    private int consumed;
+    private boolean eof;
+    private boolean skipLineFeed;
+    private char lastRead;
+
     private int line;
     private int col;
 
     private boolean atStart;
-    private final Deque<Integer> indentStack;
-    private final Queue<Token> pendingTokens;
+    private int[] indentStack;
+    private int indentDepth;
+    private int pendingDedents;
+
+    private final LexemePool lexemes;
+    //lexeme id of the keyword in each keyword slot
+    private final int[] keywordIds;
+
+    //current token
+    private TokenType type;
+    private int tokenRow;
+    private int tokenCol;
+    private int tokenStart;
+    private int tokenLength;
+    private int lexemeId;
 
     /**
      * constructor for lexical analyzer
      * @param source - source program file
      */
     public LexicalAnalyzer(String source){
-        this.source = source;
+        this(new StringReader(source), false);
+    }
+
+    /**
+     * constructor for lexical analyzer over a reader, line endings are read like BufferedReader.readLine()
+     * so \r\n and \r end a line and a missing final newline is added
+     * @param reader - reader of source program
+     */
+    public LexicalAnalyzer(Reader reader){
+        this(reader, true);
+    }
+
+    /**
+     * constructor for lexical analyzer over a memory-mapped source file, line endings are read like LexicalAnalyzer(Reader)
+     * @param channel - open channel of source program file, owned by the caller
+     * @throws IOException if the file cannot be mapped
+     */
+    public LexicalAnalyzer(FileChannel channel) throws IOException{
+        this(new MappedSourceReader(channel), true);
+    }
+
+    /**
+     * constructor for lexical analyzer
+     * @param reader - reader of source program
+     * @param normalizeLines - true to translate line endings and add a missing final newline
+     */
+    private LexicalAnalyzer(Reader reader, boolean normalizeLines){
+        this(reader, normalizeLines, 0);
+    }
+
+    /**
+     * constructor for lexical analyzer over a part of a source which starts at the beginning of a line, used by ParallelParser
+     * @param reader - reader of the part
+     * @param normalizeLines - true to translate line endings and add a missing final newline
+     * @param firstRow - row of the source the part starts on, rows of its tokens count on from it
+     */
+    LexicalAnalyzer(Reader reader, boolean normalizeLines, int firstRow){
+        this.reader = reader;
+        this.normalizeLines = normalizeLines;
+        this.buffer = new char[BUFFER_SIZE];
         this.index = 0;
-        this.line = 0;
+        this.limit = 0;
+        this.mark = 0;
+        this.eof = false;
+        this.line = firstRow;
         this.col = 0;
         this.atStart = true;
-        this.indentStack = new ArrayDeque<>();
-        this.indentStack.push(0);
-        this.pendingTokens = new ArrayDeque<>();
+        this.indentStack = new int[16];
+        this.indentDepth = 1;
+        this.lexemes = new LexemePool();
+        this.keywordIds = new int[KEYWORD_SLOTS];
+        for(int slot = 0; slot < KEYWORD_SLOTS; slot++){
+            if(KEYWORD_TEXT[slot] != null){
+                keywordIds[slot] = lexemes.keyword(KEYWORD_TEXT[slot]);
+            }
+        }
     }
 
     /**
@@ -35,42 +234,151 @@ public class LexicalAnalyzer {
      * @return current char as a token
      */
     public Token get_token() throws InvalidTokenException {
-        //return any queued indent/dedent
-        if(!pendingTokens.isEmpty()){
-            return pendingTokens.poll();
+        scan();
+        return Token.scanned(type, lexeme(), tokenRow, tokenCol);
+    }
+
+    /**
+     * method to lex every remaining token into a token buffer
+     * a lexer error is kept in the buffer and thrown when the parser reaches it, as it would be when lexing on demand
+     * @return token buffer
+     */
+    public TokenBuffer tokenize(){
+        TokenBuffer tokens = new TokenBuffer(lexemes);
+        try {
+            do {
+                scan();
+                //the buffer keeps every token anyway, so literals are interned here to outlive the char buffer
+                int id = type == TokenType.INT_LIT ? lexemes.intern(buffer, tokenStart - consumed, tokenLength, false) : lexemeId;
+                tokens.add(type, tokenStart, tokenLength, tokenRow, tokenCol, id);
+            } while(type != TokenType.EOS);
+        }
+        catch (RuntimeException e){
+            tokens.fail(e);
+        }
+        return tokens;
+    }
+
+    /**
+     * method to lex the remaining tokens on a thread of their own into a token pipeline the parser reads as they arrive
+     * the lexer must not be used directly afterwards
+     * @param capacity - number of tokens the pipeline holds, rounded up to a power of two
+     * @throws InvalidArgumentException if capacity is less than 1 or more than 2^30
+     * @return token pipeline, to be closed once parsing ends
+     */
+    public TokenPipeline pipeline(int capacity) throws InvalidArgumentException{
+        if(capacity < 1 || capacity > 1 << 30){
+            throw new InvalidArgumentException("Invalid capacity in LexicalAnalyzer pipeline(): " + capacity);
+        }
+        return new TokenPipeline(this, capacity);
+    }
+
+    /**
+     * method to move to the next token without creating a Token object
+     * @throws InvalidTokenException if an undefined token is being analyzed
+     */
+    @Override
+    public void advance() throws InvalidTokenException {
+        scan();
+    }
+
+    /**
+     * method to get type of current token
+     * @return token type
+     */
+    @Override
+    public TokenType type(){
+        return type;
+    }
+
+    /**
+     * method to materialize lexeme of current token, an integer literal is copied from the buffer on each call
+     * @return token lexeme
+     */
+    @Override
+    public String lexeme(){
+        if(type == TokenType.INT_LIT){
+            return new String(buffer, tokenStart - consumed, tokenLength);
         }
+        return lexemeId < 0 ? FIXED_LEXEMES[type.ordinal()] : lexemes.get(lexemeId);
+    }
+
+    /**
+     * method to get symbol id of current token, identifiers spelled alike up to case share one id
+     * @return symbol id, or -1 if the current token is not an identifier
+     */
+    @Override
+    public int symbol(){
+        return type == TokenType.ID ? lexemeId : -1;
+    }
+
+    /**
+     * method to get row of current token
+     * @return token row
+     */
+    @Override
+    public int row(){
+        return tokenRow;
+    }
+
+    /**
+     * method to get col of current token
+     * @return token col
+     */
+    @Override
+    public int col(){
+        return tokenCol;
+    }
+
+    /**
+     * method to get the text of tokens whose lexeme is determined by their type
+     * @param type - token type
+     * @return lexeme, or null for identifiers and literals
+     */
+    static String fixedLexeme(TokenType type){
+        return FIXED_LEXEMES[type.ordinal()];
+    }
+
+    /**
+     * method to scan the next token into the current token fields, skips all whitespace
+     * @throws InvalidTokenException if an undefined token is being analyzed
+     */
+    private void scan() throws InvalidTokenException {
+        //return any queued dedent
+        if(pendingDedents > 0){
+            pendingDedents--;
+            token(TokenType.DEDENT, col, 0);
+            return;
+        }
+        mark = index;
 
         //handle EOS, pop remaining dedents
-        if(index >= source.length()){
-            while(indentStack.size() > 1){
-                indentStack.pop();
-                pendingTokens.add(new Token(TokenType.DEDENT,"",line, col));
-            }
-            if(!pendingTokens.isEmpty()){
-                return pendingTokens.poll();
+        if(!available(0)){
+            if(indentDepth > 1){
+                pendingDedents = indentDepth - 2;
+                indentDepth = 1;
+                token(TokenType.DEDENT, col, 0);
+                return;
             }
-            return new Token(TokenType.EOS,"",line,col);
+            token(TokenType.EOS, col, 0);
+            return;
         }
 
         //get current char
-        char current = source.charAt(index);
+        char current = buffer[index];
 
         //handle new lines + empty lines
         if(current == '\n'){
-            Token eol = new Token(TokenType.EOL, "\n",line, col);
-            index++;
-            line++;
-            col=0;
-            atStart = true;
-            return eol;
+            newLine();
+            return;
         }
 
         //handle indentation at line start
         if(atStart){
             int spaces = 0;
 
-            while(index < source.length()){
-                current = source.charAt(index);
+            while(available(0)){
+                current = buffer[index];
 
                 //skip spaces at start of line
                 if(current == ' '){
@@ -90,224 +398,224 @@ public class LexicalAnalyzer {
             }
 
             atStart = false;
+            mark = index;
 
-            int currentIndent = indentStack.peek();
+            int currentIndent = indentStack[indentDepth - 1];
             if(spaces > currentIndent){
                 //push indent
-                indentStack.push(spaces);
-                return new Token(TokenType.INDENT,"",line, col);
+                if(indentDepth == indentStack.length){
+                    indentStack = Arrays.copyOf(indentStack, indentDepth * 2);
+                }
+                indentStack[indentDepth++] = spaces;
+                token(TokenType.INDENT, col, 0);
+                return;
             }
             else if(spaces < currentIndent){
                 //at least one dedent
-                while(spaces < indentStack.peek()){
-                    indentStack.pop();
-                    pendingTokens.add(new Token(TokenType.DEDENT,"",line, col));
+                int dedents = 0;
+                while(spaces < indentStack[indentDepth - 1]){
+                    indentDepth--;
+                    dedents++;
                 }
 
-                if(spaces != indentStack.peek()){
+                if(spaces != indentStack[indentDepth - 1]){
                     throw new InvalidTokenException("Indentation error on line " + line);
                 }
-                return pendingTokens.poll();
+                pendingDedents = dedents - 1;
+                token(TokenType.DEDENT, col, 0);
+                return;
             }
         }
 
-        //handle spaces + tabs in middle of lines
-        while(index < source.length()){
-            current = source.charAt(index);
-            if(current == ' ' || current == '\t'){
-                index++;
-                col++;
-            }
-            else{
-                break;
-            }
-        }
+        //handle spaces + tabs in middle of lines, tokens before the run are already consumed
+        mark = index;
+        skipWhile(SPACE_MASK);
+        col += index - mark;
 
-        if(index >= source.length()){
-            return get_token();
+        if(!available(0)){
+            scan();
+            return;
         }
 
+        mark = index;
+
         //handle new trailing space
-        if (source.charAt(index) == '\n') {
-            Token eol = new Token(TokenType.EOL, "\n", line, col);
-            index++;
-            line++;
-            col = 0;
-            atStart = true;
-            return eol;
+        if (buffer[index] == '\n') {
+            newLine();
+            return;
         }
 
-        current = source.charAt(index);
+        current = buffer[index];
         int startCol = col;
-        int startIndex = index;
+        int charClass = classOf(current);
 
-        //identify parenthesis
-        if(isParenthesis(current)){
-            //return left paren token
-            if (current == '('){
-                index++;
-                col++;
-                return new Token(TokenType.LEFT_PAREN, "(", line, startCol);
-            }
-            //return right paren token
-            else{
-                index++;
-                col++;
-                return new Token(TokenType.RIGHT_PAREN, ")", line, startCol);
-            }
+        //identify digits, the lexeme stays in the buffer until the next token, so distinct literals do not fill the pool
+        if(charClass == DIGIT){
+            index++;
+            skipWhile(DIGIT_MASK);
+            col += index - mark;
+            token(TokenType.INT_LIT, startCol, index - mark);
+            return;
         }
 
-        //identify arithmetic and not equals
-        if(isArithmetic(current)){
-            TokenType type;
+        //identify statements and identifiers
+        if(charClass == LETTER){
+            index++;
+            skipWhile(LETTER_MASK | DIGIT_MASK);
+            col += index - mark;
 
-            switch (current){
-                case '+':
-                    type = TokenType.ADDITION;
-                    break;
-                case '-':
-                    type = TokenType.SUBTRACTION;
-                    break;
-                case '*':
-                    type = TokenType.MULTIPLICATION;
-                    break;
-                case '/':
-                    //not equals
-                    if(peek() == '='){
-                        type = TokenType.NOT_EQUAL;
-                        index++;
-                        col++;
-                    }
-                    //division
-                    else{
-                        type = TokenType.DIVISION;
-                    }
-                    break;
-                default:
-                    throw new InvalidTokenException("Unknown operator: " + current);
+            //keywords are matched in place, identifiers are lowercased as they are interned to ignore case sensitivity
+            int length = index - mark;
+            int keyword = keywordSlot(buffer, mark, length);
+            if(keyword >= 0){
+                token(KEYWORD_TYPES[keyword], startCol, length);
+                lexemeId = keywordIds[keyword];
+                return;
             }
-            col++;
-            index++;
-            return new Token(type, source.substring(startIndex,index), line,startCol);
+            token(TokenType.ID, startCol, length);
+            lexemeId = lexemes.intern(buffer, mark, length, true);
+            return;
         }
 
-        //identify colon and assignment operator
-        if(current == ':'){
-            if(peek() == '='){
-                col+=2;
-                index+=2;
-                return new Token(TokenType.ASSIGNMENT, ":=", line,startCol);
+        //operators and punctuation, a two char token wins over its first char alone
+        if(PAIRED[charClass]){
+            TokenType pair = PAIRS[charClass][classOf(peek())];
+            if(pair != null){
+                index += 2;
+                col += 2;
+                token(pair, startCol, 2);
+                return;
             }
+        }
+        TokenType single = SINGLE[charClass];
+        if(single != null){
             index++;
             col++;
-            return new Token(TokenType.COLON,":",line,startCol);
+            token(single, startCol, 1);
+            return;
         }
 
-        if(current == '.' && peek() == '.'){
-            col+=2;
-            index+=2;
-            return new Token(TokenType.RANGE,"..",line,startCol);
+        //INVALID TOKEN THROW ERROR
+        throw new InvalidTokenException("Invalid token at line " + line + ", col " + col + ": " + current);
+    }
+
+    /**
+     * method to get the class of a char
+     * @param c - char
+     * @return char class
+     */
+    private static int classOf(char c){
+        if(c < 128){
+            return CLASS_TABLE[c];
+        }
+        if(Character.isDigit(c)){
+            return DIGIT;
         }
+        return Character.isLetter(c) ? LETTER : OTHER;
+    }
 
-        //identify relation operator
-        if(isRelational(current)){
-            TokenType type;
-            switch(current){
-                case '<':
-                    if(peek() == '='){
-                        type = TokenType.LESS_EQUAL;
-                        index++;
-                        col++;
-                    }
-                    else{
-                        type = TokenType.LESS_THAN;
-                    }
-                    break;
-                case '>':
-                    if(peek() == '='){
-                        type = TokenType.GREATER_EQUAL;
-                        index++;
-                        col++;
-                    }
-                    else{
-                        type = TokenType.GREATER_THAN;
-                    }
-                    break;
-                case '=':
-                    type = TokenType.EQUAL;
-                    break;
-                default:
-                    throw new InvalidTokenException("Unknown operator: " + current);
-            }
-            index++;
-            col++;
-            return new Token(type, source.substring(startIndex,index), line, startCol);
+    /**
+     * method to get the keyword spelled by the word starting at an offset, used to find split points without lexing
+     * @param src - source chars
+     * @param offset - start of word
+     * @param limit - end of source
+     * @return keyword token type, or null if the word is not a keyword
+     */
+    static TokenType keywordAt(char[] src, int offset, int limit){
+        int end = offset;
+        while(end < limit && (1 << classOf(src[end]) & (LETTER_MASK | DIGIT_MASK)) != 0){
+            end++;
         }
+        int slot = keywordSlot(src, offset, end - offset);
+        return slot < 0 ? null : KEYWORD_TYPES[slot];
+    }
 
-        //identify digits, return token with lexeme substring from [start index, end index]
-        if(Character.isDigit(current)){
-            while(index < source.length() && Character.isDigit(source.charAt(index))){
-                index++;
-                col++;
+    /**
+     * method to add a keyword to its slot of the keyword table
+     * @param text - lowercase keyword text
+     * @param type - keyword token type
+     */
+    private static void keyword(String text, TokenType type){
+        int slot = keywordHash(text.length(), text.charAt(0), text.charAt(text.length() - 1));
+        KEYWORD_TEXT[slot] = text.toCharArray();
+        KEYWORD_TYPES[slot] = type;
+    }
+
+    /**
+     * method to find the keyword a range of chars spells, ignoring case, without allocating
+     * only the one keyword in the hashed slot is compared
+     * @param src - source chars
+     * @param offset - start of range
+     * @param length - length of range
+     * @return keyword slot, or -1 if the range is not a keyword
+     */
+    private static int keywordSlot(char[] src, int offset, int length){
+        if(length < SHORTEST_KEYWORD || length > LONGEST_KEYWORD){
+            return -1;
+        }
+        int slot = keywordHash(length, Character.toLowerCase(src[offset]), Character.toLowerCase(src[offset + length - 1]));
+        char[] text = KEYWORD_TEXT[slot];
+        if(text == null || text.length != length){
+            return -1;
+        }
+        for(int i = 0; i < length; i++){
+            if(Character.toLowerCase(src[offset + i]) != text[i]){
+                return -1;
             }
-            return new Token(TokenType.INT_LIT, source.substring(startIndex, index), line, startCol);
         }
+        return slot;
+    }
 
-        //identify statements and identifiers
-        if(Character.isLetter(current)){
-            while(index < source.length() && Character.isLetterOrDigit(source.charAt(index))){
+    /**
+     * method to hash a word into the keyword table
+     * @param length - length of word
+     * @param first - lowercase first char
+     * @param last - lowercase last char
+     * @return keyword slot
+     */
+    private static int keywordHash(int length, char first, char last){
+        return (length + 3 * (first + last)) & (KEYWORD_SLOTS - 1);
+    }
+
+    /**
+     * method to advance the index past chars whose class is in a mask, refilling the buffer as needed
+     * @param mask - bit set of char classes to skip
+     */
+    private void skipWhile(int mask){
+        do {
+            while(index < limit){
+                if((1 << classOf(buffer[index]) & mask) == 0){
+                    return;
+                }
                 index++;
-                col++;
             }
+        } while(available(0));
+    }
 
-            //lowercase lexeme to ignore case sensitivity
-            String lexeme = source.substring(startIndex, index).toLowerCase();
-            TokenType type;
-
-            //create token based on lexeme, either statement or identifier
-            switch (lexeme){
-                case "let":
-                    type = TokenType.LET;
-                    break;
-                case "display":
-                    type = TokenType.DISPLAY;
-                    break;
-                case "input":
-                    type = TokenType.INPUT;
-                    break;
-                case "if":
-                    type = TokenType.IF;
-                    break;
-                case "else":
-                    type = TokenType.ELSE;
-                    break;
-                case "elif":
-                    type = TokenType.ELIF;
-                    break;
-                case "while":
-                    type = TokenType.WHILE;
-                    break;
-                case "for":
-                    type = TokenType.FOR;
-                    break;
-                case "in":
-                    type = TokenType.IN;
-                    break;
-                case "range":
-                    type = TokenType.RANGE;
-                    break;
-                case "colon":
-                    type = TokenType.COLON;
-                    break;
-                default:
-                    type = TokenType.ID;
-                    break;
-            }
-            return new Token(type, lexeme, line,startCol);
-        }
+    /**
+     * method to scan an end of line token
+     */
+    private void newLine(){
+        token(TokenType.EOL, col, 1);
+        index++;
+        line++;
+        col=0;
+        atStart = true;
+    }
 
-        //INVALID TOKEN THROW ERROR
-        throw new InvalidTokenException("Invalid token at line " + line + ", col " + col + ": " + current);
+    /**
+     * method to set the current token fields, the token starts at mark on the current line
+     * @param type - token type
+     * @param col - token col
+     * @param length - length of token in source
+     */
+    private void token(TokenType type, int col, int length){
+        this.type = type;
+        this.tokenRow = line;
+        this.tokenCol = col;
+        this.tokenStart = consumed + mark;
+        this.tokenLength = length;
+        this.lexemeId = -1;
     }
 
     /**
@@ -335,11 +643,82 @@ public class LexicalAnalyzer {
      * @return next char or null
      */
     public char peek(){
-        if(index + 1 < source.length()){
-            return source.charAt(index+1);
+        if(available(1)){
+            return buffer[index+1];
         }
         else{
             return '\0';
         }
     }
+
+    /**
+     * method to check that the char at an offset from the current index is in the buffer, refilling it if needed
+     * @param offset - offset from current index
+     * @return true if the char exists, false at end of source
+     */
+    private boolean available(int offset){
+        while(index + offset >= limit){
+            if(eof || !fill()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * method to refill the buffer, chars before the start of the current token are discarded
+     * the buffer only grows when a single token is longer than the buffer
+     * @throws UncheckedIOException if the reader fails
+     * @return true if chars were added
+     */
+    private boolean fill(){
+        //compact, keep the current token
+        if(mark > 0){
+            System.arraycopy(buffer, mark, buffer, 0, limit - mark);
+            limit -= mark;
+            index -= mark;
+            consumed += mark;
+            mark = 0;
+        }
+        if(limit == buffer.length){
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int start = limit;
+        try {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if(read < 0){
+                eof = true;
+                //a last line without a newline still ends with one, as with readLine()
+                if(normalizeLines && lastRead != 0 && lastRead != '\n' && !skipLineFeed){
+                    buffer[limit++] = '\n';
+                }
+                reader.close();
+                return limit > start;
+            }
+            if(!normalizeLines){
+                limit += read;
+                return true;
+            }
+            //translate \r\n and \r to \n
+            int end = limit + read;
+            for(int i = limit; i < end; i++){
+                char c = buffer[i];
+                if(c == '\n' && skipLineFeed){
+                    skipLineFeed = false;
+                    continue;
+                }
+                skipLineFeed = c == '\r';
+                if(c == '\r'){
+                    c = '\n';
+                }
+                buffer[limit++] = c;
+                lastRead = c;
+            }
+            return limit > start || fill();
+        }
+        catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,359 @@
+package domain;
+
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * class for the loop parallelization pass, run last since the parallel loop keeps its body as given
+ * a for loop becomes a ParallelForNode when no iteration reads a variable written by an earlier iteration,
+ * i.e. every variable the body writes is written before it is read in each iteration, and the body has no input statements,
+ * apart from sum and product accumulators updated by v := v + e, v := v - e or v := v * e and not otherwise used,
+ * which are reduced across the chunks of the range
+ */
+public class LoopParallelizer {
+    //estimated cost of an iteration whose body contains a loop, large enough to run in parallel at any trip count
+    private static final int NESTED_LOOP_WORK = 1 << 14;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * constructor for loop parallelizer running loops on the common pool
+     */
+    public LoopParallelizer(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * constructor for loop parallelizer
+     * @param pool - pool parallel loops run on
+     * @throws InvalidArgumentException if pool is null
+     */
+    public LoopParallelizer(ForkJoinPool pool) throws InvalidArgumentException{
+        if(pool == null){
+            throw new InvalidArgumentException("Null pool in LoopParallelizer constructor.");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * method to parallelize the loops of a resolved program, returns a new program node sharing the symbol table
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return parallelized program node
+     */
+    public ProgramNode parallelize(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in LoopParallelizer parallelize().");
+        }
+        ProgramNode parallelized = new ProgramNode(new ArrayList<>(DeepStack.call(programNode.getDepthBound(),
+                () -> parallelizeBlock(programNode.getStatements(), programNode.getDepthBound()))));
+        parallelized.setSymbolTable(programNode.getSymbolTable());
+        parallelized.setDepthBound(programNode.getDepthBound());
+        return parallelized;
+    }
+
+    /**
+     * method to parallelize a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     * @param depthBound - bound on the depth of the program tree
+     * @return parallelized list of statements, or null if statements is null
+     */
+    private List<StatementNode> parallelizeBlock(List<StatementNode> statements, int depthBound){
+        if(statements == null){
+            return null;
+        }
+        List<StatementNode> parallelized = new ArrayList<>();
+        for(StatementNode statement : statements){
+            parallelized.add(parallelizeStatement(statement, depthBound));
+        }
+        return parallelized;
+    }
+
+    /**
+     * method to parallelize a single statement, only the outermost independent loop of a nest runs in parallel
+     * @param statement - statement node
+     * @param depthBound - bound on the depth of the program tree
+     * @throws InvalidParseException if statement type is unknown
+     * @return parallelized statement node
+     */
+    private StatementNode parallelizeStatement(StatementNode statement, int depthBound){
+        if(statement instanceof ForStatementNode forNode){
+            Access access = new Access();
+            BitSet defined = new BitSet();
+            defined.set(forNode.getSlot());
+            access.statements(forNode.getStatements(), defined);
+            if(access.independent()){
+                return new ParallelForNode(forNode, access.sums.stream().toArray(), access.products.stream().toArray(), access.work, depthBound, pool);
+            }
+            ForStatementNode rebuilt = new ForStatementNode(forNode.getId(), forNode.getStartExpression(),
+                    forNode.getEndExpression(), parallelizeBlock(forNode.getStatements(), depthBound));
+            rebuilt.setSlot(forNode.getSlot());
+            return rebuilt;
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            return new WhileStatementNode(whileNode.getCondition(), parallelizeBlock(whileNode.getStatements(), depthBound));
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            return new IfStatementNode(ifNode.getCondition(), parallelizeBlock(ifNode.getIfBlock(), depthBound), parallelizeBlock(ifNode.getElseBlock(), depthBound));
+        }
+        else if(statement instanceof LetStatementNode || statement instanceof DisplayStatementNode
+                || statement instanceof InputStatementNode || statement instanceof ClosedFormLoopNode
+                || statement instanceof ParallelForNode){
+            return statement;
+        }
+        throw new InvalidParseException("Unknown statement in LoopParallelizer: " + statement);
+    }
+
+    /**
+     * class for the variable accesses of one iteration of a loop body
+     */
+    private static class Access {
+        //slots that may be written
+        private final BitSet written = new BitSet();
+        //slots that may be read before they are written in the same iteration
+        private final BitSet exposed = new BitSet();
+        //slots read anywhere
+        private final BitSet read = new BitSet();
+        //slots updated by v := v + e or v := v - e
+        private final BitSet sums = new BitSet();
+        //slots updated by v := v * e
+        private final BitSet products = new BitSet();
+        private boolean input;
+        private int work;
+
+        /**
+         * method to check that no iteration depends on another except through accumulators
+         * @return true if the iterations are independent
+         */
+        private boolean independent(){
+            //an accumulator may not be read or assigned in any other way, or be both a sum and a product
+            BitSet accumulators = (BitSet) sums.clone();
+            accumulators.or(products);
+            if(sums.intersects(products) || accumulators.intersects(written) || accumulators.intersects(read)){
+                return false;
+            }
+            return !input && !written.intersects(exposed);
+        }
+
+        /**
+         * method to record the accesses of a list of statements
+         * @param statements - list of statements, may be null for a missing else block
+         * @param defined - slots written on every path so far, updated in place
+         */
+        private void statements(List<StatementNode> statements, BitSet defined){
+            if(statements == null){
+                return;
+            }
+            for(StatementNode statement : statements){
+                statement(statement, defined);
+            }
+        }
+
+        /**
+         * method to record the accesses of a single statement
+         * @param statement - statement node
+         * @param defined - slots written on every path so far, updated in place
+         * @throws InvalidParseException if statement type is unknown
+         */
+        private void statement(StatementNode statement, BitSet defined){
+            work++;
+            if(statement instanceof LetStatementNode let){
+                //once written in this iteration v := v + e is an ordinary assignment
+                ArithmeticExpressionNode operand = defined.get(let.getSlot()) ? null : accumulated(let);
+                if(operand != null){
+                    expression(operand, defined);
+                    (unwrap(let.getExpression()) instanceof BinaryTermNodeArithmetic ? products : sums).set(let.getSlot());
+                    return;
+                }
+                expression(let.getExpression(), defined);
+                write(let.getSlot(), defined);
+            }
+            else if(statement instanceof DisplayStatementNode display){
+                read(display.getSlot(), defined);
+            }
+            else if(statement instanceof InputStatementNode){
+                input = true;
+            }
+            else if(statement instanceof IfStatementNode ifNode){
+                condition(ifNode.getCondition(), defined);
+                BitSet ifDefined = (BitSet) defined.clone();
+                BitSet elseDefined = (BitSet) defined.clone();
+                statements(ifNode.getIfBlock(), ifDefined);
+                statements(ifNode.getElseBlock(), elseDefined);
+                //written on every path only if written in both branches
+                ifDefined.and(elseDefined);
+                defined.or(ifDefined);
+            }
+            else if(statement instanceof WhileStatementNode whileNode){
+                //the body may not run, so nothing it writes is defined afterwards
+                condition(whileNode.getCondition(), defined);
+                statements(whileNode.getStatements(), (BitSet) defined.clone());
+                work = Math.max(work, NESTED_LOOP_WORK);
+            }
+            else if(statement instanceof ForStatementNode forNode){
+                expression(forNode.getStartExpression(), defined);
+                expression(forNode.getEndExpression(), defined);
+                written.set(forNode.getSlot());
+                BitSet bodyDefined = (BitSet) defined.clone();
+                bodyDefined.set(forNode.getSlot());
+                statements(forNode.getStatements(), bodyDefined);
+                work = Math.max(work, NESTED_LOOP_WORK);
+            }
+            else if(statement instanceof ClosedFormLoopNode closedForm){
+                statement(closedForm.getLoop(), defined);
+            }
+            else if(statement instanceof ParallelForNode parallel){
+                statement(parallel.getLoop(), defined);
+            }
+            else{
+                throw new InvalidParseException("Unknown statement in LoopParallelizer: " + statement);
+            }
+        }
+
+        /**
+         * method to find the operand of an accumulator update v := v + e, e + v, v - e, v * e or e * v
+         * @param let - let statement node
+         * @return e, or null if the statement is not an accumulator update or e reads v
+         */
+        private ArithmeticExpressionNode accumulated(LetStatementNode let){
+            ArithmeticExpressionNode expr = unwrap(let.getExpression());
+            ArithmeticExpressionNode left;
+            ArithmeticExpressionNode right;
+            boolean commutative;
+            if(expr instanceof BinaryExpressionNodeArithmetic binary){
+                left = unwrap(binary.getLeft());
+                right = unwrap(binary.getRight());
+                commutative = binary.getOperator() == TokenType.ADDITION;
+            }
+            else if(expr instanceof BinaryTermNodeArithmetic binary && binary.getOperator() == TokenType.MULTIPLICATION){
+                left = unwrap(binary.getLeft());
+                right = unwrap(binary.getRight());
+                commutative = true;
+            }
+            else{
+                return null;
+            }
+            int slot = let.getSlot();
+            ArithmeticExpressionNode operand = null;
+            if(left instanceof IdentifierNode identifier && identifier.getSlot() == slot){
+                operand = right;
+            }
+            else if(commutative && right instanceof IdentifierNode identifier && identifier.getSlot() == slot){
+                operand = left;
+            }
+            if(operand == null || reads(operand, slot)){
+                return null;
+            }
+            return operand;
+        }
+
+        /**
+         * method to check if an expression reads a slot
+         * @param expr - arithmetic expression node
+         * @param slot - memory slot
+         * @return true if expr reads slot
+         */
+        private boolean reads(ArithmeticExpressionNode expr, int slot){
+            if(expr instanceof IdentifierNode identifier){
+                return identifier.getSlot() == slot;
+            }
+            else if(expr instanceof ParenFactorNode paren){
+                return reads(paren.getExpression(), slot);
+            }
+            else if(expr instanceof NegFactorNode neg){
+                return reads(neg.getExpression(), slot);
+            }
+            else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+                return reads(binary.getLeft(), slot) || reads(binary.getRight(), slot);
+            }
+            else if(expr instanceof BinaryTermNodeArithmetic binary){
+                return reads(binary.getLeft(), slot) || reads(binary.getRight(), slot);
+            }
+            return false;
+        }
+
+        /**
+         * method to strip parentheses from an expression
+         * @param expr - arithmetic expression node
+         * @return expression inside any parentheses
+         */
+        private static ArithmeticExpressionNode unwrap(ArithmeticExpressionNode expr){
+            while(expr instanceof ParenFactorNode paren){
+                expr = paren.getExpression();
+            }
+            return expr;
+        }
+
+        /**
+         * method to record the reads of a condition
+         * @param condition - boolean expression node
+         * @param defined - slots written on every path so far
+         * @throws InvalidParseException if condition type is unknown
+         */
+        private void condition(BooleanExpressionNode condition, BitSet defined){
+            if(!(condition instanceof RelationalExpressionNode relational)){
+                throw new InvalidParseException("Unknown condition in LoopParallelizer: " + condition);
+            }
+            expression(relational.getLeft(), defined);
+            expression(relational.getRight(), defined);
+        }
+
+        /**
+         * method to record the reads of an arithmetic expression
+         * @param expr - arithmetic expression node
+         * @param defined - slots written on every path so far
+         * @throws InvalidParseException if expression type is unknown
+         */
+        private void expression(ArithmeticExpressionNode expr, BitSet defined){
+            work++;
+            if(expr instanceof IdentifierNode identifier){
+                read(identifier.getSlot(), defined);
+            }
+            else if(expr instanceof ParenFactorNode paren){
+                expression(paren.getExpression(), defined);
+            }
+            else if(expr instanceof NegFactorNode neg){
+                expression(neg.getExpression(), defined);
+            }
+            else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+                expression(binary.getLeft(), defined);
+                expression(binary.getRight(), defined);
+            }
+            else if(expr instanceof BinaryTermNodeArithmetic binary){
+                expression(binary.getLeft(), defined);
+                expression(binary.getRight(), defined);
+            }
+            else if(!(expr instanceof NumNode)){
+                throw new InvalidParseException("Unknown expression in LoopParallelizer: " + expr);
+            }
+        }
+
+        /**
+         * method to record a read of a slot
+         * @param slot - memory slot
+         * @param defined - slots written on every path so far
+         */
+        private void read(int slot, BitSet defined){
+            read.set(slot);
+            if(!defined.get(slot)){
+                exposed.set(slot);
+            }
+        }
+
+        /**
+         * method to record a write of a slot
+         * @param slot - memory slot
+         * @param defined - slots written on every path so far, updated in place
+         */
+        private void write(int slot, BitSet defined){
+            written.set(slot);
+            defined.set(slot);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package domain;
+
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * class for the loop summarization pass, run after the Resolver and before the Specializer
+ * innermost for loops, and while loops counting towards an invariant bound, whose bodies only assign induction variables,
+ * polynomial accumulators and affine recurrences are replaced by a ClosedFormLoopNode,
+ * e.g. for i in 1..n: let s := s + i * i runs in constant time for any n
+ */
+public class LoopSummarizer {
+    //highest polynomial degree of a summarized variable, bounds the work done by ClosedFormLoopNode
+    private static final int MAX_DEGREE = 8;
+
+    /**
+     * method to summarize the loops of a resolved program, returns a new program node sharing the symbol table
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return summarized program node
+     */
+    public ProgramNode summarize(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in LoopSummarizer summarize().");
+        }
+        ProgramNode summarized = new ProgramNode(new ArrayList<>(summarizeBlock(programNode.getStatements())));
+        summarized.setSymbolTable(programNode.getSymbolTable());
+        summarized.setDepthBound(programNode.getDepthBound());
+        return summarized;
+    }
+
+    /**
+     * method to summarize a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     * @return summarized list of statements, or null if statements is null
+     */
+    private List<StatementNode> summarizeBlock(List<StatementNode> statements){
+        if(statements == null){
+            return null;
+        }
+        List<StatementNode> summarized = new ArrayList<>();
+        for(StatementNode statement : statements){
+            summarized.add(summarizeStatement(statement));
+        }
+        return summarized;
+    }
+
+    /**
+     * method to summarize a single statement, nested loops are summarized first
+     * @param statement - statement node
+     * @throws InvalidParseException if statement type is unknown
+     * @return summarized statement node
+     */
+    private StatementNode summarizeStatement(StatementNode statement){
+        if(statement instanceof LetStatementNode || statement instanceof DisplayStatementNode
+                || statement instanceof InputStatementNode || statement instanceof ClosedFormLoopNode
+                || statement instanceof ParallelForNode){
+            return statement;
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            return new IfStatementNode(ifNode.getCondition(), summarizeBlock(ifNode.getIfBlock()), summarizeBlock(ifNode.getElseBlock()));
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            WhileStatementNode rebuilt = new WhileStatementNode(whileNode.getCondition(), summarizeBlock(whileNode.getStatements()));
+            StatementNode summarized = summarizeWhile(rebuilt);
+            return summarized == null ? rebuilt : summarized;
+        }
+        else if(statement instanceof ForStatementNode forNode){
+            ForStatementNode rebuilt = new ForStatementNode(forNode.getId(), forNode.getStartExpression(),
+                    forNode.getEndExpression(), summarizeBlock(forNode.getStatements()));
+            rebuilt.setSlot(forNode.getSlot());
+            StatementNode summarized = summarizeFor(rebuilt);
+            return summarized == null ? rebuilt : summarized;
+        }
+        throw new InvalidParseException("Unknown statement in LoopSummarizer: " + statement);
+    }
+
+    /**
+     * method to summarize a for loop
+     * @param forNode - for statement node with summarized body
+     * @return closed form loop node, or null if the body cannot be summarized
+     */
+    private StatementNode summarizeFor(ForStatementNode forNode){
+        Body body = analyze(forNode.getStatements(), forNode.getSlot());
+        if(body == null){
+            return null;
+        }
+        return new ClosedFormLoopNode(forNode, body.lets, body.kinds, body.order);
+    }
+
+    /**
+     * method to summarize a while loop whose condition compares an accumulator with a constant step to a loop invariant bound
+     * @param whileNode - while statement node with summarized body
+     * @return closed form loop node, or null if the loop cannot be summarized
+     */
+    private StatementNode summarizeWhile(WhileStatementNode whileNode){
+        if(!(whileNode.getCondition() instanceof RelationalExpressionNode relational)){
+            return null;
+        }
+        Body body = analyze(whileNode.getStatements(), -1);
+        if(body == null){
+            return null;
+        }
+        ArithmeticExpressionNode left = unwrap(relational.getLeft());
+        ArithmeticExpressionNode right = unwrap(relational.getRight());
+        TokenType operator = relational.getOperator();
+        int counter = left instanceof IdentifierNode identifier ? body.definition(identifier.getSlot()) : -1;
+        if(counter < 0 || !body.invariant(right)){
+            //bound < counter is counter > bound
+            counter = right instanceof IdentifierNode identifier ? body.definition(identifier.getSlot()) : -1;
+            if(counter < 0 || !body.invariant(left)){
+                return null;
+            }
+            ArithmeticExpressionNode swap = left;
+            left = right;
+            right = swap;
+            operator = mirror(operator);
+        }
+        if(body.kinds[counter] != ClosedFormLoopNode.ACCUMULATOR){
+            return null;
+        }
+        int step = constantStep(body.lets.get(counter));
+        if(step == 0){
+            return null;
+        }
+        return new ClosedFormLoopNode(whileNode, body.lets, body.kinds, body.order, counter, operator, right, step);
+    }
+
+    /**
+     * method to classify the statements of a loop body
+     * @param statements - loop body
+     * @param loopSlot - slot of the for loop variable, or -1 for a while loop
+     * @return analyzed body, or null if the body cannot be summarized
+     */
+    private Body analyze(List<StatementNode> statements, int loopSlot){
+        Body body = new Body(loopSlot);
+        for(StatementNode statement : statements){
+            if(!(statement instanceof LetStatementNode let) || let.getSlot() == loopSlot || !body.add(let)){
+                return null;
+            }
+        }
+        int size = body.lets.size();
+        body.kinds = new int[size];
+
+        for(int index = 0; index < size; index++){
+            LetStatementNode let = body.lets.get(index);
+            ArithmeticExpressionNode expr = let.getExpression();
+            int slot = let.getSlot();
+            if(!body.divisionsInvariant(expr)){
+                return null;
+            }
+            int reads = count(expr, slot);
+            if(reads == 0){
+                body.kinds[index] = ClosedFormLoopNode.DERIVED;
+            }
+            else if(reads == 1 && additive(expr, slot)){
+                body.kinds[index] = ClosedFormLoopNode.ACCUMULATOR;
+            }
+            else if(linear(expr, slot) && body.onlyReads(expr, slot)){
+                body.kinds[index] = ClosedFormLoopNode.AFFINE;
+            }
+            else{
+                return null;
+            }
+        }
+
+        //which statements each statement reads, affine variables may not be read and derived variables must be assigned first
+        List<List<Integer>> reads = new ArrayList<>();
+        for(int index = 0; index < size; index++){
+            List<Integer> dependencies = new ArrayList<>();
+            for(int slot : slots(body.lets.get(index).getExpression(), new ArrayList<>())){
+                int definition = body.definition(slot);
+                if(definition < 0 || definition == index){
+                    continue;
+                }
+                if(body.kinds[definition] == ClosedFormLoopNode.AFFINE
+                        || (body.kinds[definition] == ClosedFormLoopNode.DERIVED && definition > index)){
+                    return null;
+                }
+                dependencies.add(definition);
+            }
+            reads.add(dependencies);
+        }
+
+        //order statements by their reads, a cycle means the variables are not polynomials
+        body.order = new int[size];
+        int[] state = new int[size];
+        int[] degrees = new int[size];
+        int[] next = {0};
+        for(int index = 0; index < size; index++){
+            if(!visit(index, reads, state, body, degrees, next)){
+                return null;
+            }
+        }
+        return body;
+    }
+
+    /**
+     * method to place a statement in the evaluation order after the statements it reads, depth first
+     * @param index - statement index
+     * @param reads - statements read by each statement
+     * @param state - 0 unvisited, 1 in progress, 2 placed
+     * @param body - analyzed body, order is filled in
+     * @param degrees - polynomial degree of each placed statement
+     * @param next - next free position in the order
+     * @return false on a cycle or a degree above MAX_DEGREE
+     */
+    private boolean visit(int index, List<List<Integer>> reads, int[] state, Body body, int[] degrees, int[] next){
+        if(state[index] == 2){
+            return true;
+        }
+        if(state[index] == 1){
+            return false;
+        }
+        state[index] = 1;
+        for(int dependency : reads.get(index)){
+            if(!visit(dependency, reads, state, body, degrees, next)){
+                return false;
+            }
+        }
+        state[index] = 2;
+        LetStatementNode let = body.lets.get(index);
+        switch(body.kinds[index]){
+            case ClosedFormLoopNode.ACCUMULATOR:
+                degrees[index] = degree(let.getExpression(), body, degrees) + 1;
+                break;
+            case ClosedFormLoopNode.DERIVED:
+                degrees[index] = degree(let.getExpression(), body, degrees);
+                break;
+            default:
+                degrees[index] = 0;
+                break;
+        }
+        body.order[next[0]++] = index;
+        return degrees[index] <= MAX_DEGREE;
+    }
+
+    /**
+     * method to get the polynomial degree of an expression in the iteration number, reads of the assigned variable count as 0
+     * @param expr - arithmetic expression node
+     * @param body - analyzed body
+     * @param degrees - degrees of the placed statements
+     * @return degree
+     */
+    private int degree(ArithmeticExpressionNode expr, Body body, int[] degrees){
+        if(expr instanceof IdentifierNode identifier){
+            if(identifier.getSlot() == body.loopSlot){
+                return 1;
+            }
+            int definition = body.definition(identifier.getSlot());
+            return definition < 0 ? 0 : degrees[definition];
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            return degree(paren.getExpression(), body, degrees);
+        }
+        else if(expr instanceof NegFactorNode neg){
+            return degree(neg.getExpression(), body, degrees);
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            return Math.max(degree(binary.getLeft(), body, degrees), degree(binary.getRight(), body, degrees));
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary && binary.getOperator() == TokenType.MULTIPLICATION){
+            return degree(binary.getLeft(), body, degrees) + degree(binary.getRight(), body, degrees);
+        }
+        return 0;
+    }
+
+    /**
+     * method to count the reads of a slot in an expression
+     * @param expr - arithmetic expression node
+     * @param slot - memory slot
+     * @return number of reads
+     */
+    private int count(ArithmeticExpressionNode expr, int slot){
+        int reads = 0;
+        for(int read : slots(expr, new ArrayList<>())){
+            if(read == slot){
+                reads++;
+            }
+        }
+        return reads;
+    }
+
+    /**
+     * method to check that the single read of a slot is added to the rest of the expression, as in v + t, t + v or v - t
+     * @param expr - arithmetic expression node
+     * @param slot - memory slot
+     * @return true if expr is slot plus a term that does not read slot
+     */
+    private boolean additive(ArithmeticExpressionNode expr, int slot){
+        expr = unwrap(expr);
+        if(expr instanceof IdentifierNode identifier){
+            return identifier.getSlot() == slot;
+        }
+        if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            if(count(binary.getLeft(), slot) == 1){
+                return additive(binary.getLeft(), slot);
+            }
+            return binary.getOperator() == TokenType.ADDITION && additive(binary.getRight(), slot);
+        }
+        return false;
+    }
+
+    /**
+     * method to check that an expression is at most linear in a slot, the slot may not be divided
+     * @param expr - arithmetic expression node
+     * @param slot - memory slot
+     * @return true if expr is a * slot + b
+     */
+    private boolean linear(ArithmeticExpressionNode expr, int slot){
+        expr = unwrap(expr);
+        if(count(expr, slot) == 0){
+            return true;
+        }
+        if(expr instanceof IdentifierNode){
+            return true;
+        }
+        if(expr instanceof NegFactorNode neg){
+            return linear(neg.getExpression(), slot);
+        }
+        if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            return linear(binary.getLeft(), slot) && linear(binary.getRight(), slot);
+        }
+        if(expr instanceof BinaryTermNodeArithmetic binary && binary.getOperator() == TokenType.MULTIPLICATION){
+            int left = count(binary.getLeft(), slot);
+            int right = count(binary.getRight(), slot);
+            return left == 0 ? linear(binary.getRight(), slot) : right == 0 && linear(binary.getLeft(), slot);
+        }
+        return false;
+    }
+
+    /**
+     * method to get the step of an accumulator of the form v + k, k + v or v - k with a literal k
+     * @param let - accumulator statement
+     * @return step, or 0 if the step is not a literal
+     */
+    private int constantStep(LetStatementNode let){
+        if(!(unwrap(let.getExpression()) instanceof BinaryExpressionNodeArithmetic binary)){
+            return 0;
+        }
+        ArithmeticExpressionNode left = unwrap(binary.getLeft());
+        ArithmeticExpressionNode right = unwrap(binary.getRight());
+        if(left instanceof IdentifierNode identifier && identifier.getSlot() == let.getSlot() && right instanceof NumNode num){
+            return binary.getOperator() == TokenType.ADDITION ? num.getValue() : -num.getValue();
+        }
+        if(binary.getOperator() == TokenType.ADDITION && left instanceof NumNode num
+                && right instanceof IdentifierNode identifier && identifier.getSlot() == let.getSlot()){
+            return num.getValue();
+        }
+        return 0;
+    }
+
+    /**
+     * method to collect the slots read by an expression
+     * @param expr - arithmetic expression node
+     * @param slots - list the slots are added to
+     * @throws InvalidParseException if expression type is unknown
+     * @return slots
+     */
+    private static List<Integer> slots(ArithmeticExpressionNode expr, List<Integer> slots){
+        if(expr instanceof IdentifierNode identifier){
+            slots.add(identifier.getSlot());
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            slots(paren.getExpression(), slots);
+        }
+        else if(expr instanceof NegFactorNode neg){
+            slots(neg.getExpression(), slots);
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            slots(binary.getLeft(), slots);
+            slots(binary.getRight(), slots);
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary){
+            slots(binary.getLeft(), slots);
+            slots(binary.getRight(), slots);
+        }
+        else if(!(expr instanceof NumNode)){
+            throw new InvalidParseException("Unknown expression in LoopSummarizer: " + expr);
+        }
+        return slots;
+    }
+
+    /**
+     * method to strip parentheses from an expression
+     * @param expr - arithmetic expression node
+     * @return expression inside any parentheses
+     */
+    private static ArithmeticExpressionNode unwrap(ArithmeticExpressionNode expr){
+        while(expr instanceof ParenFactorNode paren){
+            expr = paren.getExpression();
+        }
+        return expr;
+    }
+
+    /**
+     * method to get the operator comparing the same operands in the other order
+     * @param operator - relational operator
+     * @return mirrored operator
+     */
+    private static TokenType mirror(TokenType operator){
+        switch(operator){
+            case LESS_THAN:
+                return TokenType.GREATER_THAN;
+            case LESS_EQUAL:
+                return TokenType.GREATER_EQUAL;
+            case GREATER_THAN:
+                return TokenType.LESS_THAN;
+            case GREATER_EQUAL:
+                return TokenType.LESS_EQUAL;
+            default:
+                return operator;
+        }
+    }
+
+    /**
+     * class for an analyzed loop body, contains its let statements, their kinds and evaluation order
+     */
+    private static class Body {
+        private final int loopSlot;
+        private final List<LetStatementNode> lets = new ArrayList<>();
+        private final HashMap<Integer, Integer> definitions = new HashMap<>();
+        private int[] kinds;
+        private int[] order;
+
+        private Body(int loopSlot){
+            this.loopSlot = loopSlot;
+        }
+
+        /**
+         * method to add a let statement to the body
+         * @param let - let statement node
+         * @return false if the slot is already assigned in the body
+         */
+        private boolean add(LetStatementNode let){
+            if(definitions.putIfAbsent(let.getSlot(), lets.size()) != null){
+                return false;
+            }
+            lets.add(let);
+            return true;
+        }
+
+        /**
+         * method to find the statement assigning a slot
+         * @param slot - memory slot
+         * @return statement index, or -1 if slot is not assigned in the body
+         */
+        private int definition(int slot){
+            Integer index = definitions.get(slot);
+            return index == null ? -1 : index;
+        }
+
+        /**
+         * method to check that an expression reads no variable changed by the loop
+         * @param expr - arithmetic expression node
+         * @return true if expr is loop invariant
+         */
+        private boolean invariant(ArithmeticExpressionNode expr){
+            return onlyReads(expr, -1);
+        }
+
+        /**
+         * method to check that an expression reads no variable changed by the loop other than one slot
+         * @param expr - arithmetic expression node
+         * @param allowed - slot that may be read, or -1
+         * @return true if every other read is loop invariant
+         */
+        private boolean onlyReads(ArithmeticExpressionNode expr, int allowed){
+            for(int slot : slots(expr, new ArrayList<>())){
+                if(slot != allowed && (slot == loopSlot || definition(slot) >= 0)){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * method to check that every division in an expression has loop invariant operands
+         * @param expr - arithmetic expression node
+         * @return true if no division depends on the iteration
+         */
+        private boolean divisionsInvariant(ArithmeticExpressionNode expr){
+            if(expr instanceof ParenFactorNode paren){
+                return divisionsInvariant(paren.getExpression());
+            }
+            if(expr instanceof NegFactorNode neg){
+                return divisionsInvariant(neg.getExpression());
+            }
+            if(expr instanceof BinaryExpressionNodeArithmetic binary){
+                return divisionsInvariant(binary.getLeft()) && divisionsInvariant(binary.getRight());
+            }
+            if(expr instanceof BinaryTermNodeArithmetic binary){
+                if(binary.getOperator() == TokenType.DIVISION){
+                    return invariant(binary);
+                }
+                return divisionsInvariant(binary.getLeft()) && divisionsInvariant(binary.getRight());
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package domain;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * class for reading a source file through memory-mapped windows of a FileChannel
+ * ASCII bytes are copied straight to chars, other bytes are decoded as UTF-8
+ */
+class MappedSourceReader extends Reader {
+    private static final long WINDOW = 1L << 26;
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private char pendingLowSurrogate;
+
+    /**
+     * constructor for mapped source reader
+     * @param channel - open channel of the source file
+     * @throws IOException if the file size cannot be read
+     */
+    MappedSourceReader(FileChannel channel) throws IOException{
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowStart = 0;
+    }
+
+    /**
+     * method to read chars into a buffer
+     * @param cbuf - destination buffer
+     * @param off - offset in buffer
+     * @param len - maximum chars to read
+     * @throws IOException if mapping fails
+     * @return number of chars read, or -1 at end of file
+     */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException{
+        int count = 0;
+        if(pendingLowSurrogate != 0 && len > 0){
+            cbuf[off + count++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+        while(count < len){
+            if(!ensureWindow()){
+                break;
+            }
+            //ascii fast path, copy bytes until a non-ascii byte or the end of the window
+            int limit = Math.min(window.remaining(), len - count);
+            int i = 0;
+            while(i < limit){
+                byte b = window.get();
+                if(b < 0){
+                    window.position(window.position() - 1);
+                    break;
+                }
+                cbuf[off + count++] = (char) b;
+                i++;
+            }
+            if(i < limit){
+                int codePoint = decode();
+                if(Character.isBmpCodePoint(codePoint)){
+                    cbuf[off + count++] = (char) codePoint;
+                }
+                else{
+                    cbuf[off + count++] = Character.highSurrogate(codePoint);
+                    if(count < len){
+                        cbuf[off + count++] = Character.lowSurrogate(codePoint);
+                    }
+                    else{
+                        pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                    }
+                }
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    /**
+     * method to decode one multi byte UTF-8 sequence, malformed input becomes U+FFFD
+     * @throws IOException if mapping fails
+     * @return decoded code point
+     */
+    private int decode() throws IOException{
+        int first = nextByte();
+        int extra;
+        int codePoint;
+        if((first & 0xe0) == 0xc0){
+            extra = 1;
+            codePoint = first & 0x1f;
+        }
+        else if((first & 0xf0) == 0xe0){
+            extra = 2;
+            codePoint = first & 0x0f;
+        }
+        else if((first & 0xf8) == 0xf0){
+            extra = 3;
+            codePoint = first & 0x07;
+        }
+        else{
+            return 0xfffd;
+        }
+        for(int i = 0; i < extra; i++){
+            if(!ensureWindow()){
+                return 0xfffd;
+            }
+            int next = window.get(window.position()) & 0xff;
+            if((next & 0xc0) != 0x80){
+                return 0xfffd;
+            }
+            window.get();
+            codePoint = (codePoint << 6) | (next & 0x3f);
+        }
+        return codePoint;
+    }
+
+    /**
+     * method to read a single byte
+     * @throws IOException if mapping fails
+     * @return unsigned byte
+     */
+    private int nextByte() throws IOException{
+        ensureWindow();
+        return window.get() & 0xff;
+    }
+
+    /**
+     * method to map the next window once the current one is used up
+     * @throws IOException if mapping fails
+     * @return false at end of file
+     */
+    private boolean ensureWindow() throws IOException{
+        if(window != null && window.hasRemaining()){
+            return true;
+        }
+        if(window != null){
+            windowStart += window.capacity();
+        }
+        if(windowStart >= size){
+            return false;
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, size - windowStart));
+        return true;
+    }
+
+    /**
+     * method to release the reader, the channel is owned by the caller
+     */
+    @Override
+    public void close(){
+        window = null;
+    }
+}
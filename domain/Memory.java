@@ -1,39 +1,120 @@
 package domain;
+import domain.io.InputSource;
+import domain.io.OutputSink;
+import domain.io.PromptingInputSource;
+import domain.io.ScannerInputSource;
+import domain.io.TextOutputSink;
 import globalexceptions.InvalidArgumentException;
-import globalexceptions.InvalidTokenException;
 
-import java.util.HashMap;
 /**
- * class for memory containing final hashmap
+ * class for memory containing a flat array of slot values, slots are assigned by the Resolver
+ * also holds the output sink and input source of the execution using it
  */
 public class Memory {
-    private final HashMap<String, Integer> table;
+    private final SymbolTable symbols;
+    private final int[] values;
+    private final OutputSink output;
+    private final InputSource input;
+
+    /**
+     * constructor for memory, every slot starts at 0 so unset identifiers read as 0
+     * display statements are written as text to standard output, input statements prompt for and scan standard input
+     * @param symbols - symbol table of the program
+     * @throws InvalidArgumentException if symbols is null
+     */
+    public Memory(SymbolTable symbols){
+        this(symbols, new TextOutputSink(System.out));
+    }
+
+    /**
+     * constructor for memory, every slot starts at 0 so unset identifiers read as 0
+     * @param symbols - symbol table of the program
+     * @param output - sink for display statements
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public Memory(SymbolTable symbols, OutputSink output){
+        this(symbols, output, new PromptingInputSource(new ScannerInputSource(System.in), System.out));
+    }
+
+    /**
+     * constructor for memory, every slot starts at 0 so unset identifiers read as 0
+     * @param symbols - symbol table of the program
+     * @param output - sink for display statements
+     * @param input - source for input statements
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public Memory(SymbolTable symbols, OutputSink output, InputSource input){
+        if(symbols == null){
+            throw new InvalidArgumentException("Null symbol table in Memory constructor.");
+        }
+        if(output == null){
+            throw new InvalidArgumentException("Null output sink in Memory constructor.");
+        }
+        if(input == null){
+            throw new InvalidArgumentException("Null input source in Memory constructor.");
+        }
+        this.symbols = symbols;
+        this.values = new int[symbols.size()];
+        this.output = output;
+        this.input = input;
+    }
+
     /**
-     * constructor for memory, initializes hashmap
+     * constructor for a copy of memory with its own output sink, used by ForkedMemory
+     * @param parent - memory to copy symbols, values and input source from
+     * @param output - sink for display statements
+     * @throws InvalidArgumentException if any parameter is null
      */
-    public Memory(){
-        table = new HashMap<>();
+    protected Memory(Memory parent, OutputSink output){
+        if(parent == null || output == null){
+            throw new InvalidArgumentException("Null parameter in Memory constructor.");
+        }
+        this.symbols = parent.symbols;
+        this.values = parent.values.clone();
+        this.output = output;
+        this.input = parent.input;
     }
 
     /**
-     * method to retrieve value of identifier
+     * method to retrieve value of a slot
+     * @param slot - slot of identifier to get
+     * @return value of slot
+     */
+    public int get(int slot){
+        return values[slot];
+    }
+
+    /**
+     * method to store value in memory for given slot
+     * @param slot - slot of identifier to set
+     * @param value - value to set to slot
+     */
+    public void set(int slot, int value){
+        values[slot] = value;
+    }
+
+    /**
+     * method to retrieve value of identifier by name
      * @param id - name of identifier to get
      * @return value of id, or 0 if not found
      */
     public int get(String id){
-        if(!table.containsKey(id.toLowerCase())){
-            table.put(id,0);
-        }
-        return table.get(id.toLowerCase());
+        int slot = symbols.slotOf(id);
+        return slot < 0 ? 0 : values[slot];
     }
 
     /**
-     * method to store value in memory for given identifier
+     * method to store value in memory for given identifier name
      * @param id - name of identifier to set
      * @param value - value to set to identifier
+     * @throws InvalidArgumentException if id does not appear in the program
      */
     public void set(String id, int value){
-        table.put(id.toLowerCase(), value);
+        int slot = symbols.slotOf(id);
+        if(slot < 0){
+            throw new InvalidArgumentException("Unknown identifier in Memory set(): " + id);
+        }
+        values[slot] = value;
     }
 
     /**
@@ -42,6 +123,30 @@ public class Memory {
      * @return true or false
      */
     public boolean contains(String id){
-        return table.containsKey(id.toLowerCase());
+        return symbols.slotOf(id) >= 0;
+    }
+
+    /**
+     * method to get symbol table of memory
+     * @return symbol table
+     */
+    public SymbolTable getSymbolTable(){
+        return symbols;
+    }
+
+    /**
+     * method to get output sink of memory
+     * @return output sink
+     */
+    public OutputSink getOutput(){
+        return output;
+    }
+
+    /**
+     * method to get input source of memory
+     * @return input source
+     */
+    public InputSource getInput(){
+        return input;
     }
 }
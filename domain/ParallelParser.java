@@ -0,0 +1,234 @@
+package domain;
+
+import domain.node.ProgramNode;
+import domain.node.StatementNode;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+import globalexceptions.InvalidTokenException;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * class for a parser of large sources, lexes and parses pieces of a source in parallel and joins their statements in order
+ * a source is split before lines at indentation 0 starting with let, display, input, if, while or for,
+ * every block is closed at such a line and no statement continues across it, so each piece parses on its own
+ * and the joined tree is the one a serial parse builds
+ * each piece is lexed from the row it starts on, so rows in errors are rows of the whole source,
+ * and any error makes the whole source be parsed again serially, so errors are exactly those of a serial parse
+ */
+public class ParallelParser {
+    //pieces are at least this many chars, smaller sources are parsed serially
+    private static final int MIN_CHUNK = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * constructor for parallel parser running on the common pool
+     */
+    public ParallelParser(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * constructor for parallel parser
+     * @param pool - pool pieces are parsed on
+     * @throws InvalidArgumentException if pool is null
+     */
+    public ParallelParser(ForkJoinPool pool) throws InvalidArgumentException{
+        if(pool == null){
+            throw new InvalidArgumentException("Null pool in ParallelParser constructor.");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * method to parse source, builds the tree new Parser(new LexicalAnalyzer(source)).parse() builds
+     * @param source - program source
+     * @throws InvalidArgumentException if source is null
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return program node that is root of parse tree
+     */
+    public ProgramNode parse(String source) throws InvalidArgumentException, InvalidTokenException, InvalidParseException{
+        if(source == null){
+            throw new InvalidArgumentException("Null source in ParallelParser parse().");
+        }
+        return parse(source.toCharArray(), source.length(), false);
+    }
+
+    /**
+     * method to parse a source read to its end, builds the tree new Parser(new LexicalAnalyzer(reader)).parse() builds
+     * @param reader - reader of source program, closed when read
+     * @throws InvalidArgumentException if reader is null
+     * @throws UncheckedIOException if the reader fails
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return program node that is root of parse tree
+     */
+    public ProgramNode parse(Reader reader) throws InvalidArgumentException, InvalidTokenException, InvalidParseException{
+        if(reader == null){
+            throw new InvalidArgumentException("Null reader in ParallelParser parse().");
+        }
+        char[] source = new char[8192];
+        int length = 0;
+        try (reader){
+            int read;
+            while((read = reader.read(source, length, source.length - length)) >= 0){
+                length += read;
+                if(length == source.length){
+                    source = Arrays.copyOf(source, source.length * 2);
+                }
+            }
+        }
+        catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+        return parse(source, length, true);
+    }
+
+    /**
+     * method to parse a memory-mapped source file, builds the tree new Parser(new LexicalAnalyzer(channel)).parse() builds
+     * @param channel - open channel of source program file, owned by the caller
+     * @throws IOException if the file cannot be mapped
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return program node that is root of parse tree
+     */
+    public ProgramNode parse(FileChannel channel) throws IOException, InvalidTokenException, InvalidParseException{
+        try {
+            return parse(new MappedSourceReader(channel));
+        }
+        catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * method to split a source into pieces, parse them on the pool and join their statements
+     * @param source - source chars
+     * @param length - number of chars in source
+     * @param normalizeLines - true to read line endings like LexicalAnalyzer(Reader)
+     * @return program node that is root of parse tree
+     */
+    private ProgramNode parse(char[] source, int length, boolean normalizeLines){
+        List<Chunk> chunks = split(source, length, normalizeLines);
+        if(chunks.size() < 2){
+            return serial(source, length, normalizeLines);
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+
+        ArrayList<StatementNode> statements = new ArrayList<>();
+        int depthBound = 0;
+        for(Chunk chunk : chunks){
+            if(chunk.failure != null){
+                return serial(source, length, normalizeLines);
+            }
+            statements.addAll(chunk.result.getStatements());
+            depthBound = Math.max(depthBound, chunk.result.getDepthBound());
+        }
+        ProgramNode programNode = new ProgramNode(statements);
+        programNode.setDepthBound(depthBound);
+        return programNode;
+    }
+
+    /**
+     * method to split a source before lines at indentation 0 which start a statement, other than else and elif
+     * @param source - source chars
+     * @param length - number of chars in source
+     * @param normalizeLines - true to count a lone \r as a line end, as the lexer does
+     * @return pieces in source order
+     */
+    private List<Chunk> split(char[] source, int length, boolean normalizeLines){
+        int chunkSize = Math.max(MIN_CHUNK, length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        int startRow = 0;
+        int row = 0;
+        for(int i = 0; i < length; i++){
+            char c = source[i];
+            if(c == '\n' || (normalizeLines && c == '\r' && (i + 1 == length || source[i + 1] != '\n'))){
+                row++;
+                //only split after \n, so a piece never ends between \r and \n
+                if(c == '\n' && i + 1 - start >= chunkSize && splitsAt(source, i + 1, length)){
+                    chunks.add(new Chunk(source, start, i + 1 - start, startRow, normalizeLines));
+                    start = i + 1;
+                    startRow = row;
+                }
+            }
+        }
+        chunks.add(new Chunk(source, start, length - start, startRow, normalizeLines));
+        return chunks;
+    }
+
+    /**
+     * method to check if a line starts a statement at indentation 0 that cannot continue an earlier one
+     * @param source - source chars
+     * @param offset - start of line
+     * @param length - number of chars in source
+     * @return true if the source can be split before the line
+     */
+    private static boolean splitsAt(char[] source, int offset, int length){
+        if(offset >= length){
+            return false;
+        }
+        TokenType keyword = LexicalAnalyzer.keywordAt(source, offset, length);
+        return keyword == TokenType.LET || keyword == TokenType.DISPLAY || keyword == TokenType.INPUT
+                || keyword == TokenType.IF || keyword == TokenType.WHILE || keyword == TokenType.FOR;
+    }
+
+    /**
+     * method to parse a whole source on the calling thread
+     * @param source - source chars
+     * @param length - number of chars in source
+     * @param normalizeLines - true to read line endings like LexicalAnalyzer(Reader)
+     * @return program node that is root of parse tree
+     */
+    private static ProgramNode serial(char[] source, int length, boolean normalizeLines){
+        return new Parser(new LexicalAnalyzer(new CharArrayReader(source, 0, length), normalizeLines, 0)).parse();
+    }
+
+    /**
+     * class for one piece of a source, lexed and parsed on its own, an error is kept for the join
+     */
+    private static class Chunk extends RecursiveAction {
+        private final char[] source;
+        private final int offset;
+        private final int length;
+        private final int row;
+        private final boolean normalizeLines;
+        private ProgramNode result;
+        private RuntimeException failure;
+
+        private Chunk(char[] source, int offset, int length, int row, boolean normalizeLines){
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+            this.row = row;
+            this.normalizeLines = normalizeLines;
+        }
+
+        /**
+         * method to lex and parse the piece
+         */
+        @Override
+        protected void compute(){
+            try {
+                result = new Parser(new LexicalAnalyzer(new CharArrayReader(source, offset, length), normalizeLines, row)).parse();
+            }
+            catch (RuntimeException e){
+                failure = e;
+            }
+        }
+    }
+}
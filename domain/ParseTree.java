@@ -1,4 +1,12 @@
 package domain;
+import domain.engine.Engine;
+import domain.engine.Executable;
+import domain.engine.InterpreterEngine;
+import domain.io.InputSource;
+import domain.io.OutputSink;
+import domain.io.PromptingInputSource;
+import domain.io.ScannerInputSource;
+import domain.io.TextOutputSink;
 import domain.node.ProgramNode;
 import globalexceptions.InvalidArgumentException;
 
@@ -6,24 +14,76 @@ import globalexceptions.InvalidArgumentException;
  * class for parse tree, evaluates value of expression
  */
 public class ParseTree {
-    private Memory memory = new Memory();
+    private Memory memory;
     private ProgramNode programNode;
+    private Executable executable;
 
     /**
-     * constructor for parse tree
+     * constructor for parse tree, evaluated by the tree walker
      * @param programNode - program node as root of tree
      * @throws InvalidArgumentException if programNode is null
      */
     public ParseTree(ProgramNode programNode) throws InvalidArgumentException {
+        this(programNode, new InterpreterEngine());
+    }
+
+    /**
+     * constructor for parse tree, resolves the program if the Resolver has not been run yet
+     * @param programNode - program node as root of tree
+     * @param engine - execution engine used by evaluate
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public ParseTree(ProgramNode programNode, Engine engine) throws InvalidArgumentException {
+        this(programNode, engine, new TextOutputSink(System.out));
+    }
+
+    /**
+     * constructor for parse tree, resolves the program if the Resolver has not been run yet
+     * @param programNode - program node as root of tree
+     * @param engine - execution engine used by evaluate
+     * @param output - sink for display statements
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public ParseTree(ProgramNode programNode, Engine engine, OutputSink output) throws InvalidArgumentException {
+        this(programNode, engine, output, new PromptingInputSource(new ScannerInputSource(System.in), System.out));
+    }
+
+    /**
+     * constructor for parse tree, resolves the program if the Resolver has not been run yet
+     * @param programNode - program node as root of tree
+     * @param engine - execution engine used by evaluate
+     * @param output - sink for display statements
+     * @param input - source for input statements
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public ParseTree(ProgramNode programNode, Engine engine, OutputSink output, InputSource input) throws InvalidArgumentException {
         if(programNode == null) throw new InvalidArgumentException("Null expression parameter in ParseTree constructor.");
+        if(engine == null) throw new InvalidArgumentException("Null engine parameter in ParseTree constructor.");
+        if(output == null) throw new InvalidArgumentException("Null output parameter in ParseTree constructor.");
+        if(input == null) throw new InvalidArgumentException("Null input parameter in ParseTree constructor.");
+        this.executable = DeepStack.call(programNode.getDepthBound(), () -> {
+            if(programNode.getSymbolTable() == null){
+                new Resolver().resolve(programNode);
+            }
+            return engine.compile(programNode);
+        });
         this.programNode = programNode;
+        this.memory = new Memory(programNode.getSymbolTable(), output, input);
     }
 
     /**
-     * method to evaluate value of expression tree
+     * method to evaluate value of expression tree, on a DeepStack thread if the tree is deep, buffered output is flushed even if the program fails
      * @return value of tree in postorder traversal
      */
     public void evaluate(){
-        programNode.execute(memory);
+        try {
+            DeepStack.call(programNode.getDepthBound(), () -> {
+                executable.run(memory);
+                return null;
+            });
+        }
+        finally {
+            memory.getOutput().flush();
+        }
     }
 }
\ No newline at end of file
@@ -2,18 +2,36 @@ package domain;
 
 import globalexceptions.*;
 import domain.node.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
 /**
  * class for a parser which contains information, parse method, match method, and necessary recursive methods for recursive descent
+ * binary operators and nested blocks are parsed with explicit stacks instead of recursion, so input size does not reach the call stack
  */
 public class Parser {
-    private LexicalAnalyzer lex;
-    private Token current_token;
+    //operator stack entries of expression()
+    private static final int OPEN_PAREN = 0;
+    private static final int NEGATE = 1;
+    private static final int ADD = 2;
+    private static final int SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int DIVIDE = 5;
+
+    //binary operator precedence, PRIMARY accepts no binary operator outside parens
+    private static final int ADDITIVE = 1;
+    private static final int MULTIPLICATIVE = 2;
+    private static final int PRIMARY = 3;
+
+    private TokenStream tokens;
+    //tokens matched so far, bounds the depth of the tree built from them
+    private int matched;
 
     /**
-     * constructor for parser
+     * constructor for parser, tokens are read from the lexical analyzer as they are scanned
      * @param lex - lexical analyzer
      * @throws InvalidArgumentException if lex is null
      */
@@ -21,8 +39,21 @@ public class Parser {
         if(lex == null){
             throw new InvalidArgumentException("Null lexical analyzer in Parser constructor.");
         }
-        this.lex = lex;
-        this.current_token = lex.get_token();
+        this.tokens = lex;
+        tokens.advance();
+    }
+
+    /**
+     * constructor for parser over a token stream positioned before its first token, e.g. a TokenBuffer
+     * @param tokens - token stream
+     * @throws InvalidArgumentException if tokens is null
+     */
+    public Parser(TokenStream tokens) throws InvalidArgumentException {
+        if(tokens == null){
+            throw new InvalidArgumentException("Null token stream in Parser constructor.");
+        }
+        this.tokens = tokens;
+        tokens.advance();
     }
 
     /**
@@ -33,14 +64,18 @@ public class Parser {
     //<Program> ::= <Stmt_List>
     public ProgramNode parse(){
         ProgramNode programNode = new ProgramNode(new ArrayList<>());
+        int depthBound = 0;
 
-        while(current_token.get_type() != TokenType.EOS){
-            if(current_token.get_type() == TokenType.EOL){
+        while(tokens.type() != TokenType.EOS){
+            if(tokens.type() == TokenType.EOL){
                 match(TokenType.EOL);
                 continue;
             }
+            int start = matched;
             programNode.addStatement(statement());
+            depthBound = Math.max(depthBound, matched - start);
         }
+        programNode.setDepthBound(depthBound);
         return programNode;
     }
 
@@ -51,36 +86,66 @@ public class Parser {
      */
     public void match(TokenType expected) throws InvalidParseException {
         //check if current token matches expected, if so get next token
-        if(current_token.get_type() == expected){
-            current_token = lex.get_token();
+        if(tokens.type() == expected){
+            tokens.advance();
+            matched++;
         }
         else{
-            throw new InvalidParseException("Invalid token \"" + current_token + "\" on row " + current_token.get_row() + ", col " + current_token.get_col() + " while parsing. Expected " + expected);
+            throw new InvalidParseException("Invalid token \"" + tokens.token() + "\" on row " + tokens.row() + ", col " + tokens.col() + " while parsing. Expected " + expected);
         }
     }
 
     /**
-     * method for a statement definition
+     * method for a statement definition, statements nested in if, while, and for blocks are parsed with an explicit stack of open blocks
+     * so nesting depth is not limited by the call stack
      * @throws InvalidParseException if statement is unrecognized
      * @return specific statement node
      */
     //<Statement> ::= <Assn_Stmt> | <Display_Stmt> | <Input_Stmt>
     public StatementNode statement() throws InvalidParseException{
-        switch(current_token.get_type()){
-            case LET:
-                return assign_statement();
-            case DISPLAY:
-                return display_statement();
-            case INPUT:
-                return input_statement();
-            case IF:
-                return if_statement();
-            case WHILE:
-                return while_statement();
-            case FOR:
-                return for_statement();
-            default:
-                throw new InvalidParseException("Invalid statement while parsing: " + current_token);
+        Deque<Block> open = new ArrayDeque<>();
+        while(true){
+            StatementNode completed = null;
+            switch(tokens.type()){
+                case LET:
+                    completed = assign_statement();
+                    break;
+                case DISPLAY:
+                    completed = display_statement();
+                    break;
+                case INPUT:
+                    completed = input_statement();
+                    break;
+                case IF:
+                    open.push(if_header());
+                    break;
+                case WHILE:
+                    open.push(while_header());
+                    break;
+                case FOR:
+                    open.push(for_header());
+                    break;
+                default:
+                    throw new InvalidParseException("Invalid statement while parsing: " + tokens.token());
+            }
+
+            //add the statement to its block, then close every block that ends after it
+            while(true){
+                if(completed != null){
+                    if(open.isEmpty()){
+                        return completed;
+                    }
+                    open.peek().statements.add(completed);
+                }
+                while(tokens.type() == TokenType.EOL){
+                    match(TokenType.EOL);
+                }
+                if(tokens.type() != TokenType.EOS && tokens.type() != TokenType.DEDENT){
+                    break;
+                }
+                match(TokenType.DEDENT);
+                completed = close_block(open);
+            }
         }
     }
 
@@ -91,11 +156,12 @@ public class Parser {
     //<Assn_Stmt> ::= “let” <id> “:=” <Arithmetic_Expression> <EOL>
     public LetStatementNode assign_statement(){
         match(TokenType.LET);
+        int symbol = tokens.symbol();
         String id = identifier();
         match(TokenType.ASSIGNMENT);
         ArithmeticExpressionNode expr = arithmetic_expression();
         match(TokenType.EOL);
-        return new LetStatementNode(id, expr);
+        return new LetStatementNode(id, symbol, expr);
     }
 
     /**
@@ -105,9 +171,10 @@ public class Parser {
     //<Display_Stmt> ::= “display” id <EOL>
     public DisplayStatementNode display_statement(){
         match(TokenType.DISPLAY);
+        int symbol = tokens.symbol();
         String id = identifier();
         match(TokenType.EOL);
-        return new DisplayStatementNode(id);
+        return new DisplayStatementNode(id, symbol);
     }
 
     /**
@@ -117,105 +184,120 @@ public class Parser {
     //<Input_Stmt> ::= “input” id <EOL>
     public InputStatementNode input_statement(){
         match(TokenType.INPUT);
+        int symbol = tokens.symbol();
         String id = identifier();
         match(TokenType.EOL);
-        return new InputStatementNode(id);
+        return new InputStatementNode(id, symbol);
     }
 
     /**
-     * method for an if statement definition
-     * @return if statement node
+     * method for the header of an if statement, up to the indent of its block
+     * @return open if block
      */
-    public IfStatementNode if_statement(){
+    private Block if_header(){
         match(TokenType.IF);
-        BooleanExpressionNode condition = relational_expression();
+        Block block = new Block(TokenType.IF);
+        block.condition = relational_expression();
         match(TokenType.COLON);
         match(TokenType.EOL);
-
-        List<StatementNode> ifStatements = statement_block();
-        List<StatementNode> elseStatements = remaining_if();
-        return new IfStatementNode(condition,ifStatements,elseStatements);
-    }
-
-    /**
-     * method for remaining if statement definition
-     * @return statement_block()
-     */
-    public List<StatementNode> remaining_if(){
-        if(current_token.get_type() == TokenType.ELSE){
-            match(TokenType.ELSE);
-            match(TokenType.COLON);
-            match(TokenType.EOL);
-            return statement_block();
-        }
-        else if(current_token.get_type() == TokenType.ELIF){
-            match(TokenType.ELIF);
-            BooleanExpressionNode elifCondition = relational_expression();
-            match(TokenType.COLON);
-            match(TokenType.EOL);
-            List<StatementNode> elifStatements = statement_block();
-
-            List<StatementNode> remainingElse = remaining_if();
-
-            List<StatementNode> elseStatements = new ArrayList<>();
-            elseStatements.add(new IfStatementNode(elifCondition,elifStatements,remainingElse));
-            return elseStatements;
-        }
-        return null;
+        match(TokenType.INDENT);
+        return block;
     }
 
     /**
-     * method for a while statement definition
-     * @return while statement node
+     * method for the header of a while statement, up to the indent of its block
+     * @return open while block
      */
-    public WhileStatementNode while_statement(){
+    private Block while_header(){
         match(TokenType.WHILE);
-        BooleanExpressionNode condition = relational_expression();
+        Block block = new Block(TokenType.WHILE);
+        block.condition = relational_expression();
         match(TokenType.COLON);
         match(TokenType.EOL);
-        List<StatementNode> statements = statement_block();
-        return new WhileStatementNode(condition, statements);
+        match(TokenType.INDENT);
+        return block;
     }
 
     /**
-     * method for a for loop statement definition
-     * @return for statement node
+     * method for the header of a for loop statement, up to the indent of its block
+     * @return open for block
      */
-    public ForStatementNode for_statement(){
+    private Block for_header(){
         match(TokenType.FOR);
-        String id = identifier();
+        Block block = new Block(TokenType.FOR);
+        block.symbol = tokens.symbol();
+        block.id = identifier();
         match(TokenType.IN);
 
-        ArithmeticExpressionNode start = arithmetic_expression();
+        block.start = arithmetic_expression();
         match(TokenType.RANGE);
-        ArithmeticExpressionNode end = arithmetic_expression();
+        block.end = arithmetic_expression();
 
         match(TokenType.COLON);
         match(TokenType.EOL);
-
-        List<StatementNode> statements = statement_block();
-        return new ForStatementNode(id, start, end, statements);
+        match(TokenType.INDENT);
+        return block;
     }
 
     /**
-     * method for a statement block definition
-     * @return list of statements
+     * method to close the innermost open block once its dedent is matched
+     * an if or elif block followed by elif or else opens the next block of the chain instead of completing
+     * @param open - stack of open blocks
+     * @return completed statement node, or null if an elif or else block was opened
      */
-    public List<StatementNode> statement_block(){
-        match(TokenType.INDENT);
-        List<StatementNode> statements = new ArrayList<>();
-
-        while(current_token.get_type() != TokenType.EOS && current_token.get_type() != TokenType.DEDENT){
-            if(current_token.get_type() == TokenType.EOL){
-                match(TokenType.EOL);
-                continue;
-            }
+    private StatementNode close_block(Deque<Block> open){
+        Block block = open.pop();
+        switch(block.kind){
+            case WHILE:
+                return new WhileStatementNode(block.condition, block.statements);
+            case FOR:
+                return new ForStatementNode(block.id, block.symbol, block.start, block.end, block.statements);
+            case ELSE:
+                return if_chain(block.previous, block.statements);
+            default:
+                break;
+        }
 
-            statements.add(statement());
+        //remaining if
+        if(tokens.type() == TokenType.ELSE){
+            match(TokenType.ELSE);
+            match(TokenType.COLON);
+            match(TokenType.EOL);
+            match(TokenType.INDENT);
+            Block elseBlock = new Block(TokenType.ELSE);
+            elseBlock.previous = block;
+            open.push(elseBlock);
+            return null;
+        }
+        else if(tokens.type() == TokenType.ELIF){
+            match(TokenType.ELIF);
+            Block elifBlock = new Block(TokenType.ELIF);
+            elifBlock.condition = relational_expression();
+            match(TokenType.COLON);
+            match(TokenType.EOL);
+            match(TokenType.INDENT);
+            elifBlock.previous = block;
+            open.push(elifBlock);
+            return null;
         }
+        return if_chain(block, null);
+    }
 
-        match(TokenType.DEDENT);
-        return statements;
+    /**
+     * method to build the nodes of an if/elif/else chain, each elif becomes an if statement that is the only statement of the else block before it
+     * @param last - last if or elif block of the chain
+     * @param elseStatements - statements of the else block, or null if there is none
+     * @return if statement node of the first block
+     */
+    private IfStatementNode if_chain(Block last, List<StatementNode> elseStatements){
+        for(Block block = last; ; block = block.previous){
+            IfStatementNode ifNode = new IfStatementNode(block.condition, block.statements, elseStatements);
+            if(block.previous == null){
+                return ifNode;
+            }
+            elseStatements = new ArrayList<>();
+            elseStatements.add(ifNode);
+        }
     }
 
     /**
@@ -225,7 +307,7 @@ public class Parser {
     public BooleanExpressionNode relational_expression(){
         ArithmeticExpressionNode left = arithmetic_expression();
 
-        TokenType op = current_token.get_type();
+        TokenType op = tokens.type();
         switch(op){
             case LESS_THAN:
             case LESS_EQUAL:
@@ -236,11 +318,11 @@ public class Parser {
                 match(op);
                 break;
             default:
-                throw new InvalidParseException("Expected relational operator: " + current_token);
+                throw new InvalidParseException("Expected relational operator: " + tokens.token());
         }
 
         ArithmeticExpressionNode right = arithmetic_expression();
-        return new RelationalExpressionNode(left, op, right);
+        return RelationalExpressionNode.create(left, op, right);
     }
 
     /**
@@ -248,85 +330,31 @@ public class Parser {
      * @return expression node
      */
     //<Arithmetic Expression> ::= <Term> <Expression_Prime>
-    public ArithmeticExpressionNode arithmetic_expression(){
-        ArithmeticExpressionNode termNode = term();
-        return expression_prime(termNode);
-    }
-
-    /**
-     * method for an expression prime definition, matches + or - operator
-     * @param expr - expression node from expression()
-     * @throws InvalidArgumentException if expr is null
-     * @return BinaryExpressionNode if operator is + or -, else return expr
-     */
     /*
     <Expression_Prime> ::= “+” <Term> <Expression_Prime>
                             | “-” <Term> <Expression_Prime>
                             | null
      */
-    public ArithmeticExpressionNode expression_prime(ArithmeticExpressionNode expr) throws InvalidArgumentException{
-        if (expr == null){
-            throw new InvalidArgumentException("Null expr node in expression_prime().");
-        }
-        if(current_token.get_type() == TokenType.ADDITION){
-            match(TokenType.ADDITION);
-            TermNodeArithmetic termNode = term();
-            BinaryExpressionNodeArithmetic addExpr = new BinaryExpressionNodeArithmetic(expr,TokenType.ADDITION,termNode);
-            return expression_prime(addExpr);
-        }
-        else if(current_token.get_type() == TokenType.SUBTRACTION){
-            match(TokenType.SUBTRACTION);
-            TermNodeArithmetic termNode = term();
-            BinaryExpressionNodeArithmetic subExpr = new BinaryExpressionNodeArithmetic(expr,TokenType.SUBTRACTION,termNode);
-            return expression_prime(subExpr);
-        }
-
-        return expr;
+    public ArithmeticExpressionNode arithmetic_expression(){
+        return expression(ADDITIVE);
     }
 
     /**
      * method for a term definition
-     * @return TermNode from term_prime()
+     * @return term node
      */
     //<Term> ::= <Factor> <Term_Prime>
-    public TermNodeArithmetic term(){
-        FactorNodeArithmetic factorNode = factor();
-        return term_prime(factorNode);
-    }
-
-    /**
-     * method for a term prime definition, matches * or / operator
-     * @param term TermNodeArithmetic from term()
-     * @throws InvalidArgumentException if term is null
-     * @return BinaryTermNode if operator is * or /, else return term
-     */
     /*
     <Term_Prime> ::= “*” <Factor> <Term_Prime>
                     | “/” <Factor> <Term_Prime>
                     | null
      */
-    public TermNodeArithmetic term_prime(TermNodeArithmetic term) throws InvalidArgumentException{
-        if(term == null){
-            throw new InvalidArgumentException("Null term node in term_prime().");
-        }
-        if(current_token.get_type() == TokenType.MULTIPLICATION){
-            match(TokenType.MULTIPLICATION);
-            FactorNodeArithmetic factor = factor();
-            BinaryTermNodeArithmetic multTerm = new BinaryTermNodeArithmetic(term,TokenType.MULTIPLICATION,factor);
-            return term_prime(multTerm);
-        }
-        else if(current_token.get_type() == TokenType.DIVISION){
-            match(TokenType.DIVISION);
-            FactorNodeArithmetic factor = factor();
-            BinaryTermNodeArithmetic divTerm = new BinaryTermNodeArithmetic(term,TokenType.DIVISION,factor);
-            return term_prime(divTerm);
-        }
-
-        return term;
+    public TermNodeArithmetic term(){
+        return (TermNodeArithmetic) expression(MULTIPLICATIVE);
     }
 
     /**
-     * method for a factor definition, matches ( expr ), or -(unary)
+     * method for a factor definition, matches ( expr ), -(unary), identifier, or int lit
      * @return ParenFactorNode if token type is paren
      * @return NegFactorNode if token type is unary -
      * @return IdentifierNode if token type is identifier
@@ -334,36 +362,143 @@ public class Parser {
      */
     //<Factor> ::= “(“ <Expression> “)” | “-” <Expression> | <Number>
     public FactorNodeArithmetic factor(){
-        if(current_token.get_type() == TokenType.LEFT_PAREN){
-            match(TokenType.LEFT_PAREN);
-            ArithmeticExpressionNode expr = arithmetic_expression();
-            match(TokenType.RIGHT_PAREN);
-            return new ParenFactorNode(expr);
-        }
-        else if(current_token.get_type() == TokenType.SUBTRACTION){
-            match(TokenType.SUBTRACTION);
-            FactorNodeArithmetic factorNode = factor();
-            return new NegFactorNode(factorNode);
+        return (FactorNodeArithmetic) expression(PRIMARY);
+    }
+
+    /**
+     * method for the precedence climbing loop behind arithmetic_expression(), term(), and factor()
+     * operands and operators waiting for their right side are kept on explicit stacks, so long chains and deep nesting use no call stack,
+     * binary operators are left associative and build the same tree as the grammar above
+     * @param minPrecedence - lowest precedence of a binary operator accepted outside parens
+     * @return expression node
+     */
+    private ArithmeticExpressionNode expression(int minPrecedence){
+        List<ArithmeticExpressionNode> operands = new ArrayList<>();
+        int[] operators = new int[16];
+        int operatorCount = 0;
+        int parenDepth = 0;
+
+        while(true){
+            //prefix ( and unary - wait on the operator stack until their factor is read
+            ArithmeticExpressionNode operand;
+            while(true){
+                if(operatorCount == operators.length){
+                    operators = Arrays.copyOf(operators, operatorCount * 2);
+                }
+                if(tokens.type() == TokenType.LEFT_PAREN){
+                    match(TokenType.LEFT_PAREN);
+                    operators[operatorCount++] = OPEN_PAREN;
+                    parenDepth++;
+                }
+                else if(tokens.type() == TokenType.SUBTRACTION){
+                    match(TokenType.SUBTRACTION);
+                    operators[operatorCount++] = NEGATE;
+                }
+                else if(tokens.type() == TokenType.ID){
+                    int symbol = tokens.symbol();
+                    operand = new IdentifierNode(identifier(), symbol);
+                    break;
+                }
+                else{
+                    operand = new NumNode(number());
+                    break;
+                }
+            }
+
+            //a factor is complete, apply its negations and close any parens it ends
+            while(true){
+                while(operatorCount > 0 && operators[operatorCount - 1] == NEGATE){
+                    operatorCount--;
+                    operand = new NegFactorNode(operand);
+                }
+
+                int operator = binary_operator(tokens.type());
+                if(operator >= 0 && (parenDepth > 0 || precedence(operator) >= minPrecedence)){
+                    //left associative, so operators of equal or higher precedence take the operand first
+                    while(operatorCount > 0 && operators[operatorCount - 1] >= ADD && precedence(operators[operatorCount - 1]) >= precedence(operator)){
+                        operand = combine(operands.remove(operands.size() - 1), operators[--operatorCount], operand);
+                    }
+                    operands.add(operand);
+                    if(operatorCount == operators.length){
+                        operators = Arrays.copyOf(operators, operatorCount * 2);
+                    }
+                    operators[operatorCount++] = operator;
+                    match(tokens.type());
+                    break;
+                }
+
+                //end of the innermost paren, or of the whole expression
+                while(operatorCount > 0 && operators[operatorCount - 1] >= ADD){
+                    operand = combine(operands.remove(operands.size() - 1), operators[--operatorCount], operand);
+                }
+                if(parenDepth == 0){
+                    return operand;
+                }
+                match(TokenType.RIGHT_PAREN);
+                operatorCount--;
+                parenDepth--;
+                operand = new ParenFactorNode(operand);
+            }
         }
-        else if(current_token.get_type() == TokenType.ID){
-            String id = identifier();
-            return new IdentifierNode(id);
+    }
 
+    /**
+     * method to get the operator stack entry of a binary operator token
+     * @param type - token type
+     * @return operator stack entry, or -1 if type is not a binary arithmetic operator
+     */
+    private static int binary_operator(TokenType type){
+        switch(type){
+            case ADDITION:
+                return ADD;
+            case SUBTRACTION:
+                return SUBTRACT;
+            case MULTIPLICATION:
+                return MULTIPLY;
+            case DIVISION:
+                return DIVIDE;
+            default:
+                return -1;
         }
-        else{
-            int intLit = number();
-            return new NumNode(intLit);
+    }
+
+    /**
+     * method to get the precedence of a binary operator stack entry
+     * @param operator - operator stack entry
+     * @return ADDITIVE or MULTIPLICATIVE
+     */
+    private static int precedence(int operator){
+        return operator == ADD || operator == SUBTRACT ? ADDITIVE : MULTIPLICATIVE;
+    }
+
+    /**
+     * method to build the node of a binary operator
+     * @param left - left operand, a term for * and /
+     * @param operator - operator stack entry
+     * @param right - right operand, a term for + and -, a factor for * and /
+     * @return binary expression node or binary term node
+     */
+    private static ArithmeticExpressionNode combine(ArithmeticExpressionNode left, int operator, ArithmeticExpressionNode right){
+        switch(operator){
+            case ADD:
+                return BinaryExpressionNodeArithmetic.create(left, TokenType.ADDITION, (TermNodeArithmetic) right);
+            case SUBTRACT:
+                return BinaryExpressionNodeArithmetic.create(left, TokenType.SUBTRACTION, (TermNodeArithmetic) right);
+            case MULTIPLY:
+                return BinaryTermNodeArithmetic.create((TermNodeArithmetic) left, TokenType.MULTIPLICATION, (FactorNodeArithmetic) right);
+            default:
+                return BinaryTermNodeArithmetic.create((TermNodeArithmetic) left, TokenType.DIVISION, (FactorNodeArithmetic) right);
         }
     }
 
     /**
-     * method for an identifier definition
+     * method for an identifier definition, read tokens.symbol() first for its symbol id
      * @return id as string
      */
     //<id> ::= letter<rest_id>
     //<rest_id> ::= letter<rest_id> | digit<rest_id> | letter | digit
     public String identifier(){
-        String id = current_token.get_lexeme();
+        String id = tokens.lexeme();
         match(TokenType.ID);
         return id;
     }
@@ -373,14 +508,37 @@ public class Parser {
      */
     //<Number> ::= Int-Lit
     public int number(){
-        String num = current_token.get_lexeme();
+        String num = tokens.lexeme();
         match(TokenType.INT_LIT);
         return Integer.parseInt(num);
     }
 
     private void consumeEOL() {
-        if (current_token.get_type() == TokenType.EOL) {
+        if (tokens.type() == TokenType.EOL) {
             match(TokenType.EOL);
         }
     }
+
+    /**
+     * class for a block that is still being parsed, kind is the keyword that opened it
+     */
+    private static class Block {
+        private final TokenType kind;
+        private final List<StatementNode> statements = new ArrayList<>();
+        private BooleanExpressionNode condition;
+        private String id;
+        private int symbol;
+        private ArithmeticExpressionNode start;
+        private ArithmeticExpressionNode end;
+        //preceding if or elif block of an elif or else block
+        private Block previous;
+
+        /**
+         * constructor for block
+         * @param kind - IF, ELIF, ELSE, WHILE, or FOR
+         */
+        private Block(TokenType kind){
+            this.kind = kind;
+        }
+    }
 }
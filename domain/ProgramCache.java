@@ -0,0 +1,211 @@
+package domain;
+
+import domain.engine.Engine;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+import globalexceptions.InvalidTokenException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * class for caching compiled programs by the SHA-256 hash of their source, so a program submitted again skips
+ * lexing, parsing, the optimizing passes and engine compilation
+ * entries are evicted least recently used first once their estimated retained size passes the budget,
+ * lookups of the same source from many threads compile it only once, sources that fail to compile are not cached
+ */
+public class ProgramCache {
+    //rough retained size of the tree and compiled artifact per source character, a node costs tens of bytes per token
+    private static final long BYTES_PER_CHAR = 24;
+    private static final long ENTRY_OVERHEAD = 512;
+
+    private final Engine engine;
+    private final long maxBytes;
+    //access ordered, iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long retainedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * constructor for ProgramCache
+     * @param engine - engine programs are compiled with
+     * @param maxBytes - budget for the estimated retained size of cached programs
+     * @throws InvalidArgumentException if engine is null or maxBytes is less than 1
+     */
+    public ProgramCache(Engine engine, long maxBytes) throws InvalidArgumentException{
+        if(engine == null || maxBytes < 1){
+            throw new InvalidArgumentException("Invalid parameter in ProgramCache constructor.");
+        }
+        this.engine = engine;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * method to get the compiled program for source, compiling it if it is not cached
+     * a thread asking for a source another thread is compiling waits for that compilation
+     * @param source - program source
+     * @throws InvalidArgumentException if source is null
+     * @throws InvalidTokenException if the source contains an invalid token
+     * @throws InvalidParseException if the source does not parse
+     * @return compiled program
+     */
+    public CompiledProgram get(String source) throws InvalidArgumentException, InvalidTokenException, InvalidParseException{
+        if(source == null){
+            throw new InvalidArgumentException("Null source in ProgramCache get().");
+        }
+        String key = hash(source);
+        Entry entry;
+        boolean owner = false;
+        synchronized (this){
+            entry = entries.get(key);
+            if(entry == null){
+                entry = new Entry(source.length() * BYTES_PER_CHAR + ENTRY_OVERHEAD);
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+        if(!owner){
+            hits.incrementAndGet();
+            return await(entry);
+        }
+        misses.incrementAndGet();
+        try {
+            CompiledProgram program = ArithLang.compile(source, engine);
+            admit(entry, program);
+            return program;
+        }
+        catch (RuntimeException | Error e){
+            synchronized (this){
+                entries.remove(key, entry);
+            }
+            entry.program.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * method to count the entries currently cached, including ones still compiling
+     * @return number of entries
+     */
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    /**
+     * method to get the estimated retained size of the compiled entries
+     * @return estimated bytes
+     */
+    public synchronized long getRetainedBytes(){
+        return retainedBytes;
+    }
+
+    /**
+     * method to count lookups answered from the cache, including ones that waited for another thread's compilation
+     * @return number of hits
+     */
+    public long getHits(){
+        return hits.get();
+    }
+
+    /**
+     * method to count lookups that compiled their source
+     * @return number of misses
+     */
+    public long getMisses(){
+        return misses.get();
+    }
+
+    /**
+     * method to count entries evicted to stay within the budget
+     * @return number of evictions
+     */
+    public long getEvictions(){
+        return evictions.get();
+    }
+
+    /**
+     * method to drop every compiled entry, counters are kept
+     */
+    public synchronized void clear(){
+        entries.values().removeIf(entry -> entry.program.isDone());
+        retainedBytes = 0;
+    }
+
+    /**
+     * method to count a compiled entry against the budget and evict least recently used entries until it fits,
+     * an entry larger than the whole budget is returned to its caller but not kept
+     * @param entry - entry that just finished compiling
+     * @param program - compiled program of entry
+     */
+    private synchronized void admit(Entry entry, CompiledProgram program){
+        //completed under the lock, so every done entry has been counted
+        entry.program.complete(program);
+        retainedBytes += entry.bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while(retainedBytes > maxBytes && eldest.hasNext()){
+            Entry victim = eldest.next();
+            //entries still compiling have not been counted yet
+            if(victim.program.isDone()){
+                eldest.remove();
+                retainedBytes -= victim.bytes;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * method to wait for an entry compiled by another thread
+     * @param entry - cached entry
+     * @return compiled program
+     */
+    private static CompiledProgram await(Entry entry){
+        try {
+            return entry.program.join();
+        }
+        catch (CompletionException e){
+            //the compiling thread failed, report the same error it got
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * method to hash source text
+     * @param source - program source
+     * @return hex SHA-256 of the UTF-8 source
+     */
+    private static String hash(String source){
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e){
+            //every JVM is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * class for a cache entry, the program is completed by the thread that compiles it
+     */
+    private static class Entry {
+        private final CompletableFuture<CompiledProgram> program = new CompletableFuture<>();
+        private final long bytes;
+
+        private Entry(long bytes){
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,623 @@
+package domain;
+
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * class for precompiled program files, a resolved program tree stored in a compact binary form
+ * so a program can be run without lexing or parsing its source
+ * layout: magic, version, SHA-256 of the source, path of the source relative to the file, identifier table, statements
+ * numbers are unsigned LEB128 varints, literals are zigzag encoded, nodes start with a one byte tag
+ * summarized and specialized nodes are stored as the loops and operators they were built from,
+ * the cheap passes that build them run again when the file is loaded, so a file stays valid when those passes change
+ * nodes are written and read recursively, on a DeepStack thread when the tree is deep
+ */
+public final class ProgramImage {
+    public static final String EXTENSION = ".alc";
+
+    private static final int MAGIC = 0x414C4300;
+    private static final int VERSION = 2;
+    private static final int HASH_LENGTH = 32;
+
+    private static final int LET = 1;
+    private static final int DISPLAY = 2;
+    private static final int INPUT = 3;
+    private static final int IF = 4;
+    private static final int WHILE = 5;
+    private static final int FOR = 6;
+    private static final int NUM = 16;
+    private static final int IDENTIFIER = 17;
+    private static final int NEGATE = 18;
+    private static final int PAREN = 19;
+    private static final int EXPRESSION = 20;
+    private static final int TERM = 21;
+    private static final int RELATIONAL = 32;
+
+    //operator codes are indexes into this array, append only
+    private static final TokenType[] OPERATORS = {
+            TokenType.ADDITION, TokenType.SUBTRACTION, TokenType.MULTIPLICATION, TokenType.DIVISION,
+            TokenType.GREATER_THAN, TokenType.LESS_THAN, TokenType.GREATER_EQUAL, TokenType.LESS_EQUAL,
+            TokenType.EQUAL, TokenType.NOT_EQUAL
+    };
+
+    private ProgramImage(){
+    }
+
+    /**
+     * method to hash a source file, read through a memory mapping
+     * @param source - path of source file
+     * @throws IOException if the file cannot be read
+     * @return SHA-256 of the file bytes
+     */
+    public static byte[] hash(Path source) throws IOException{
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)){
+            MessageDigest digest = sha256();
+            long size = channel.size();
+            for(long start = 0; start < size; start += Integer.MAX_VALUE){
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Integer.MAX_VALUE, size - start)));
+            }
+            return digest.digest();
+        }
+    }
+
+    /**
+     * method to write a resolved program to a file, the hash and path of its source are recorded so read() can tell
+     * when the source has changed
+     * @param programNode - resolved program node, from ArithLang.parse or a later pass
+     * @param source - path of the source file the program was compiled from
+     * @param file - path of file to write
+     * @throws InvalidArgumentException if any parameter is null or programNode is unresolved
+     * @throws IOException if the source cannot be read or the file cannot be written
+     */
+    public static void write(ProgramNode programNode, Path source, Path file) throws InvalidArgumentException, IOException{
+        if(programNode == null || programNode.getSymbolTable() == null || source == null || file == null){
+            throw new InvalidArgumentException("Null or unresolved parameter in ProgramImage write().");
+        }
+        byte[] sourceHash = hash(source);
+        //relative with / separators, so the file and its source can move together and across platforms
+        Path directory = file.toAbsolutePath().getParent();
+        String sourcePath = directory.relativize(source.toAbsolutePath()).toString().replace(source.getFileSystem().getSeparator(), "/");
+
+        Writer body = new Writer();
+        DeepStack.call(programNode.getDepthBound(), () -> {
+            body.statements(programNode.getStatements());
+            return null;
+        });
+
+        Writer header = new Writer();
+        header.fixed(MAGIC);
+        header.varint(VERSION);
+        header.out.write(sourceHash);
+        byte[] sourceBytes = sourcePath.getBytes(StandardCharsets.UTF_8);
+        header.varint(sourceBytes.length);
+        header.out.write(sourceBytes);
+        header.varint(body.ids.size());
+        for(String id : body.ids.keySet()){
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            header.varint(bytes.length);
+            header.out.write(bytes);
+        }
+        try (OutputStream out = Files.newOutputStream(file)){
+            header.out.writeTo(out);
+            body.out.writeTo(out);
+        }
+    }
+
+    /**
+     * method to load a program file, checked against the source file it was compiled from when that file still exists
+     * @param file - path of program file
+     * @throws InvalidArgumentException if file is null, is not a program file of this version, or is stale
+     * @throws InvalidParseException if the file is truncated or corrupt
+     * @throws IOException if a file cannot be read
+     * @return program node
+     */
+    public static ProgramNode read(Path file) throws InvalidArgumentException, InvalidParseException, IOException{
+        return read(file, null, true);
+    }
+
+    /**
+     * method to load a program file through a memory mapping, the result is resolved, summarized and specialized
+     * like the result of ArithLang.parse
+     * @param file - path of program file
+     * @param sourceHash - SHA-256 the file must have been compiled from, or null to skip the check
+     * @throws InvalidArgumentException if file is null, is not a program file of this version, or is stale
+     * @throws InvalidParseException if the file is truncated or corrupt
+     * @throws IOException if the file cannot be read
+     * @return program node
+     */
+    public static ProgramNode read(Path file, byte[] sourceHash) throws InvalidArgumentException, InvalidParseException, IOException{
+        return read(file, sourceHash, false);
+    }
+
+    /**
+     * method to load a program file
+     * @param file - path of program file
+     * @param sourceHash - SHA-256 the file must have been compiled from, or null
+     * @param checkSource - true to check against the recorded source file instead of sourceHash
+     * @throws InvalidArgumentException if file is null, is not a program file of this version, or is stale
+     * @throws InvalidParseException if the file is truncated or corrupt
+     * @throws IOException if a file cannot be read
+     * @return program node
+     */
+    private static ProgramNode read(Path file, byte[] sourceHash, boolean checkSource) throws IOException{
+        if(file == null){
+            throw new InvalidArgumentException("Null file in ProgramImage read().");
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            if(channel.size() > Integer.MAX_VALUE){
+                throw new InvalidArgumentException("Compiled program is too large: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            Reader reader = new Reader(buffer);
+            if(buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC){
+                throw new InvalidArgumentException("Not a compiled program: " + file);
+            }
+            int version = reader.varint();
+            if(version != VERSION){
+                throw new InvalidArgumentException("Unsupported compiled program version " + version + ": " + file);
+            }
+            byte[] stored = new byte[HASH_LENGTH];
+            buffer.get(stored);
+            String sourcePath = reader.string();
+            if(checkSource){
+                Path source = file.toAbsolutePath().getParent().resolve(sourcePath);
+                sourceHash = Files.isRegularFile(source) ? hash(source) : null;
+            }
+            if(sourceHash != null && !Arrays.equals(stored, sourceHash)){
+                throw new InvalidArgumentException("Stale compiled program, source has changed since it was compiled: " + file);
+            }
+            //every node takes at least one byte of the file
+            ProgramNode programNode = DeepStack.call(buffer.remaining(), reader::program);
+            if(buffer.hasRemaining()){
+                throw new InvalidParseException("Trailing bytes in compiled program: " + file);
+            }
+            return ArithLang.optimize(programNode);
+        }
+        catch (BufferUnderflowException e){
+            throw new InvalidParseException("Truncated compiled program: " + file);
+        }
+    }
+
+    /**
+     * method to create a SHA-256 digest
+     * @return message digest
+     */
+    private static MessageDigest sha256(){
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e){
+            //every JVM is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * method to get the code of an operator
+     * @param operator - operator token type
+     * @throws InvalidArgumentException if the operator has no code
+     * @return operator code
+     */
+    private static int operatorCode(TokenType operator){
+        for(int code = 0; code < OPERATORS.length; code++){
+            if(OPERATORS[code] == operator){
+                return code;
+            }
+        }
+        throw new InvalidArgumentException("Cannot write operator: " + operator);
+    }
+
+    /**
+     * class for encoding nodes, identifiers are numbered in the order they are first written
+     */
+    private static class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final LinkedHashMap<String, Integer> ids = new LinkedHashMap<>();
+
+        /**
+         * method to write a block of statements
+         * @param statements - statement list
+         */
+        private void statements(List<StatementNode> statements){
+            varint(statements.size());
+            for(StatementNode statement : statements){
+                statement(statement);
+            }
+        }
+
+        /**
+         * method to write a statement
+         * @param statement - statement node
+         * @throws InvalidArgumentException if statement type is unknown
+         */
+        private void statement(StatementNode statement){
+            if(statement instanceof LetStatementNode let){
+                out.write(LET);
+                id(let.getId());
+                expression(let.getExpression());
+            }
+            else if(statement instanceof DisplayStatementNode display){
+                out.write(DISPLAY);
+                id(display.getId());
+            }
+            else if(statement instanceof InputStatementNode input){
+                out.write(INPUT);
+                id(input.getId());
+            }
+            else if(statement instanceof IfStatementNode ifNode){
+                out.write(IF);
+                condition(ifNode.getCondition());
+                statements(ifNode.getIfBlock());
+                out.write(ifNode.getElseBlock() == null ? 0 : 1);
+                if(ifNode.getElseBlock() != null){
+                    statements(ifNode.getElseBlock());
+                }
+            }
+            else if(statement instanceof WhileStatementNode whileNode){
+                out.write(WHILE);
+                condition(whileNode.getCondition());
+                statements(whileNode.getStatements());
+            }
+            else if(statement instanceof ForStatementNode forNode){
+                out.write(FOR);
+                id(forNode.getId());
+                expression(forNode.getStartExpression());
+                expression(forNode.getEndExpression());
+                statements(forNode.getStatements());
+            }
+            else if(statement instanceof ClosedFormLoopNode closedForm){
+                statement(closedForm.getLoop());
+            }
+            else if(statement instanceof ParallelForNode parallelFor){
+                statement(parallelFor.getLoop());
+            }
+            else{
+                throw new InvalidArgumentException("Cannot write statement: " + statement);
+            }
+        }
+
+        /**
+         * method to write a condition
+         * @param condition - boolean expression node
+         * @throws InvalidArgumentException if condition type is unknown
+         */
+        private void condition(BooleanExpressionNode condition){
+            if(condition instanceof RelationalExpressionNode relational){
+                out.write(RELATIONAL);
+                varint(operatorCode(relational.getOperator()));
+                expression(relational.getLeft());
+                expression(relational.getRight());
+            }
+            else{
+                throw new InvalidArgumentException("Cannot write condition: " + condition);
+            }
+        }
+
+        /**
+         * method to write an arithmetic expression
+         * @param expression - arithmetic expression node
+         * @throws InvalidArgumentException if expression type is unknown
+         */
+        private void expression(ArithmeticExpressionNode expression){
+            if(expression instanceof NumNode num){
+                out.write(NUM);
+                int value = num.getValue();
+                varint((value << 1) ^ (value >> 31));
+            }
+            else if(expression instanceof IdentifierNode identifier){
+                out.write(IDENTIFIER);
+                id(identifier.getId());
+            }
+            else if(expression instanceof NegFactorNode negate){
+                out.write(NEGATE);
+                expression(negate.getExpression());
+            }
+            else if(expression instanceof ParenFactorNode paren){
+                out.write(PAREN);
+                expression(paren.getExpression());
+            }
+            else if(expression instanceof BinaryExpressionNodeArithmetic binary){
+                out.write(EXPRESSION);
+                varint(operatorCode(binary.getOperator()));
+                expression(binary.getLeft());
+                expression(binary.getRight());
+            }
+            else if(expression instanceof BinaryTermNodeArithmetic binary){
+                out.write(TERM);
+                varint(operatorCode(binary.getOperator()));
+                expression(binary.getLeft());
+                expression(binary.getRight());
+            }
+            else{
+                throw new InvalidArgumentException("Cannot write expression: " + expression);
+            }
+        }
+
+        /**
+         * method to write an identifier as its index in the identifier table, spellings are kept for display
+         * @param id - identifier as written in the source
+         */
+        private void id(String id){
+            Integer index = ids.get(id);
+            if(index == null){
+                index = ids.size();
+                ids.put(id, index);
+            }
+            varint(index);
+        }
+
+        /**
+         * method to write an unsigned varint
+         * @param value - value, read as unsigned
+         */
+        private void varint(int value){
+            while((value & ~0x7F) != 0){
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        /**
+         * method to write a big endian int
+         * @param value - value
+         */
+        private void fixed(int value){
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    /**
+     * class for decoding nodes from a buffer positioned after the source hash
+     */
+    private static class Reader {
+        private final ByteBuffer buffer;
+        private final SymbolTable symbols = new SymbolTable();
+        private String[] ids;
+        private int[] slots;
+
+        private Reader(ByteBuffer buffer){
+            this.buffer = buffer;
+        }
+
+        /**
+         * method to read the identifier table and statements, slots are assigned as the resolver would assign them
+         * @return resolved program node
+         */
+        private ProgramNode program(){
+            int count = length();
+            ids = new String[count];
+            for(int i = 0; i < count; i++){
+                ids[i] = string();
+            }
+            slots = new int[count];
+            //identifiers were numbered in the order the resolver visits them, so interning in order gives the same slots
+            for(int i = 0; i < count; i++){
+                slots[i] = symbols.intern(ids[i]);
+            }
+            //top level statements are counted here to bound the depth of the tree by the bytes of each
+            int statementCount = length();
+            ArrayList<StatementNode> statements = new ArrayList<>(statementCount);
+            int depthBound = 0;
+            for(int i = 0; i < statementCount; i++){
+                int start = buffer.position();
+                statements.add(statement());
+                depthBound = Math.max(depthBound, buffer.position() - start);
+            }
+            ProgramNode programNode = new ProgramNode(statements);
+            programNode.setSymbolTable(symbols);
+            programNode.setDepthBound(depthBound);
+            return programNode;
+        }
+
+        /**
+         * method to read a block of statements
+         * @return statement list
+         */
+        private ArrayList<StatementNode> statements(){
+            int count = length();
+            ArrayList<StatementNode> statements = new ArrayList<>(Math.min(count, buffer.remaining()));
+            for(int i = 0; i < count; i++){
+                statements.add(statement());
+            }
+            return statements;
+        }
+
+        /**
+         * method to read a statement
+         * @throws InvalidParseException if the tag is unknown
+         * @return statement node
+         */
+        private StatementNode statement(){
+            int tag = buffer.get();
+            switch (tag){
+                case LET: {
+                    int id = id();
+                    LetStatementNode let = new LetStatementNode(ids[id], expression());
+                    let.setSlot(slots[id]);
+                    return let;
+                }
+                case DISPLAY: {
+                    int id = id();
+                    DisplayStatementNode display = new DisplayStatementNode(ids[id]);
+                    display.setSlot(slots[id]);
+                    return display;
+                }
+                case INPUT: {
+                    int id = id();
+                    InputStatementNode input = new InputStatementNode(ids[id]);
+                    input.setSlot(slots[id]);
+                    return input;
+                }
+                case IF: {
+                    BooleanExpressionNode condition = condition();
+                    ArrayList<StatementNode> ifBlock = statements();
+                    return new IfStatementNode(condition, ifBlock, buffer.get() == 0 ? null : statements());
+                }
+                case WHILE: {
+                    BooleanExpressionNode condition = condition();
+                    return new WhileStatementNode(condition, statements());
+                }
+                case FOR: {
+                    int id = id();
+                    ArithmeticExpressionNode start = expression();
+                    ArithmeticExpressionNode end = expression();
+                    ForStatementNode forNode = new ForStatementNode(ids[id], start, end, statements());
+                    forNode.setSlot(slots[id]);
+                    return forNode;
+                }
+                default:
+                    throw new InvalidParseException("Unknown statement tag in compiled program: " + tag);
+            }
+        }
+
+        /**
+         * method to read a condition
+         * @throws InvalidParseException if the tag is unknown
+         * @return boolean expression node
+         */
+        private BooleanExpressionNode condition(){
+            int tag = buffer.get();
+            if(tag != RELATIONAL){
+                throw new InvalidParseException("Unknown condition tag in compiled program: " + tag);
+            }
+            TokenType operator = operator();
+            ArithmeticExpressionNode left = expression();
+            return RelationalExpressionNode.create(left, operator, expression());
+        }
+
+        /**
+         * method to read an arithmetic expression
+         * @throws InvalidParseException if the tag is unknown or a child has the wrong kind
+         * @return arithmetic expression node
+         */
+        private ArithmeticExpressionNode expression(){
+            int tag = buffer.get();
+            switch (tag){
+                case NUM: {
+                    int value = varint();
+                    return new NumNode((value >>> 1) ^ -(value & 1));
+                }
+                case IDENTIFIER: {
+                    int id = id();
+                    IdentifierNode identifier = new IdentifierNode(ids[id]);
+                    identifier.setSlot(slots[id]);
+                    return identifier;
+                }
+                case NEGATE:
+                    return new NegFactorNode(expression());
+                case PAREN:
+                    return new ParenFactorNode(expression());
+                case EXPRESSION: {
+                    TokenType operator = operator();
+                    ArithmeticExpressionNode left = expression();
+                    if(!(expression() instanceof TermNodeArithmetic right)){
+                        throw new InvalidParseException("Corrupt expression in compiled program.");
+                    }
+                    return BinaryExpressionNodeArithmetic.create(left, operator, right);
+                }
+                case TERM: {
+                    TokenType operator = operator();
+                    if(!(expression() instanceof TermNodeArithmetic left) || !(expression() instanceof FactorNodeArithmetic right)){
+                        throw new InvalidParseException("Corrupt term in compiled program.");
+                    }
+                    return BinaryTermNodeArithmetic.create(left, operator, right);
+                }
+                default:
+                    throw new InvalidParseException("Unknown expression tag in compiled program: " + tag);
+            }
+        }
+
+        /**
+         * method to read an operator code
+         * @throws InvalidParseException if the code is unknown
+         * @return operator token type
+         */
+        private TokenType operator(){
+            int code = varint();
+            if(code < 0 || code >= OPERATORS.length){
+                throw new InvalidParseException("Unknown operator in compiled program: " + code);
+            }
+            return OPERATORS[code];
+        }
+
+        /**
+         * method to read an identifier index
+         * @throws InvalidParseException if the index is outside the identifier table
+         * @return identifier index
+         */
+        private int id(){
+            int id = varint();
+            if(id < 0 || id >= ids.length){
+                throw new InvalidParseException("Unknown identifier in compiled program: " + id);
+            }
+            return id;
+        }
+
+        /**
+         * method to read a UTF-8 string preceded by its length in bytes
+         * @throws InvalidParseException if the length is invalid
+         * @return string
+         */
+        private String string(){
+            byte[] bytes = new byte[length()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * method to read a count or length, every counted item takes at least one byte,
+         * so a value above the bytes left comes from a corrupt file and is rejected before anything is allocated
+         * @throws InvalidParseException if the value is negative or larger than the bytes left
+         * @return count
+         */
+        private int length(){
+            int length = varint();
+            if(length < 0 || length > buffer.remaining()){
+                throw new InvalidParseException("Invalid length in compiled program: " + length);
+            }
+            return length;
+        }
+
+        /**
+         * method to read an unsigned varint
+         * @throws InvalidParseException if the varint is longer than five bytes
+         * @return value
+         */
+        private int varint(){
+            int value = 0;
+            for(int shift = 0; shift < 35; shift += 7){
+                int b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if((b & 0x80) == 0){
+                    return value;
+                }
+            }
+            throw new InvalidParseException("Invalid varint in compiled program.");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package domain;
+
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * class for the resolver pass, run after Parser.parse(), assigns each distinct identifier a memory slot
+ * and stores the slot in every node that reads or writes that identifier
+ * nodes built by the parser carry the lexer's symbol id, so only the first use of each symbol hashes its name
+ */
+public class Resolver {
+    private SymbolTable symbols;
+    //slot + 1 of each symbol id seen so far, 0 if not seen
+    private int[] slotOfSymbol;
+
+    /**
+     * method to resolve every identifier of a program, slots are assigned in source order
+     * @param programNode - root of parse tree
+     * @throws InvalidArgumentException if programNode is null
+     * @return symbol table of program
+     */
+    public SymbolTable resolve(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null){
+            throw new InvalidArgumentException("Null program node in Resolver resolve().");
+        }
+        symbols = new SymbolTable();
+        slotOfSymbol = new int[64];
+        resolveStatements(programNode.getStatements());
+        programNode.setSymbolTable(symbols);
+        return symbols;
+    }
+
+    /**
+     * method to resolve a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     */
+    private void resolveStatements(List<StatementNode> statements){
+        if(statements == null){
+            return;
+        }
+        for(StatementNode statement : statements){
+            resolveStatement(statement);
+        }
+    }
+
+    /**
+     * method to resolve a single statement
+     * @param statement - statement node
+     * @throws InvalidParseException if statement type is unknown
+     */
+    private void resolveStatement(StatementNode statement){
+        if(statement instanceof LetStatementNode let){
+            let.setSlot(slot(let.getId(), let.getSymbol()));
+            resolveExpression(let.getExpression());
+        }
+        else if(statement instanceof DisplayStatementNode display){
+            display.setSlot(slot(display.getId(), display.getSymbol()));
+        }
+        else if(statement instanceof InputStatementNode input){
+            input.setSlot(slot(input.getId(), input.getSymbol()));
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            resolveCondition(ifNode.getCondition());
+            resolveStatements(ifNode.getIfBlock());
+            resolveStatements(ifNode.getElseBlock());
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            resolveCondition(whileNode.getCondition());
+            resolveStatements(whileNode.getStatements());
+        }
+        else if(statement instanceof ForStatementNode forNode){
+            forNode.setSlot(slot(forNode.getId(), forNode.getSymbol()));
+            resolveExpression(forNode.getStartExpression());
+            resolveExpression(forNode.getEndExpression());
+            resolveStatements(forNode.getStatements());
+        }
+        else{
+            throw new InvalidParseException("Unknown statement in Resolver: " + statement);
+        }
+    }
+
+    /**
+     * method to get the slot of an identifier, by symbol id when it has one
+     * a cached slot is only used if it holds the same name, as symbol ids of different lexers may meet in one tree
+     * @param id - name of identifier
+     * @param symbol - symbol id from the lexer, or -1 if none
+     * @return slot index of id
+     */
+    private int slot(String id, int symbol){
+        if(symbol < 0){
+            return symbols.intern(id);
+        }
+        if(symbol >= slotOfSymbol.length){
+            slotOfSymbol = Arrays.copyOf(slotOfSymbol, Math.max(slotOfSymbol.length * 2, symbol + 1));
+        }
+        int slot = slotOfSymbol[symbol] - 1;
+        if(slot >= 0 && symbols.name(slot).equals(id)){
+            return slot;
+        }
+        slot = symbols.intern(id);
+        slotOfSymbol[symbol] = slot + 1;
+        return slot;
+    }
+
+    /**
+     * method to resolve a boolean expression
+     * @param condition - boolean expression node
+     * @throws InvalidParseException if condition type is unknown
+     */
+    private void resolveCondition(BooleanExpressionNode condition){
+        if(condition instanceof RelationalExpressionNode relational){
+            resolveExpression(relational.getLeft());
+            resolveExpression(relational.getRight());
+        }
+        else{
+            throw new InvalidParseException("Unknown condition in Resolver: " + condition);
+        }
+    }
+
+    /**
+     * method to resolve an arithmetic expression
+     * @param expr - arithmetic expression node
+     * @throws InvalidParseException if expression type is unknown
+     */
+    private void resolveExpression(ArithmeticExpressionNode expr){
+        if(expr instanceof IdentifierNode identifier){
+            identifier.setSlot(slot(identifier.getId(), identifier.getSymbol()));
+        }
+        else if(expr instanceof NumNode){
+            return;
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            resolveExpression(binary.getLeft());
+            resolveExpression(binary.getRight());
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary){
+            resolveExpression(binary.getLeft());
+            resolveExpression(binary.getRight());
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            resolveExpression(paren.getExpression());
+        }
+        else if(expr instanceof NegFactorNode neg){
+            resolveExpression(neg.getExpression());
+        }
+        else{
+            throw new InvalidParseException("Unknown expression in Resolver: " + expr);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package domain;
+
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * class for the specialization pass, run after the Resolver
+ * rewrites binary and relational nodes whose operands are identifiers or literals into nodes that read slots directly,
+ * e.g. i + 1 becomes AddSlotConstNode and i < n becomes LessThanSlotSlotNode
+ */
+public class Specializer {
+
+    /**
+     * method to specialize a resolved program, returns a new program node sharing the symbol table
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return specialized program node
+     */
+    public ProgramNode specialize(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in Specializer specialize().");
+        }
+        ProgramNode specialized = new ProgramNode(new ArrayList<>(specializeBlock(programNode.getStatements())));
+        specialized.setSymbolTable(programNode.getSymbolTable());
+        specialized.setDepthBound(programNode.getDepthBound());
+        return specialized;
+    }
+
+    /**
+     * method to specialize a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     * @return specialized list of statements, or null if statements is null
+     */
+    private List<StatementNode> specializeBlock(List<StatementNode> statements){
+        if(statements == null){
+            return null;
+        }
+        List<StatementNode> specialized = new ArrayList<>();
+        for(StatementNode statement : statements){
+            specialized.add(specializeStatement(statement));
+        }
+        return specialized;
+    }
+
+    /**
+     * method to specialize a single statement, slots are copied to the rebuilt node
+     * @param statement - statement node
+     * @throws InvalidParseException if statement type is unknown
+     * @return specialized statement node
+     */
+    private StatementNode specializeStatement(StatementNode statement){
+        if(statement instanceof LetStatementNode let){
+            LetStatementNode specialized = new LetStatementNode(let.getId(), specializeExpression(let.getExpression()));
+            specialized.setSlot(let.getSlot());
+            return specialized;
+        }
+        else if(statement instanceof DisplayStatementNode || statement instanceof InputStatementNode
+                || statement instanceof ClosedFormLoopNode || statement instanceof ParallelForNode){
+            return statement;
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            return new IfStatementNode(specializeCondition(ifNode.getCondition()), specializeBlock(ifNode.getIfBlock()), specializeBlock(ifNode.getElseBlock()));
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            return new WhileStatementNode(specializeCondition(whileNode.getCondition()), specializeBlock(whileNode.getStatements()));
+        }
+        else if(statement instanceof ForStatementNode forNode){
+            ForStatementNode specialized = new ForStatementNode(forNode.getId(), specializeExpression(forNode.getStartExpression()),
+                    specializeExpression(forNode.getEndExpression()), specializeBlock(forNode.getStatements()));
+            specialized.setSlot(forNode.getSlot());
+            return specialized;
+        }
+        throw new InvalidParseException("Unknown statement in Specializer: " + statement);
+    }
+
+    /**
+     * method to specialize a relational expression
+     * @param condition - boolean expression node
+     * @throws InvalidParseException if condition type is unknown
+     * @return specialized boolean expression node
+     */
+    private BooleanExpressionNode specializeCondition(BooleanExpressionNode condition){
+        if(!(condition instanceof RelationalExpressionNode relational)){
+            throw new InvalidParseException("Unknown condition in Specializer: " + condition);
+        }
+        ArithmeticExpressionNode left = specializeExpression(relational.getLeft());
+        ArithmeticExpressionNode right = specializeExpression(relational.getRight());
+        TokenType operator = relational.getOperator();
+
+        if(left instanceof IdentifierNode slot && right instanceof IdentifierNode other){
+            switch(operator){
+                case LESS_THAN:
+                    return new LessThanSlotSlotNode(slot, other);
+                case LESS_EQUAL:
+                    return new LessEqualSlotSlotNode(slot, other);
+                case GREATER_THAN:
+                    return new GreaterThanSlotSlotNode(slot, other);
+                case GREATER_EQUAL:
+                    return new GreaterEqualSlotSlotNode(slot, other);
+                case EQUAL:
+                    return new EqualSlotSlotNode(slot, other);
+                case NOT_EQUAL:
+                    return new NotEqualSlotSlotNode(slot, other);
+                default:
+                    break;
+            }
+        }
+        else if(left instanceof IdentifierNode slot && right instanceof NumNode constant){
+            switch(operator){
+                case LESS_THAN:
+                    return new LessThanSlotConstNode(slot, constant);
+                case LESS_EQUAL:
+                    return new LessEqualSlotConstNode(slot, constant);
+                case GREATER_THAN:
+                    return new GreaterThanSlotConstNode(slot, constant);
+                case GREATER_EQUAL:
+                    return new GreaterEqualSlotConstNode(slot, constant);
+                case EQUAL:
+                    return new EqualSlotConstNode(slot, constant);
+                case NOT_EQUAL:
+                    return new NotEqualSlotConstNode(slot, constant);
+                default:
+                    break;
+            }
+        }
+        return RelationalExpressionNode.create(left, operator, right);
+    }
+
+    /**
+     * method to specialize an arithmetic expression
+     * @param expr - arithmetic expression node
+     * @throws InvalidParseException if expression type is unknown
+     * @return specialized expression node
+     */
+    private ArithmeticExpressionNode specializeExpression(ArithmeticExpressionNode expr){
+        if(expr instanceof NumNode || expr instanceof IdentifierNode){
+            return expr;
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            return new ParenFactorNode(specializeExpression(paren.getExpression()));
+        }
+        else if(expr instanceof NegFactorNode neg){
+            return new NegFactorNode(specializeExpression(neg.getExpression()));
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            ArithmeticExpressionNode left = specializeExpression(binary.getLeft());
+            TermNodeArithmetic right = (TermNodeArithmetic) specializeExpression(binary.getRight());
+            boolean add = binary.getOperator() == TokenType.ADDITION;
+            if(left instanceof IdentifierNode slot && right instanceof NumNode constant){
+                return add ? new AddSlotConstNode(slot, constant) : new SubSlotConstNode(slot, constant);
+            }
+            if(left instanceof IdentifierNode slot && right instanceof IdentifierNode other){
+                return add ? new AddSlotSlotNode(slot, other) : new SubSlotSlotNode(slot, other);
+            }
+            return BinaryExpressionNodeArithmetic.create(left, binary.getOperator(), right);
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary){
+            TermNodeArithmetic left = (TermNodeArithmetic) specializeExpression(binary.getLeft());
+            FactorNodeArithmetic right = (FactorNodeArithmetic) specializeExpression(binary.getRight());
+            if(binary.getOperator() == TokenType.MULTIPLICATION){
+                if(left instanceof IdentifierNode slot && right instanceof NumNode constant){
+                    return new MulSlotConstNode(slot, constant);
+                }
+                if(left instanceof IdentifierNode slot && right instanceof IdentifierNode other){
+                    return new MulSlotSlotNode(slot, other);
+                }
+            }
+            return BinaryTermNodeArithmetic.create(left, binary.getOperator(), right);
+        }
+        throw new InvalidParseException("Unknown expression in Specializer: " + expr);
+    }
+}
@@ -0,0 +1,67 @@
+package domain;
+import globalexceptions.InvalidArgumentException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+/**
+ * class for a symbol table which maps each distinct identifier of a program to a memory slot
+ */
+public class SymbolTable {
+    private final HashMap<String, Integer> slots;
+    private final ArrayList<String> names;
+
+    /**
+     * constructor for symbol table, initializes empty table
+     */
+    public SymbolTable(){
+        slots = new HashMap<>();
+        names = new ArrayList<>();
+    }
+
+    /**
+     * method to get the slot of an identifier, assigning the next free slot if it is new
+     * @param id - name of identifier
+     * @throws InvalidArgumentException if id is null
+     * @return slot index of id
+     */
+    public int intern(String id){
+        if(id == null){
+            throw new InvalidArgumentException("Null id in SymbolTable intern().");
+        }
+        String name = id.toLowerCase();
+        Integer slot = slots.get(name);
+        if(slot == null){
+            slot = names.size();
+            slots.put(name, slot);
+            names.add(name);
+        }
+        return slot;
+    }
+
+    /**
+     * method to look up the slot of an identifier without assigning one
+     * @param id - name of identifier
+     * @return slot index of id, or -1 if not in table
+     */
+    public int slotOf(String id){
+        Integer slot = slots.get(id.toLowerCase());
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * method to get the identifier stored in a slot
+     * @param slot - slot index
+     * @return name of identifier
+     */
+    public String name(int slot){
+        return names.get(slot);
+    }
+
+    /**
+     * method to get number of slots in table
+     * @return number of distinct identifiers
+     */
+    public int size(){
+        return names.size();
+    }
+}
@@ -32,6 +32,32 @@ public class Token {
         this.col = col;
     }
 
+    /**
+     * constructor for tokens built by the lexical analyzer, which only produces valid tokens, so arguments are not checked
+     * @param row - token row
+     * @param col - token col
+     * @param type - TokenType
+     * @param lexeme - subject of token
+     */
+    private Token(int row, int col, TokenType type, String lexeme){
+        this.type = type;
+        this.lexeme = lexeme;
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * method to create a token from the lexical analyzer without re-checking its arguments
+     * @param type - TokenType
+     * @param lexeme - subject of token
+     * @param row - token row
+     * @param col - token col
+     * @return token
+     */
+    static Token scanned(TokenType type, String lexeme, int row, int col){
+        return new Token(row, col, type, lexeme);
+    }
+
     /**
      * method to get token type
      * @return token type
@@ -0,0 +1,189 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * class for a token buffer which stores every token of a source in primitive arrays instead of Token objects
+ * identifier and literal lexemes are kept once each in the lexer's pool and only become strings when asked for,
+ * implements TokenStream so the parser can read the buffer directly
+ */
+public class TokenBuffer implements TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final LexemePool lexemes;
+    private byte[] types = new byte[256];
+    private int[] starts = new int[256];
+    private int[] lengths = new int[256];
+    private int[] rows = new int[256];
+    private int[] cols = new int[256];
+    private int[] lexemeIds = new int[256];
+    private int size;
+    private int cursor = -1;
+    private RuntimeException error;
+
+    /**
+     * constructor for token buffer
+     * @param lexemes - lexeme pool of the lexer filling the buffer
+     */
+    TokenBuffer(LexemePool lexemes){
+        this.lexemes = lexemes;
+    }
+
+    /**
+     * method to append a token
+     * @param type - token type
+     * @param start - offset of token in source
+     * @param length - length of token in source
+     * @param row - token row
+     * @param col - token col
+     * @param lexemeId - id of lexeme in pool, or -1 for tokens with fixed text
+     */
+    void add(TokenType type, int start, int length, int row, int col, int lexemeId){
+        if(size == types.length){
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            lexemeIds = Arrays.copyOf(lexemeIds, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        rows[size] = row;
+        cols[size] = col;
+        lexemeIds[size] = lexemeId;
+        size++;
+    }
+
+    /**
+     * method to record the error that stopped lexing, it is thrown when the parser reads past the last token
+     * @param error - lexer exception
+     */
+    void fail(RuntimeException error){
+        this.error = error;
+    }
+
+    /**
+     * method to get number of tokens in buffer
+     * @return number of tokens
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * method to get type of a token
+     * @param i - token index
+     * @return token type
+     */
+    public TokenType type(int i){
+        return TYPES[types[i]];
+    }
+
+    /**
+     * method to get source offset of a token
+     * @param i - token index
+     * @return start offset
+     */
+    public int start(int i){
+        return starts[i];
+    }
+
+    /**
+     * method to get source length of a token
+     * @param i - token index
+     * @return length
+     */
+    public int length(int i){
+        return lengths[i];
+    }
+
+    /**
+     * method to get row of a token
+     * @param i - token index
+     * @return row
+     */
+    public int row(int i){
+        return rows[i];
+    }
+
+    /**
+     * method to get col of a token
+     * @param i - token index
+     * @return col
+     */
+    public int col(int i){
+        return cols[i];
+    }
+
+    /**
+     * method to materialize lexeme of a token
+     * @param i - token index
+     * @return lexeme
+     */
+    public String lexeme(int i){
+        int id = lexemeIds[i];
+        return id < 0 ? LexicalAnalyzer.fixedLexeme(type(i)) : lexemes.get(id);
+    }
+
+    /**
+     * method to get type of current token
+     * @return token type
+     */
+    @Override
+    public TokenType type(){
+        return type(cursor);
+    }
+
+    /**
+     * method to materialize lexeme of current token
+     * @return token lexeme
+     */
+    @Override
+    public String lexeme(){
+        return lexeme(cursor);
+    }
+
+    /**
+     * method to get symbol id of current token
+     * @return symbol id, or -1 if the current token is not an identifier
+     */
+    @Override
+    public int symbol(){
+        return type(cursor) == TokenType.ID ? lexemeIds[cursor] : -1;
+    }
+
+    /**
+     * method to get row of current token
+     * @return token row
+     */
+    @Override
+    public int row(){
+        return rows[cursor];
+    }
+
+    /**
+     * method to get col of current token
+     * @return token col
+     */
+    @Override
+    public int col(){
+        return cols[cursor];
+    }
+
+    /**
+     * method to move to the next token, stays on EOS once it is reached
+     * @throws RuntimeException the lexer error, when moving past the last token lexed before it
+     */
+    @Override
+    public void advance(){
+        if(cursor + 1 < size){
+            cursor++;
+        }
+        else if(error != null){
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * class for a token stream filled by a lexer on its own thread, so lexing overlaps with parsing
+ * tokens pass through a bounded ring with one writer, the lexer thread, and one reader, the parser,
+ * each side only publishes its own index, so neither side takes a lock
+ * a lexer error is kept and thrown when the parser moves past the last token lexed before it, as with TokenBuffer,
+ * this includes an Error such as OutOfMemoryError, so the parser never waits on a lexer thread that has died
+ * implements TokenStream so the parser can read the ring directly, close it when done to stop the lexer thread
+ */
+public class TokenPipeline implements TokenStream, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    //a waiting side spins, then yields, then sleeps, so a single core host still makes progress
+    private static final int SPINS = 64;
+    private static final int YIELDS = 64;
+    private static final long PARK_NANOS = 20_000;
+
+    private final LexicalAnalyzer lexer;
+    private final int capacity;
+    private final int mask;
+    private final TokenType[] types;
+    private final String[] lexemes;
+    private final int[] symbols;
+    private final int[] rows;
+    private final int[] cols;
+
+    //number of tokens the lexer has written, a slot is only read once this passes it
+    private final AtomicLong tail = new AtomicLong();
+    //number of tokens the parser has copied out, a slot is only written again once this passes it
+    private final AtomicLong head = new AtomicLong();
+    private volatile Throwable error;
+    private volatile boolean closed;
+    private final Thread thread;
+
+    //current token, copied out of its slot so the slot is free as soon as the parser moves to it
+    private long next;
+    private long published;
+    private TokenType type;
+    private String lexeme;
+    private int symbol;
+    private int row;
+    private int col;
+
+    /**
+     * constructor for token pipeline, starts the lexer thread
+     * @param lexer - lexical analyzer positioned before its first token, only used by the lexer thread from now on
+     * @param capacity - number of tokens the ring holds, from 1 to 2^30, rounded up to a power of two of at least 2
+     */
+    TokenPipeline(LexicalAnalyzer lexer, int capacity){
+        this.lexer = lexer;
+        this.capacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.types = new TokenType[this.capacity];
+        this.lexemes = new String[this.capacity];
+        this.symbols = new int[this.capacity];
+        this.rows = new int[this.capacity];
+        this.cols = new int[this.capacity];
+        this.thread = new Thread(this::produce, "lexer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * method to get number of tokens the ring holds
+     * @return capacity of ring
+     */
+    public int capacity(){
+        return capacity;
+    }
+
+    /**
+     * method run by the lexer thread, lexes tokens into the ring until EOS, an error, or close()
+     */
+    private void produce(){
+        long written = 0;
+        long limit = capacity;
+        try {
+            do {
+                lexer.advance();
+                int waits = 0;
+                while(written >= limit){
+                    if(closed){
+                        return;
+                    }
+                    limit = head.getAcquire() + capacity;
+                    if(written >= limit){
+                        pause(waits++);
+                    }
+                }
+                int slot = (int) written & mask;
+                types[slot] = lexer.type();
+                lexemes[slot] = lexer.lexeme();
+                symbols[slot] = lexer.symbol();
+                rows[slot] = lexer.row();
+                cols[slot] = lexer.col();
+                tail.setRelease(++written);
+            } while(lexer.type() != TokenType.EOS && !closed);
+        }
+        catch (Throwable e){
+            error = e;
+        }
+    }
+
+    /**
+     * method to move to the next token, waits for the lexer thread if it is behind, stays on EOS once it is reached
+     * @throws RuntimeException the lexer error, when moving past the last token lexed before it
+     * @throws Error the error that ended the lexer thread, when moving past the last token lexed before it
+     */
+    @Override
+    public void advance(){
+        if(type == TokenType.EOS){
+            return;
+        }
+        int waits = 0;
+        while(next >= published){
+            //read the error first, every token lexed before it is published by then
+            Throwable failure = error;
+            published = tail.getAcquire();
+            if(next < published){
+                break;
+            }
+            if(failure instanceof RuntimeException runtime){
+                throw runtime;
+            }
+            if(failure instanceof Error fatal){
+                throw fatal;
+            }
+            if(failure != null){
+                //the lexer throws no checked exceptions
+                throw new IllegalStateException(failure);
+            }
+            pause(waits++);
+        }
+        int slot = (int) next & mask;
+        type = types[slot];
+        lexeme = lexemes[slot];
+        symbol = symbols[slot];
+        row = rows[slot];
+        col = cols[slot];
+        head.setRelease(++next);
+    }
+
+    /**
+     * method to get type of current token
+     * @return token type
+     */
+    @Override
+    public TokenType type(){
+        return type;
+    }
+
+    /**
+     * method to get lexeme of current token, materialized by the lexer thread
+     * @return token lexeme
+     */
+    @Override
+    public String lexeme(){
+        return lexeme;
+    }
+
+    /**
+     * method to get symbol id of current token
+     * @return symbol id, or -1 if the current token is not an identifier
+     */
+    @Override
+    public int symbol(){
+        return symbol;
+    }
+
+    /**
+     * method to get row of current token
+     * @return token row
+     */
+    @Override
+    public int row(){
+        return row;
+    }
+
+    /**
+     * method to get col of current token
+     * @return token col
+     */
+    @Override
+    public int col(){
+        return col;
+    }
+
+    /**
+     * method to stop the lexer thread and wait for it, the thread finishes at most the token it is lexing
+     */
+    @Override
+    public void close(){
+        closed = true;
+        try {
+            thread.join();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * method to wait for the other side of the ring
+     * @param waits - number of times this wait has paused already
+     */
+    private static void pause(int waits){
+        if(waits < SPINS){
+            Thread.onSpinWait();
+        }
+        else if(waits < SPINS + YIELDS){
+            Thread.yield();
+        }
+        else{
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package domain;
+
+/**
+ * interface for a stream of tokens read by the parser one at a time
+ * the current token is exposed field by field so streams do not need to allocate Token objects
+ */
+public interface TokenStream {
+
+    /**
+     * method to get type of current token
+     * @return token type
+     */
+    TokenType type();
+
+    /**
+     * method to get lexeme of current token, only materialized when called
+     * @return token lexeme
+     */
+    String lexeme();
+
+    /**
+     * method to get symbol id of current token, identifiers spelled alike up to case share one id
+     * ids are only comparable between tokens of the same stream
+     * @return symbol id, or -1 if the current token is not an identifier
+     */
+    int symbol();
+
+    /**
+     * method to get row of current token
+     * @return token row
+     */
+    int row();
+
+    /**
+     * method to get col of current token
+     * @return token col
+     */
+    int col();
+
+    /**
+     * method to move to the next token
+     */
+    void advance();
+
+    /**
+     * method to materialize the current token, used for error messages
+     * @return current token
+     */
+    default Token token(){
+        return new Token(type(), lexeme(), row(), col());
+    }
+}
@@ -0,0 +1,244 @@
+package domain.batch;
+
+import domain.DeepStack;
+import domain.ProgramCache;
+import domain.engine.Engine;
+import domain.io.ArrayInputSource;
+import domain.io.InputSource;
+import domain.io.MappedInputSource;
+import domain.io.TextOutputSink;
+import globalexceptions.InvalidArgumentException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * class for running many programs in one JVM, each program runs on its own thread with its own memory,
+ * captured text output and input source, so a program waiting on input or writing slowly does not hold up the others
+ * threads are virtual when the JVM supports them and a pool of DeepStack threads otherwise,
+ * a semaphore bounds how many programs run at once
+ * a virtual thread cannot have a deep stack, so compiling and running move to a DeepStack thread inside the library calls
+ */
+public class BatchRunner implements AutoCloseable {
+    private static final long CACHE_BYTES = 1L << 26;
+
+    private final ProgramCache cache;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * constructor for BatchRunner, programs submitted more than once are compiled once
+     * @param engine - engine every program is compiled with, must be usable from many threads
+     * @param concurrency - maximum number of programs running at once
+     * @throws InvalidArgumentException if engine is null or concurrency is less than 1
+     */
+    public BatchRunner(Engine engine, int concurrency) throws InvalidArgumentException{
+        this(new ProgramCache(engine, CACHE_BYTES), concurrency);
+    }
+
+    /**
+     * constructor for BatchRunner sharing a cache of compiled programs, for example with other runners
+     * @param cache - cache every program is compiled through
+     * @param concurrency - maximum number of programs running at once
+     * @throws InvalidArgumentException if cache is null or concurrency is less than 1
+     */
+    public BatchRunner(ProgramCache cache, int concurrency) throws InvalidArgumentException{
+        if(cache == null || concurrency < 1){
+            throw new InvalidArgumentException("Invalid parameter in BatchRunner constructor.");
+        }
+        this.cache = cache;
+        this.executor = newExecutor(concurrency);
+        this.permits = new Semaphore(concurrency, true);
+    }
+
+    /**
+     * method to submit a program given as source text
+     * @param name - name reported in the result
+     * @param source - program source
+     * @param input - source for input statements of this program only
+     * @throws InvalidArgumentException if any parameter is null
+     * @return future result of program
+     */
+    public Future<ProgramResult> submit(String name, String source, InputSource input) throws InvalidArgumentException{
+        if(name == null || source == null || input == null){
+            throw new InvalidArgumentException("Null parameter in BatchRunner submit().");
+        }
+        long submitted = System.nanoTime();
+        return executor.submit(() -> run(name, () -> source, () -> input, submitted));
+    }
+
+    /**
+     * method to submit a program file, input statements read the file with the same name and extension .in if there is one
+     * @param file - path of program file
+     * @throws InvalidArgumentException if file is null
+     * @return future result of program
+     */
+    public Future<ProgramResult> submit(Path file) throws InvalidArgumentException{
+        if(file == null){
+            throw new InvalidArgumentException("Null file in BatchRunner submit().");
+        }
+        long submitted = System.nanoTime();
+        return executor.submit(() -> run(file.toString(), () -> Files.readString(file, StandardCharsets.UTF_8), () -> inputFor(file), submitted));
+    }
+
+    /**
+     * method to run program files and wait for all of them
+     * @param files - paths of program files
+     * @throws InvalidArgumentException if files is null
+     * @return results in the order of files
+     */
+    public List<ProgramResult> runFiles(List<Path> files) throws InvalidArgumentException{
+        if(files == null){
+            throw new InvalidArgumentException("Null files in BatchRunner runFiles().");
+        }
+        List<Future<ProgramResult>> futures = new ArrayList<>();
+        for(Path file : files){
+            futures.add(submit(file));
+        }
+        return collect(futures);
+    }
+
+    /**
+     * method to run programs given as source text without input and wait for all of them
+     * @param sources - program sources, named program-0, program-1, ...
+     * @throws InvalidArgumentException if sources is null
+     * @return results in the order of sources
+     */
+    public List<ProgramResult> runSources(List<String> sources) throws InvalidArgumentException{
+        if(sources == null){
+            throw new InvalidArgumentException("Null sources in BatchRunner runSources().");
+        }
+        List<Future<ProgramResult>> futures = new ArrayList<>();
+        for(int i = 0; i < sources.size(); i++){
+            futures.add(submit("program-" + i, sources.get(i), new ArrayInputSource(new int[0])));
+        }
+        return collect(futures);
+    }
+
+    /**
+     * method to stop accepting programs and wait for the submitted ones to finish
+     */
+    @Override
+    public void close(){
+        executor.shutdown();
+        try {
+            //programs are never abandoned half run
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e){
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * method to compile, or take from the cache, and run one program once a permit is free
+     * @param name - name of program
+     * @param source - supplies the program source, read on the program's thread
+     * @param input - supplies the input source, opened on the program's thread
+     * @param submitted - System.nanoTime() when the program was submitted
+     * @return result of program
+     */
+    private ProgramResult run(String name, Task<String> source, Task<InputSource> input, long submitted){
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        RuntimeException error = null;
+        try {
+            permits.acquire();
+            try {
+                cache.get(source.get()).run(Map.of(), input.get(), new TextOutputSink(captured));
+            }
+            finally {
+                permits.release();
+            }
+        }
+        catch (RuntimeException e){
+            error = e;
+        }
+        catch (IOException e){
+            error = new InvalidArgumentException("Cannot read file: " + e.getMessage());
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            error = new IllegalStateException("Interrupted before " + name + " could run.", e);
+        }
+        catch (StackOverflowError e){
+            error = new IllegalStateException("Program " + name + " is nested too deeply.", e);
+        }
+        return new ProgramResult(name, captured.toString(StandardCharsets.UTF_8), error, System.nanoTime() - submitted);
+    }
+
+    /**
+     * method to wait for results in order
+     * @param futures - submitted programs
+     * @return results
+     */
+    private static List<ProgramResult> collect(List<Future<ProgramResult>> futures){
+        List<ProgramResult> results = new ArrayList<>();
+        for(Future<ProgramResult> future : futures){
+            try {
+                results.add(future.get());
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch results.", e);
+            }
+            catch (ExecutionException e){
+                //run() catches program errors, anything else is a bug in the runner
+                throw new IllegalStateException("Batch program failed unexpectedly.", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * method to open the input of a program file
+     * @param file - path of program file
+     * @throws IOException if the input file exists but cannot be read
+     * @return input from the .in file next to the program, or an empty input
+     */
+    static InputSource inputFor(Path file) throws IOException{
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        Path in = file.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".in");
+        if(Files.isRegularFile(in)){
+            return new MappedInputSource(in);
+        }
+        return new ArrayInputSource(new int[0]);
+    }
+
+    /**
+     * method to create the executor, one virtual thread per program when Executors.newVirtualThreadPerTaskExecutor exists,
+     * looked up reflectively so the runner still builds and runs on JVMs without virtual threads
+     * @param concurrency - number of platform threads if virtual threads are not available
+     * @return executor service
+     */
+    private static ExecutorService newExecutor(int concurrency){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e){
+            return Executors.newFixedThreadPool(concurrency, DeepStack.threadFactory("batch"));
+        }
+    }
+
+    /**
+     * interface for a step run on the program's thread that may read a file
+     * @param <T> - result type
+     */
+    @FunctionalInterface
+    private interface Task<T> {
+        T get() throws IOException;
+    }
+}
@@ -0,0 +1,278 @@
+package domain.batch;
+
+import domain.ArithLang;
+import domain.DeepStack;
+import domain.LexicalAnalyzer;
+import domain.Memory;
+import domain.engine.VmEngine;
+import domain.engine.VmProcess;
+import domain.io.InputSource;
+import domain.io.OutputSink;
+import domain.io.TextOutputSink;
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * class for running many programs fairly over a fixed pool of worker threads
+ * programs are compiled for the metered VM and run a slice of fuel at a time, one fuel per statement and loop back edge,
+ * a program that uses up its slice goes to the back of the run queue, so every runnable program gets the same fuel in turn
+ * and a runaway loop holds a worker for one slice at most
+ * each program may have a fuel quota and a deadline and may be cancelled, all are checked between slices
+ * an input statement reading a source that blocks holds its worker until the input arrives
+ */
+public class FairScheduler implements AutoCloseable {
+    public static final long DEFAULT_SLICE = 10_000;
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final VmEngine engine = new VmEngine(true);
+    private final long slice;
+    private final LinkedBlockingQueue<ScheduledProgram> queue = new LinkedBlockingQueue<>();
+    private final Set<ScheduledProgram> running = ConcurrentHashMap.newKeySet();
+    private final Thread[] workers;
+    private volatile boolean closed;
+
+    /**
+     * constructor for FairScheduler with the default slice
+     * @param workers - number of worker threads
+     * @throws InvalidArgumentException if workers is less than 1
+     */
+    public FairScheduler(int workers) throws InvalidArgumentException{
+        this(workers, DEFAULT_SLICE);
+    }
+
+    /**
+     * constructor for FairScheduler
+     * @param workers - number of worker threads
+     * @param slice - fuel a program spends before it yields its worker
+     * @throws InvalidArgumentException if workers or slice is less than 1
+     */
+    public FairScheduler(int workers, long slice) throws InvalidArgumentException{
+        if(workers < 1 || slice < 1){
+            throw new InvalidArgumentException("Invalid parameter in FairScheduler constructor.");
+        }
+        this.slice = slice;
+        this.workers = new Thread[workers];
+        for(int i = 0; i < workers; i++){
+            Thread worker = DeepStack.newThread(this::work, "scheduler-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            this.workers[i] = worker;
+        }
+    }
+
+    /**
+     * method to submit a program given as source text with no quota or deadline
+     * @param name - name reported in the result
+     * @param source - program source
+     * @param input - source for input statements of this program only
+     * @throws InvalidArgumentException if any parameter is null
+     * @throws IllegalStateException if the scheduler is closed
+     * @return handle of program
+     */
+    public ScheduledProgram submit(String name, String source, InputSource input) throws InvalidArgumentException{
+        return submit(name, source, input, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * method to submit a program given as source text, it is compiled on the calling thread
+     * a program that does not compile is returned already done, with the error in its result
+     * @param name - name reported in the result
+     * @param source - program source
+     * @param input - source for input statements of this program only
+     * @param quota - most fuel the program may spend, or UNLIMITED
+     * @param timeoutNanos - time from now the program must end within, or UNLIMITED
+     * @throws InvalidArgumentException if any object parameter is null or quota or timeoutNanos is negative
+     * @throws IllegalStateException if the scheduler is closed
+     * @return handle of program
+     */
+    public ScheduledProgram submit(String name, String source, InputSource input, long quota, long timeoutNanos) throws InvalidArgumentException{
+        if(name == null || source == null || input == null){
+            throw new InvalidArgumentException("Null parameter in FairScheduler submit().");
+        }
+        checkLimits(quota, timeoutNanos);
+        long submitted = System.nanoTime();
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        OutputSink output = new TextOutputSink(captured);
+        VmProcess process = null;
+        RuntimeException error = null;
+        try {
+            //source chars bound the depth of the tree before it is parsed
+            process = DeepStack.call(source.length(), () -> {
+                ProgramNode programNode = ArithLang.parse(new LexicalAnalyzer(source));
+                return engine.compile(programNode).start(new Memory(programNode.getSymbolTable(), output, input));
+            });
+        }
+        catch (RuntimeException e){
+            error = e;
+        }
+        return schedule(name, process, error, captured, output, quota, timeoutNanos, submitted);
+    }
+
+    /**
+     * method to submit a program file, input statements read the file with the same name and extension .in if there is one
+     * @param file - path of program file
+     * @param quota - most fuel the program may spend, or UNLIMITED
+     * @param timeoutNanos - time from now the program must end within, or UNLIMITED
+     * @throws InvalidArgumentException if file is null or quota or timeoutNanos is negative
+     * @throws IllegalStateException if the scheduler is closed
+     * @return handle of program
+     */
+    public ScheduledProgram submit(Path file, long quota, long timeoutNanos) throws InvalidArgumentException{
+        if(file == null){
+            throw new InvalidArgumentException("Null file in FairScheduler submit().");
+        }
+        checkLimits(quota, timeoutNanos);
+        String source;
+        InputSource input;
+        try {
+            source = Files.readString(file, StandardCharsets.UTF_8);
+            input = BatchRunner.inputFor(file);
+        }
+        catch (IOException e){
+            ByteArrayOutputStream captured = new ByteArrayOutputStream();
+            InvalidArgumentException error = new InvalidArgumentException("Cannot read file: " + e.getMessage());
+            return schedule(file.toString(), null, error, captured, new TextOutputSink(captured), quota, timeoutNanos, System.nanoTime());
+        }
+        return submit(file.toString(), source, input, quota, timeoutNanos);
+    }
+
+    /**
+     * method to run program files and wait for all of them
+     * @param files - paths of program files
+     * @param quota - most fuel each program may spend, or UNLIMITED
+     * @param timeoutNanos - time from now each program must end within, or UNLIMITED
+     * @throws InvalidArgumentException if files is null or quota or timeoutNanos is negative
+     * @return results in the order of files
+     */
+    public List<ProgramResult> runFiles(List<Path> files, long quota, long timeoutNanos) throws InvalidArgumentException{
+        if(files == null){
+            throw new InvalidArgumentException("Null files in FairScheduler runFiles().");
+        }
+        List<ScheduledProgram> programs = new ArrayList<>();
+        for(Path file : files){
+            programs.add(submit(file, quota, timeoutNanos));
+        }
+        List<ProgramResult> results = new ArrayList<>();
+        for(ScheduledProgram program : programs){
+            results.add(await(program.getResult()));
+        }
+        return results;
+    }
+
+    /**
+     * method to stop accepting programs and wait for the submitted ones to end, then stop the workers
+     * programs without a quota or deadline are waited for however long they run, cancel them first to stop them
+     */
+    @Override
+    public void close(){
+        closed = true;
+        for(ScheduledProgram program : running){
+            await(program.getResult());
+        }
+        for(Thread worker : workers){
+            worker.interrupt();
+        }
+        try {
+            for(Thread worker : workers){
+                worker.join();
+            }
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * method to queue a compiled program, or complete it at once if it did not compile
+     * @param name - name of program
+     * @param process - suspended run, or null if the program did not compile
+     * @param error - compile error, or null
+     * @param captured - buffer the output sink writes to
+     * @param output - output sink of the run
+     * @param quota - most fuel the program may spend
+     * @param timeoutNanos - time from submission the program must end within
+     * @param submitted - System.nanoTime() when the program was submitted
+     * @throws IllegalStateException if the scheduler is closed
+     * @return handle of program
+     */
+    private ScheduledProgram schedule(String name, VmProcess process, RuntimeException error, ByteArrayOutputStream captured,
+                                      OutputSink output, long quota, long timeoutNanos, long submitted){
+        if(closed){
+            throw new IllegalStateException("FairScheduler is closed.");
+        }
+        long deadline = timeoutNanos == UNLIMITED ? UNLIMITED : submitted + timeoutNanos;
+        ScheduledProgram program = new ScheduledProgram(name, process, captured, output, quota, deadline, submitted);
+        if(process == null){
+            program.finish(error);
+            return program;
+        }
+        running.add(program);
+        queue.add(program);
+        return program;
+    }
+
+    /**
+     * method to check the limits of a program
+     * @param quota - most fuel the program may spend
+     * @param timeoutNanos - time from submission the program must end within
+     * @throws InvalidArgumentException if quota or timeoutNanos is negative
+     */
+    private static void checkLimits(long quota, long timeoutNanos){
+        if(quota < 0 || timeoutNanos < 0){
+            throw new InvalidArgumentException("Negative quota or timeout in FairScheduler submit().");
+        }
+    }
+
+    /**
+     * method run by each worker, takes the program at the head of the queue, runs one slice and queues it again
+     */
+    private void work(){
+        while(true){
+            ScheduledProgram program;
+            try {
+                program = queue.take();
+            }
+            catch (InterruptedException e){
+                return;
+            }
+            if(program.step(slice)){
+                queue.add(program);
+            }
+            else{
+                running.remove(program);
+            }
+        }
+    }
+
+    /**
+     * method to wait for a result
+     * @param result - future result of a program
+     * @return result
+     */
+    private static ProgramResult await(Future<ProgramResult> result){
+        try {
+            return result.get();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for scheduled results.", e);
+        }
+        catch (ExecutionException e){
+            //results are only ever completed normally
+            throw new IllegalStateException("Scheduled program failed unexpectedly.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package domain.batch;
+
+/**
+ * class for the result of one program run by BatchRunner or FairScheduler,
+ * holds its captured text output and the error that ended it, if any
+ */
+public final class ProgramResult {
+    private final String name;
+    private final String output;
+    private final RuntimeException error;
+    private final long elapsedNanos;
+    private final long fuelUsed;
+
+    /**
+     * constructor for ProgramResult
+     * @param name - name of program, the file path or the name given with the source
+     * @param output - text written by display statements before the program ended
+     * @param error - error that ended the program, or null if it ran to completion
+     * @param elapsedNanos - wall time from submission to completion, including time waiting for a permit
+     */
+    ProgramResult(String name, String output, RuntimeException error, long elapsedNanos){
+        this(name, output, error, elapsedNanos, -1);
+    }
+
+    /**
+     * constructor for ProgramResult of a metered run
+     * @param name - name of program, the file path or the name given with the source
+     * @param output - text written by display statements before the program ended
+     * @param error - error that ended the program, or null if it ran to completion
+     * @param elapsedNanos - wall time from submission to completion, including time waiting to run
+     * @param fuelUsed - fuel the program spent
+     */
+    ProgramResult(String name, String output, RuntimeException error, long elapsedNanos, long fuelUsed){
+        this.name = name;
+        this.output = output;
+        this.error = error;
+        this.elapsedNanos = elapsedNanos;
+        this.fuelUsed = fuelUsed;
+    }
+
+    /**
+     * method to get name of program
+     * @return name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * method to get output of program
+     * @return captured text output
+     */
+    public String getOutput(){
+        return output;
+    }
+
+    /**
+     * method to get the error that ended the program
+     * @return error, or null if the program ran to completion
+     */
+    public RuntimeException getError(){
+        return error;
+    }
+
+    /**
+     * method to check if the program ran to completion
+     * @return true if there was no error
+     */
+    public boolean isSuccess(){
+        return error == null;
+    }
+
+    /**
+     * method to get elapsed time of program
+     * @return nanoseconds from submission to completion
+     */
+    public long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+    /**
+     * method to get fuel spent by program, one per statement and loop back edge
+     * @return fuel spent, or -1 if the program did not run metered
+     */
+    public long getFuelUsed(){
+        return fuelUsed;
+    }
+}
@@ -0,0 +1,139 @@
+package domain.batch;
+
+import domain.engine.VmProcess;
+import domain.io.OutputSink;
+import globalexceptions.ProgramStoppedException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * class for a program submitted to a FairScheduler, used to follow, cancel and wait for it
+ * the scheduler runs it a slice of fuel at a time, quota, deadline and cancellation are checked before each slice
+ */
+public final class ScheduledProgram {
+    private final String name;
+    private final VmProcess process;
+    private final ByteArrayOutputStream captured;
+    private final OutputSink output;
+    private final long quota;
+    private final long deadline;
+    private final long submitted;
+    private final CompletableFuture<ProgramResult> result = new CompletableFuture<>();
+    private volatile boolean cancelled;
+
+    /**
+     * constructor for ScheduledProgram
+     * @param name - name reported in the result
+     * @param process - suspended run of the metered program
+     * @param captured - buffer the output sink writes to
+     * @param output - output sink of the run, flushed when it ends
+     * @param quota - most fuel the program may spend
+     * @param deadline - System.nanoTime() the program must end by, or FairScheduler.UNLIMITED
+     * @param submitted - System.nanoTime() when the program was submitted
+     */
+    ScheduledProgram(String name, VmProcess process, ByteArrayOutputStream captured, OutputSink output, long quota, long deadline, long submitted){
+        this.name = name;
+        this.process = process;
+        this.captured = captured;
+        this.output = output;
+        this.quota = quota;
+        this.deadline = deadline;
+        this.submitted = submitted;
+    }
+
+    /**
+     * method to run the next slice of the program, called by one worker at a time
+     * @param slice - most fuel to spend in this slice
+     * @return true if the program should run again, false once its result is complete
+     */
+    boolean step(long slice){
+        RuntimeException error;
+        if(cancelled){
+            error = new ProgramStoppedException("Program " + name + " was cancelled after " + process.getFuelUsed() + " fuel.");
+        }
+        else if(deadline != FairScheduler.UNLIMITED && System.nanoTime() - deadline > 0){
+            error = new ProgramStoppedException("Program " + name + " passed its deadline after " + process.getFuelUsed() + " fuel.");
+        }
+        else if(process.getFuelUsed() >= quota){
+            error = new ProgramStoppedException("Program " + name + " used up its quota of " + quota + " fuel.");
+        }
+        else{
+            try {
+                if(!process.resume(Math.min(slice, quota - process.getFuelUsed()))){
+                    return true;
+                }
+                error = null;
+            }
+            catch (RuntimeException e){
+                error = e;
+            }
+        }
+        finish(error);
+        return false;
+    }
+
+    /**
+     * method to complete the result, output written so far is kept
+     * @param error - error that ended the program, or null if it ran to completion
+     */
+    void finish(RuntimeException error){
+        try {
+            output.flush();
+        }
+        catch (RuntimeException e){
+            error = error == null ? e : error;
+        }
+        result.complete(new ProgramResult(name, captured.toString(StandardCharsets.UTF_8), error,
+                System.nanoTime() - submitted, process == null ? 0 : process.getFuelUsed()));
+    }
+
+    /**
+     * method to get name of program
+     * @return name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * method to cancel the program, it stops before its next slice and its result holds a ProgramStoppedException
+     */
+    public void cancel(){
+        cancelled = true;
+    }
+
+    /**
+     * method to check if the program was cancelled
+     * @return true if cancel() was called
+     */
+    public boolean isCancelled(){
+        return cancelled;
+    }
+
+    /**
+     * method to get the fuel spent so far, one per statement and loop back edge
+     * @return fuel spent
+     */
+    public long getFuelUsed(){
+        return process == null ? 0 : process.getFuelUsed();
+    }
+
+    /**
+     * method to check if the program has ended
+     * @return true once its result is complete
+     */
+    public boolean isDone(){
+        return result.isDone();
+    }
+
+    /**
+     * method to get the result of the program
+     * @return future result, completed when the program ends or is stopped
+     */
+    public Future<ProgramResult> getResult(){
+        return result;
+    }
+}
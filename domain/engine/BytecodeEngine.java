@@ -0,0 +1,50 @@
+package domain.engine;
+
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * class for the bytecode engine, compiles a resolved program with BytecodeGenerator and loads it as a hidden class
+ * whose class data holds the statement nodes the generated code calls
+ */
+public class BytecodeEngine implements Engine {
+    /**
+     * method to compile a program to a hidden class, programs too large for one JVM method fall back to the tree walker
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return executable backed by the generated class
+     */
+    @Override
+    public Executable compile(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in BytecodeEngine compile().");
+        }
+        BytecodeGenerator generator = new BytecodeGenerator();
+        byte[] classFile;
+        try {
+            classFile = generator.generate(programNode.getStatements(), programNode.getSymbolTable());
+        }
+        catch (InvalidArgumentException e){
+            return programNode::execute;
+        }
+        return (Executable) define(generator, classFile);
+    }
+
+    /**
+     * method to load a generated class as a hidden class and create its instance
+     * @param generator - generator that produced the class file, supplies the class data
+     * @param classFile - class file bytes
+     * @return instance of the generated class
+     */
+    static Object define(BytecodeGenerator generator, byte[] classFile){
+        try {
+            Class<?> generated = MethodHandles.lookup().defineHiddenClassWithClassData(classFile, generator.nodes(), true).lookupClass();
+            return generated.getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e){
+            throw new IllegalStateException("Could not load generated program class.", e);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package domain.engine;
+
+import domain.SymbolTable;
+import domain.TokenType;
+import domain.node.*;
+import globalexceptions.InvalidParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * class for generating the class file of a compiled program, one generator is used per compilation
+ * variables live in JVM locals for the whole run and are copied from and back to memory at the ends,
+ * if, while and for statements become real branches, statements without a bytecode form are run as nodes
+ * passed to the hidden class as class data
+ */
+class BytecodeGenerator {
+    private static final String CLASS_NAME = "domain/engine/GeneratedProgram";
+    private static final String MEMORY = "domain/Memory";
+    private static final String RUNTIME = "domain/engine/CompiledRuntime";
+    private static final String LOOKUP = "java/lang/invoke/MethodHandles$Lookup";
+
+    private ClassFileWriter cf;
+    private ClassFileWriter.Code code;
+    private int nextTemp;
+    private int variables;
+    private int firstVariable;
+    private final List<StatementNode> nodes = new ArrayList<>();
+
+    /**
+     * method to generate the class file for a list of statements
+     * @param statements - statements of program
+     * @param symbols - symbol table of program
+     * @return class file bytes
+     */
+    byte[] generate(List<StatementNode> statements, SymbolTable symbols){
+        //locals 0 and 1 are this and memory
+        begin(symbols, 2);
+        loadVariables();
+        compileStatements(statements);
+        storeVariables();
+        code.op(ClassFileWriter.RETURN, 0);
+
+        cf.addDefaultConstructor("java/lang/Object");
+        cf.addMethod("run", "(L" + MEMORY + ";)V", code);
+        return cf.toByteArray(CLASS_NAME, "java/lang/Object", "domain/engine/Executable");
+    }
+
+    /**
+     * method to generate the class file of a ForLoopEntry, which runs a for loop from a given counter and bound
+     * so a loop started by the tree walker can continue in compiled code
+     * @param forNode - for statement
+     * @param symbols - symbol table of program
+     * @return class file bytes
+     */
+    byte[] generateForEntry(ForStatementNode forNode, SymbolTable symbols){
+        //locals 0 to 3 are this, memory, first and last, the parameters serve as counter and bound
+        begin(symbols, 4);
+        loadVariables();
+        compileForLoop(forNode, 2, 3);
+        storeVariables();
+        code.op(ClassFileWriter.RETURN, 0);
+
+        cf.addDefaultConstructor("java/lang/Object");
+        cf.addMethod("resume", "(L" + MEMORY + ";II)V", code);
+        return cf.toByteArray(CLASS_NAME, "java/lang/Object", "domain/engine/ForLoopEntry");
+    }
+
+    /**
+     * method to start a class file, variables are placed after the parameter locals
+     * @param symbols - symbol table of program
+     * @param parameters - number of locals taken by this and the parameters
+     */
+    private void begin(SymbolTable symbols, int parameters){
+        cf = new ClassFileWriter();
+        variables = symbols.size();
+        firstVariable = parameters;
+        code = new ClassFileWriter.Code(firstVariable + variables);
+        nextTemp = firstVariable + variables;
+    }
+
+    /**
+     * method to get the statement nodes run by the generated class, indexed by the generated node calls
+     * @return class data of the generated class
+     */
+    StatementNode[] nodes(){
+        return nodes.toArray(new StatementNode[0]);
+    }
+
+    /**
+     * method to load every slot into its local
+     */
+    private void loadVariables(){
+        int get = cf.methodRef(MEMORY, "get", "(I)I", false);
+        for(int slot = 0; slot < variables; slot++){
+            code.op(ClassFileWriter.ALOAD_1, 1);
+            code.pushInt(cf, slot);
+            code.invoke(ClassFileWriter.INVOKEVIRTUAL, get, -1);
+            code.istore(local(slot));
+        }
+    }
+
+    /**
+     * method to store every local back into its slot
+     */
+    private void storeVariables(){
+        int set = cf.methodRef(MEMORY, "set", "(II)V", false);
+        for(int slot = 0; slot < variables; slot++){
+            code.op(ClassFileWriter.ALOAD_1, 1);
+            code.pushInt(cf, slot);
+            code.iload(local(slot));
+            code.invoke(ClassFileWriter.INVOKEVIRTUAL, set, -3);
+        }
+    }
+
+    /**
+     * method to compile a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     */
+    private void compileStatements(List<StatementNode> statements){
+        if(statements == null){
+            return;
+        }
+        for(StatementNode statement : statements){
+            compileStatement(statement);
+        }
+    }
+
+    /**
+     * method to compile a single statement, leaves the operand stack empty
+     * @param statement - statement node
+     * @throws InvalidParseException if statement type is unknown
+     */
+    private void compileStatement(StatementNode statement){
+        if(statement instanceof LetStatementNode let){
+            compileExpression(let.getExpression());
+            code.istore(local(let.getSlot()));
+        }
+        else if(statement instanceof DisplayStatementNode display){
+            code.op(ClassFileWriter.ALOAD_1, 1);
+            code.pushString(cf, display.getId());
+            code.pushInt(cf, display.getSlot());
+            code.iload(local(display.getSlot()));
+            code.invoke(ClassFileWriter.INVOKESTATIC, cf.methodRef(RUNTIME, "display", "(L" + MEMORY + ";Ljava/lang/String;II)V", false), -4);
+        }
+        else if(statement instanceof InputStatementNode input){
+            code.op(ClassFileWriter.ALOAD_1, 1);
+            code.pushString(cf, input.getId());
+            code.iload(local(input.getSlot()));
+            code.invoke(ClassFileWriter.INVOKESTATIC, cf.methodRef(RUNTIME, "input", "(L" + MEMORY + ";Ljava/lang/String;I)I", false), -2);
+            code.istore(local(input.getSlot()));
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            int elseLabel = code.newLabel();
+            int endLabel = code.newLabel();
+            compileCondition(ifNode.getCondition(), elseLabel);
+            compileStatements(ifNode.getIfBlock());
+            code.jump(ClassFileWriter.GOTO, endLabel);
+            code.place(elseLabel);
+            compileStatements(ifNode.getElseBlock());
+            code.place(endLabel);
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            int topLabel = code.newLabel();
+            int endLabel = code.newLabel();
+            code.place(topLabel);
+            compileCondition(whileNode.getCondition(), endLabel);
+            compileStatements(whileNode.getStatements());
+            code.jump(ClassFileWriter.GOTO, topLabel);
+            code.place(endLabel);
+        }
+        else if(statement instanceof ForStatementNode forNode){
+            //hidden counter and bound, the body may overwrite the loop variable without affecting iteration
+            int counter = nextTemp++;
+            int bound = nextTemp++;
+            code.reserveLocals(nextTemp);
+            compileExpression(forNode.getStartExpression());
+            code.istore(counter);
+            compileExpression(forNode.getEndExpression());
+            code.istore(bound);
+            compileForLoop(forNode, counter, bound);
+        }
+        else if(statement instanceof ClosedFormLoopNode || statement instanceof ParallelForNode){
+            //the node runs against memory, so locals are written back before and reloaded after
+            storeVariables();
+            code.invoke(ClassFileWriter.INVOKESTATIC, cf.methodRef("java/lang/invoke/MethodHandles", "lookup", "()L" + LOOKUP + ";", false), 1);
+            code.op(ClassFileWriter.ALOAD_1, 1);
+            code.pushInt(cf, nodes.size());
+            code.invoke(ClassFileWriter.INVOKESTATIC, cf.methodRef(RUNTIME, "node", "(L" + LOOKUP + ";L" + MEMORY + ";I)V", false), -3);
+            nodes.add(statement);
+            loadVariables();
+        }
+        else{
+            throw new InvalidParseException("Unknown statement in BytecodeEngine: " + statement);
+        }
+    }
+
+    /**
+     * method to compile the iterations of a for loop whose counter and bound are already in locals
+     * @param forNode - for statement
+     * @param counter - local holding the next value of the loop variable
+     * @param bound - local holding the last value of the loop variable
+     */
+    private void compileForLoop(ForStatementNode forNode, int counter, int bound){
+        int topLabel = code.newLabel();
+        int endLabel = code.newLabel();
+        code.place(topLabel);
+        code.iload(counter);
+        code.iload(bound);
+        code.jump(ClassFileWriter.IF_ICMPGT, endLabel);
+        code.iload(counter);
+        code.istore(local(forNode.getSlot()));
+        compileStatements(forNode.getStatements());
+        code.iinc(counter, 1);
+        code.jump(ClassFileWriter.GOTO, topLabel);
+        code.place(endLabel);
+    }
+
+    /**
+     * method to compile a condition as a branch taken when the condition is false
+     * @param condition - boolean expression node
+     * @param falseLabel - label to jump to when condition is false
+     * @throws InvalidParseException if condition type is unknown
+     */
+    private void compileCondition(BooleanExpressionNode condition, int falseLabel){
+        if(!(condition instanceof RelationalExpressionNode relational)){
+            throw new InvalidParseException("Unknown condition in BytecodeEngine: " + condition);
+        }
+        compileExpression(relational.getLeft());
+        compileExpression(relational.getRight());
+        code.jump(inverseBranch(relational.getOperator()), falseLabel);
+    }
+
+    /**
+     * method to get the branch opcode taken when a relational operator is false
+     * @param operator - relational operator
+     * @throws InvalidParseException if operator is not relational
+     * @return branch opcode
+     */
+    private int inverseBranch(TokenType operator){
+        switch(operator){
+            case LESS_THAN:
+                return ClassFileWriter.IF_ICMPGE;
+            case LESS_EQUAL:
+                return ClassFileWriter.IF_ICMPGT;
+            case GREATER_THAN:
+                return ClassFileWriter.IF_ICMPLE;
+            case GREATER_EQUAL:
+                return ClassFileWriter.IF_ICMPLT;
+            case EQUAL:
+                return ClassFileWriter.IF_ICMPNE;
+            case NOT_EQUAL:
+                return ClassFileWriter.IF_ICMPEQ;
+            default:
+                throw new InvalidParseException("Unknown relational operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile an arithmetic expression, leaves its value on the operand stack
+     * @param expr - arithmetic expression node
+     * @throws InvalidParseException if expression type is unknown
+     */
+    private void compileExpression(ArithmeticExpressionNode expr){
+        if(expr instanceof NumNode num){
+            code.pushInt(cf, num.getValue());
+        }
+        else if(expr instanceof IdentifierNode identifier){
+            code.iload(local(identifier.getSlot()));
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            compileExpression(binary.getLeft());
+            compileExpression(binary.getRight());
+            code.op(binary.getOperator() == TokenType.ADDITION ? ClassFileWriter.IADD : ClassFileWriter.ISUB, -1);
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary){
+            compileExpression(binary.getLeft());
+            compileExpression(binary.getRight());
+            code.op(binary.getOperator() == TokenType.MULTIPLICATION ? ClassFileWriter.IMUL : ClassFileWriter.IDIV, -1);
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            compileExpression(paren.getExpression());
+        }
+        else if(expr instanceof NegFactorNode neg){
+            compileExpression(neg.getExpression());
+            code.op(ClassFileWriter.INEG, 0);
+        }
+        else{
+            throw new InvalidParseException("Unknown expression in BytecodeEngine: " + expr);
+        }
+    }
+
+    /**
+     * method to get the JVM local holding a memory slot
+     * @param slot - memory slot
+     * @return local index
+     */
+    private int local(int slot){
+        return firstVariable + slot;
+    }
+}
@@ -0,0 +1,486 @@
+package domain.engine;
+
+import globalexceptions.InvalidArgumentException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * class for writing a minimal class file, contains a constant pool, methods, and a code buffer for method bodies
+ * class files are written as version 49 so the verifier infers types and no stack map frames are needed
+ */
+class ClassFileWriter {
+    //opcodes used by the compilers
+    static final int ALOAD_0 = 0x2a;
+    static final int ALOAD_1 = 0x2b;
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IDIV = 0x6c;
+    static final int INEG = 0x74;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPNE = 0xa0;
+    static final int IF_ICMPLT = 0xa1;
+    static final int IF_ICMPGE = 0xa2;
+    static final int IF_ICMPGT = 0xa3;
+    static final int IF_ICMPLE = 0xa4;
+    static final int GOTO = 0xa7;
+    static final int RETURN = 0xb1;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final HashMap<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+    private final List<byte[]> methods = new ArrayList<>();
+
+    /**
+     * method to add a utf8 constant
+     * @param value - string value
+     * @return constant pool index
+     */
+    int utf8(String value){
+        Integer index = poolIndex.get("U" + value);
+        if(index != null){
+            return index;
+        }
+        try {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+        }
+        catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        return register("U" + value, 1);
+    }
+
+    /**
+     * method to add a class constant
+     * @param internalName - class name with slashes
+     * @return constant pool index
+     */
+    int classRef(String internalName){
+        int name = utf8(internalName);
+        return entry("C" + internalName, 7, name, -1);
+    }
+
+    /**
+     * method to add a string constant
+     * @param value - string value
+     * @return constant pool index
+     */
+    int string(String value){
+        int utf = utf8(value);
+        return entry("S" + value, 8, utf, -1);
+    }
+
+    /**
+     * method to add an integer constant
+     * @param value - integer value
+     * @return constant pool index
+     */
+    int integer(int value){
+        Integer index = poolIndex.get("I" + value);
+        if(index != null){
+            return index;
+        }
+        try {
+            poolOut.writeByte(3);
+            poolOut.writeInt(value);
+        }
+        catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        return register("I" + value, 1);
+    }
+
+    /**
+     * method to add a method reference constant
+     * @param owner - owner class name with slashes
+     * @param name - method name
+     * @param descriptor - method descriptor
+     * @param isInterface - true if owner is an interface
+     * @return constant pool index
+     */
+    int methodRef(String owner, String name, String descriptor, boolean isInterface){
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descIndex = utf8(descriptor);
+        int nameAndType = entry("N" + name + descriptor, 12, nameIndex, descIndex);
+        return entry("M" + owner + "." + name + descriptor, isInterface ? 11 : 10, ownerIndex, nameAndType);
+    }
+
+    /**
+     * method to write a constant pool entry made of one or two u2 references
+     * @param key - deduplication key
+     * @param tag - constant pool tag
+     * @param first - first u2
+     * @param second - second u2, or -1 if the entry has one reference
+     * @return constant pool index
+     */
+    private int entry(String key, int tag, int first, int second){
+        Integer index = poolIndex.get(key);
+        if(index != null){
+            return index;
+        }
+        try {
+            poolOut.writeByte(tag);
+            poolOut.writeShort(first);
+            if(second >= 0){
+                poolOut.writeShort(second);
+            }
+        }
+        catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        return register(key, 1);
+    }
+
+    /**
+     * method to record a new constant pool entry
+     * @param key - deduplication key
+     * @param width - number of pool slots used
+     * @return constant pool index
+     */
+    private int register(String key, int width){
+        int index = poolCount;
+        poolCount += width;
+        if(poolCount > 0xffff){
+            throw new InvalidArgumentException("Constant pool overflow in generated class.");
+        }
+        poolIndex.put(key, index);
+        return index;
+    }
+
+    /**
+     * method to add a public method with a code body
+     * @param name - method name
+     * @param descriptor - method descriptor
+     * @param code - finished code buffer
+     */
+    void addMethod(String name, String descriptor, Code code){
+        byte[] body = code.toByteArray();
+        if(body.length > 0xffff){
+            throw new InvalidArgumentException("Generated method " + name + " exceeds the 64KB code limit.");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + body.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    /**
+     * method to add a default constructor which calls the super constructor
+     * @param superName - super class name with slashes
+     */
+    void addDefaultConstructor(String superName){
+        Code code = new Code(1);
+        code.op(ALOAD_0, 1);
+        code.invoke(INVOKESPECIAL, methodRef(superName, "<init>", "()V", false), -1);
+        code.op(RETURN, 0);
+        addMethod("<init>", "()V", code);
+    }
+
+    /**
+     * method to produce the class file bytes
+     * @param thisName - class name with slashes
+     * @param superName - super class name with slashes
+     * @param interfaceName - implemented interface name with slashes
+     * @return class file bytes
+     */
+    byte[] toByteArray(String thisName, String superName, String interfaceName){
+        int thisIndex = classRef(thisName);
+        int superIndex = classRef(superName);
+        int interfaceIndex = classRef(interfaceName);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(1);
+            out.writeShort(interfaceIndex);
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for(byte[] method : methods){
+                out.write(method);
+            }
+            out.writeShort(0);
+        }
+        catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * class for a method body, tracks operand stack depth and patches forward branches
+     */
+    static class Code {
+        private byte[] bytes = new byte[256];
+        private int length;
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+        private final List<int[]> fixups = new ArrayList<>();
+        private final List<Integer> labels = new ArrayList<>();
+
+        /**
+         * constructor for code buffer
+         * @param maxLocals - number of local variable slots used by the method
+         */
+        Code(int maxLocals){
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * method to reserve local variable slots
+         * @param count - total number of local slots required
+         */
+        void reserveLocals(int count){
+            if(count > 0xffff){
+                throw new InvalidArgumentException("Too many local variables in generated method.");
+            }
+            maxLocals = Math.max(maxLocals, count);
+        }
+
+        /**
+         * method to emit a single byte opcode
+         * @param opcode - opcode
+         * @param stackDelta - change in operand stack depth
+         */
+        void op(int opcode, int stackDelta){
+            put(opcode);
+            adjust(stackDelta);
+        }
+
+        /**
+         * method to emit an int constant push using the shortest form
+         * @param cf - class file for ldc constants
+         * @param value - constant value
+         */
+        void pushInt(ClassFileWriter cf, int value){
+            if(value >= -1 && value <= 5){
+                put(0x03 + value);
+            }
+            else if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE){
+                put(0x10);
+                put(value);
+            }
+            else if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE){
+                put(0x11);
+                put(value >> 8);
+                put(value);
+            }
+            else{
+                ldc(cf.integer(value));
+                return;
+            }
+            adjust(1);
+        }
+
+        /**
+         * method to emit a string constant push
+         * @param cf - class file for constants
+         * @param value - string value
+         */
+        void pushString(ClassFileWriter cf, String value){
+            ldc(cf.string(value));
+        }
+
+        /**
+         * method to emit ldc or ldc_w for a pool index
+         * @param index - constant pool index
+         */
+        private void ldc(int index){
+            if(index <= 0xff){
+                put(0x12);
+                put(index);
+            }
+            else{
+                put(0x13);
+                put(index >> 8);
+                put(index);
+            }
+            adjust(1);
+        }
+
+        /**
+         * method to load an int local
+         * @param local - local slot
+         */
+        void iload(int local){
+            localOp(0x15, 0x1a, local);
+            adjust(1);
+        }
+
+        /**
+         * method to store an int local
+         * @param local - local slot
+         */
+        void istore(int local){
+            localOp(0x36, 0x3b, local);
+            adjust(-1);
+        }
+
+        /**
+         * method to increment an int local in place
+         * @param local - local slot
+         * @param amount - increment
+         */
+        void iinc(int local, int amount){
+            if(local <= 0xff && amount >= Byte.MIN_VALUE && amount <= Byte.MAX_VALUE){
+                put(0x84);
+                put(local);
+                put(amount);
+            }
+            else{
+                put(0xc4);
+                put(0x84);
+                put(local >> 8);
+                put(local);
+                put(amount >> 8);
+                put(amount);
+            }
+        }
+
+        /**
+         * method to emit a local variable instruction in its short, normal, or wide form
+         * @param opcode - normal opcode
+         * @param shortOpcode - opcode of the _0 form
+         * @param local - local slot
+         */
+        private void localOp(int opcode, int shortOpcode, int local){
+            if(local <= 3){
+                put(shortOpcode + local);
+            }
+            else if(local <= 0xff){
+                put(opcode);
+                put(local);
+            }
+            else{
+                put(0xc4);
+                put(opcode);
+                put(local >> 8);
+                put(local);
+            }
+        }
+
+        /**
+         * method to emit a method invocation
+         * @param opcode - invoke opcode
+         * @param methodIndex - constant pool index of method
+         * @param stackDelta - change in operand stack depth
+         */
+        void invoke(int opcode, int methodIndex, int stackDelta){
+            put(opcode);
+            put(methodIndex >> 8);
+            put(methodIndex);
+            adjust(stackDelta);
+        }
+
+        /**
+         * method to create a new unplaced label
+         * @return label id
+         */
+        int newLabel(){
+            labels.add(-1);
+            return labels.size() - 1;
+        }
+
+        /**
+         * method to place a label at the current position
+         * @param label - label id
+         */
+        void place(int label){
+            labels.set(label, length);
+        }
+
+        /**
+         * method to emit a branch to a label
+         * @param opcode - branch opcode
+         * @param label - target label id
+         */
+        void jump(int opcode, int label){
+            int at = length;
+            put(opcode);
+            fixups.add(new int[]{at, label});
+            put(0);
+            put(0);
+            adjust(opcode == GOTO ? 0 : -2);
+        }
+
+        /**
+         * method to patch branches and get the finished code
+         * @throws InvalidArgumentException if a branch is out of range
+         * @return code bytes
+         */
+        byte[] toByteArray(){
+            for(int[] fixup : fixups){
+                int target = labels.get(fixup[1]);
+                int offset = target - fixup[0];
+                if(target < 0 || offset < Short.MIN_VALUE || offset > Short.MAX_VALUE){
+                    throw new InvalidArgumentException("Branch out of range in generated method.");
+                }
+                bytes[fixup[0] + 1] = (byte) (offset >> 8);
+                bytes[fixup[0] + 2] = (byte) offset;
+            }
+            byte[] out = new byte[length];
+            System.arraycopy(bytes, 0, out, 0, length);
+            return out;
+        }
+
+        /**
+         * method to append a byte
+         * @param b - byte value
+         */
+        private void put(int b){
+            if(length == bytes.length){
+                byte[] grown = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            bytes[length++] = (byte) b;
+        }
+
+        /**
+         * method to track operand stack depth
+         * @param delta - change in depth
+         */
+        private void adjust(int delta){
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+    }
+}
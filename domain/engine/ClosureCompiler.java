@@ -0,0 +1,471 @@
+package domain.engine;
+
+import domain.Memory;
+import domain.TokenType;
+import domain.node.*;
+import globalexceptions.InvalidParseException;
+
+import java.util.List;
+
+/**
+ * class for compiling statements into closures, operands that are literals or slots are captured as ints
+ * so the common shapes slot op constant and slot op slot read memory directly instead of calling a child closure
+ * blocks become fixed arity sequences of up to four steps, longer blocks are a tree of sequences
+ */
+class ClosureCompiler {
+    private static final Step NOTHING = memory -> { };
+
+    /**
+     * interface for a compiled statement or block
+     */
+    @FunctionalInterface
+    interface Step extends Executable {
+    }
+
+    /**
+     * interface for a compiled arithmetic expression
+     */
+    @FunctionalInterface
+    private interface Value {
+        int evaluate(Memory memory);
+    }
+
+    /**
+     * interface for a compiled condition
+     */
+    @FunctionalInterface
+    private interface Test {
+        boolean evaluate(Memory memory);
+    }
+
+    /**
+     * method to compile the statements of a program
+     * @param statements - statements of program
+     * @return step running the program
+     */
+    Step compile(List<StatementNode> statements){
+        return block(statements);
+    }
+
+    /**
+     * method to compile a block of statements
+     * @param statements - list of statements, may be null for a missing else block
+     * @return step running the block
+     */
+    private Step block(List<StatementNode> statements){
+        if(statements == null || statements.isEmpty()){
+            return NOTHING;
+        }
+        Step[] steps = new Step[statements.size()];
+        for(int i = 0; i < steps.length; i++){
+            steps[i] = statement(statements.get(i));
+        }
+        return sequence(steps, 0, steps.length);
+    }
+
+    /**
+     * method to join steps into fixed arity sequences
+     * @param steps - compiled statements
+     * @param from - first step, inclusive
+     * @param to - last step, exclusive
+     * @return step running steps from..to in order
+     */
+    private static Step sequence(Step[] steps, int from, int to){
+        int count = to - from;
+        if(count > 4){
+            //split into at most four parts of nearly equal size
+            int part = (count + 3) / 4;
+            Step[] parts = new Step[(count + part - 1) / part];
+            for(int i = 0; i < parts.length; i++){
+                parts[i] = sequence(steps, from + i * part, Math.min(to, from + (i + 1) * part));
+            }
+            return sequence(parts, 0, parts.length);
+        }
+        Step a = steps[from];
+        switch(count){
+            case 1:
+                return a;
+            case 2: {
+                Step b = steps[from + 1];
+                return memory -> {
+                    a.run(memory);
+                    b.run(memory);
+                };
+            }
+            case 3: {
+                Step b = steps[from + 1];
+                Step c = steps[from + 2];
+                return memory -> {
+                    a.run(memory);
+                    b.run(memory);
+                    c.run(memory);
+                };
+            }
+            default: {
+                Step b = steps[from + 1];
+                Step c = steps[from + 2];
+                Step d = steps[from + 3];
+                return memory -> {
+                    a.run(memory);
+                    b.run(memory);
+                    c.run(memory);
+                    d.run(memory);
+                };
+            }
+        }
+    }
+
+    /**
+     * method to compile a single statement
+     * @param statement - statement node
+     * @throws InvalidParseException if statement type is unknown
+     * @return compiled statement
+     */
+    private Step statement(StatementNode statement){
+        if(statement instanceof LetStatementNode let){
+            return let(let.getSlot(), let.getExpression());
+        }
+        if(statement instanceof DisplayStatementNode display){
+            int slot = display.getSlot();
+            String id = display.getId();
+            return memory -> memory.getOutput().display(slot, id, memory.get(slot));
+        }
+        if(statement instanceof InputStatementNode input){
+            int slot = input.getSlot();
+            String id = input.getId();
+            return memory -> memory.set(slot, InputStatementNode.readValue(memory, id, memory.get(slot)));
+        }
+        if(statement instanceof IfStatementNode ifNode){
+            Test condition = condition(ifNode.getCondition());
+            Step ifBlock = block(ifNode.getIfBlock());
+            if(ifNode.getElseBlock() == null){
+                return memory -> {
+                    if(condition.evaluate(memory)){
+                        ifBlock.run(memory);
+                    }
+                };
+            }
+            Step elseBlock = block(ifNode.getElseBlock());
+            return memory -> {
+                if(condition.evaluate(memory)){
+                    ifBlock.run(memory);
+                }
+                else{
+                    elseBlock.run(memory);
+                }
+            };
+        }
+        if(statement instanceof WhileStatementNode whileNode){
+            Test condition = condition(whileNode.getCondition());
+            Step body = block(whileNode.getStatements());
+            return memory -> {
+                while(condition.evaluate(memory)){
+                    body.run(memory);
+                }
+            };
+        }
+        if(statement instanceof ForStatementNode forNode){
+            int slot = forNode.getSlot();
+            Value start = expression(forNode.getStartExpression());
+            Value end = expression(forNode.getEndExpression());
+            Step body = block(forNode.getStatements());
+            return memory -> {
+                int first = start.evaluate(memory);
+                int last = end.evaluate(memory);
+                for(int i = first; i <= last; i++){
+                    memory.set(slot, i);
+                    body.run(memory);
+                }
+            };
+        }
+        if(statement instanceof ClosedFormLoopNode || statement instanceof ParallelForNode){
+            return statement::execute;
+        }
+        throw new InvalidParseException("Unknown statement in ClosureCompiler: " + statement);
+    }
+
+    /**
+     * method to compile an assignment, constants, copies and increments write memory without a child closure
+     * @param slot - slot assigned
+     * @param expr - assigned expression
+     * @return compiled statement
+     */
+    private Step let(int slot, ArithmeticExpressionNode expr){
+        expr = unwrap(expr);
+        if(expr instanceof NumNode num){
+            int value = num.getValue();
+            return memory -> memory.set(slot, value);
+        }
+        if(expr instanceof IdentifierNode identifier){
+            int source = identifier.getSlot();
+            return memory -> memory.set(slot, memory.get(source));
+        }
+        if(expr instanceof BinaryExpressionNodeArithmetic binary && unwrap(binary.getLeft()) instanceof IdentifierNode identifier
+                && unwrap(binary.getRight()) instanceof NumNode num){
+            int source = identifier.getSlot();
+            int step = binary.getOperator() == TokenType.ADDITION ? num.getValue() : -num.getValue();
+            return memory -> memory.set(slot, memory.get(source) + step);
+        }
+        Value value = expression(expr);
+        return memory -> memory.set(slot, value.evaluate(memory));
+    }
+
+    /**
+     * method to compile a condition
+     * @param condition - boolean expression node
+     * @throws InvalidParseException if condition type is unknown
+     * @return compiled condition
+     */
+    private Test condition(BooleanExpressionNode condition){
+        if(!(condition instanceof RelationalExpressionNode relational)){
+            throw new InvalidParseException("Unknown condition in ClosureCompiler: " + condition);
+        }
+        TokenType operator = relational.getOperator();
+        ArithmeticExpressionNode left = unwrap(relational.getLeft());
+        ArithmeticExpressionNode right = unwrap(relational.getRight());
+        if(left instanceof IdentifierNode identifier && right instanceof NumNode num){
+            return compareSlotConst(operator, identifier.getSlot(), num.getValue());
+        }
+        if(left instanceof IdentifierNode a && right instanceof IdentifierNode b){
+            return compareSlotSlot(operator, a.getSlot(), b.getSlot());
+        }
+        return compare(operator, expression(left), expression(right));
+    }
+
+    /**
+     * method to compile a comparison of a slot with a literal
+     * @param operator - relational operator
+     * @param a - slot on the left
+     * @param k - literal on the right
+     * @throws InvalidParseException if operator is not relational
+     * @return compiled condition
+     */
+    private static Test compareSlotConst(TokenType operator, int a, int k){
+        switch(operator){
+            case LESS_THAN:
+                return memory -> memory.get(a) < k;
+            case LESS_EQUAL:
+                return memory -> memory.get(a) <= k;
+            case GREATER_THAN:
+                return memory -> memory.get(a) > k;
+            case GREATER_EQUAL:
+                return memory -> memory.get(a) >= k;
+            case EQUAL:
+                return memory -> memory.get(a) == k;
+            case NOT_EQUAL:
+                return memory -> memory.get(a) != k;
+            default:
+                throw new InvalidParseException("Unknown relational operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile a comparison of two slots
+     * @param operator - relational operator
+     * @param a - slot on the left
+     * @param b - slot on the right
+     * @throws InvalidParseException if operator is not relational
+     * @return compiled condition
+     */
+    private static Test compareSlotSlot(TokenType operator, int a, int b){
+        switch(operator){
+            case LESS_THAN:
+                return memory -> memory.get(a) < memory.get(b);
+            case LESS_EQUAL:
+                return memory -> memory.get(a) <= memory.get(b);
+            case GREATER_THAN:
+                return memory -> memory.get(a) > memory.get(b);
+            case GREATER_EQUAL:
+                return memory -> memory.get(a) >= memory.get(b);
+            case EQUAL:
+                return memory -> memory.get(a) == memory.get(b);
+            case NOT_EQUAL:
+                return memory -> memory.get(a) != memory.get(b);
+            default:
+                throw new InvalidParseException("Unknown relational operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile a comparison of two expressions
+     * @param operator - relational operator
+     * @param a - left operand
+     * @param b - right operand
+     * @throws InvalidParseException if operator is not relational
+     * @return compiled condition
+     */
+    private static Test compare(TokenType operator, Value a, Value b){
+        switch(operator){
+            case LESS_THAN:
+                return memory -> a.evaluate(memory) < b.evaluate(memory);
+            case LESS_EQUAL:
+                return memory -> a.evaluate(memory) <= b.evaluate(memory);
+            case GREATER_THAN:
+                return memory -> a.evaluate(memory) > b.evaluate(memory);
+            case GREATER_EQUAL:
+                return memory -> a.evaluate(memory) >= b.evaluate(memory);
+            case EQUAL:
+                return memory -> a.evaluate(memory) == b.evaluate(memory);
+            case NOT_EQUAL:
+                return memory -> a.evaluate(memory) != b.evaluate(memory);
+            default:
+                throw new InvalidParseException("Unknown relational operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile an arithmetic expression
+     * @param expr - arithmetic expression node
+     * @throws InvalidParseException if expression type is unknown
+     * @return compiled expression
+     */
+    private Value expression(ArithmeticExpressionNode expr){
+        expr = unwrap(expr);
+        if(expr instanceof NumNode num){
+            int value = num.getValue();
+            return memory -> value;
+        }
+        if(expr instanceof IdentifierNode identifier){
+            int slot = identifier.getSlot();
+            return memory -> memory.get(slot);
+        }
+        if(expr instanceof NegFactorNode neg){
+            Value operand = expression(neg.getExpression());
+            return memory -> -operand.evaluate(memory);
+        }
+        if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            return arithmetic(binary.getOperator(), binary.getLeft(), binary.getRight());
+        }
+        if(expr instanceof BinaryTermNodeArithmetic binary){
+            return arithmetic(binary.getOperator(), binary.getLeft(), binary.getRight());
+        }
+        throw new InvalidParseException("Unknown expression in ClosureCompiler: " + expr);
+    }
+
+    /**
+     * method to compile a binary operation, picking the closure for the shape of its operands
+     * @param operator - arithmetic operator
+     * @param leftNode - left operand
+     * @param rightNode - right operand
+     * @return compiled expression
+     */
+    private Value arithmetic(TokenType operator, ArithmeticExpressionNode leftNode, ArithmeticExpressionNode rightNode){
+        leftNode = unwrap(leftNode);
+        rightNode = unwrap(rightNode);
+        if(leftNode instanceof IdentifierNode identifier && rightNode instanceof NumNode num){
+            return slotConst(operator, identifier.getSlot(), num.getValue());
+        }
+        if(leftNode instanceof IdentifierNode a && rightNode instanceof IdentifierNode b){
+            return slotSlot(operator, a.getSlot(), b.getSlot());
+        }
+        Value left = expression(leftNode);
+        if(rightNode instanceof NumNode num){
+            return valueConst(operator, left, num.getValue());
+        }
+        return valueValue(operator, left, expression(rightNode));
+    }
+
+    /**
+     * method to compile slot op literal
+     * @param operator - arithmetic operator
+     * @param a - slot on the left
+     * @param k - literal on the right
+     * @throws InvalidParseException if operator is not arithmetic
+     * @return compiled expression
+     */
+    private static Value slotConst(TokenType operator, int a, int k){
+        switch(operator){
+            case ADDITION:
+                return memory -> memory.get(a) + k;
+            case SUBTRACTION:
+                return memory -> memory.get(a) - k;
+            case MULTIPLICATION:
+                return memory -> memory.get(a) * k;
+            case DIVISION:
+                return memory -> memory.get(a) / k;
+            default:
+                throw new InvalidParseException("Unknown arithmetic operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile slot op slot
+     * @param operator - arithmetic operator
+     * @param a - slot on the left
+     * @param b - slot on the right
+     * @throws InvalidParseException if operator is not arithmetic
+     * @return compiled expression
+     */
+    private static Value slotSlot(TokenType operator, int a, int b){
+        switch(operator){
+            case ADDITION:
+                return memory -> memory.get(a) + memory.get(b);
+            case SUBTRACTION:
+                return memory -> memory.get(a) - memory.get(b);
+            case MULTIPLICATION:
+                return memory -> memory.get(a) * memory.get(b);
+            case DIVISION:
+                return memory -> memory.get(a) / memory.get(b);
+            default:
+                throw new InvalidParseException("Unknown arithmetic operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile expression op literal
+     * @param operator - arithmetic operator
+     * @param a - left operand
+     * @param k - literal on the right
+     * @throws InvalidParseException if operator is not arithmetic
+     * @return compiled expression
+     */
+    private static Value valueConst(TokenType operator, Value a, int k){
+        switch(operator){
+            case ADDITION:
+                return memory -> a.evaluate(memory) + k;
+            case SUBTRACTION:
+                return memory -> a.evaluate(memory) - k;
+            case MULTIPLICATION:
+                return memory -> a.evaluate(memory) * k;
+            case DIVISION:
+                return memory -> a.evaluate(memory) / k;
+            default:
+                throw new InvalidParseException("Unknown arithmetic operator: " + operator);
+        }
+    }
+
+    /**
+     * method to compile expression op expression
+     * @param operator - arithmetic operator
+     * @param a - left operand
+     * @param b - right operand
+     * @throws InvalidParseException if operator is not arithmetic
+     * @return compiled expression
+     */
+    private static Value valueValue(TokenType operator, Value a, Value b){
+        switch(operator){
+            case ADDITION:
+                return memory -> a.evaluate(memory) + b.evaluate(memory);
+            case SUBTRACTION:
+                return memory -> a.evaluate(memory) - b.evaluate(memory);
+            case MULTIPLICATION:
+                return memory -> a.evaluate(memory) * b.evaluate(memory);
+            case DIVISION:
+                return memory -> a.evaluate(memory) / b.evaluate(memory);
+            default:
+                throw new InvalidParseException("Unknown arithmetic operator: " + operator);
+        }
+    }
+
+    /**
+     * method to strip parentheses, which only group
+     * @param expr - arithmetic expression node
+     * @return first node below any parentheses
+     */
+    private static ArithmeticExpressionNode unwrap(ArithmeticExpressionNode expr){
+        while(expr instanceof ParenFactorNode paren){
+            expr = paren.getExpression();
+        }
+        return expr;
+    }
+}
@@ -0,0 +1,25 @@
+package domain.engine;
+
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for the closure engine, compiles a resolved program with ClosureCompiler into a tree of lambdas
+ * each lambda is specialized to its operator and operand shapes, so call sites see few receiver classes
+ * and no classes are generated, a middle tier between the tree walker and the bytecode engine
+ */
+public class ClosureEngine implements Engine {
+    /**
+     * method to compile a program into closures
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return executable running the root closure
+     */
+    @Override
+    public Executable compile(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in ClosureEngine compile().");
+        }
+        return new ClosureCompiler().compile(programNode.getStatements());
+    }
+}
@@ -0,0 +1,54 @@
+package domain.engine;
+import domain.Memory;
+import domain.node.InputStatementNode;
+import domain.node.StatementNode;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * class for helper methods called from generated code, keeps display and input behavior identical to the tree walker
+ */
+public final class CompiledRuntime {
+    private CompiledRuntime(){
+    }
+
+    /**
+     * method to display a value, called by generated display statements
+     * @param memory - memory of the running program
+     * @param id - name of identifier
+     * @param slot - memory slot of identifier
+     * @param value - value of identifier
+     */
+    public static void display(Memory memory, String id, int slot, int value){
+        memory.getOutput().display(slot, id, value);
+    }
+
+    /**
+     * method to read a value, called by generated input statements
+     * @param memory - memory of the running program
+     * @param id - name of identifier
+     * @param current - current value of identifier
+     * @return value entered, or current if the input was not an integer
+     */
+    public static int input(Memory memory, String id, int current){
+        return InputStatementNode.readValue(memory, id, current);
+    }
+
+    /**
+     * method to run a statement node, called by generated code for statements without a bytecode form
+     * @param lookup - lookup of the generated class, its class data is the node array
+     * @param memory - memory of the running program
+     * @param index - index of node in the class data
+     */
+    public static void node(MethodHandles.Lookup lookup, Memory memory, int index){
+        StatementNode[] nodes;
+        try {
+            nodes = MethodHandles.classData(lookup, ConstantDescs.DEFAULT_NAME, StatementNode[].class);
+        }
+        catch (IllegalAccessException e){
+            throw new IllegalStateException("Could not read class data of generated program.", e);
+        }
+        nodes[index].execute(memory);
+    }
+}
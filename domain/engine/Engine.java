@@ -0,0 +1,9 @@
+package domain.engine;
+import domain.node.ProgramNode;
+
+/**
+ * interface for execution engines, turns a resolved program node into an executable
+ */
+public interface Engine {
+    Executable compile(ProgramNode programNode);
+}
@@ -0,0 +1,9 @@
+package domain.engine;
+import domain.Memory;
+
+/**
+ * interface for a program prepared by an engine, contains run method
+ */
+public interface Executable {
+    void run(Memory memory);
+}
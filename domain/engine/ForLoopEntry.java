@@ -0,0 +1,9 @@
+package domain.engine;
+import domain.Memory;
+
+/**
+ * interface for a compiled for loop that can be entered part way, used to move a running loop into compiled code
+ */
+interface ForLoopEntry {
+    void resume(Memory memory, int first, int last);
+}
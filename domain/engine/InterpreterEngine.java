@@ -0,0 +1,23 @@
+package domain.engine;
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for the tree walking engine, runs the program by calling execute on the parse tree
+ */
+public class InterpreterEngine implements Engine {
+
+    /**
+     * method to prepare program for the tree walker
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null
+     * @return executable which walks the parse tree
+     */
+    @Override
+    public Executable compile(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null){
+            throw new InvalidArgumentException("Null program node in InterpreterEngine compile().");
+        }
+        return programNode::execute;
+    }
+}
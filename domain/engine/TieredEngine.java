@@ -0,0 +1,106 @@
+package domain.engine;
+
+import domain.DeepStack;
+import domain.SymbolTable;
+import domain.node.*;
+import globalexceptions.InvalidArgumentException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * class for the tiered engine, starts every program in the tree walker and compiles only its hot loops
+ * each while and for loop is wrapped in a TieredLoopNode which counts entries and iterations,
+ * a loop past the threshold is compiled to a hidden class in the background and the running loop moves over to it
+ * short programs never pay for class generation and hot loops still end up as bytecode
+ */
+public class TieredEngine implements Engine {
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final int threshold;
+    private final Executor compiler;
+
+    /**
+     * constructor for TieredEngine, compiles on a shared background thread
+     */
+    public TieredEngine(){
+        this(DEFAULT_THRESHOLD, CompilerThread.EXECUTOR);
+    }
+
+    /**
+     * constructor for TieredEngine
+     * @param threshold - entries plus iterations of a loop before it is compiled
+     * @param compiler - executor compilations run on
+     * @throws InvalidArgumentException if threshold is negative or compiler is null
+     */
+    public TieredEngine(int threshold, Executor compiler) throws InvalidArgumentException{
+        if(threshold < 0 || compiler == null){
+            throw new InvalidArgumentException("Invalid parameter in TieredEngine constructor.");
+        }
+        this.threshold = threshold;
+        this.compiler = compiler;
+    }
+
+    /**
+     * method to prepare a program for tiered execution
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return executable walking the tiered tree
+     */
+    @Override
+    public Executable compile(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in TieredEngine compile().");
+        }
+        ProgramNode tiered = new ProgramNode(tierBlock(programNode.getStatements(), programNode.getSymbolTable()));
+        return tiered::execute;
+    }
+
+    /**
+     * method to wrap the loops of a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     * @param symbols - symbol table of program
+     * @return list with loops wrapped, or null if statements is null
+     */
+    private ArrayList<StatementNode> tierBlock(List<StatementNode> statements, SymbolTable symbols){
+        if(statements == null){
+            return null;
+        }
+        ArrayList<StatementNode> tiered = new ArrayList<>();
+        for(StatementNode statement : statements){
+            tiered.add(tierStatement(statement, symbols));
+        }
+        return tiered;
+    }
+
+    /**
+     * method to wrap a statement if it is a loop, loops nested in it are wrapped as well
+     * @param statement - statement node
+     * @param symbols - symbol table of program
+     * @return tiered statement node
+     */
+    private StatementNode tierStatement(StatementNode statement, SymbolTable symbols){
+        if(statement instanceof IfStatementNode ifNode){
+            return new IfStatementNode(ifNode.getCondition(), tierBlock(ifNode.getIfBlock(), symbols), tierBlock(ifNode.getElseBlock(), symbols));
+        }
+        if(statement instanceof WhileStatementNode whileNode){
+            return new TieredLoopNode(whileNode, tierBlock(whileNode.getStatements(), symbols), symbols, threshold, compiler);
+        }
+        if(statement instanceof ForStatementNode forNode){
+            return new TieredLoopNode(forNode, tierBlock(forNode.getStatements(), symbols), symbols, threshold, compiler);
+        }
+        //lets, display, input and summarized or parallel loops run as they are
+        return statement;
+    }
+
+    /**
+     * class holding the shared compiler thread, created on first use
+     */
+    private static class CompilerThread {
+        //the generator recurses once per level of an expression
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(DeepStack.threadFactory("tiered-compiler"));
+    }
+}
@@ -0,0 +1,158 @@
+package domain.engine;
+
+import domain.Memory;
+import domain.SymbolTable;
+import domain.node.ForStatementNode;
+import domain.node.StatementNode;
+import domain.node.WhileStatementNode;
+import globalexceptions.InvalidArgumentException;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * class for a loop run by TieredEngine, interpreted until its entries and iterations pass a threshold,
+ * then compiled to a hidden class on a background thread
+ * every variable lives in memory while interpreting, so the loop moves into compiled code at the next back edge,
+ * a while loop by running the compiled loop, which tests its condition again, a for loop through a ForLoopEntry
+ * the counter is shared by every run of the program, it is not exact when runs overlap, it only has to become large
+ */
+class TieredLoopNode implements StatementNode {
+    private final StatementNode loop;
+    private final List<StatementNode> body;
+    private final SymbolTable symbols;
+    private final int threshold;
+    private final Executor compiler;
+
+    private int hotness;
+    private volatile boolean queued;
+    private volatile Executable compiledWhile;
+    private volatile ForLoopEntry compiledFor;
+
+    /**
+     * constructor for TieredLoopNode
+     * @param loop - while or for statement, compiled as it is
+     * @param body - statements interpreted each iteration, the loop's body with nested loops tiered as well
+     * @param symbols - symbol table of program
+     * @param threshold - entries plus iterations before the loop is compiled
+     * @param compiler - executor compilations run on
+     * @throws InvalidArgumentException if loop is not a while or for statement or any other parameter is null
+     */
+    TieredLoopNode(StatementNode loop, List<StatementNode> body, SymbolTable symbols, int threshold, Executor compiler) throws InvalidArgumentException{
+        if(!(loop instanceof WhileStatementNode || loop instanceof ForStatementNode) || body == null || symbols == null || compiler == null){
+            throw new InvalidArgumentException("Invalid parameter in TieredLoopNode constructor.");
+        }
+        this.loop = loop;
+        this.body = body;
+        this.symbols = symbols;
+        this.threshold = threshold;
+        this.compiler = compiler;
+    }
+
+    @Override
+    public void execute(Memory memory){
+        if(!queued && ++hotness > threshold){
+            request();
+        }
+        if(loop instanceof ForStatementNode forNode){
+            executeFor(forNode, memory);
+        }
+        else{
+            executeWhile((WhileStatementNode) loop, memory);
+        }
+    }
+
+    /**
+     * method to run a while loop, moving into compiled code once it is ready
+     * @param whileNode - while statement
+     * @param memory - memory of run
+     */
+    private void executeWhile(WhileStatementNode whileNode, Memory memory){
+        Executable compiled = compiledWhile;
+        if(compiled != null){
+            compiled.run(memory);
+            return;
+        }
+        while(whileNode.getCondition().evaluate(memory)){
+            for(StatementNode statement : body){
+                statement.execute(memory);
+            }
+            if(!queued && ++hotness > threshold){
+                request();
+            }
+            compiled = compiledWhile;
+            if(compiled != null){
+                compiled.run(memory);
+                return;
+            }
+        }
+    }
+
+    /**
+     * method to run a for loop, moving into compiled code once it is ready
+     * @param forNode - for statement
+     * @param memory - memory of run
+     */
+    private void executeFor(ForStatementNode forNode, Memory memory){
+        int first = forNode.getStartExpression().evaluate(memory);
+        int last = forNode.getEndExpression().evaluate(memory);
+        ForLoopEntry compiled = compiledFor;
+        if(compiled != null){
+            compiled.resume(memory, first, last);
+            return;
+        }
+        int slot = forNode.getSlot();
+        for(int i = first; i <= last; i++){
+            memory.set(slot, i);
+            for(StatementNode statement : body){
+                statement.execute(memory);
+            }
+            if(!queued && ++hotness > threshold){
+                request();
+            }
+            compiled = compiledFor;
+            if(compiled != null){
+                //i + 1 wraps exactly as i++ would, so an unbounded loop stays unbounded
+                compiled.resume(memory, i + 1, last);
+                return;
+            }
+        }
+    }
+
+    /**
+     * method to queue compilation of the loop, only the first call queues it
+     */
+    private void request(){
+        synchronized (this){
+            if(queued){
+                return;
+            }
+            queued = true;
+        }
+        try {
+            compiler.execute(this::compile);
+        }
+        catch (RejectedExecutionException e){
+            //compiler shut down, the loop stays interpreted
+        }
+    }
+
+    /**
+     * method to compile the loop, run on the compiler thread
+     */
+    private void compile(){
+        BytecodeGenerator generator = new BytecodeGenerator();
+        try {
+            if(loop instanceof ForStatementNode forNode){
+                compiledFor = (ForLoopEntry) BytecodeEngine.define(generator, generator.generateForEntry(forNode, symbols));
+            }
+            else{
+                compiledWhile = (Executable) BytecodeEngine.define(generator, generator.generate(List.of(loop), symbols));
+            }
+        }
+        catch (InvalidArgumentException e){
+            //too large for one JVM method, the loop stays interpreted
+        }
+    }
+}
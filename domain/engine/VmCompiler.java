@@ -0,0 +1,349 @@
+package domain.engine;
+
+import domain.SymbolTable;
+import domain.TokenType;
+import domain.node.*;
+import globalexceptions.InvalidParseException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * class for lowering statements into VmProgram instructions, one compiler is used per program
+ * temporaries are allocated as a stack above the memory slots, jump targets are absolute and patched at the end
+ * a metered compiler adds a FUEL instruction before each statement and each loop back edge
+ */
+class VmCompiler {
+    private static final int STATEMENT_FUEL = 1;
+    private static final int BACK_EDGE_FUEL = 1;
+
+    private final boolean metered;
+    private int[] code = new int[64];
+    private int length;
+    private int variables;
+    private int nextTemp;
+    private int maxRegister;
+    private final List<String> names = new ArrayList<>();
+    private final List<StatementNode> nodes = new ArrayList<>();
+    private final HashMap<String, Integer> nameIndex = new HashMap<>();
+    private final List<Integer> labels = new ArrayList<>();
+    private final List<Integer> fixups = new ArrayList<>();
+
+    /**
+     * constructor for VmCompiler emitting no fuel charges
+     */
+    VmCompiler(){
+        this(false);
+    }
+
+    /**
+     * constructor for VmCompiler
+     * @param metered - true to charge fuel for each statement and loop back edge
+     */
+    VmCompiler(boolean metered){
+        this.metered = metered;
+    }
+
+    /**
+     * method to lower a list of statements into a program ending in HALT
+     * @param statements - statements of program
+     * @param symbols - symbol table of program
+     * @return lowered program
+     */
+    VmProgram compile(List<StatementNode> statements, SymbolTable symbols){
+        variables = symbols.size();
+        nextTemp = variables;
+        maxRegister = variables;
+        lowerStatements(statements);
+        emit(VmProgram.HALT);
+
+        //patch jump targets, fixups hold the position of a label id
+        for(int at : fixups){
+            code[at] = labels.get(code[at]);
+        }
+        int[] finished = new int[length];
+        System.arraycopy(code, 0, finished, 0, length);
+        return new VmProgram(finished, names.toArray(new String[0]), nodes.toArray(new StatementNode[0]), variables, maxRegister);
+    }
+
+    /**
+     * method to lower a list of statements
+     * @param statements - list of statements, may be null for a missing else block
+     */
+    private void lowerStatements(List<StatementNode> statements){
+        if(statements == null){
+            return;
+        }
+        for(StatementNode statement : statements){
+            lowerStatement(statement);
+        }
+    }
+
+    /**
+     * method to lower a single statement
+     * @param statement - statement node
+     * @throws InvalidParseException if statement type is unknown
+     */
+    private void lowerStatement(StatementNode statement){
+        if(metered && statement instanceof ParallelForNode parallel){
+            //a parallel loop runs to its end once started, a metered program runs it as a plain loop so it can yield
+            lowerStatement(parallel.getLoop());
+            return;
+        }
+        if(metered && statement instanceof ClosedFormLoopNode closedForm){
+            //a summarized loop falls back to running its original loop unmetered, e.g. for a bound of Integer.MAX_VALUE
+            lowerStatement(closedForm.getLoop());
+            return;
+        }
+        fuel(STATEMENT_FUEL);
+        if(statement instanceof LetStatementNode let){
+            lowerInto(let.getExpression(), let.getSlot());
+        }
+        else if(statement instanceof DisplayStatementNode display){
+            emit(VmProgram.DISPLAY, display.getSlot(), name(display.getId()));
+        }
+        else if(statement instanceof InputStatementNode input){
+            emit(VmProgram.INPUT, input.getSlot(), name(input.getId()));
+        }
+        else if(statement instanceof IfStatementNode ifNode){
+            int elseLabel = newLabel();
+            int endLabel = newLabel();
+            lowerCondition(ifNode.getCondition(), elseLabel);
+            lowerStatements(ifNode.getIfBlock());
+            if(ifNode.getElseBlock() != null){
+                jump(endLabel);
+            }
+            place(elseLabel);
+            lowerStatements(ifNode.getElseBlock());
+            place(endLabel);
+        }
+        else if(statement instanceof WhileStatementNode whileNode){
+            int topLabel = newLabel();
+            int endLabel = newLabel();
+            place(topLabel);
+            lowerCondition(whileNode.getCondition(), endLabel);
+            lowerStatements(whileNode.getStatements());
+            fuel(BACK_EDGE_FUEL);
+            jump(topLabel);
+            place(endLabel);
+        }
+        else if(statement instanceof ForStatementNode forNode){
+            //hidden counter and bound, held for the whole loop
+            int counter = temp();
+            int bound = temp();
+            lowerInto(forNode.getStartExpression(), counter);
+            lowerInto(forNode.getEndExpression(), bound);
+
+            int topLabel = newLabel();
+            int endLabel = newLabel();
+            place(topLabel);
+            emit(VmProgram.JGT, counter, bound);
+            target(endLabel);
+            emit(VmProgram.MOV, forNode.getSlot(), counter);
+            lowerStatements(forNode.getStatements());
+            emit(VmProgram.ADDI, counter, counter, 1);
+            fuel(BACK_EDGE_FUEL);
+            jump(topLabel);
+            place(endLabel);
+            release(counter);
+        }
+        else if(statement instanceof ClosedFormLoopNode || statement instanceof ParallelForNode){
+            emit(VmProgram.NODE, nodes.size());
+            nodes.add(statement);
+        }
+        else{
+            throw new InvalidParseException("Unknown statement in VmCompiler: " + statement);
+        }
+    }
+
+    /**
+     * method to lower a condition as a branch taken when the condition is false
+     * @param condition - boolean expression node
+     * @param falseLabel - label to jump to when condition is false
+     * @throws InvalidParseException if condition type is unknown
+     */
+    private void lowerCondition(BooleanExpressionNode condition, int falseLabel){
+        if(!(condition instanceof RelationalExpressionNode relational)){
+            throw new InvalidParseException("Unknown condition in VmCompiler: " + condition);
+        }
+        int mark = nextTemp;
+        int left = operand(relational.getLeft());
+        int right = operand(relational.getRight());
+        emit(inverseBranch(relational.getOperator()), left, right);
+        target(falseLabel);
+        release(mark);
+    }
+
+    /**
+     * method to get the branch opcode taken when a relational operator is false
+     * @param operator - relational operator
+     * @throws InvalidParseException if operator is not relational
+     * @return branch opcode
+     */
+    private int inverseBranch(TokenType operator){
+        switch(operator){
+            case LESS_THAN:
+                return VmProgram.JGE;
+            case LESS_EQUAL:
+                return VmProgram.JGT;
+            case GREATER_THAN:
+                return VmProgram.JLE;
+            case GREATER_EQUAL:
+                return VmProgram.JLT;
+            case EQUAL:
+                return VmProgram.JNE;
+            case NOT_EQUAL:
+                return VmProgram.JEQ;
+            default:
+                throw new InvalidParseException("Unknown relational operator: " + operator);
+        }
+    }
+
+    /**
+     * method to get a register holding the value of an expression, identifiers are used in place
+     * @param expr - arithmetic expression node
+     * @return register
+     */
+    private int operand(ArithmeticExpressionNode expr){
+        if(expr instanceof IdentifierNode identifier){
+            return identifier.getSlot();
+        }
+        if(expr instanceof ParenFactorNode paren){
+            return operand(paren.getExpression());
+        }
+        int dst = temp();
+        lowerInto(expr, dst);
+        return dst;
+    }
+
+    /**
+     * method to lower an expression so its value ends up in a register
+     * operands are evaluated into temporaries first, so dst may also be read by the expression
+     * @param expr - arithmetic expression node
+     * @param dst - destination register
+     * @throws InvalidParseException if expression type is unknown
+     */
+    private void lowerInto(ArithmeticExpressionNode expr, int dst){
+        int mark = nextTemp;
+        if(expr instanceof NumNode num){
+            emit(VmProgram.CONST, dst, num.getValue());
+        }
+        else if(expr instanceof IdentifierNode identifier){
+            emit(VmProgram.MOV, dst, identifier.getSlot());
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            int left = operand(binary.getLeft());
+            int right = operand(binary.getRight());
+            emit(binary.getOperator() == TokenType.ADDITION ? VmProgram.ADD : VmProgram.SUB, dst, left, right);
+        }
+        else if(expr instanceof BinaryTermNodeArithmetic binary){
+            int left = operand(binary.getLeft());
+            int right = operand(binary.getRight());
+            emit(binary.getOperator() == TokenType.MULTIPLICATION ? VmProgram.MUL : VmProgram.DIV, dst, left, right);
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            lowerInto(paren.getExpression(), dst);
+        }
+        else if(expr instanceof NegFactorNode neg){
+            emit(VmProgram.NEG, dst, operand(neg.getExpression()));
+        }
+        else{
+            throw new InvalidParseException("Unknown expression in VmCompiler: " + expr);
+        }
+        release(mark);
+    }
+
+    /**
+     * method to allocate a temporary register
+     * @return register
+     */
+    private int temp(){
+        int register = nextTemp++;
+        maxRegister = Math.max(maxRegister, nextTemp);
+        return register;
+    }
+
+    /**
+     * method to free every temporary allocated at or above a register
+     * @param mark - first register to free
+     */
+    private void release(int mark){
+        nextTemp = mark;
+    }
+
+    /**
+     * method to get the index of an identifier name used by display and input
+     * @param id - identifier name
+     * @return name index
+     */
+    private int name(String id){
+        Integer index = nameIndex.get(id);
+        if(index == null){
+            index = names.size();
+            names.add(id);
+            nameIndex.put(id, index);
+        }
+        return index;
+    }
+
+    /**
+     * method to charge fuel when metered
+     * @param cost - fuel charged
+     */
+    private void fuel(int cost){
+        if(metered){
+            emit(VmProgram.FUEL, cost);
+        }
+    }
+
+    /**
+     * method to create a new unplaced label
+     * @return label id
+     */
+    private int newLabel(){
+        labels.add(-1);
+        return labels.size() - 1;
+    }
+
+    /**
+     * method to place a label at the current position
+     * @param label - label id
+     */
+    private void place(int label){
+        labels.set(label, length);
+    }
+
+    /**
+     * method to emit an unconditional jump to a label
+     * @param label - label id
+     */
+    private void jump(int label){
+        emit(VmProgram.JMP);
+        target(label);
+    }
+
+    /**
+     * method to emit a jump target operand which is patched once all labels are placed
+     * @param label - label id
+     */
+    private void target(int label){
+        fixups.add(length);
+        emit(label);
+    }
+
+    /**
+     * method to append words to the instruction stream
+     * @param words - opcode and operands
+     */
+    private void emit(int... words){
+        if(length + words.length > code.length){
+            int[] grown = new int[Math.max(code.length * 2, length + words.length)];
+            System.arraycopy(code, 0, grown, 0, length);
+            code = grown;
+        }
+        for(int word : words){
+            code[length++] = word;
+        }
+    }
+}
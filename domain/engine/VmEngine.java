@@ -0,0 +1,42 @@
+package domain.engine;
+
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for the register VM engine, lowers a resolved program into a flat instruction stream with VmCompiler
+ * lowering is a single linear pass so short programs start as fast as with the tree walker
+ * a metered engine charges fuel in the lowered program, so runs started with VmProgram.start() can be preempted
+ */
+public class VmEngine implements Engine {
+    private final boolean metered;
+
+    /**
+     * constructor for VmEngine, programs are not metered
+     */
+    public VmEngine(){
+        this(false);
+    }
+
+    /**
+     * constructor for VmEngine
+     * @param metered - true to charge fuel for each statement and loop back edge
+     */
+    public VmEngine(boolean metered){
+        this.metered = metered;
+    }
+
+    /**
+     * method to lower a program into a VmProgram
+     * @param programNode - resolved program node
+     * @throws InvalidArgumentException if programNode is null or unresolved
+     * @return lowered program
+     */
+    @Override
+    public VmProgram compile(ProgramNode programNode) throws InvalidArgumentException{
+        if(programNode == null || programNode.getSymbolTable() == null){
+            throw new InvalidArgumentException("Null or unresolved program node in VmEngine compile().");
+        }
+        return new VmCompiler(metered).compile(programNode.getStatements(), programNode.getSymbolTable());
+    }
+}
@@ -0,0 +1,89 @@
+package domain.engine;
+
+import domain.Memory;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for one run of a VmProgram that can be suspended, created by VmProgram.start()
+ * a metered program spends fuel for each statement and loop back edge and yields when the fuel it was given runs out,
+ * its registers and next instruction are kept, so the run continues exactly where it stopped when resumed
+ * a process may be resumed by a different thread each time, but resumes must not overlap
+ */
+public final class VmProcess {
+    private final VmProgram program;
+    private final Memory memory;
+    private final int[] registers;
+    private int pc;
+    private boolean finished;
+    private volatile long fuelUsed;
+
+    //fuel left of the current resume, spent by the FUEL instructions of the program
+    long fuel;
+
+    /**
+     * constructor for VmProcess, memory slots are copied into registers now and back when the run ends
+     * @param program - program to run
+     * @param memory - memory of the run
+     */
+    VmProcess(VmProgram program, Memory memory){
+        this.program = program;
+        this.memory = memory;
+        this.registers = program.load(memory);
+    }
+
+    /**
+     * method to run until the program ends or the fuel runs out, a program that is not metered always runs to its end
+     * @param grant - fuel to spend, one per statement and one per loop back edge
+     * @throws InvalidArgumentException if grant is negative
+     * @throws RuntimeException the error that ended the program, memory holds the values it left
+     * @return true if the program has ended, false if it yielded
+     */
+    public boolean resume(long grant) throws InvalidArgumentException{
+        if(grant < 0){
+            throw new InvalidArgumentException("Negative fuel in VmProcess resume().");
+        }
+        if(finished){
+            return true;
+        }
+        fuel = grant;
+        try {
+            pc = program.dispatch(registers, memory, pc, this);
+        }
+        catch (RuntimeException e){
+            finished = true;
+            throw e;
+        }
+        finally {
+            fuelUsed += grant - fuel;
+            if(finished || pc < 0){
+                finished = true;
+                program.store(registers, memory);
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * method to check if the run has ended
+     * @return true once the program halted or failed
+     */
+    public boolean isFinished(){
+        return finished;
+    }
+
+    /**
+     * method to get the fuel spent so far, may be called from any thread while the process runs
+     * @return fuel spent by all resumes
+     */
+    public long getFuelUsed(){
+        return fuelUsed;
+    }
+
+    /**
+     * method to get memory of the run, it holds the final values once the run has ended
+     * @return memory
+     */
+    public Memory getMemory(){
+        return memory;
+    }
+}
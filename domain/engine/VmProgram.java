@@ -0,0 +1,217 @@
+package domain.engine;
+
+import domain.Memory;
+import domain.io.OutputSink;
+import domain.node.InputStatementNode;
+import domain.node.StatementNode;
+
+/**
+ * class for a lowered program, contains a flat int[] instruction stream and the dispatch loop that runs it
+ * registers 0 to variables-1 are the memory slots of the program, higher registers are temporaries
+ * a metered program charges fuel for each statement and loop back edge, run() ignores the charges,
+ * a VmProcess from start() stops when its fuel runs out and continues from the same instruction when resumed
+ */
+public class VmProgram implements Executable {
+    //dst k
+    static final int CONST = 0;
+    //dst src
+    static final int MOV = 1;
+    //dst a b
+    static final int ADD = 2;
+    static final int SUB = 3;
+    static final int MUL = 4;
+    static final int DIV = 5;
+    //dst a
+    static final int NEG = 6;
+    //dst a k
+    static final int ADDI = 7;
+    //target
+    static final int JMP = 8;
+    //a b target, jump when the comparison holds
+    static final int JLT = 9;
+    static final int JLE = 10;
+    static final int JGT = 11;
+    static final int JGE = 12;
+    static final int JEQ = 13;
+    static final int JNE = 14;
+    //reg name
+    static final int DISPLAY = 15;
+    static final int INPUT = 16;
+    static final int HALT = 17;
+    //node, runs a statement node against memory, used for statements without an instruction form
+    static final int NODE = 18;
+    //cost, only in metered programs, spends fuel of the running VmProcess and yields before it when too little is left
+    static final int FUEL = 19;
+
+    private final int[] code;
+    private final String[] names;
+    private final StatementNode[] nodes;
+    private final int variables;
+    private final int registers;
+
+    /**
+     * constructor for VmProgram
+     * @param code - instruction stream
+     * @param names - identifier names referenced by display and input instructions
+     * @param nodes - statement nodes referenced by node instructions
+     * @param variables - number of memory slots
+     * @param registers - total number of registers including temporaries
+     */
+    VmProgram(int[] code, String[] names, StatementNode[] nodes, int variables, int registers){
+        this.code = code;
+        this.names = names;
+        this.nodes = nodes;
+        this.variables = variables;
+        this.registers = registers;
+    }
+
+    /**
+     * method to run the instruction stream, memory slots are copied into registers at entry and back at exit
+     * @param memory - memory of the running program
+     */
+    @Override
+    public void run(Memory memory){
+        int[] r = load(memory);
+        try {
+            dispatch(r, memory, 0, null);
+        }
+        finally {
+            store(r, memory);
+        }
+    }
+
+    /**
+     * method to start a run which can be suspended when its fuel runs out, only a metered program ever suspends
+     * @param memory - memory of the run, written back when the run ends
+     * @return process of the run, holding no fuel until resumed
+     */
+    public VmProcess start(Memory memory){
+        return new VmProcess(this, memory);
+    }
+
+    /**
+     * method to create a register file holding the memory slots
+     * @param memory - memory of the run
+     * @return register file
+     */
+    int[] load(Memory memory){
+        int[] r = new int[registers];
+        for(int slot = 0; slot < variables; slot++){
+            r[slot] = memory.get(slot);
+        }
+        return r;
+    }
+
+    /**
+     * method to copy the memory slots of a register file back to memory
+     * @param r - register file
+     * @param memory - memory of the run
+     */
+    void store(int[] r, Memory memory){
+        for(int slot = 0; slot < variables; slot++){
+            memory.set(slot, r[slot]);
+        }
+    }
+
+    /**
+     * method for the dispatch loop
+     * @param r - register file
+     * @param memory - memory of the running program, used for output and input
+     * @param pc - instruction to start at
+     * @param process - process whose fuel is spent, or null to ignore fuel
+     * @return instruction to resume at once more fuel is given, or -1 when the program halted
+     */
+    int dispatch(int[] r, Memory memory, int pc, VmProcess process){
+        final int[] code = this.code;
+        final OutputSink output = memory.getOutput();
+        while(true){
+            switch(code[pc]){
+                case CONST:
+                    r[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case MOV:
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case ADD:
+                    r[code[pc + 1]] = r[code[pc + 2]] + r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case SUB:
+                    r[code[pc + 1]] = r[code[pc + 2]] - r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case MUL:
+                    r[code[pc + 1]] = r[code[pc + 2]] * r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case DIV:
+                    r[code[pc + 1]] = r[code[pc + 2]] / r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case NEG:
+                    r[code[pc + 1]] = -r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case ADDI:
+                    r[code[pc + 1]] = r[code[pc + 2]] + code[pc + 3];
+                    pc += 4;
+                    break;
+                case JMP:
+                    pc = code[pc + 1];
+                    break;
+                case JLT:
+                    pc = r[code[pc + 1]] < r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JLE:
+                    pc = r[code[pc + 1]] <= r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JGT:
+                    pc = r[code[pc + 1]] > r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JGE:
+                    pc = r[code[pc + 1]] >= r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JEQ:
+                    pc = r[code[pc + 1]] == r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case JNE:
+                    pc = r[code[pc + 1]] != r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    break;
+                case DISPLAY:
+                    output.display(code[pc + 1], names[code[pc + 2]], r[code[pc + 1]]);
+                    pc += 3;
+                    break;
+                case INPUT:
+                    r[code[pc + 1]] = InputStatementNode.readValue(memory, names[code[pc + 2]], r[code[pc + 1]]);
+                    pc += 3;
+                    break;
+                case NODE:
+                    //the node sees memory as the program left it and its writes are read back
+                    for(int slot = 0; slot < variables; slot++){
+                        memory.set(slot, r[slot]);
+                    }
+                    nodes[code[pc + 1]].execute(memory);
+                    for(int slot = 0; slot < variables; slot++){
+                        r[slot] = memory.get(slot);
+                    }
+                    pc += 2;
+                    break;
+                case FUEL:
+                    if(process != null){
+                        if(process.fuel < code[pc + 1]){
+                            return pc;
+                        }
+                        process.fuel -= code[pc + 1];
+                    }
+                    pc += 2;
+                    break;
+                case HALT:
+                    return -1;
+                default:
+                    throw new IllegalStateException("Invalid opcode " + code[pc] + " at " + pc);
+            }
+        }
+    }
+}
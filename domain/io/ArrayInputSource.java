@@ -0,0 +1,40 @@
+package domain.io;
+
+import globalexceptions.InvalidArgumentException;
+
+import java.util.NoSuchElementException;
+
+/**
+ * class for an input source over values already in memory, for embedding and repeated runs
+ */
+public class ArrayInputSource implements InputSource {
+    private final int[] values;
+    private int next;
+
+    /**
+     * constructor for array input source
+     * @param values - values returned in order, not copied
+     * @throws InvalidArgumentException if values is null
+     */
+    public ArrayInputSource(int[] values){
+        if(values == null){
+            throw new InvalidArgumentException("Null values in ArrayInputSource constructor.");
+        }
+        this.values = values;
+    }
+
+    /**
+     * method to return the next value
+     * @param id - name of identifier being read
+     * @param current - current value of identifier
+     * @throws NoSuchElementException if every value has been read
+     * @return next value
+     */
+    @Override
+    public int read(String id, int current){
+        if(next == values.length){
+            throw new NoSuchElementException("No input left for " + id);
+        }
+        return values[next++];
+    }
+}
@@ -0,0 +1,48 @@
+package domain.io;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * class for an output sink writing a compact binary record stream, all ints are 4 bytes big-endian as read by DataInputStream
+ * the first display of a slot, or of a new name in a reused slot, writes a name record: byte 0, int slot, int length, UTF-8 name bytes
+ * every display writes a value record: byte 1, int slot, int value
+ */
+public class BinaryOutputSink extends BufferedOutputSink {
+    static final int NAME_RECORD = 0;
+    static final int VALUE_RECORD = 1;
+
+    private String[] named = new String[16];
+
+    /**
+     * constructor for binary output sink
+     * @param out - destination stream, not closed by the sink
+     */
+    public BinaryOutputSink(OutputStream out){
+        super(out);
+    }
+
+    /**
+     * method to write a value record, preceded by a name record the first time a slot is displayed
+     * @param slot - memory slot of identifier
+     * @param id - name of identifier
+     * @param value - value of identifier
+     */
+    @Override
+    public void display(int slot, String id, int value){
+        if(slot >= named.length){
+            named = Arrays.copyOf(named, Math.max(named.length * 2, slot + 1));
+        }
+        if(!id.equals(named[slot])){
+            byte[] name = name(slot, id);
+            put(NAME_RECORD);
+            putInt(slot);
+            putInt(name.length);
+            put(name);
+            named[slot] = id;
+        }
+        put(VALUE_RECORD);
+        putInt(slot);
+        putInt(value);
+    }
+}
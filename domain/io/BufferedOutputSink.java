@@ -0,0 +1,162 @@
+package domain.io;
+
+import globalexceptions.InvalidArgumentException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * abstract class for output sinks that encode records into a byte buffer and write it to a stream when full or flushed
+ * identifier names are encoded once per slot, subclasses choose the record format
+ */
+public abstract class BufferedOutputSink implements OutputSink {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] MIN_VALUE = Integer.toString(Integer.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private String[] names = new String[16];
+    private byte[][] encoded = new byte[16][];
+
+    /**
+     * constructor for buffered output sink
+     * @param out - destination stream, not closed by the sink
+     * @throws InvalidArgumentException if out is null
+     */
+    protected BufferedOutputSink(OutputStream out){
+        if(out == null){
+            throw new InvalidArgumentException("Null output stream in BufferedOutputSink constructor.");
+        }
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * method to write buffered bytes to the stream
+     * @throws UncheckedIOException if the stream fails
+     */
+    @Override
+    public void flush(){
+        try {
+            if(count > 0){
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+            out.flush();
+        }
+        catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * method to make room for bytes at the end of the buffer, flushing when it is full
+     * @param length - number of bytes about to be written
+     */
+    protected final void reserve(int length){
+        if(count + length > buffer.length){
+            flush();
+        }
+    }
+
+    /**
+     * method to get the UTF-8 bytes of an identifier name, encoded once per slot
+     * @param slot - memory slot of identifier
+     * @param id - name of identifier
+     * @return encoded name
+     */
+    protected final byte[] name(int slot, String id){
+        if(slot >= names.length){
+            int capacity = Math.max(names.length * 2, slot + 1);
+            names = Arrays.copyOf(names, capacity);
+            encoded = Arrays.copyOf(encoded, capacity);
+        }
+        //a sink reused for another program may see a different name in the same slot
+        if(!id.equals(names[slot])){
+            names[slot] = id;
+            encoded[slot] = id.getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded[slot];
+    }
+
+    /**
+     * method to append bytes, longer arrays than the buffer are written straight through
+     * @param bytes - bytes to append
+     */
+    protected final void put(byte[] bytes){
+        if(bytes.length > buffer.length){
+            flush();
+            try {
+                out.write(bytes);
+            }
+            catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        reserve(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    /**
+     * method to append a single byte
+     * @param b - byte to append
+     */
+    protected final void put(int b){
+        reserve(1);
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * method to append an int as ASCII decimal digits without creating a string
+     * @param value - value to append
+     */
+    protected final void putDecimal(int value){
+        if(value == Integer.MIN_VALUE){
+            put(MIN_VALUE);
+            return;
+        }
+        reserve(11);
+        if(value < 0){
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int end = count + digits(value);
+        int position = end;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while(value != 0);
+        count = end;
+    }
+
+    /**
+     * method to append an int as 4 big-endian bytes
+     * @param value - value to append
+     */
+    protected final void putInt(int value){
+        reserve(4);
+        buffer[count++] = (byte) (value >>> 24);
+        buffer[count++] = (byte) (value >>> 16);
+        buffer[count++] = (byte) (value >>> 8);
+        buffer[count++] = (byte) value;
+    }
+
+    /**
+     * method to count the decimal digits of a non-negative int
+     * @param value - non-negative value
+     * @return number of digits
+     */
+    private static int digits(int value){
+        int digits = 1;
+        for(long limit = 10; digits < 10 && value >= limit; limit *= 10){
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,98 @@
+package domain.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * abstract class for input sources that parse integers straight from bytes, without regexes or strings
+ * values are separated by whitespace, a value that is not an integer in int range is reported and skipped
+ */
+public abstract class ByteInputSource implements InputSource {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    /**
+     * method to read more bytes into the buffer
+     * @param buffer - buffer to fill from index 0
+     * @throws IOException if reading fails
+     * @return number of bytes read, or -1 at end of input
+     */
+    protected abstract int fill(byte[] buffer) throws IOException;
+
+    /**
+     * method to read the next integer
+     * @param id - name of identifier being read
+     * @param current - current value of identifier
+     * @throws NoSuchElementException if there is no more input
+     * @return value read, or current if the next value is not an integer
+     */
+    @Override
+    public int read(String id, int current){
+        int b = next();
+        while(b >= 0 && b <= ' '){
+            b = next();
+        }
+        if(b < 0){
+            throw new NoSuchElementException("No input left for " + id);
+        }
+
+        boolean negative = b == '-';
+        if(b == '-' || b == '+'){
+            b = next();
+        }
+        //accumulate in a long so one digit past int range is still detected
+        long value = 0;
+        int digits = 0;
+        boolean valid = true;
+        while(b > ' '){
+            if(valid && b >= '0' && b <= '9'){
+                value = value * 10 + (b - '0');
+                digits++;
+                valid = value <= (negative ? 2147483648L : Integer.MAX_VALUE);
+            }
+            else{
+                valid = false;
+            }
+            b = next();
+        }
+        if(!valid || digits == 0){
+            System.err.println("Invalid value entered for " + id + ". Expected an integer.");
+            return current;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * method to get the next byte, refilling the buffer when it is used up
+     * @throws UncheckedIOException if reading fails
+     * @return unsigned byte, or -1 at end of input
+     */
+    private int next(){
+        if(position == limit){
+            if(eof){
+                return -1;
+            }
+            try {
+                int read = fill(buffer);
+                while(read == 0){
+                    read = fill(buffer);
+                }
+                if(read < 0){
+                    eof = true;
+                    return -1;
+                }
+                position = 0;
+                limit = read;
+            }
+            catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+        return buffer[position++] & 0xff;
+    }
+}
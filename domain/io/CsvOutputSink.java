@@ -0,0 +1,39 @@
+package domain.io;
+
+import java.io.OutputStream;
+
+/**
+ * class for an output sink writing CSV with an "id,value" header, one row per display statement
+ * identifiers never contain commas or quotes, so no field needs quoting
+ */
+public class CsvOutputSink extends BufferedOutputSink {
+    private static final byte[] HEADER = {'i', 'd', ',', 'v', 'a', 'l', 'u', 'e', '\n'};
+
+    private boolean headerWritten;
+
+    /**
+     * constructor for CSV output sink
+     * @param out - destination stream, not closed by the sink
+     */
+    public CsvOutputSink(OutputStream out){
+        super(out);
+    }
+
+    /**
+     * method to write an "id,value" row
+     * @param slot - memory slot of identifier
+     * @param id - name of identifier
+     * @param value - value of identifier
+     */
+    @Override
+    public void display(int slot, String id, int value){
+        if(!headerWritten){
+            put(HEADER);
+            headerWritten = true;
+        }
+        put(name(slot, id));
+        put(',');
+        putDecimal(value);
+        put('\n');
+    }
+}
@@ -0,0 +1,18 @@
+package domain.io;
+
+import java.util.NoSuchElementException;
+
+/**
+ * interface for the values read by input statements, kept on Memory so each execution has its own
+ */
+public interface InputSource {
+
+    /**
+     * method to read the next integer
+     * @param id - name of identifier being read
+     * @param current - current value of identifier
+     * @throws NoSuchElementException if there is no more input
+     * @return value read, or current if the next input is not an integer
+     */
+    int read(String id, int current);
+}
@@ -0,0 +1,53 @@
+package domain.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * class for an input source over a memory-mapped file of whitespace separated integers
+ * the file is mapped in windows when the source is created, so no file handle stays open
+ */
+public class MappedInputSource extends ByteInputSource {
+    private static final long WINDOW = 1L << 30;
+
+    private final List<MappedByteBuffer> windows = new ArrayList<>();
+    private int window;
+
+    /**
+     * constructor for mapped input source
+     * @param path - path of input file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedInputSource(Path path) throws IOException{
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            for(long start = 0; start < size; start += WINDOW){
+                windows.add(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start)));
+            }
+        }
+    }
+
+    /**
+     * method to copy the next bytes of the mapping
+     * @param buffer - buffer to fill from index 0
+     * @return number of bytes copied, or -1 at end of file
+     */
+    @Override
+    protected int fill(byte[] buffer){
+        while(window < windows.size() && !windows.get(window).hasRemaining()){
+            window++;
+        }
+        if(window == windows.size()){
+            return -1;
+        }
+        MappedByteBuffer mapped = windows.get(window);
+        int length = Math.min(buffer.length, mapped.remaining());
+        mapped.get(buffer, 0, length);
+        return length;
+    }
+}
@@ -0,0 +1,21 @@
+package domain.io;
+
+/**
+ * interface for the destination of display statements, kept on Memory so each execution has its own
+ * sinks may buffer, callers flush before reading input and when the program ends
+ */
+public interface OutputSink {
+
+    /**
+     * method to write the value of a displayed identifier
+     * @param slot - memory slot of identifier, stable for the whole program
+     * @param id - name of identifier
+     * @param value - value of identifier
+     */
+    void display(int slot, String id, int value);
+
+    /**
+     * method to write out anything buffered
+     */
+    void flush();
+}
@@ -0,0 +1,39 @@
+package domain.io;
+
+import globalexceptions.InvalidArgumentException;
+
+import java.io.PrintStream;
+
+/**
+ * class for an interactive input source, prints "Enter value for id: " before each read of another source
+ */
+public class PromptingInputSource implements InputSource {
+    private final InputSource source;
+    private final PrintStream out;
+
+    /**
+     * constructor for prompting input source
+     * @param source - source values are read from
+     * @param out - stream prompts are printed to
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public PromptingInputSource(InputSource source, PrintStream out){
+        if(source == null || out == null){
+            throw new InvalidArgumentException("Null parameter in PromptingInputSource constructor.");
+        }
+        this.source = source;
+        this.out = out;
+    }
+
+    /**
+     * method to prompt for and read the next integer
+     * @param id - name of identifier being read
+     * @param current - current value of identifier
+     * @return value entered, or current if the input was not an integer
+     */
+    @Override
+    public int read(String id, int current){
+        out.print("Enter value for " + id + ": ");
+        return source.read(id, current);
+    }
+}
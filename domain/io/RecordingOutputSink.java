@@ -0,0 +1,68 @@
+package domain.io;
+
+import java.util.Arrays;
+
+/**
+ * class for an output sink that keeps every display in memory until it is replayed into another sink,
+ * used to give each parallel task its own output while keeping the program's output in sequential order
+ */
+public class RecordingOutputSink implements OutputSink {
+    private int[] slots = new int[16];
+    private String[] ids = new String[16];
+    private int[] values = new int[16];
+    private int size;
+
+    /**
+     * method to record a displayed identifier
+     * @param slot - memory slot of identifier
+     * @param id - name of identifier
+     * @param value - value of identifier
+     */
+    @Override
+    public void display(int slot, String id, int value){
+        if(size == slots.length){
+            slots = Arrays.copyOf(slots, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        slots[size] = slot;
+        ids[size] = id;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * method to flush, recorded displays are kept until they are replayed
+     */
+    @Override
+    public void flush(){
+    }
+
+    /**
+     * method to write every recorded display to another sink in the order they were recorded
+     * @param target - destination sink
+     */
+    public void replay(OutputSink target){
+        for(int i = 0; i < size; i++){
+            target.display(slots[i], ids[i], values[i]);
+        }
+    }
+
+    /**
+     * method to drop every recorded display, used when the task that recorded them is discarded
+     */
+    public void clear(){
+        slots = new int[16];
+        ids = new String[16];
+        values = new int[16];
+        size = 0;
+    }
+
+    /**
+     * method to get the number of recorded displays
+     * @return number of displays
+     */
+    public int size(){
+        return size;
+    }
+}
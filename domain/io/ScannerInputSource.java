@@ -0,0 +1,44 @@
+package domain.io;
+
+import globalexceptions.InvalidArgumentException;
+
+import java.io.InputStream;
+import java.util.InputMismatchException;
+import java.util.Scanner;
+
+/**
+ * class for an input source reading integers with a Scanner, the original behavior of input statements
+ * a value that is not an integer is reported and left unread
+ */
+public class ScannerInputSource implements InputSource {
+    private final Scanner sc;
+
+    /**
+     * constructor for scanner input source
+     * @param in - stream to read, e.g. System.in
+     * @throws InvalidArgumentException if in is null
+     */
+    public ScannerInputSource(InputStream in){
+        if(in == null){
+            throw new InvalidArgumentException("Null input stream in ScannerInputSource constructor.");
+        }
+        this.sc = new Scanner(in);
+    }
+
+    /**
+     * method to read the next integer
+     * @param id - name of identifier being read
+     * @param current - current value of identifier
+     * @return value entered, or current if the input was not an integer
+     */
+    @Override
+    public int read(String id, int current){
+        try {
+            return sc.nextInt();
+        }
+        catch (InputMismatchException e){
+            System.err.println("Invalid value entered for " + id + ". Expected an integer.");
+            return current;
+        }
+    }
+}
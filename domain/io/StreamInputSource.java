@@ -0,0 +1,36 @@
+package domain.io;
+
+import globalexceptions.InvalidArgumentException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * class for a fast input source over a byte stream, e.g. System.in with piped values
+ */
+public class StreamInputSource extends ByteInputSource {
+    private final InputStream in;
+
+    /**
+     * constructor for stream input source
+     * @param in - stream to read, not closed by the source
+     * @throws InvalidArgumentException if in is null
+     */
+    public StreamInputSource(InputStream in){
+        if(in == null){
+            throw new InvalidArgumentException("Null input stream in StreamInputSource constructor.");
+        }
+        this.in = in;
+    }
+
+    /**
+     * method to read more bytes from the stream
+     * @param buffer - buffer to fill from index 0
+     * @throws IOException if reading fails
+     * @return number of bytes read, or -1 at end of stream
+     */
+    @Override
+    protected int fill(byte[] buffer) throws IOException{
+        return in.read(buffer, 0, buffer.length);
+    }
+}
@@ -0,0 +1,32 @@
+package domain.io;
+
+import java.io.OutputStream;
+
+/**
+ * class for the default output sink, writes one "id = value" line per display statement like the original println
+ */
+public class TextOutputSink extends BufferedOutputSink {
+    private static final byte[] SEPARATOR = {' ', '=', ' '};
+
+    /**
+     * constructor for text output sink
+     * @param out - destination stream, not closed by the sink
+     */
+    public TextOutputSink(OutputStream out){
+        super(out);
+    }
+
+    /**
+     * method to write "id = value" and a line separator
+     * @param slot - memory slot of identifier
+     * @param id - name of identifier
+     * @param value - value of identifier
+     */
+    @Override
+    public void display(int slot, String id, int value){
+        put(name(slot, id));
+        put(SEPARATOR);
+        putDecimal(value);
+        put('\n');
+    }
+}
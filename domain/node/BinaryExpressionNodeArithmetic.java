@@ -5,16 +5,17 @@ import globalexceptions.InvalidArgumentException;
 import globalexceptions.InvalidParseException;
 
 /**
- * class for a binary expression node, inherits ExpressionNode, implements evaluate for addition and subtraction
+ * abstract class for a binary expression node, inherits ExpressionNode, subclasses implement evaluate for one operator
+ * so evaluation does not switch on the operator, create nodes with create()
  */
 /*
 (expr + term)
 (expr - term)
  */
-public class BinaryExpressionNodeArithmetic implements ArithmeticExpressionNode {
-    private ArithmeticExpressionNode left;
-    private TokenType operator;
-    private TermNodeArithmetic right;
+public abstract class BinaryExpressionNodeArithmetic implements ArithmeticExpressionNode {
+    protected final ArithmeticExpressionNode left;
+    private final TokenType operator;
+    protected final TermNodeArithmetic right;
 
     /**
      * constructor for BinaryExpressionNodeArithmetic
@@ -23,7 +24,7 @@ public class BinaryExpressionNodeArithmetic implements ArithmeticExpressionNode
      * @param right - TermNodeArithmetic
      * @throws InvalidArgumentException if any parameter is null
      */
-    public BinaryExpressionNodeArithmetic(ArithmeticExpressionNode left, TokenType operator, TermNodeArithmetic right) throws InvalidArgumentException{
+    protected BinaryExpressionNodeArithmetic(ArithmeticExpressionNode left, TokenType operator, TermNodeArithmetic right) throws InvalidArgumentException{
         if(left == null || operator == null || right == null){
             throw new InvalidArgumentException("Null parameter in BinaryExpressionNode constructor");
         }
@@ -33,23 +34,44 @@ public class BinaryExpressionNodeArithmetic implements ArithmeticExpressionNode
     }
 
     /**
-     * method to evaluate binary expression, evaluate left child then right child, operate on both children
-     * @param memory - memory at compile time
+     * method to create the binary expression node for an operator
+     * @param left - ArithmeticExpressionNode
+     * @param operator - operator type, + or -
+     * @param right - TermNodeArithmetic
      * @throws InvalidParseException if invalid operator found
-     * @return operation value on both children
+     * @return AddNode or SubNode
      */
-    @Override
-    public int evaluate(Memory memory){
-        int leftVal = left.evaluate(memory);
-        int rightVal = right.evaluate(memory);
-
-        switch(operator){
-            case ADDITION:
-                return leftVal + rightVal;
-            case SUBTRACTION:
-                return leftVal - rightVal;
-            default:
-                throw new InvalidParseException("Invalid operator in ExpressionNodeBinary: " + operator);
+    public static BinaryExpressionNodeArithmetic create(ArithmeticExpressionNode left, TokenType operator, TermNodeArithmetic right){
+        if(operator == TokenType.ADDITION){
+            return new AddNode(left, right);
+        }
+        if(operator == TokenType.SUBTRACTION){
+            return new SubNode(left, right);
         }
+        throw new InvalidParseException("Invalid operator in ExpressionNodeBinary: " + operator);
+    }
+
+    /**
+     * method to get left operand
+     * @return left expression
+     */
+    public ArithmeticExpressionNode getLeft(){
+        return left;
+    }
+
+    /**
+     * method to get operator
+     * @return operator type, + or -
+     */
+    public TokenType getOperator(){
+        return operator;
+    }
+
+    /**
+     * method to get right operand
+     * @return right term
+     */
+    public TermNodeArithmetic getRight(){
+        return right;
     }
 }
@@ -5,16 +5,17 @@ import globalexceptions.InvalidArgumentException;
 import globalexceptions.InvalidParseException;
 
 /**
- * class for binary term node, extends TermNode, implements evaluate for multiplication and division
+ * abstract class for binary term node, extends TermNode, subclasses implement evaluate for one operator
+ * so evaluation does not switch on the operator, create nodes with create()
  */
 /*
 (term * factor)
 (term / factor)
  */
-public class BinaryTermNodeArithmetic implements TermNodeArithmetic {
-    private TermNodeArithmetic left;
-    private TokenType operator;
-    private FactorNodeArithmetic right;
+public abstract class BinaryTermNodeArithmetic implements TermNodeArithmetic {
+    protected final TermNodeArithmetic left;
+    private final TokenType operator;
+    protected final FactorNodeArithmetic right;
 
     /**
      * constructor for BinaryTermNode
@@ -23,7 +24,7 @@ public class BinaryTermNodeArithmetic implements TermNodeArithmetic {
      * @param right - FactorNodeArithmetic
      * @throws InvalidArgumentException if any parameter is null
      */
-    public BinaryTermNodeArithmetic(TermNodeArithmetic left, TokenType operator, FactorNodeArithmetic right) throws InvalidArgumentException{
+    protected BinaryTermNodeArithmetic(TermNodeArithmetic left, TokenType operator, FactorNodeArithmetic right) throws InvalidArgumentException{
         if(left == null || operator == null || right == null){
             throw new InvalidArgumentException("Null parameter in BinaryTermNode constructor");
         }
@@ -33,23 +34,44 @@ public class BinaryTermNodeArithmetic implements TermNodeArithmetic {
     }
 
     /**
-     * method to evaluate binary term, evaluate left child then right child, operate on both children
-     * @param memory - memory at compile time
+     * method to create the binary term node for an operator
+     * @param left - TermNodeArithmetic
+     * @param operator - operator type, * or /
+     * @param right - FactorNodeArithmetic
      * @throws InvalidParseException if invalid operator found
-     * @return operation value on both children
+     * @return MulNode or DivNode
      */
-    @Override
-    public int evaluate(Memory memory){
-        int leftVal = left.evaluate(memory);
-        int rightVal = right.evaluate(memory);
-
-        switch(operator){
-            case MULTIPLICATION:
-                return leftVal * rightVal;
-            case DIVISION:
-                return leftVal / rightVal;
-            default:
-                throw new InvalidParseException("Invalid operator in TermNodeBinary: " + operator);
+    public static BinaryTermNodeArithmetic create(TermNodeArithmetic left, TokenType operator, FactorNodeArithmetic right){
+        if(operator == TokenType.MULTIPLICATION){
+            return new MulNode(left, right);
+        }
+        if(operator == TokenType.DIVISION){
+            return new DivNode(left, right);
         }
+        throw new InvalidParseException("Invalid operator in TermNodeBinary: " + operator);
+    }
+
+    /**
+     * method to get left operand
+     * @return left term
+     */
+    public TermNodeArithmetic getLeft(){
+        return left;
+    }
+
+    /**
+     * method to get operator
+     * @return operator type, * or /
+     */
+    public TokenType getOperator(){
+        return operator;
+    }
+
+    /**
+     * method to get right operand
+     * @return right factor
+     */
+    public FactorNodeArithmetic getRight(){
+        return right;
     }
 }
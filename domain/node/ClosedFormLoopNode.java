@@ -0,0 +1,287 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+import java.util.List;
+
+/**
+ * class for a summarized loop, created by LoopSummarizer for for and while loops whose body only contains let statements
+ * every assigned variable is a polynomial in the iteration number, so the final values are computed in constant time
+ * with chains of recurrences instead of running the body, the original loop is kept and run whenever the closed form does not apply
+ */
+public class ClosedFormLoopNode implements StatementNode {
+    //v := v + t, where t does not read v
+    public static final int ACCUMULATOR = 0;
+    //v := e, where e does not read v and v is not read before this statement
+    public static final int DERIVED = 1;
+    //v := a * v + b, where a and b are loop invariant and v is not read by any other statement
+    public static final int AFFINE = 2;
+
+    private static final int[] ZERO = {0};
+    private static final int[] ONE = {1};
+
+    private final StatementNode loop;
+    private final List<LetStatementNode> body;
+    private final int[] kinds;
+    private final int[] order;
+    private final int counter;
+    private final TokenType operator;
+    private final ArithmeticExpressionNode bound;
+    private final int step;
+
+    /**
+     * constructor for ClosedFormLoopNode summarizing a for loop
+     * @param loop - original for loop, its body is the let statements in body
+     * @param kinds - kind of each body statement
+     * @param order - body statement indexes ordered so every statement comes after the statements it reads
+     * @throws InvalidArgumentException if any parameter is null or the arrays do not match the body
+     */
+    public ClosedFormLoopNode(ForStatementNode loop, List<LetStatementNode> body, int[] kinds, int[] order) throws InvalidArgumentException{
+        this(loop, body, kinds, order, -1, null, null, 0);
+    }
+
+    /**
+     * constructor for ClosedFormLoopNode summarizing a while loop of the form counter operator bound
+     * @param loop - original while loop, its body is the let statements in body
+     * @param kinds - kind of each body statement
+     * @param order - body statement indexes ordered so every statement comes after the statements it reads
+     * @param counter - index of the accumulator statement of the counter
+     * @param operator - relational operator with the counter on the left
+     * @param bound - loop invariant right side of the condition
+     * @param step - nonzero amount added to the counter each iteration
+     * @throws InvalidArgumentException if any parameter is null or the arrays do not match the body
+     */
+    public ClosedFormLoopNode(WhileStatementNode loop, List<LetStatementNode> body, int[] kinds, int[] order,
+                              int counter, TokenType operator, ArithmeticExpressionNode bound, int step) throws InvalidArgumentException{
+        this((StatementNode) loop, body, kinds, order, counter, operator, bound, step);
+        if(operator == null || bound == null || step == 0 || counter < 0 || counter >= body.size() || kinds[counter] != ACCUMULATOR){
+            throw new InvalidArgumentException("Invalid loop condition in ClosedFormLoopNode constructor.");
+        }
+    }
+
+    private ClosedFormLoopNode(StatementNode loop, List<LetStatementNode> body, int[] kinds, int[] order,
+                               int counter, TokenType operator, ArithmeticExpressionNode bound, int step) throws InvalidArgumentException{
+        if(loop == null || body == null || kinds == null || order == null || kinds.length != body.size() || order.length != body.size()){
+            throw new InvalidArgumentException("Null or mismatched parameter in ClosedFormLoopNode constructor.");
+        }
+        this.loop = loop;
+        this.body = body;
+        this.kinds = kinds;
+        this.order = order;
+        this.counter = counter;
+        this.operator = operator;
+        this.bound = bound;
+        this.step = step;
+    }
+
+    /**
+     * executes the loop in closed form, memory ends up as if the original loop had run
+     * @param memory - memory at compile time
+     */
+    @Override
+    public void execute(Memory memory){
+        long trips;
+        int[] induction = null;
+        int end = 0;
+        if(loop instanceof ForStatementNode forNode){
+            int start = forNode.getStartExpression().evaluate(memory);
+            end = forNode.getEndExpression().evaluate(memory);
+            if(start > end){
+                return;
+            }
+            //i <= MAX_VALUE never fails, the loop only ends by an error in its body
+            if(end == Integer.MAX_VALUE){
+                loop.execute(memory);
+                return;
+            }
+            trips = (long) end - start + 1;
+            induction = new int[]{start, 1};
+        }
+        else{
+            trips = whileTrips(memory);
+            if(trips < 0){
+                loop.execute(memory);
+                return;
+            }
+        }
+        if(trips == 0){
+            return;
+        }
+
+        //every recurrence is built from memory at loop entry before anything is written back
+        int[][] values = new int[body.size()][];
+        for(int index : order){
+            LetStatementNode let = body.get(index);
+            int slot = let.getSlot();
+            switch(kinds[index]){
+                case ACCUMULATOR:
+                    values[index] = Recurrence.accumulate(memory.get(slot), recurrence(let.getExpression(), index, slot, ZERO, values, induction, memory));
+                    break;
+                case DERIVED:
+                    values[index] = recurrence(let.getExpression(), index, -1, null, values, induction, memory);
+                    break;
+                default:
+                    int b = recurrence(let.getExpression(), index, slot, ZERO, values, induction, memory)[0];
+                    int a = recurrence(let.getExpression(), index, slot, ONE, values, induction, memory)[0] - b;
+                    values[index] = Recurrence.constant(Recurrence.affine(a, b, memory.get(slot), trips));
+                    break;
+            }
+        }
+
+        if(loop instanceof ForStatementNode forNode){
+            memory.set(forNode.getSlot(), end);
+        }
+        for(int index = 0; index < values.length; index++){
+            int value;
+            switch(kinds[index]){
+                case ACCUMULATOR:
+                    value = Recurrence.evaluate(values[index], trips);
+                    break;
+                case DERIVED:
+                    //last assigned in the final iteration
+                    value = Recurrence.evaluate(values[index], trips - 1);
+                    break;
+                default:
+                    value = values[index][0];
+                    break;
+            }
+            memory.set(body.get(index).getSlot(), value);
+        }
+    }
+
+    /**
+     * method to count the iterations of a summarized while loop, the counter takes the values x, x + step, x + 2 * step, ...
+     * @param memory - memory at loop entry
+     * @return number of iterations, or -1 if the counter would overflow before the condition fails
+     */
+    private long whileTrips(Memory memory){
+        long x = memory.get(body.get(counter).getSlot());
+        long b = bound.evaluate(memory);
+        long n;
+        switch(operator){
+            case LESS_THAN:
+                if(x >= b){
+                    return 0;
+                }
+                n = step < 0 ? -1 : (b - x + step - 1) / step;
+                break;
+            case LESS_EQUAL:
+                if(x > b){
+                    return 0;
+                }
+                n = step < 0 ? -1 : (b - x) / step + 1;
+                break;
+            case GREATER_THAN:
+                if(x <= b){
+                    return 0;
+                }
+                n = step > 0 ? -1 : (x - b - step - 1) / -step;
+                break;
+            case GREATER_EQUAL:
+                if(x < b){
+                    return 0;
+                }
+                n = step > 0 ? -1 : (x - b) / -step + 1;
+                break;
+            case EQUAL:
+                //x + step can never equal x
+                return x == b ? 1 : 0;
+            case NOT_EQUAL:
+                if(x == b){
+                    return 0;
+                }
+                return (b - x) % step != 0 || (b - x) / step < 0 ? -1 : (b - x) / step;
+            default:
+                return -1;
+        }
+        long last = x + n * step;
+        return n < 0 || last > Integer.MAX_VALUE || last < Integer.MIN_VALUE ? -1 : n;
+    }
+
+    /**
+     * method to build the recurrence of an expression of a body statement
+     * @param expr - arithmetic expression node
+     * @param position - index of the body statement containing expr
+     * @param override - slot whose reads are replaced by overrideValue, or -1
+     * @param overrideValue - recurrence read from slot override
+     * @param values - recurrences of the statements computed so far
+     * @param induction - recurrence of the for loop variable, or null for a while loop
+     * @param memory - memory at loop entry
+     * @return recurrence of expr
+     */
+    private int[] recurrence(ArithmeticExpressionNode expr, int position, int override, int[] overrideValue,
+                             int[][] values, int[] induction, Memory memory){
+        if(expr instanceof NumNode num){
+            return Recurrence.constant(num.getValue());
+        }
+        else if(expr instanceof IdentifierNode identifier){
+            int slot = identifier.getSlot();
+            if(slot == override){
+                return overrideValue;
+            }
+            if(induction != null && slot == ((ForStatementNode) loop).getSlot()){
+                return induction;
+            }
+            int index = definition(slot);
+            if(index < 0){
+                return Recurrence.constant(memory.get(slot));
+            }
+            //an accumulator updated earlier in the body is read with its next value
+            if(kinds[index] == ACCUMULATOR && index < position){
+                return Recurrence.shift(values[index]);
+            }
+            return values[index];
+        }
+        else if(expr instanceof ParenFactorNode paren){
+            return recurrence(paren.getExpression(), position, override, overrideValue, values, induction, memory);
+        }
+        else if(expr instanceof NegFactorNode neg){
+            return Recurrence.negate(recurrence(neg.getExpression(), position, override, overrideValue, values, induction, memory));
+        }
+        else if(expr instanceof BinaryExpressionNodeArithmetic binary){
+            int[] left = recurrence(binary.getLeft(), position, override, overrideValue, values, induction, memory);
+            int[] right = recurrence(binary.getRight(), position, override, overrideValue, values, induction, memory);
+            return binary.getOperator() == TokenType.ADDITION ? Recurrence.add(left, right) : Recurrence.subtract(left, right);
+        }
+        BinaryTermNodeArithmetic binary = (BinaryTermNodeArithmetic) expr;
+        int[] left = recurrence(binary.getLeft(), position, override, overrideValue, values, induction, memory);
+        int[] right = recurrence(binary.getRight(), position, override, overrideValue, values, induction, memory);
+        if(binary.getOperator() == TokenType.MULTIPLICATION){
+            return Recurrence.multiply(left, right);
+        }
+        //LoopSummarizer only allows division of loop invariant operands
+        return Recurrence.constant(left[0] / right[0]);
+    }
+
+    /**
+     * method to find the body statement assigning a slot
+     * @param slot - memory slot
+     * @return statement index, or -1 if the slot is not assigned in the body
+     */
+    private int definition(int slot){
+        for(int index = 0; index < body.size(); index++){
+            if(body.get(index).getSlot() == slot){
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * method to get the original loop
+     * @return for or while statement node
+     */
+    public StatementNode getLoop(){
+        return loop;
+    }
+
+    /**
+     * method to get the let statements of the loop body
+     * @return list of let statements
+     */
+    public List<LetStatementNode> getBody(){
+        return body;
+    }
+}
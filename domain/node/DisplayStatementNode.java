@@ -7,6 +7,8 @@ import globalexceptions.InvalidArgumentException;
  */
 public class DisplayStatementNode implements StatementNode{
     private String id;
+    private final int symbol;
+    private int slot = -1;
 
     /**
      * constructor for display statement node
@@ -14,19 +16,61 @@ public class DisplayStatementNode implements StatementNode{
      * @throws InvalidArgumentException if id is null
      */
     public DisplayStatementNode(String id) throws InvalidArgumentException{
+        this(id, -1);
+    }
+
+    /**
+     * constructor for display statement node
+     * @param id - name of identifier
+     * @param symbol - symbol id from the lexer, or -1 if none
+     * @throws InvalidArgumentException if id is null
+     */
+    public DisplayStatementNode(String id, int symbol) throws InvalidArgumentException{
         if(id == null){
             throw new InvalidArgumentException("Null ID parameter in DisplayStatementNode constructor.");
         }
         this.id = id;
+        this.symbol = symbol;
     }
 
     /**
-     * method to execute display statement, prints value store with id to standard output
+     * method to execute display statement, writes value store with id to the output sink of memory
      * @param memory - memory at compile time
      */
     @Override
     public void execute(Memory memory){
-        int value = memory.get(id);
-        System.out.println(id + " = " + value);
+        memory.getOutput().display(slot, id, memory.get(slot));
+    }
+
+    /**
+     * method to get identifier name
+     * @return identifier name
+     */
+    public String getId(){
+        return id;
+    }
+
+    /**
+     * method to get symbol id of identifier, given by the lexer the program was read with
+     * @return symbol id, or -1 if the node was not built from tokens
+     */
+    public int getSymbol(){
+        return symbol;
+    }
+
+    /**
+     * method to get memory slot of identifier
+     * @return slot, or -1 if not resolved
+     */
+    public int getSlot(){
+        return slot;
+    }
+
+    /**
+     * method to set memory slot of identifier, called by Resolver
+     * @param slot - slot index
+     */
+    public void setSlot(int slot){
+        this.slot = slot;
     }
 }
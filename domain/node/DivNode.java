@@ -0,0 +1,32 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for division nodes, extends BinaryTermNodeArithmetic, implements evaluate for the / operator
+ */
+//(left / right)
+public class DivNode extends BinaryTermNodeArithmetic {
+
+    /**
+     * constructor for DivNode
+     * @param left - TermNodeArithmetic
+     * @param right - FactorNodeArithmetic
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public DivNode(TermNodeArithmetic left, FactorNodeArithmetic right) throws InvalidArgumentException{
+        super(left, TokenType.DIVISION, right);
+    }
+
+    /**
+     * method to evaluate binary term, evaluate left child then right child, operate on both children
+     * @param memory - memory at compile time
+     * @return division of both children
+     */
+    @Override
+    public int evaluate(Memory memory){
+        return left.evaluate(memory) / right.evaluate(memory);
+    }
+}
@@ -10,6 +10,8 @@ import java.util.List;
  */
 public class ForStatementNode implements StatementNode {
     private String id;
+    private final int symbol;
+    private int slot = -1;
     private ArithmeticExpressionNode startExpr;
     private ArithmeticExpressionNode endExpr;
     private List<StatementNode> statements;
@@ -23,7 +25,20 @@ public class ForStatementNode implements StatementNode {
      * @throws InvalidArgumentException if any parameter is null
      */
     public ForStatementNode(String id, ArithmeticExpressionNode startExpr, ArithmeticExpressionNode endExpr, List<StatementNode> statements){
+        this(id, -1, startExpr, endExpr, statements);
+    }
+
+    /**
+     * constructor for ForStatementNode
+     * @param id - string id
+     * @param symbol - symbol id from the lexer, or -1 if none
+     * @param startExpr - start expression
+     * @param endExpr - end expression
+     * @param statements - list of statements
+     */
+    public ForStatementNode(String id, int symbol, ArithmeticExpressionNode startExpr, ArithmeticExpressionNode endExpr, List<StatementNode> statements){
         this.id = id;
+        this.symbol = symbol;
         this.startExpr = startExpr;
         this.endExpr = endExpr;
         this.statements = statements;
@@ -39,10 +54,66 @@ public class ForStatementNode implements StatementNode {
         int end = endExpr.evaluate(memory);
 
         for(int i = start; i <= end; i++){
-            memory.set(id, i);
+            memory.set(slot, i);
             for(StatementNode statement : statements){
                 statement.execute(memory);
             }
         }
     }
+
+    /**
+     * method to get loop variable name
+     * @return identifier name
+     */
+    public String getId(){
+        return id;
+    }
+
+    /**
+     * method to get start expression
+     * @return start expression
+     */
+    public ArithmeticExpressionNode getStartExpression(){
+        return startExpr;
+    }
+
+    /**
+     * method to get end expression
+     * @return end expression
+     */
+    public ArithmeticExpressionNode getEndExpression(){
+        return endExpr;
+    }
+
+    /**
+     * method to get loop body
+     * @return list of statements
+     */
+    public List<StatementNode> getStatements(){
+        return statements;
+    }
+
+    /**
+     * method to get symbol id of loop variable, given by the lexer the program was read with
+     * @return symbol id, or -1 if the node was not built from tokens
+     */
+    public int getSymbol(){
+        return symbol;
+    }
+
+    /**
+     * method to get memory slot of loop variable
+     * @return slot, or -1 if not resolved
+     */
+    public int getSlot(){
+        return slot;
+    }
+
+    /**
+     * method to set memory slot of loop variable, called by Resolver
+     * @param slot - slot index
+     */
+    public void setSlot(int slot){
+        this.slot = slot;
+    }
 }
@@ -0,0 +1,32 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for greater than nodes, extends RelationalExpressionNode, implements evaluate for the > operator
+ */
+//(left > right)
+public class GreaterThanNode extends RelationalExpressionNode {
+
+    /**
+     * constructor for GreaterThanNode
+     * @param left - ArithmeticExpressionNode
+     * @param right - ArithmeticExpressionNode
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public GreaterThanNode(ArithmeticExpressionNode left, ArithmeticExpressionNode right) throws InvalidArgumentException{
+        super(left, TokenType.GREATER_THAN, right);
+    }
+
+    /**
+     * method to evaluate relational expression, evaluate left child then right child, operate on both children
+     * @param memory - memory at compile time
+     * @return result of comparison
+     */
+    @Override
+    public boolean evaluate(Memory memory){
+        return left.evaluate(memory) > right.evaluate(memory);
+    }
+}
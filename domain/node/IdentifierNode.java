@@ -8,6 +8,8 @@ import globalexceptions.InvalidArgumentException;
 //<id>
 public class IdentifierNode implements FactorNodeArithmetic{
     private String id;
+    private final int symbol;
+    private int slot = -1;
 
     /**
      * constructor for IdentifierNode
@@ -15,19 +17,62 @@ public class IdentifierNode implements FactorNodeArithmetic{
      * @throws InvalidArgumentException if id is null
      */
     public IdentifierNode(String id) throws InvalidArgumentException{
+        this(id, -1);
+    }
+
+    /**
+     * constructor for IdentifierNode
+     * @param id - identifier name
+     * @param symbol - symbol id from the lexer, or -1 if none
+     * @throws InvalidArgumentException if id is null
+     */
+    public IdentifierNode(String id, int symbol) throws InvalidArgumentException{
         if(id == null){
             throw new InvalidArgumentException("Null id in IdentifierNode constructor.");
         }
         this.id = id;
+        this.symbol = symbol;
     }
 
     /**
      * method to evaluate identifier node
      * @param memory - memory at compile time
-     * @return string id
+     * @return value stored in slot of id
      */
     @Override
     public int evaluate(Memory memory){
-        return memory.get(id);
+        return memory.get(slot);
+    }
+
+    /**
+     * method to get identifier name
+     * @return identifier name
+     */
+    public String getId(){
+        return id;
+    }
+
+    /**
+     * method to get symbol id of identifier, given by the lexer the program was read with
+     * @return symbol id, or -1 if the node was not built from tokens
+     */
+    public int getSymbol(){
+        return symbol;
+    }
+
+    /**
+     * method to get memory slot of identifier
+     * @return slot, or -1 if not resolved
+     */
+    public int getSlot(){
+        return slot;
+    }
+
+    /**
+     * method to set memory slot of identifier, called by Resolver
+     * @param slot - slot index
+     */
+    public void setSlot(int slot){
+        this.slot = slot;
     }
 }
@@ -39,4 +39,28 @@ public class IfStatementNode implements StatementNode {
             for(StatementNode stmt : elseBlock) stmt.execute(memory);
         }
     }
+
+    /**
+     * method to get condition
+     * @return boolean expression node
+     */
+    public BooleanExpressionNode getCondition(){
+        return condition;
+    }
+
+    /**
+     * method to get if block
+     * @return list of statements
+     */
+    public List<StatementNode> getIfBlock(){
+        return ifBlock;
+    }
+
+    /**
+     * method to get else block
+     * @return list of statements, or null if not present
+     */
+    public List<StatementNode> getElseBlock(){
+        return elseBlock;
+    }
 }
\ No newline at end of file
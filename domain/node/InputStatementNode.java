@@ -1,15 +1,14 @@
 package domain.node;
 import domain.Memory;
 import globalexceptions.InvalidArgumentException;
-import java.util.InputMismatchException;
-import java.util.Scanner;
 
 /**
- * class for input statement nodes, contains id and scanner object, implements execute
+ * class for input statement nodes, contains id, implements execute
  */
 public class InputStatementNode implements StatementNode{
     private String id;
-    private static Scanner sc = new Scanner(System.in);
+    private final int symbol;
+    private int slot = -1;
 
     /**
      * constructor for input statement node
@@ -17,25 +16,74 @@ public class InputStatementNode implements StatementNode{
      * @throws InvalidArgumentException if id is null
      */
     public InputStatementNode(String id) throws InvalidArgumentException{
+        this(id, -1);
+    }
+
+    /**
+     * constructor for input statement node
+     * @param id - name of identifier
+     * @param symbol - symbol id from the lexer, or -1 if none
+     * @throws InvalidArgumentException if id is null
+     */
+    public InputStatementNode(String id, int symbol) throws InvalidArgumentException{
         if(id == null){
             throw new InvalidArgumentException("Null ID parameter in InputStatementNode constructor.");
         }
         this.id = id;
+        this.symbol = symbol;
     }
 
     /**
-     * method to execute input statement, takes in integer value from standard input and stores in location of id
+     * method to execute input statement, takes in integer value from the input source of memory and stores in location of id
      * @param memory - memory at compile time
      */
     @Override
     public void execute(Memory memory){
-        System.out.print("Enter value for " + id + ": ");
-        try {
-            int value = sc.nextInt();
-            memory.set(id, value);
-        }
-        catch (InputMismatchException e){
-            System.err.println("Invalid value entered for " + id + ". Expected an integer.");
-        }
+        memory.set(slot, readValue(memory, id, memory.get(slot)));
+    }
+
+    /**
+     * method to read an integer value from the input source of memory, shared with compiled engines
+     * buffered output is flushed first so it appears before any prompt
+     * @param memory - memory of the running program
+     * @param id - name of identifier being read
+     * @param current - current value of identifier
+     * @return value entered, or current if the input was not an integer
+     */
+    public static int readValue(Memory memory, String id, int current){
+        memory.getOutput().flush();
+        return memory.getInput().read(id, current);
+    }
+
+    /**
+     * method to get identifier name
+     * @return identifier name
+     */
+    public String getId(){
+        return id;
+    }
+
+    /**
+     * method to get symbol id of identifier, given by the lexer the program was read with
+     * @return symbol id, or -1 if the node was not built from tokens
+     */
+    public int getSymbol(){
+        return symbol;
+    }
+
+    /**
+     * method to get memory slot of identifier
+     * @return slot, or -1 if not resolved
+     */
+    public int getSlot(){
+        return slot;
+    }
+
+    /**
+     * method to set memory slot of identifier, called by Resolver
+     * @param slot - slot index
+     */
+    public void setSlot(int slot){
+        this.slot = slot;
     }
 }
@@ -0,0 +1,36 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for < nodes whose operands are two identifiers, both slots are read directly, created by the Specializer after resolution
+ */
+//(id < id)
+public class LessThanSlotSlotNode extends RelationalExpressionNode {
+    private final int leftSlot;
+    private final int rightSlot;
+
+    /**
+     * constructor for LessThanSlotSlotNode
+     * @param left - resolved identifier node
+     * @param right - resolved identifier node
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public LessThanSlotSlotNode(IdentifierNode left, IdentifierNode right) throws InvalidArgumentException{
+        super(left, TokenType.LESS_THAN, right);
+        this.leftSlot = left.getSlot();
+        this.rightSlot = right.getSlot();
+    }
+
+    /**
+     * method to evaluate < without evaluating child nodes
+     * @param memory - memory at compile time
+     * @return result of comparison
+     */
+    @Override
+    public boolean evaluate(Memory memory){
+        return memory.get(leftSlot) < memory.get(rightSlot);
+    }
+}
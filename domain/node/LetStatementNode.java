@@ -7,6 +7,8 @@ import globalexceptions.InvalidArgumentException;
  */
 public class LetStatementNode implements StatementNode{
     private String id;
+    private final int symbol;
+    private int slot = -1;
     private ArithmeticExpressionNode expr;
 
     /**
@@ -16,20 +18,72 @@ public class LetStatementNode implements StatementNode{
      * @throws InvalidArgumentException if parameter is null
      */
     public LetStatementNode(String id, ArithmeticExpressionNode expr) throws InvalidArgumentException {
+        this(id, -1, expr);
+    }
+
+    /**
+     * constructor for let statement node
+     * @param id - name of identifier
+     * @param symbol - symbol id from the lexer, or -1 if none
+     * @param expr - following arithmetic expression node
+     * @throws InvalidArgumentException if id or expr is null
+     */
+    public LetStatementNode(String id, int symbol, ArithmeticExpressionNode expr) throws InvalidArgumentException {
         if(id == null || expr == null){
             throw new InvalidArgumentException("Null parameter in LetStatementNode constructor.");
         }
         this.id = id;
+        this.symbol = symbol;
         this.expr = expr;
     }
 
     /**
-     * method to execute let statement, sets value of expr to id
+     * method to execute let statement, sets value of expr to slot of id
      * @param memory - memory at compile time
      */
     @Override
     public void execute(Memory memory){
         int value = expr.evaluate(memory);
-        memory.set(id, value);
+        memory.set(slot, value);
+    }
+
+    /**
+     * method to get identifier name
+     * @return identifier name
+     */
+    public String getId(){
+        return id;
+    }
+
+    /**
+     * method to get assigned expression
+     * @return arithmetic expression node
+     */
+    public ArithmeticExpressionNode getExpression(){
+        return expr;
+    }
+
+    /**
+     * method to get symbol id of identifier, given by the lexer the program was read with
+     * @return symbol id, or -1 if the node was not built from tokens
+     */
+    public int getSymbol(){
+        return symbol;
+    }
+
+    /**
+     * method to get memory slot of identifier
+     * @return slot, or -1 if not resolved
+     */
+    public int getSlot(){
+        return slot;
+    }
+
+    /**
+     * method to set memory slot of identifier, called by Resolver
+     * @param slot - slot index
+     */
+    public void setSlot(int slot){
+        this.slot = slot;
     }
 }
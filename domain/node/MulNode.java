@@ -0,0 +1,32 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for multiplication nodes, extends BinaryTermNodeArithmetic, implements evaluate for the * operator
+ */
+//(left * right)
+public class MulNode extends BinaryTermNodeArithmetic {
+
+    /**
+     * constructor for MulNode
+     * @param left - TermNodeArithmetic
+     * @param right - FactorNodeArithmetic
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public MulNode(TermNodeArithmetic left, FactorNodeArithmetic right) throws InvalidArgumentException{
+        super(left, TokenType.MULTIPLICATION, right);
+    }
+
+    /**
+     * method to evaluate binary term, evaluate left child then right child, operate on both children
+     * @param memory - memory at compile time
+     * @return multiplication of both children
+     */
+    @Override
+    public int evaluate(Memory memory){
+        return left.evaluate(memory) * right.evaluate(memory);
+    }
+}
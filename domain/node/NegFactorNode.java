@@ -31,4 +31,12 @@ public class NegFactorNode implements FactorNodeArithmetic {
     public int evaluate(Memory memory){
         return -expr.evaluate(memory);
     }
+
+    /**
+     * method to get negated expression
+     * @return arithmetic expression node
+     */
+    public ArithmeticExpressionNode getExpression(){
+        return expr;
+    }
 }
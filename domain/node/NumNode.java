@@ -24,4 +24,12 @@ public class NumNode implements FactorNodeArithmetic {
     public int evaluate(Memory memory){
         return num;
     }
+
+    /**
+     * method to get integer value
+     * @return integer
+     */
+    public int getValue(){
+        return num;
+    }
 }
@@ -0,0 +1,234 @@
+package domain.node;
+
+import domain.DeepStack;
+import domain.ForkedMemory;
+import domain.Memory;
+import domain.io.RecordingOutputSink;
+import globalexceptions.InvalidArgumentException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * class for a for loop whose iterations are independent, created by LoopParallelizer
+ * the range is split into chunks run on a fork join pool, each chunk has its own memory and output,
+ * chunks are merged back in order so memory, output and the first error match sequential execution,
+ * pool workers have default stacks, so a chunk of a deep body runs on a DeepStack thread while its worker waits,
+ * once a chunk fails every later chunk is abandoned, as sequential execution would never have run its iterations
+ * sum and product accumulators start each chunk at 0 or 1 and the chunk totals are combined as a tree,
+ * int + and * are associative and commutative with overflow so the result is the same as the sequential loop
+ */
+public class ParallelForNode implements StatementNode {
+    //total estimated work below which the loop runs sequentially
+    private static final long MIN_WORK = 1 << 14;
+    //chunks per pool thread, more chunks balance uneven iterations
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForStatementNode loop;
+    private final int[] sums;
+    private final int[] products;
+    private final int work;
+    private final int depthBound;
+    private final ForkJoinPool pool;
+
+    /**
+     * constructor for ParallelForNode
+     * @param loop - for loop whose iterations are independent apart from its accumulators
+     * @param sums - slots only changed by v := v + e or v := v - e and not otherwise read or written
+     * @param products - slots only changed by v := v * e and not otherwise read or written
+     * @param work - estimated cost of one iteration
+     * @param depthBound - bound on the depth of the body, e.g. ProgramNode.getDepthBound()
+     * @param pool - pool to run chunks on
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public ParallelForNode(ForStatementNode loop, int[] sums, int[] products, int work, int depthBound, ForkJoinPool pool) throws InvalidArgumentException{
+        if(loop == null || sums == null || products == null || pool == null){
+            throw new InvalidArgumentException("Null parameter in ParallelForNode constructor.");
+        }
+        this.loop = loop;
+        this.sums = sums;
+        this.products = products;
+        this.work = work;
+        this.depthBound = depthBound;
+        this.pool = pool;
+    }
+
+    /**
+     * executes for statement across the pool, small loops run sequentially
+     * @param memory - memory at compile time
+     */
+    @Override
+    public void execute(Memory memory){
+        int start = loop.getStartExpression().evaluate(memory);
+        int end = loop.getEndExpression().evaluate(memory);
+        if(start > end){
+            return;
+        }
+        long trips = (long) end - start + 1;
+        //a loop up to Integer.MAX_VALUE never ends, run it as written
+        if(end == Integer.MAX_VALUE || pool.getParallelism() < 2 || trips * work < MIN_WORK){
+            loop.execute(memory);
+            return;
+        }
+
+        //accumulator values before the loop, the chunks only compute their own totals
+        int[] initialSums = new int[sums.length];
+        for(int s = 0; s < sums.length; s++){
+            initialSums[s] = memory.get(sums[s]);
+        }
+        int[] initialProducts = new int[products.length];
+        for(int p = 0; p < products.length; p++){
+            initialProducts[p] = memory.get(products[p]);
+        }
+
+        int count = (int) Math.min(trips, (long) pool.getParallelism() * CHUNKS_PER_THREAD);
+        List<Chunk> chunks = new ArrayList<>(count);
+        AtomicInteger firstFailed = new AtomicInteger(count);
+        for(int c = 0; c < count; c++){
+            int from = (int) (start + trips * c / count);
+            int to = (int) (start + trips * (c + 1) / count - 1);
+            ForkedMemory fork = new ForkedMemory(memory, new RecordingOutputSink());
+            for(int slot : sums){
+                fork.initialize(slot, 0);
+            }
+            for(int slot : products){
+                fork.initialize(slot, 1);
+            }
+            chunks.add(new Chunk(chunks, c, firstFailed, fork, from, to));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+
+        //merge in order, a failed chunk ends the loop like the failing iteration would have
+        int merged = 0;
+        RuntimeException failure = null;
+        while(merged < count && failure == null){
+            Chunk chunk = chunks.get(merged++);
+            ((RecordingOutputSink) chunk.memory.getOutput()).replay(memory.getOutput());
+            chunk.memory.mergeInto(memory);
+            failure = chunk.failure;
+        }
+        for(int s = 0; s < sums.length; s++){
+            reduce(memory, sums[s], initialSums[s], chunks.subList(0, merged), false);
+        }
+        for(int p = 0; p < products.length; p++){
+            reduce(memory, products[p], initialProducts[p], chunks.subList(0, merged), true);
+        }
+        if(failure != null){
+            throw failure;
+        }
+    }
+
+    /**
+     * method to combine the chunk totals of an accumulator with its value before the loop
+     * @param memory - memory of the loop, holds the merged chunk total of slot
+     * @param slot - accumulator slot
+     * @param initial - value of slot before the loop
+     * @param chunks - merged chunks in order
+     * @param product - true for a product, false for a sum
+     */
+    private void reduce(Memory memory, int slot, int initial, List<Chunk> chunks, boolean product){
+        int[] totals = new int[chunks.size()];
+        boolean written = false;
+        for(int c = 0; c < totals.length; c++){
+            ForkedMemory fork = chunks.get(c).memory;
+            totals[c] = fork.get(slot);
+            written |= fork.isWritten(slot);
+        }
+        if(!written){
+            return;
+        }
+        //pairwise tree, totals[0] ends up holding the combination of every chunk
+        for(int stride = 1; stride < totals.length; stride *= 2){
+            for(int c = 0; c + stride < totals.length; c += 2 * stride){
+                totals[c] = product ? totals[c] * totals[c + stride] : totals[c] + totals[c + stride];
+            }
+        }
+        memory.set(slot, product ? initial * totals[0] : initial + totals[0]);
+    }
+
+    /**
+     * method to get the original loop
+     * @return for statement node
+     */
+    public ForStatementNode getLoop(){
+        return loop;
+    }
+
+    /**
+     * class for one chunk of the range, runs its iterations in order against its own memory
+     */
+    private class Chunk extends RecursiveAction {
+        private final List<Chunk> chunks;
+        private final int index;
+        private final AtomicInteger firstFailed;
+        private final ForkedMemory memory;
+        private final int from;
+        private final int to;
+        private RuntimeException failure;
+
+        private Chunk(List<Chunk> chunks, int index, AtomicInteger firstFailed, ForkedMemory memory, int from, int to){
+            this.chunks = chunks;
+            this.index = index;
+            this.firstFailed = firstFailed;
+            this.memory = memory;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * method to run the iterations of the chunk, an error stops the chunk and is kept for the merge
+         * and abandons every later chunk, a chunk stops before each iteration once an earlier chunk has failed
+         */
+        @Override
+        protected void compute(){
+            try {
+                DeepStack.call(depthBound, () -> {
+                    iterate();
+                    return null;
+                });
+            }
+            catch (RuntimeException e){
+                if(memory.isAbandoned()){
+                    discard();
+                    return;
+                }
+                failure = e;
+                //later chunks are never merged, stop the ones still running
+                if(firstFailed.accumulateAndGet(index, Math::min) == index){
+                    for(int c = index + 1; c < chunks.size(); c++){
+                        chunks.get(c).memory.abandon();
+                    }
+                }
+            }
+        }
+
+        /**
+         * method to run the iterations of the chunk in order, stops early once an earlier chunk has failed
+         */
+        private void iterate(){
+            int slot = loop.getSlot();
+            List<StatementNode> statements = loop.getStatements();
+            for(int i = from; i <= to; i++){
+                if(firstFailed.get() < index){
+                    discard();
+                    return;
+                }
+                memory.set(slot, i);
+                for(StatementNode statement : statements){
+                    statement.execute(memory);
+                }
+            }
+        }
+
+        /**
+         * method to drop the output of a chunk that will not be merged
+         */
+        private void discard(){
+            ((RecordingOutputSink) memory.getOutput()).clear();
+        }
+    }
+}
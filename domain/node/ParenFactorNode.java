@@ -30,4 +30,12 @@ public class ParenFactorNode implements FactorNodeArithmetic {
     public int evaluate(Memory memory){
         return expr.evaluate(memory);
     }
+
+    /**
+     * method to get inner expression
+     * @return arithmetic expression node
+     */
+    public ArithmeticExpressionNode getExpression(){
+        return expr;
+    }
 }
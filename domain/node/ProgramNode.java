@@ -1,5 +1,6 @@
 package domain.node;
 import domain.Memory;
+import domain.SymbolTable;
 import globalexceptions.InvalidArgumentException;
 
 import java.util.ArrayList;
@@ -9,6 +10,8 @@ import java.util.ArrayList;
  */
 public class ProgramNode {
     private ArrayList<StatementNode> statementsList;
+    private SymbolTable symbols;
+    private int depthBound = Integer.MAX_VALUE;
 
     /**
      * constructor for ProgramNode
@@ -39,4 +42,44 @@ public class ProgramNode {
         }
         return 0;
     }
+
+    /**
+     * method to get statement list
+     * @return list of statements
+     */
+    public ArrayList<StatementNode> getStatements(){
+        return statementsList;
+    }
+
+    /**
+     * method to get symbol table of program
+     * @return symbol table, or null if program has not been resolved
+     */
+    public SymbolTable getSymbolTable(){
+        return symbols;
+    }
+
+    /**
+     * method to set symbol table of program, called by Resolver
+     * @param symbols - symbol table
+     */
+    public void setSymbolTable(SymbolTable symbols){
+        this.symbols = symbols;
+    }
+
+    /**
+     * method to get a bound on the depth of the tree, passes and engines recurse no deeper than a constant times it
+     * @return most tokens of a top level statement, or Integer.MAX_VALUE if not known
+     */
+    public int getDepthBound(){
+        return depthBound;
+    }
+
+    /**
+     * method to set the bound on the depth of the tree, set by the parser and kept by passes that do not deepen the tree
+     * @param depthBound - bound, every node of a statement comes from at least one of its tokens
+     */
+    public void setDepthBound(int depthBound){
+        this.depthBound = depthBound;
+    }
 }
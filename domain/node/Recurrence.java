@@ -0,0 +1,181 @@
+package domain.node;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * class for chain of recurrences arithmetic used by ClosedFormLoopNode
+ * a recurrence {c0, +, c1, +, ..., +, cd} is stored as the int[] {c0, c1, ..., cd} and has the value sum(cj * C(k, j)) at iteration k,
+ * every operation is exact in int arithmetic because only +, - and * are applied to coefficients and C(k, j) is an integer
+ */
+final class Recurrence {
+    private Recurrence(){
+    }
+
+    /**
+     * method to create a recurrence with the same value at every iteration
+     * @param value - value
+     * @return recurrence
+     */
+    static int[] constant(int value){
+        return new int[]{value};
+    }
+
+    /**
+     * method to add two recurrences
+     * @param a - first recurrence
+     * @param b - second recurrence
+     * @return a + b
+     */
+    static int[] add(int[] a, int[] b){
+        int[] result = Arrays.copyOf(a.length >= b.length ? a : b, Math.max(a.length, b.length));
+        int[] shorter = a.length >= b.length ? b : a;
+        for(int j = 0; j < shorter.length; j++){
+            result[j] += shorter[j];
+        }
+        return trim(result);
+    }
+
+    /**
+     * method to negate a recurrence
+     * @param a - recurrence
+     * @return -a
+     */
+    static int[] negate(int[] a){
+        int[] result = new int[a.length];
+        for(int j = 0; j < a.length; j++){
+            result[j] = -a[j];
+        }
+        return result;
+    }
+
+    /**
+     * method to subtract two recurrences
+     * @param a - first recurrence
+     * @param b - second recurrence
+     * @return a - b
+     */
+    static int[] subtract(int[] a, int[] b){
+        return add(a, negate(b));
+    }
+
+    /**
+     * method to multiply two recurrences, uses the difference rule d(fg) = f*dg + g*df + df*dg
+     * @param a - first recurrence
+     * @param b - second recurrence
+     * @return a * b
+     */
+    static int[] multiply(int[] a, int[] b){
+        if(a.length == 1 || b.length == 1){
+            int[] scaled = a.length == 1 ? b : a;
+            int factor = a.length == 1 ? a[0] : b[0];
+            int[] result = new int[scaled.length];
+            for(int j = 0; j < scaled.length; j++){
+                result[j] = scaled[j] * factor;
+            }
+            return trim(result);
+        }
+        int[] da = Arrays.copyOfRange(a, 1, a.length);
+        int[] db = Arrays.copyOfRange(b, 1, b.length);
+        int[] difference = add(add(multiply(a, db), multiply(b, da)), multiply(da, db));
+        int[] result = new int[difference.length + 1];
+        result[0] = a[0] * b[0];
+        System.arraycopy(difference, 0, result, 1, difference.length);
+        return trim(result);
+    }
+
+    /**
+     * method to get the recurrence of the next iteration's value, {c0 + c1, +, c1 + c2, +, ..., +, cd}
+     * @param a - recurrence
+     * @return recurrence of a(k + 1)
+     */
+    static int[] shift(int[] a){
+        int[] result = a.clone();
+        for(int j = 0; j < result.length - 1; j++){
+            result[j] += result[j + 1];
+        }
+        return result;
+    }
+
+    /**
+     * method to make a recurrence whose value starts at initial and grows by step each iteration
+     * @param initial - value at iteration 0
+     * @param step - recurrence of the difference between iterations
+     * @return {initial, +, step}
+     */
+    static int[] accumulate(int initial, int[] step){
+        int[] result = new int[step.length + 1];
+        result[0] = initial;
+        System.arraycopy(step, 0, result, 1, step.length);
+        return trim(result);
+    }
+
+    /**
+     * method to evaluate a recurrence at an iteration
+     * @param a - recurrence
+     * @param k - iteration, 0 to 2^32
+     * @return value at iteration k with int overflow
+     */
+    static int evaluate(int[] a, long k){
+        int value = a[0];
+        //C(k, j) = C(k, j - 1) * (k - j + 1) / j is exact, only its low 32 bits are used
+        long binomial = 1;
+        BigInteger big = null;
+        for(int j = 1; j < a.length && j <= k; j++){
+            if(big == null){
+                long product = binomial * (k - j + 1);
+                if(Math.multiplyHigh(binomial, k - j + 1) == 0 && product >= 0){
+                    binomial = product / j;
+                }
+                else{
+                    big = BigInteger.valueOf(binomial);
+                }
+            }
+            if(big != null){
+                big = big.multiply(BigInteger.valueOf(k - j + 1)).divide(BigInteger.valueOf(j));
+                binomial = big.longValue();
+            }
+            value += a[j] * (int) binomial;
+        }
+        return value;
+    }
+
+    /**
+     * method to apply the map x -> a * x + b to x a number of times
+     * @param a - multiplier
+     * @param b - addend
+     * @param x - initial value
+     * @param times - number of applications, 0 to 2^32
+     * @return value after the applications with int overflow
+     */
+    static int affine(int a, int b, int x, long times){
+        //compose the map with itself by squaring, f(f(x)) = a*a*x + a*b + b
+        int powerA = a;
+        int powerB = b;
+        int resultA = 1;
+        int resultB = 0;
+        while(times > 0){
+            if((times & 1) != 0){
+                resultB = powerA * resultB + powerB;
+                resultA = powerA * resultA;
+            }
+            powerB = powerA * powerB + powerB;
+            powerA = powerA * powerA;
+            times >>= 1;
+        }
+        return resultA * x + resultB;
+    }
+
+    /**
+     * method to drop trailing zero coefficients, keeping at least one
+     * @param a - recurrence
+     * @return trimmed recurrence
+     */
+    private static int[] trim(int[] a){
+        int length = a.length;
+        while(length > 1 && a[length - 1] == 0){
+            length--;
+        }
+        return length == a.length ? a : Arrays.copyOf(a, length);
+    }
+}
@@ -1,17 +1,16 @@
 package domain.node;
-import domain.Memory;
 import domain.TokenType;
 import globalexceptions.InvalidArgumentException;
 import globalexceptions.InvalidParseException;
 
 /**
- * class for relational expression nodes, contains arith expr left, relop, arith expr right
- * implements bool expr node evaluate()
+ * abstract class for relational expression nodes, contains arith expr left, relop, arith expr right
+ * subclasses implement bool expr node evaluate() for one operator, create nodes with create()
  */
-public class RelationalExpressionNode implements BooleanExpressionNode {
-    private ArithmeticExpressionNode left;
-    private TokenType operator;
-    private ArithmeticExpressionNode right;
+public abstract class RelationalExpressionNode implements BooleanExpressionNode {
+    protected final ArithmeticExpressionNode left;
+    private final TokenType operator;
+    protected final ArithmeticExpressionNode right;
 
     /**
      * constructor for RelationalExpressionNode
@@ -20,7 +19,7 @@ public class RelationalExpressionNode implements BooleanExpressionNode {
      * @param right - ArithmeticExpressionNode
      * @throws InvalidArgumentException if any parameter is null
      */
-    public RelationalExpressionNode(ArithmeticExpressionNode left, TokenType operator, ArithmeticExpressionNode right) throws InvalidArgumentException{
+    protected RelationalExpressionNode(ArithmeticExpressionNode left, TokenType operator, ArithmeticExpressionNode right) throws InvalidArgumentException{
         if(left == null || operator == null || right == null){
             throw new InvalidArgumentException("Invalid parameter in RelationalExpressionNode constructor.");
         }
@@ -30,39 +29,56 @@ public class RelationalExpressionNode implements BooleanExpressionNode {
     }
 
     /**
-     * evaluates result of relational expression
-     * @param memory - memory at compile time
-     * @return result of relational expression
+     * method to create the relational expression node for an operator
+     * @param left - ArithmeticExpressionNode
+     * @param operator - relational operator
+     * @param right - ArithmeticExpressionNode
+     * @throws InvalidParseException if operator is not relational
+     * @return relational expression node for operator
      */
-    @Override
-    public boolean evaluate(Memory memory){
-        int l = left.evaluate(memory);
-        int r = right.evaluate(memory);
-        boolean ans;
-
+    public static RelationalExpressionNode create(ArithmeticExpressionNode left, TokenType operator, ArithmeticExpressionNode right){
+        if(operator == null){
+            throw new InvalidArgumentException("Invalid parameter in RelationalExpressionNode constructor.");
+        }
         switch (operator) {
             case GREATER_THAN:
-                ans = l > r;
-                break;
+                return new GreaterThanNode(left, right);
             case LESS_THAN:
-                ans = l < r;
-                break;
+                return new LessThanNode(left, right);
             case GREATER_EQUAL:
-                ans = l >= r;
-                break;
+                return new GreaterEqualNode(left, right);
             case LESS_EQUAL:
-                ans = l <= r;
-                break;
+                return new LessEqualNode(left, right);
             case EQUAL:
-                ans = l == r;
-                break;
+                return new EqualNode(left, right);
             case NOT_EQUAL:
-                ans = l != r;
-                break;
+                return new NotEqualNode(left, right);
             default:
                 throw new InvalidParseException("Unknown relational operator: " + operator);
         }
+    }
 
-        return ans;
+    /**
+     * method to get left operand
+     * @return left expression
+     */
+    public ArithmeticExpressionNode getLeft(){
+        return left;
+    }
+
+    /**
+     * method to get operator
+     * @return relational operator
+     */
+    public TokenType getOperator(){
+        return operator;
+    }
+
+    /**
+     * method to get right operand
+     * @return right expression
+     */
+    public ArithmeticExpressionNode getRight(){
+        return right;
     }
 }
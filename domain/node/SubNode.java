@@ -0,0 +1,32 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for subtraction nodes, extends BinaryExpressionNodeArithmetic, implements evaluate for the - operator
+ */
+//(left - right)
+public class SubNode extends BinaryExpressionNodeArithmetic {
+
+    /**
+     * constructor for SubNode
+     * @param left - ArithmeticExpressionNode
+     * @param right - TermNodeArithmetic
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public SubNode(ArithmeticExpressionNode left, TermNodeArithmetic right) throws InvalidArgumentException{
+        super(left, TokenType.SUBTRACTION, right);
+    }
+
+    /**
+     * method to evaluate binary expression, evaluate left child then right child, operate on both children
+     * @param memory - memory at compile time
+     * @return subtraction of both children
+     */
+    @Override
+    public int evaluate(Memory memory){
+        return left.evaluate(memory) - right.evaluate(memory);
+    }
+}
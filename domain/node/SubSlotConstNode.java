@@ -0,0 +1,36 @@
+package domain.node;
+
+import domain.Memory;
+import domain.TokenType;
+import globalexceptions.InvalidArgumentException;
+
+/**
+ * class for - nodes whose operands are an identifier and an integer literal, the slot is read directly, created by the Specializer after resolution
+ */
+//(id - int_lit)
+public class SubSlotConstNode extends BinaryExpressionNodeArithmetic {
+    private final int leftSlot;
+    private final int constant;
+
+    /**
+     * constructor for SubSlotConstNode
+     * @param left - resolved identifier node
+     * @param right - integer literal node
+     * @throws InvalidArgumentException if any parameter is null
+     */
+    public SubSlotConstNode(IdentifierNode left, NumNode right) throws InvalidArgumentException{
+        super(left, TokenType.SUBTRACTION, right);
+        this.leftSlot = left.getSlot();
+        this.constant = right.getValue();
+    }
+
+    /**
+     * method to evaluate - without evaluating child nodes
+     * @param memory - memory at compile time
+     * @return operation value on both operands
+     */
+    @Override
+    public int evaluate(Memory memory){
+        return memory.get(leftSlot) - constant;
+    }
+}
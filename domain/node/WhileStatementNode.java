@@ -35,4 +35,20 @@ public class WhileStatementNode implements StatementNode {
             for(StatementNode statement : statements) statement.execute(memory);
         }
     }
+
+    /**
+     * method to get condition
+     * @return boolean expression node
+     */
+    public BooleanExpressionNode getCondition(){
+        return condition;
+    }
+
+    /**
+     * method to get loop body
+     * @return list of statements
+     */
+    public List<StatementNode> getStatements(){
+        return statements;
+    }
 }
@@ -0,0 +1,15 @@
+package globalexceptions;
+/**
+ * exception thrown when a scheduled program or a parallel task is stopped before it ends
+ */
+public class ProgramStoppedException extends RuntimeException {
+    /**
+     * exception which is thrown if a program is cancelled, passes its deadline or uses up its fuel quota,
+     * or if a parallel task is abandoned because an earlier task failed
+     *
+     * @param message error message
+     */
+    public ProgramStoppedException(String message) {
+        super(message);
+    }
+}
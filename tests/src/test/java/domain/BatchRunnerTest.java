@@ -0,0 +1,99 @@
+package domain;
+
+import domain.batch.BatchRunner;
+import domain.batch.ProgramResult;
+import domain.engine.ClosureEngine;
+import domain.engine.InterpreterEngine;
+import domain.io.ArrayInputSource;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * class for tests of the batch runner, every program of a batch must do what it does alone on the interpreter
+ */
+class BatchRunnerTest {
+    private static final int SEEDS = 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void batchMatchesInterpreter() throws Exception{
+        List<Future<ProgramResult>> batched = new ArrayList<>();
+        try (BatchRunner batch = new BatchRunner(new ClosureEngine(), 4)){
+            for(int seed = 0; seed < SEEDS; seed++){
+                batched.add(batch.submit("program-" + seed, ProgramGenerator.mixed(seed), new ArrayInputSource(ProgramGenerator.input(seed))));
+            }
+            for(int seed = 0; seed < SEEDS; seed++){
+                ProgramResult result = batched.get(seed).get();
+                assertEquals("program-" + seed, result.getName());
+                assertMatches(ProgramGenerator.mixed(seed), ProgramGenerator.input(seed), result);
+            }
+        }
+    }
+
+    @Test
+    void filesReadTheirInputFiles() throws Exception{
+        List<Path> files = new ArrayList<>();
+        for(int seed = 0; seed < SEEDS; seed++){
+            Path file = directory.resolve("program-" + seed + ".al");
+            Files.writeString(file, ProgramGenerator.mixed(seed), StandardCharsets.UTF_8);
+            //odd programs have no input file and read zeros
+            if(seed % 2 == 0){
+                String input = Arrays.stream(ProgramGenerator.input(seed)).mapToObj(Integer::toString).collect(Collectors.joining("\n"));
+                Files.writeString(directory.resolve("program-" + seed + ".in"), input, StandardCharsets.UTF_8);
+            }
+            files.add(file);
+        }
+        List<ProgramResult> results;
+        try (BatchRunner batch = new BatchRunner(new ClosureEngine(), 4)){
+            results = batch.runFiles(files);
+        }
+        for(int seed = 0; seed < SEEDS; seed++){
+            assertEquals(files.get(seed).toString(), results.get(seed).getName());
+            assertMatches(ProgramGenerator.mixed(seed), seed % 2 == 0 ? ProgramGenerator.input(seed) : new int[0], results.get(seed));
+        }
+    }
+
+    @Test
+    void errorsStayWithTheirProgram(){
+        List<String> sources = List.of("let a := 6\ndisplay a\n", "let c := 1\ndisplay c\nlet a := c / d\n", "let a := 1 +\n", "let b := 7\ndisplay b\n");
+        List<ProgramResult> results;
+        try (BatchRunner batch = new BatchRunner(new ClosureEngine(), 2)){
+            results = batch.runSources(sources);
+            Path missing = directory.resolve("missing.al");
+            ProgramResult unreadable = batch.runFiles(List.of(missing)).get(0);
+            assertInstanceOf(InvalidArgumentException.class, unreadable.getError());
+        }
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("a = 6\n", results.get(0).getOutput());
+        assertInstanceOf(ArithmeticException.class, results.get(1).getError());
+        assertEquals("c = 1\n", results.get(1).getOutput());
+        assertInstanceOf(InvalidParseException.class, results.get(2).getError());
+        assertEquals("", results.get(2).getOutput());
+        assertNull(results.get(3).getError());
+        assertEquals("b = 7\n", results.get(3).getOutput());
+    }
+
+    private static void assertMatches(String source, int[] input, ProgramResult result){
+        Outcome expected = Outcome.of(ArithLang.parse(new LexicalAnalyzer(source)), new InterpreterEngine(), input);
+        assertEquals(expected.output(), result.getOutput(), source);
+        assertEquals(expected.error(), result.getError() == null ? null : result.getError().getClass(), source);
+    }
+}
@@ -0,0 +1,90 @@
+package domain;
+
+import domain.engine.BytecodeEngine;
+import domain.engine.ClosureEngine;
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.engine.VmEngine;
+import domain.io.ArrayInputSource;
+import domain.io.TextOutputSink;
+import globalexceptions.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * class for tests of compiled programs run many times, from many threads, with their own bindings and input
+ */
+class CompiledProgramTest {
+    private static final List<Engine> ENGINES = List.of(new InterpreterEngine(), new ClosureEngine(), new BytecodeEngine(),
+            new VmEngine(), new VmEngine(true), new TieredEngine(1, Runnable::run));
+    private static final String SOURCE = "input a\nlet s := 0\nfor i in 1..n:\n    let s := s + i * a\ndisplay s\n";
+    private static final int RUNS = 400;
+
+    @Test
+    void concurrentRunsMatchSequentialRuns() throws Exception{
+        CompiledProgram reference = ArithLang.compile(SOURCE, new InterpreterEngine());
+        List<String> expected = new ArrayList<>();
+        for(int run = 0; run < RUNS; run++){
+            expected.add(run(reference, run));
+        }
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            for(Engine engine : ENGINES){
+                CompiledProgram program = ArithLang.compile(SOURCE, engine);
+                List<Future<String>> outputs = new ArrayList<>();
+                for(int run = 0; run < RUNS; run++){
+                    int n = run;
+                    outputs.add(threads.submit(() -> run(program, n)));
+                }
+                for(int run = 0; run < RUNS; run++){
+                    assertEquals(expected.get(run), outputs.get(run).get(), engine.getClass().getSimpleName() + " run " + run);
+                }
+            }
+        }
+        finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    void bindingsSetStartingValues(){
+        for(Engine engine : ENGINES){
+            Map<String, Integer> values = ArithLang.compile(SOURCE, engine).run(Map.of("n", 3, "s", 99), new ArrayInputSource(new int[]{2}), new TextOutputSink(new ByteArrayOutputStream()));
+            assertEquals(Map.of("a", 2, "s", 12, "i", 3, "n", 3), values, engine.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void unknownBindingIsRejected(){
+        CompiledProgram program = ArithLang.compile(SOURCE, new VmEngine());
+        assertThrows(InvalidArgumentException.class, () -> program.run(Map.of("missing", 1), new ArrayInputSource(new int[]{2}), new TextOutputSink(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    void outputIsFlushedOnError(){
+        for(Engine engine : ENGINES){
+            ByteArrayOutputStream captured = new ByteArrayOutputStream();
+            CompiledProgram program = ArithLang.compile("input a\ndisplay a\nlet b := a / z\n", engine);
+            assertThrows(ArithmeticException.class, () -> program.run(Map.of(), new ArrayInputSource(new int[]{5}), new TextOutputSink(captured)));
+            assertEquals("a = 5\n", captured.toString(StandardCharsets.UTF_8), engine.getClass().getSimpleName());
+        }
+    }
+
+    private static String run(CompiledProgram program, int n){
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        Map<String, Integer> values = program.run(Map.of("n", n), new ArrayInputSource(new int[]{n % 7 - 3}), new TextOutputSink(captured));
+        return captured.toString(StandardCharsets.UTF_8) + values;
+    }
+}
@@ -0,0 +1,92 @@
+package domain;
+
+import domain.engine.BytecodeEngine;
+import domain.engine.ClosureEngine;
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.engine.VmEngine;
+import domain.io.ArrayInputSource;
+import domain.io.RecordingOutputSink;
+import domain.node.ParallelForNode;
+import domain.node.ProgramNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * class for tests of deep trees compiled and run from threads with small stacks
+ */
+class DeepStackTest {
+    private static final int TERMS = 100_000;
+
+    @Test
+    void deepExpressionRunsFromSmallStack() throws InterruptedException{
+        StringBuilder source = new StringBuilder("let a := 1");
+        for(int i = 1; i < TERMS; i++){
+            source.append(i % 2 == 0 ? " + " : " - ").append("b");
+        }
+        source.append("\ndisplay a\n");
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        //a stack far smaller than the tree is deep, every call must move to a deep stack thread
+        Thread thread = new Thread(null, () -> {
+            try {
+                assertFalse(DeepStack.isDeep());
+                for(Engine engine : List.of(new InterpreterEngine(), new ClosureEngine(), new BytecodeEngine(), new VmEngine(), new TieredEngine(1, Runnable::run))){
+                    Map<String, Integer> values = ArithLang.compile(source.toString(), engine).run(Map.of("b", 3), new ArrayInputSource(new int[0]), new RecordingOutputSink());
+                    assertEquals(1 - 3, values.get("a"), engine.getClass().getSimpleName());
+                }
+            }
+            catch (Throwable e){
+                failure.set(e);
+            }
+        }, "small", 256 * 1024);
+        thread.start();
+        thread.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    void deepLoopBodyRunsOnParallelPool() throws InterruptedException{
+        StringBuilder source = new StringBuilder("for k in 1..200:\n    let a := (k * 2");
+        for(int i = 1; i < TERMS / 2; i++){
+            source.append(" + k * 2");
+        }
+        source.append(") / (k + 1)\n    let s := s + a\ndisplay s\n");
+        Outcome expected = Outcome.of(ArithLang.parse(new LexicalAnalyzer(source.toString())), new InterpreterEngine(), new int[0]);
+        assertNull(expected.error());
+        //workers of a pool have default stacks, a chunk of this body overflows one
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for(Engine engine : List.of(new InterpreterEngine(), new ClosureEngine(), new BytecodeEngine(), new VmEngine(), new TieredEngine(1, Runnable::run))){
+                ProgramNode parallel = new LoopParallelizer(pool).parallelize(ArithLang.parse(new LexicalAnalyzer(source.toString())));
+                assertInstanceOf(ParallelForNode.class, parallel.getStatements().get(0));
+                assertEquals(expected, Outcome.of(parallel, engine, new int[0]), engine.getClass().getSimpleName());
+            }
+        }
+        finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    void threadsFromFactoryAreDeep() throws InterruptedException{
+        AtomicReference<Boolean> deep = new AtomicReference<>();
+        Thread thread = DeepStack.threadFactory("test").newThread(() -> deep.set(DeepStack.isDeep()));
+        assertTrue(thread.isDaemon());
+        thread.start();
+        thread.join();
+        assertTrue(deep.get());
+    }
+}
@@ -0,0 +1,70 @@
+package domain;
+
+import domain.engine.BytecodeEngine;
+import domain.engine.ClosureEngine;
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.engine.VmEngine;
+import domain.node.ProgramNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * class for differential tests, every engine and mode runs generated programs and must do what the interpreter does
+ */
+class EngineDifferentialTest {
+    private static final int SEEDS = 20;
+    private static final Map<String, Supplier<Engine>> ENGINES = Map.of(
+            "closure", ClosureEngine::new,
+            "bytecode", BytecodeEngine::new,
+            "vm", VmEngine::new,
+            "metered vm", () -> new VmEngine(true),
+            "tiered", TieredEngine::new,
+            "tiered at once", () -> new TieredEngine(1, Runnable::run));
+
+    static Stream<Arguments> programs(){
+        return ProgramGenerator.KINDS.stream().flatMap(kind -> LongStream.range(0, SEEDS).mapToObj(seed -> Arguments.of(kind, seed)));
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("programs")
+    void enginesMatchInterpreter(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(parse(source), new InterpreterEngine(), input);
+        for(Map.Entry<String, Supplier<Engine>> engine : ENGINES.entrySet()){
+            assertEquals(expected, Outcome.of(parse(source), engine.getValue().get(), input), engine.getKey() + "\n" + source);
+        }
+    }
+
+    @Test
+    void divisionByZeroEndsEveryEngine(){
+        String source = "input a\ninput b\ndisplay a\nlet c := a / b\ndisplay c\n";
+        Outcome expected = new Outcome("a = 7\n", ArithmeticException.class, null);
+        assertEquals(expected, Outcome.of(parse(source), new InterpreterEngine(), new int[]{7, 0}));
+        for(Map.Entry<String, Supplier<Engine>> engine : ENGINES.entrySet()){
+            assertEquals(expected, Outcome.of(parse(source), engine.getValue().get(), new int[]{7, 0}), engine.getKey());
+        }
+    }
+
+    @Test
+    void generatedProgramsAreDeterministic(){
+        for(String kind : ProgramGenerator.KINDS){
+            assertEquals(ProgramGenerator.generate(kind, 7), ProgramGenerator.generate(kind, 7));
+        }
+    }
+
+    private static ProgramNode parse(String source){
+        return ArithLang.parse(new LexicalAnalyzer(source));
+    }
+}
@@ -0,0 +1,111 @@
+package domain;
+
+import domain.batch.FairScheduler;
+import domain.batch.ProgramResult;
+import domain.batch.ScheduledProgram;
+import domain.engine.InterpreterEngine;
+import domain.io.ArrayInputSource;
+import domain.node.ProgramNode;
+import globalexceptions.ProgramStoppedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * class for tests of the fair scheduler, programs resumed a slice at a time must do what they do in one run,
+ * and quotas, deadlines and cancellation must stop even loops that never end
+ */
+class FairSchedulerTest {
+    private static final int SEEDS = 20;
+    //i <= 2147483647 always holds, so the loop never ends, it is summarized to a closed form that falls back to the loop
+    private static final String LONG_LOOP = "for i in 1..2147483647:\n    let a := a + i\ndisplay a\n";
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void resumedVmMatchesInterpreter(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(parse(source), new InterpreterEngine(), input);
+        assertEquals(expected, Outcome.resumed(parse(source), 1, input), "grant 1\n" + source);
+        assertEquals(expected, Outcome.resumed(parse(source), 1000, input), "grant 1000\n" + source);
+    }
+
+    @Test
+    void scheduledProgramsMatchInterpreter() throws Exception{
+        List<ScheduledProgram> scheduled = new ArrayList<>();
+        try (FairScheduler scheduler = new FairScheduler(4, 100)){
+            for(int seed = 0; seed < SEEDS; seed++){
+                scheduled.add(scheduler.submit("program-" + seed, ProgramGenerator.mixed(seed), new ArrayInputSource(ProgramGenerator.input(seed))));
+            }
+            for(int seed = 0; seed < SEEDS; seed++){
+                String source = ProgramGenerator.mixed(seed);
+                Outcome expected = Outcome.of(parse(source), new InterpreterEngine(), ProgramGenerator.input(seed));
+                ProgramResult result = scheduled.get(seed).getResult().get();
+                assertEquals(expected.output(), result.getOutput(), source);
+                assertEquals(expected.error(), result.getError() == null ? null : result.getError().getClass(), source);
+            }
+        }
+    }
+
+    @Test
+    void shortProgramIsNotStarvedByLongOne() throws Exception{
+        try (FairScheduler scheduler = new FairScheduler(1, 100)){
+            ScheduledProgram endless = scheduler.submit("long", LONG_LOOP, new ArrayInputSource(new int[0]));
+            ScheduledProgram quick = scheduler.submit("short", "let b := 5\ndisplay b\n", new ArrayInputSource(new int[0]));
+            ProgramResult result = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> quick.getResult().get());
+            assertNull(result.getError());
+            assertEquals("b = 5\n", result.getOutput());
+            assertFalse(endless.isDone());
+            endless.cancel();
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> endless.getResult().get());
+        }
+    }
+
+    @Test
+    void summarizedLoopRunsOutOfQuota() throws Exception{
+        try (FairScheduler scheduler = new FairScheduler(2)){
+            ScheduledProgram program = scheduler.submit("long", LONG_LOOP, new ArrayInputSource(new int[0]), 100_000, FairScheduler.UNLIMITED);
+            ProgramResult result = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> program.getResult().get());
+            assertInstanceOf(ProgramStoppedException.class, result.getError());
+            assertEquals("", result.getOutput());
+            assertEquals(100_000, result.getFuelUsed());
+        }
+    }
+
+    @Test
+    void summarizedLoopPassesDeadline() throws Exception{
+        try (FairScheduler scheduler = new FairScheduler(2)){
+            ScheduledProgram program = scheduler.submit("long", LONG_LOOP, new ArrayInputSource(new int[0]), FairScheduler.UNLIMITED, TimeUnit.MILLISECONDS.toNanos(100));
+            ProgramResult result = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> program.getResult().get());
+            assertInstanceOf(ProgramStoppedException.class, result.getError());
+            assertTrue(result.getFuelUsed() > 0);
+        }
+    }
+
+    @Test
+    void cancelledProgramStops() throws Exception{
+        try (FairScheduler scheduler = new FairScheduler(1)){
+            ScheduledProgram program = scheduler.submit("long", LONG_LOOP, new ArrayInputSource(new int[0]));
+            program.cancel();
+            ProgramResult result = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> program.getResult().get());
+            assertTrue(program.isCancelled());
+            assertInstanceOf(ProgramStoppedException.class, result.getError());
+        }
+    }
+
+    private static ProgramNode parse(String source){
+        return ArithLang.parse(new LexicalAnalyzer(source));
+    }
+}
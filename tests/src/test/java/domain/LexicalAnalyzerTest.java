@@ -0,0 +1,66 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * class for tests of the streaming lexer, whose memory must not grow with the source
+ */
+class LexicalAnalyzerTest {
+    private static final int LITERALS = 200_000;
+
+    @Test
+    void distinctLiteralsDoNotGrowPool(){
+        StringBuilder source = new StringBuilder();
+        for(int i = 0; i < LITERALS; i++){
+            source.append("let a := ").append(i).append('\n');
+        }
+        source.append("let z := 1\n");
+        LexicalAnalyzer lexer = new LexicalAnalyzer(new StringReader(source.toString()));
+        int next = 0;
+        int symbol = -1;
+        do {
+            lexer.advance();
+            if(lexer.type() == TokenType.INT_LIT && next < LITERALS){
+                assertEquals(Integer.toString(next++), lexer.lexeme());
+            }
+            if(lexer.type() == TokenType.ID && lexer.lexeme().equals("z")){
+                symbol = lexer.symbol();
+            }
+        } while(lexer.type() != TokenType.EOS);
+        assertEquals(LITERALS, next);
+        //ids are handed out in order, so a late identifier only gets a small id if no literal took one
+        assertTrue(symbol >= 0 && symbol < 64, "symbol id " + symbol);
+    }
+
+    @Test
+    void literalsMatchAcrossBufferRefills(){
+        //literals of every length up to 10 digits, so some of them straddle each refill of the char buffer
+        List<String> literals = new ArrayList<>();
+        StringBuilder source = new StringBuilder();
+        for(int i = 0; i < 20_000; i++){
+            String literal = Long.toString(1_000_000_000L + i * 7919L % 9_000_000_000L).substring(0, 1 + i % 10);
+            literals.add(literal);
+            source.append("display ").append(literal).append('\n');
+        }
+        TokenBuffer tokens = new LexicalAnalyzer(source.toString()).tokenize();
+        LexicalAnalyzer lexer = new LexicalAnalyzer(new StringReader(source.toString()));
+        int next = 0;
+        do {
+            lexer.advance();
+            tokens.advance();
+            assertEquals(lexer.type(), tokens.type());
+            assertEquals(lexer.lexeme(), tokens.lexeme());
+            if(lexer.type() == TokenType.INT_LIT){
+                assertEquals(literals.get(next++), lexer.lexeme());
+            }
+        } while(lexer.type() != TokenType.EOS);
+        assertEquals(literals.size(), next);
+    }
+}
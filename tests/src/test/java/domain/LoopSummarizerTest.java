@@ -0,0 +1,62 @@
+package domain;
+
+import domain.engine.BytecodeEngine;
+import domain.engine.ClosureEngine;
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.engine.VmEngine;
+import domain.node.ClosedFormLoopNode;
+import domain.node.ProgramNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * class for tests of loops evaluated in closed form, which must leave memory as the loops as written would
+ */
+class LoopSummarizerTest {
+    private static final List<Engine> ENGINES = List.of(new InterpreterEngine(), new ClosureEngine(), new BytecodeEngine(),
+            new VmEngine(), new VmEngine(true), new TieredEngine(1, Runnable::run));
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void summarizedLoopsMatchLoops(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(unsummarized(source), new InterpreterEngine(), input);
+        ProgramNode summarized = ArithLang.parse(new LexicalAnalyzer(source));
+        if(kind.equals("summarizable")){
+            assertTrue(summarized.getStatements().stream().anyMatch(ClosedFormLoopNode.class::isInstance), source);
+        }
+        for(Engine engine : ENGINES){
+            assertEquals(expected, Outcome.of(summarized, engine, input), engine.getClass().getSimpleName() + "\n" + source);
+        }
+    }
+
+    @Test
+    void summarizedLoopMatchesLoopAtEndOfRange(){
+        String source = "for i in 2147483500..2147483646:\n    let a := a + i\n    let b := b * 3 + 1\ndisplay a\ndisplay b\ndisplay i\n";
+        Outcome expected = Outcome.of(unsummarized(source), new InterpreterEngine(), new int[0]);
+        for(Engine engine : ENGINES){
+            assertEquals(expected, Outcome.of(ArithLang.parse(new LexicalAnalyzer(source)), engine, new int[0]), engine.getClass().getSimpleName());
+        }
+        assertEquals(expected, Outcome.resumed(ArithLang.parse(new LexicalAnalyzer(source)), 7, new int[0]));
+    }
+
+    /**
+     * method to run every front end pass but loop summarization
+     * @param source - program source
+     * @return resolved and specialized program node
+     */
+    private static ProgramNode unsummarized(String source){
+        ProgramNode programNode = new ConstantFolder().fold(new Parser(new LexicalAnalyzer(source)).parse());
+        new Resolver().resolve(programNode);
+        return new Specializer().specialize(programNode);
+    }
+}
@@ -0,0 +1,78 @@
+package domain;
+
+import domain.engine.Engine;
+import domain.engine.VmEngine;
+import domain.engine.VmProcess;
+import domain.io.ArrayInputSource;
+import domain.io.TextOutputSink;
+import domain.node.ProgramNode;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * class for what a run of a program did: its output, the class of the error that ended it if any, and its final values
+ * final values are only known when the run ends without error, they are null otherwise
+ * @param output - display output of run
+ * @param error - class of error that ended the run, or null
+ * @param values - final value of every identifier, or null
+ */
+record Outcome(String output, Class<? extends RuntimeException> error, Map<String, Integer> values) {
+
+    /**
+     * method to run a resolved program node once with an engine
+     * @param programNode - resolved program node
+     * @param engine - execution engine
+     * @param input - values for input statements
+     * @return outcome of run
+     */
+    static Outcome of(ProgramNode programNode, Engine engine, int[] input){
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try {
+            Map<String, Integer> values = new CompiledProgram(programNode, engine).run(Map.of(), new ArrayInputSource(input), new TextOutputSink(captured));
+            return new Outcome(text(captured), null, values);
+        }
+        catch (RuntimeException e){
+            return new Outcome(text(captured), e.getClass(), null);
+        }
+    }
+
+    /**
+     * method to run a resolved program node on the metered vm, resumed with the same grant until it ends
+     * @param programNode - resolved program node
+     * @param grant - fuel given on each resume
+     * @param input - values for input statements
+     * @return outcome of run
+     */
+    static Outcome resumed(ProgramNode programNode, long grant, int[] input){
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        TextOutputSink output = new TextOutputSink(captured);
+        Memory memory = new Memory(programNode.getSymbolTable(), output, new ArrayInputSource(input));
+        VmProcess process = DeepStack.call(programNode.getDepthBound(), () -> new VmEngine(true).compile(programNode).start(memory));
+        try {
+            while(!process.resume(grant)){
+                //every resume must spend at most its grant
+                if(process.getFuelUsed() % grant != 0){
+                    throw new AssertionError("Process yielded after " + process.getFuelUsed() + " fuel with grants of " + grant);
+                }
+            }
+        }
+        catch (RuntimeException e){
+            output.flush();
+            return new Outcome(text(captured), e.getClass(), null);
+        }
+        output.flush();
+        Map<String, Integer> values = new LinkedHashMap<>();
+        for(int slot = 0; slot < memory.getSymbolTable().size(); slot++){
+            values.put(memory.getSymbolTable().name(slot), memory.get(slot));
+        }
+        return new Outcome(text(captured), null, Collections.unmodifiableMap(values));
+    }
+
+    private static String text(ByteArrayOutputStream captured){
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package domain;
+
+import domain.engine.BytecodeEngine;
+import domain.engine.ClosureEngine;
+import domain.engine.Engine;
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.engine.VmEngine;
+import domain.node.ParallelForNode;
+import domain.node.ProgramNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * class for tests of for loops run in chunks on a pool, memory, output and the first error must match the loop run in order
+ */
+class ParallelLoopTest {
+    private static final List<Engine> ENGINES = List.of(new InterpreterEngine(), new ClosureEngine(), new BytecodeEngine(),
+            new VmEngine(), new VmEngine(true), new TieredEngine(1, Runnable::run));
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool(){
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() throws InterruptedException{
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void parallelLoopsMatchInterpreter(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(ArithLang.parse(new LexicalAnalyzer(source)), new InterpreterEngine(), input);
+        for(Engine engine : ENGINES){
+            assertEquals(expected, Outcome.of(parallelize(source), engine, input), engine.getClass().getSimpleName() + "\n" + source);
+        }
+    }
+
+    @Test
+    void mostParallelizableProgramsRunInParallel(){
+        //some generated loops carry a variable from one iteration to the next and stay sequential
+        long parallel = IntStream.range(0, 20).filter(seed -> parallelize(ProgramGenerator.parallelizable(seed)).getStatements().stream()
+                .anyMatch(ParallelForNode.class::isInstance)).count();
+        assertTrue(parallel >= 10, parallel + " of 20");
+    }
+
+    @Test
+    void parallelLoopStopsAtFirstError(){
+        //the error is in the first chunk, a chunk after it would never end if it ran to its end
+        String source = "for i in 1..100000:\n"
+                + "    let t := i * 2\n"
+                + "    if i = 3:\n"
+                + "        let t := 1 / 0\n"
+                + "    if i = 90000:\n"
+                + "        let w := 0\n"
+                + "        while w = 0:\n"
+                + "            let t := t + 1\n"
+                + "    display t\n";
+        Outcome expected = new Outcome("t = 2\nt = 4\n", ArithmeticException.class, null);
+        for(Engine engine : ENGINES){
+            ProgramNode parallel = parallelize(source);
+            assertInstanceOf(ParallelForNode.class, parallel.getStatements().get(0));
+            Outcome outcome = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> Outcome.of(parallel, engine, new int[0]));
+            assertEquals(expected, outcome, engine.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void accumulatorsReduceAcrossChunks(){
+        //sums and products overflow many times over, int + and * wrap the same in any grouping
+        String source = "let s := 5\n"
+                + "let p := 3\n"
+                + "let d := 1000000\n"
+                + "for i in 1..200000:\n"
+                + "    let x := i * i\n"
+                + "    let s := s + x * 7\n"
+                + "    let d := d - x / 3\n"
+                + "    if i / 2 * 2 = i:\n"
+                + "        let p := p * (2 * i + 1)\n"
+                + "display s\n"
+                + "display p\n"
+                + "display d\n";
+        Outcome expected = Outcome.of(ArithLang.parse(new LexicalAnalyzer(source)), new InterpreterEngine(), new int[0]);
+        for(Engine engine : ENGINES){
+            ProgramNode parallel = parallelize(source);
+            assertInstanceOf(ParallelForNode.class, parallel.getStatements().get(3));
+            assertEquals(expected, Outcome.of(parallel, engine, new int[0]), engine.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void accumulatorReadInBodyStaysSequential(){
+        String source = "for i in 1..200000:\n    let s := s + i\n    let t := s\ndisplay t\n";
+        ProgramNode parallel = parallelize(source);
+        assertFalse(parallel.getStatements().get(0) instanceof ParallelForNode);
+        assertEquals(Outcome.of(ArithLang.parse(new LexicalAnalyzer(source)), new InterpreterEngine(), new int[0]),
+                Outcome.of(parallel, new VmEngine(), new int[0]));
+    }
+
+    private static ProgramNode parallelize(String source){
+        return new LoopParallelizer(pool).parallelize(ArithLang.parse(new LexicalAnalyzer(source)));
+    }
+}
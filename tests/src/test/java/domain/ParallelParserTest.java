@@ -0,0 +1,90 @@
+package domain;
+
+import domain.engine.InterpreterEngine;
+import domain.engine.VmEngine;
+import domain.node.ProgramNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * class for tests of the parallel parser, its trees and its errors must be those of a serial parse
+ */
+class ParallelParserTest {
+    private static ForkJoinPool pool;
+    //long enough for the parser to split it into chunks on every thread of the pool
+    private static String large;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void startPool(){
+        pool = new ForkJoinPool(4);
+        StringBuilder source = new StringBuilder();
+        for(long seed = 0; source.length() < 1 << 20; seed++){
+            source.append(seed % 2 == 0 ? ProgramGenerator.summarizable(seed) : ProgramGenerator.parallelizable(seed));
+        }
+        large = source.toString();
+    }
+
+    @AfterAll
+    static void stopPool() throws InterruptedException{
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void parallelParserMatchesInterpreter(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(parse(source), new InterpreterEngine(), input);
+        assertEquals(expected, Outcome.of(ArithLang.prepare(new ParallelParser(pool).parse(source)), new InterpreterEngine(), input), source);
+    }
+
+    @Test
+    void parallelParserMatchesInterpreterAcrossChunks() throws IOException{
+        Outcome expected = Outcome.of(parse(large), new InterpreterEngine(), new int[0]);
+        assertEquals(expected, Outcome.of(ArithLang.prepare(new ParallelParser(pool).parse(large)), new InterpreterEngine(), new int[0]));
+        assertEquals(expected, Outcome.of(ArithLang.prepare(new ParallelParser(pool).parse(large)), new VmEngine(), new int[0]));
+        assertEquals(expected, Outcome.of(ArithLang.prepare(new ParallelParser(pool).parse(new StringReader(large))), new VmEngine(), new int[0]), "reader");
+        Path file = directory.resolve("large.al");
+        Files.writeString(file, large, StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file)){
+            assertEquals(expected, Outcome.of(ArithLang.prepare(new ParallelParser(pool).parse(channel)), new VmEngine(), new int[0]), "channel");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"let x := 1 +\n", "let x := $\n", "display\n", "if x > 1:\nlet y := 2\n", "while x <\n"})
+    void errorsMatchSerialParse(String broken){
+        //the broken line goes into a late piece, after the first and before the last
+        int at = large.indexOf("\nlet ", large.length() * 3 / 4) + 1;
+        String source = large.substring(0, at) + broken + large.substring(at);
+        RuntimeException serial = assertThrows(RuntimeException.class, () -> parse(source));
+        RuntimeException parallel = assertThrows(RuntimeException.class, () -> new ParallelParser(pool).parse(source));
+        assertEquals(serial.getClass(), parallel.getClass());
+        assertEquals(serial.getMessage(), parallel.getMessage());
+    }
+
+    private static ProgramNode parse(String source){
+        return ArithLang.parse(new LexicalAnalyzer(source));
+    }
+}
@@ -0,0 +1,130 @@
+package domain;
+
+import domain.batch.BatchRunner;
+import domain.batch.ProgramResult;
+import domain.engine.VmEngine;
+import globalexceptions.InvalidParseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * class for tests of the compiled program cache, its counters and its eviction
+ */
+class ProgramCacheTest {
+    //each of these is estimated at 24 * 11 + 512 = 776 bytes
+    private static final String A = "let a := 1\n";
+    private static final String B = "let b := 2\n";
+    private static final String C = "let c := 3\n";
+
+    @Test
+    void repeatedSourceIsCompiledOnce(){
+        ProgramCache cache = new ProgramCache(new VmEngine(), 1 << 20);
+        CompiledProgram first = cache.get(A);
+        assertSame(first, cache.get(A));
+        assertNotSame(first, cache.get(B));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        assertEquals(2 * 776, cache.getRetainedBytes());
+    }
+
+    @Test
+    void concurrentLookupsCompileOnce() throws Exception{
+        ProgramCache cache = new ProgramCache(new VmEngine(), 1 << 30);
+        String source = ProgramGenerator.mixed(3).repeat(200);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CompiledProgram>> programs = new ArrayList<>();
+            for(int i = 0; i < threads; i++){
+                programs.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(source);
+                }));
+            }
+            start.countDown();
+            for(Future<CompiledProgram> program : programs){
+                assertSame(programs.get(0).get(), program.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(threads - 1, cache.getHits());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted(){
+        ProgramCache cache = new ProgramCache(new VmEngine(), 2 * 776);
+        CompiledProgram a = cache.get(A);
+        cache.get(B);
+        cache.get(A);
+        cache.get(C);
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get(A));
+        long misses = cache.getMisses();
+        cache.get(B);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    @Test
+    void entryLargerThanBudgetIsNotKept(){
+        ProgramCache cache = new ProgramCache(new VmEngine(), 100);
+        assertNotSame(cache.get(A), cache.get(A));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getRetainedBytes());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void failedSourceIsNotCached(){
+        ProgramCache cache = new ProgramCache(new VmEngine(), 1 << 20);
+        assertThrows(InvalidParseException.class, () -> cache.get("let a := 1 +\n"));
+        assertThrows(InvalidParseException.class, () -> cache.get("let a := 1 +\n"));
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void clearKeepsCounters(){
+        ProgramCache cache = new ProgramCache(new VmEngine(), 1 << 20);
+        cache.get(A);
+        cache.get(A);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getRetainedBytes());
+        cache.get(A);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void runnersShareCache(){
+        ProgramCache cache = new ProgramCache(new VmEngine(), 1 << 20);
+        List<String> sources = Collections.nCopies(20, "let a := 6\ndisplay a\n");
+        for(int runner = 0; runner < 2; runner++){
+            try (BatchRunner batch = new BatchRunner(cache, 4)){
+                for(ProgramResult result : batch.runSources(sources)){
+                    assertEquals("a = 6\n", result.getOutput());
+                }
+            }
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(39, cache.getHits());
+    }
+}
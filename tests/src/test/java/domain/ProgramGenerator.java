@@ -0,0 +1,344 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * class for generating random programs from a seed, the same seed always gives the same program
+ * every program ends, but may divide by zero, overflow, or loop to the ends of the int range
+ */
+final class ProgramGenerator {
+    //names of the kinds of program generate makes
+    static final List<String> KINDS = List.of("mixed", "parallelizable", "summarizable");
+
+    private static final String[] VARIABLES = {"a", "b", "c", "d", "s", "t"};
+    private static final String[] RELATIONS = {"<", "<=", ">", ">=", "=", "/="};
+
+    private final Random random;
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * constructor for ProgramGenerator
+     * @param seed - seed of program
+     */
+    ProgramGenerator(long seed){
+        this.random = new Random(seed);
+    }
+
+    /**
+     * method to generate a program of a kind
+     * @param kind - one of KINDS
+     * @param seed - seed of program
+     * @return program source
+     */
+    static String generate(String kind, long seed){
+        return switch(kind){
+            case "mixed" -> mixed(seed);
+            case "parallelizable" -> parallelizable(seed);
+            case "summarizable" -> summarizable(seed);
+            default -> throw new IllegalArgumentException("Unknown kind of program: " + kind);
+        };
+    }
+
+    /**
+     * method to generate a program of nested loops, conditions and divisions by variables,
+     * its first statements read a and n from input, n is never assigned and bounds some loops
+     * @param seed - seed of program
+     * @return program source
+     */
+    static String mixed(long seed){
+        ProgramGenerator generator = new ProgramGenerator(seed);
+        generator.lines.add("input a");
+        generator.lines.add("input n");
+        generator.block(0, new ArrayList<>(), 0, 4 + generator.random.nextInt(9));
+        return generator.finish();
+    }
+
+    /**
+     * method to generate a program of loops the summarizer turns into closed forms, with values and bounds across the int range
+     * @param seed - seed of program
+     * @return program source
+     */
+    static String summarizable(long seed){
+        ProgramGenerator generator = new ProgramGenerator(seed);
+        for(int block = 0; block < 20; block++){
+            generator.summarizableLoop();
+        }
+        return generator.finish();
+    }
+
+    /**
+     * method to generate a program of loops the parallelizer splits into chunks, some independent and some reductions
+     * @param seed - seed of program
+     * @return program source
+     */
+    static String parallelizable(long seed){
+        ProgramGenerator generator = new ProgramGenerator(seed);
+        for(int block = 0; block < 8; block++){
+            generator.parallelizableLoop();
+        }
+        return generator.finish();
+    }
+
+    /**
+     * method to get input values for a program from mixed
+     * @param seed - seed of program
+     * @return values of a and n
+     */
+    static int[] input(long seed){
+        Random random = new Random(~seed);
+        return new int[]{random.nextInt(), random.nextInt(61) - 10};
+    }
+
+    private String finish(){
+        for(String variable : VARIABLES){
+            lines.add("display " + variable);
+        }
+        return String.join("\n", lines) + "\n";
+    }
+
+    private void block(int indent, List<String> loopVariables, int depth, int statements){
+        String pad = "    ".repeat(indent);
+        for(int i = 0; i < statements; i++){
+            double kind = random.nextDouble();
+            if(kind < 0.45){
+                String variable = pick(VARIABLES);
+                double pattern = random.nextDouble();
+                if(pattern < 0.3){
+                    lines.add(pad + "let " + variable + " := " + variable + " + " + expression(loopVariables, 0));
+                }
+                else if(pattern < 0.4){
+                    lines.add(pad + "let " + variable + " := " + variable + " * " + (random.nextInt(7) - 3) + " + " + expression(loopVariables, 0));
+                }
+                else if(pattern < 0.5){
+                    lines.add(pad + "let " + variable + " := " + variable + " * " + expression(loopVariables, 0));
+                }
+                else {
+                    lines.add(pad + "let " + variable + " := " + expression(loopVariables, 0));
+                }
+            }
+            else if(kind < 0.55){
+                lines.add(pad + "display " + pick(names(loopVariables)));
+            }
+            else if(kind < 0.7 && depth < 3){
+                String index = "i" + depth + lines.size();
+                int from = random.nextInt(11) - 5;
+                //long loops only at the top, so nested loops stay quick
+                String to = Integer.toString(from + (depth == 0 ? pick(new int[]{0, 1, 5, 40, 300, 3000}) : pick(new int[]{0, 1, 5, 40})));
+                if(random.nextDouble() < 0.2){
+                    to = "n";
+                }
+                lines.add(pad + "for " + index + " in " + from + ".." + to + ":");
+                block(indent + 1, with(loopVariables, index), depth + 1, 1 + random.nextInt(4));
+            }
+            else if(kind < 0.8 && depth < 3){
+                //the counter is only ever increased and the limit is a constant, so the loop ends
+                String counter = "w" + depth + lines.size();
+                lines.add(pad + "let " + counter + " := " + random.nextInt(6));
+                lines.add(pad + "while " + counter + " < " + random.nextInt(depth == 0 ? 401 : 41) + ":");
+                block(indent + 1, with(loopVariables, counter), depth + 1, 1 + random.nextInt(3));
+                lines.add(pad + "    let " + counter + " := " + counter + " + " + pick(new int[]{1, 2, 3, 7}));
+            }
+            else if(kind < 0.95 && depth < 3){
+                lines.add(pad + "if " + condition(loopVariables) + ":");
+                block(indent + 1, loopVariables, depth + 1, 1 + random.nextInt(3));
+                if(random.nextDouble() < 0.4){
+                    lines.add(pad + "elif " + condition(loopVariables) + ":");
+                    block(indent + 1, loopVariables, depth + 1, 1 + random.nextInt(2));
+                }
+                if(random.nextDouble() < 0.5){
+                    lines.add(pad + "else:");
+                    block(indent + 1, loopVariables, depth + 1, 1 + random.nextInt(2));
+                }
+            }
+            else {
+                String variable = pick(VARIABLES);
+                lines.add(pad + "let " + variable + " := " + variable + " / " + pick(new String[]{"2", "3", "s", "(t + 1)"}));
+            }
+        }
+    }
+
+    private void summarizableLoop(){
+        for(String variable : VARIABLES){
+            lines.add("let " + variable + " := " + (random.nextBoolean() ? random.nextInt(11) - 5 : random.nextInt()));
+        }
+        List<String> body = new ArrayList<>();
+        List<String> assigned = new ArrayList<>(List.of("a", "b", "c", "d"));
+        Collections.shuffle(assigned, random);
+        boolean counted = random.nextDouble() < 0.6;
+        List<String> operands = counted ? List.of("a", "b", "c", "d", "s", "t", "i") : List.of("a", "b", "c", "d", "s", "t");
+        for(String variable : assigned.subList(0, random.nextInt(5))){
+            double pattern = random.nextDouble();
+            if(pattern < 0.4){
+                body.add("let " + variable + " := " + variable + " + " + expression(operands, 0));
+            }
+            else if(pattern < 0.55){
+                body.add("let " + variable + " := " + variable + " - " + expression(operands, 0));
+            }
+            else if(pattern < 0.7){
+                body.add("let " + variable + " := " + variable + " * " + pick(new String[]{"s", "t", "3"}) + " + " + pick(new String[]{"s", "7"}));
+            }
+            else {
+                body.add("let " + variable + " := " + expression(operands, 0));
+            }
+        }
+        if(counted){
+            int from = random.nextInt(11) - 5;
+            int to = from + random.nextInt(2003) - 2;
+            if(random.nextDouble() < 0.1){
+                from = Integer.MAX_VALUE - 49;
+                to = Integer.MAX_VALUE - 1;
+            }
+            lines.add("for i in " + from + ".." + to + ":");
+            if(body.isEmpty()){
+                body.add("let a := a + i");
+            }
+        }
+        else {
+            //the counter steps towards a bound the loop reaches within a few thousand trips
+            int step = pick(new int[]{1, 2, 3, -1, -2, 7});
+            int start = random.nextInt(101) - 50;
+            String relation;
+            int bound;
+            do {
+                relation = pick(RELATIONS);
+                bound = random.nextInt(4001) - 2000;
+            } while(!ends(start, step, relation, bound));
+            body.add(random.nextInt(body.size() + 1), "let e := e " + (step > 0 ? "+ " + step : "- " + -step));
+            lines.add("let e := " + start);
+            lines.add("while e " + relation + " " + bound + ":");
+        }
+        for(String statement : body){
+            lines.add("    " + statement);
+        }
+    }
+
+    private void parallelizableLoop(){
+        for(String variable : VARIABLES){
+            lines.add("let " + variable + " := " + (random.nextInt(19) - 9));
+        }
+        lines.add("for i in " + (random.nextInt(11) - 5) + ".." + (1000 + random.nextInt(20001)) + ":");
+        List<String> defined = new ArrayList<>(List.of("a", "b", "c", "d"));
+        Collections.shuffle(defined, random);
+        for(String variable : defined.subList(0, random.nextInt(5))){
+            lines.add("    let " + variable + " := " + expression(List.of("i", "7"), 1));
+        }
+        reductionBlock("    ", with(List.of("a", "b", "c", "d"), "i"), 0);
+    }
+
+    private void reductionBlock(String pad, List<String> operands, int depth){
+        int statements = 1 + random.nextInt(4);
+        for(int i = 0; i < statements; i++){
+            double kind = random.nextDouble();
+            if(kind < 0.5){
+                lines.add(pad + "let " + pick(new String[]{"a", "b", "c", "d"}) + " := " + expression(operands, 1));
+            }
+            else if(kind < 0.65){
+                lines.add(pad + "display " + pick(operands));
+            }
+            else if(kind < 0.8 && depth < 2){
+                lines.add(pad + "if " + condition(operands) + ":");
+                reductionBlock(pad + "    ", operands, depth + 1);
+                if(random.nextBoolean()){
+                    lines.add(pad + "else:");
+                    reductionBlock(pad + "    ", operands, depth + 1);
+                }
+            }
+            else if(kind < 0.9 && depth < 2){
+                String index = "j" + depth;
+                lines.add(pad + "for " + index + " in 1.." + random.nextInt(6) + ":");
+                reductionBlock(pad + "    ", with(operands, index), depth + 1);
+            }
+            else if(random.nextBoolean()){
+                lines.add(pad + "let s := s " + pick(new String[]{"+", "-"}) + " " + expression(operands, 1));
+            }
+            else {
+                lines.add(pad + "let t := t * (2 * (" + expression(operands, 1) + ") + 1)");
+            }
+        }
+    }
+
+    private String expression(List<String> loopVariables, int depth){
+        if(depth > 2 || random.nextDouble() < 0.35){
+            return atom(loopVariables);
+        }
+        String operator = pick(new String[]{"+", "-", "*", "+", "-", "*", "/"});
+        String expression;
+        if(operator.equals("/")){
+            //mostly constant divisors, sometimes one that may be zero
+            String divisor = random.nextDouble() < 0.9 ? Integer.toString(1 + random.nextInt(9)) : "(" + atom(loopVariables) + " - 3)";
+            expression = expression(loopVariables, depth + 1) + " / " + divisor;
+        }
+        else {
+            expression = expression(loopVariables, depth + 1) + " " + operator + " " + expression(loopVariables, depth + 1);
+        }
+        double wrap = random.nextDouble();
+        if(wrap < 0.1){
+            return "-(" + expression + ")";
+        }
+        return wrap < 0.3 ? "(" + expression + ")" : expression;
+    }
+
+    private String atom(List<String> loopVariables){
+        double kind = random.nextDouble();
+        if(kind < 0.4){
+            return pick(names(loopVariables));
+        }
+        if(kind < 0.75){
+            return Integer.toString(random.nextInt(10));
+        }
+        if(kind < 0.85){
+            return Integer.toString(random.nextInt(100001));
+        }
+        return "-" + pick(names(loopVariables));
+    }
+
+    private String condition(List<String> loopVariables){
+        return expression(loopVariables, 1) + " " + pick(RELATIONS) + " " + expression(loopVariables, 1);
+    }
+
+    private static boolean ends(int start, int step, String relation, int bound){
+        int value = start;
+        for(int trips = 0; trips < 5000; trips++){
+            boolean holds = switch(relation){
+                case "<" -> value < bound;
+                case "<=" -> value <= bound;
+                case ">" -> value > bound;
+                case ">=" -> value >= bound;
+                case "=" -> value == bound;
+                default -> value != bound;
+            };
+            if(!holds){
+                return true;
+            }
+            value += step;
+        }
+        return false;
+    }
+
+    private static String[] names(List<String> loopVariables){
+        List<String> names = new ArrayList<>(List.of(VARIABLES));
+        names.addAll(loopVariables);
+        return names.toArray(new String[0]);
+    }
+
+    private static List<String> with(List<String> list, String element){
+        List<String> copy = new ArrayList<>(list);
+        copy.add(element);
+        return copy;
+    }
+
+    private String pick(String[] choices){
+        return choices[random.nextInt(choices.length)];
+    }
+
+    private String pick(List<String> choices){
+        return choices.get(random.nextInt(choices.size()));
+    }
+
+    private int pick(int[] choices){
+        return choices[random.nextInt(choices.length)];
+    }
+}
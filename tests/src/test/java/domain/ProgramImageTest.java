@@ -0,0 +1,91 @@
+package domain;
+
+import domain.engine.BytecodeEngine;
+import domain.engine.InterpreterEngine;
+import domain.node.ProgramNode;
+import globalexceptions.InvalidArgumentException;
+import globalexceptions.InvalidParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * class for tests of compiled program files, loaded as the source would run and rejected when stale or corrupt
+ */
+class ProgramImageTest {
+    private static final String SOURCE = "let a := 6\nlet b := a * 7\ndisplay b\n";
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void imageMatchesSource(String kind, long seed) throws IOException{
+        String text = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Path source = directory.resolve("program.al");
+        Path image = directory.resolve("program" + ProgramImage.EXTENSION);
+        Files.writeString(source, text, StandardCharsets.UTF_8);
+        ProgramImage.write(parse(text), source, image);
+        Outcome expected = Outcome.of(parse(text), new InterpreterEngine(), input);
+        assertEquals(expected, Outcome.of(ProgramImage.read(image), new InterpreterEngine(), input), text);
+        assertEquals(expected, Outcome.of(ProgramImage.read(image), new BytecodeEngine(), input), "bytecode\n" + text);
+    }
+
+    @Test
+    void staleImageOfAnyExtensionIsRejected() throws IOException{
+        Path source = directory.resolve("sub").resolve("program.txt");
+        Path image = directory.resolve("program" + ProgramImage.EXTENSION);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, SOURCE, StandardCharsets.UTF_8);
+        ProgramImage.write(parse(SOURCE), source, image);
+        assertEquals(Outcome.of(parse(SOURCE), new InterpreterEngine(), new int[0]), Outcome.of(ProgramImage.read(image), new InterpreterEngine(), new int[0]));
+
+        Files.writeString(source, SOURCE.replace("7", "8"), StandardCharsets.UTF_8);
+        assertThrows(InvalidArgumentException.class, () -> ProgramImage.read(image));
+
+        //without its source the image is trusted
+        Files.delete(source);
+        assertEquals("b = 42\n", Outcome.of(ProgramImage.read(image), new InterpreterEngine(), new int[0]).output());
+    }
+
+    @Test
+    void hugeLengthIsRejectedBeforeAllocating() throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ByteBuffer.allocate(Integer.BYTES).putInt(0x414C4300).array());
+        out.write(2);
+        out.write(new byte[32]);
+        //varint of Integer.MAX_VALUE as the length of the source path
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        Path image = directory.resolve("corrupt" + ProgramImage.EXTENSION);
+        Files.write(image, out.toByteArray());
+        assertThrows(InvalidParseException.class, () -> ProgramImage.read(image));
+    }
+
+    @Test
+    void truncatedImageIsRejected() throws IOException{
+        Path source = directory.resolve("program.al");
+        Path image = directory.resolve("program" + ProgramImage.EXTENSION);
+        Files.writeString(source, SOURCE, StandardCharsets.UTF_8);
+        ProgramImage.write(parse(SOURCE), source, image);
+        byte[] bytes = Files.readAllBytes(image);
+        Files.write(image, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(InvalidParseException.class, () -> ProgramImage.read(image));
+    }
+
+    private static ProgramNode parse(String source){
+        return ArithLang.parse(new LexicalAnalyzer(source));
+    }
+}
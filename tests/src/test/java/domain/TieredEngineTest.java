@@ -0,0 +1,94 @@
+package domain;
+
+import domain.engine.InterpreterEngine;
+import domain.engine.TieredEngine;
+import domain.io.ArrayInputSource;
+import domain.io.TextOutputSink;
+import domain.node.ProgramNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * class for tests of the tiered engine, a loop must do the same whether it stays in the tree walker,
+ * is compiled before it starts or moves over to compiled code while it runs
+ */
+class TieredEngineTest {
+    private static final int[] THRESHOLDS = {0, 1, 7, 50};
+    //iterations with output both before and after the loop is compiled, the inner loop becomes hot on its own
+    private static final String HOT_LOOP = "let s := 1\n"
+            + "for i in 1..400:\n"
+            + "    let w := 0\n"
+            + "    while w < i / 40:\n"
+            + "        let s := s * 3 + w\n"
+            + "        let w := w + 1\n"
+            + "    if i / 50 * 50 = i:\n"
+            + "        display s\n"
+            + "display i\n"
+            + "display w\n";
+
+    private static ExecutorService compiler;
+
+    @BeforeAll
+    static void startCompiler(){
+        compiler = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterAll
+    static void stopCompiler() throws InterruptedException{
+        compiler.shutdown();
+        compiler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void thresholdsMatchInterpreter(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(parse(source), new InterpreterEngine(), input);
+        for(int threshold : THRESHOLDS){
+            assertEquals(expected, Outcome.of(parse(source), new TieredEngine(threshold, Runnable::run), input), "threshold " + threshold + "\n" + source);
+        }
+        assertEquals(expected, Outcome.of(parse(source), new TieredEngine(1, compiler), input), "background\n" + source);
+    }
+
+    @Test
+    void loopMovesToCompiledCodeWhileRunning(){
+        Outcome expected = Outcome.of(parse(HOT_LOOP), new InterpreterEngine(), new int[0]);
+        for(int threshold : THRESHOLDS){
+            assertEquals(expected, Outcome.of(parse(HOT_LOOP), new TieredEngine(threshold, Runnable::run), new int[0]), "threshold " + threshold);
+        }
+    }
+
+    @Test
+    void compiledLoopsAreReusedByLaterRuns(){
+        String expected = run(ArithLang.compile(HOT_LOOP, new InterpreterEngine()));
+        for(int threshold : THRESHOLDS){
+            CompiledProgram program = ArithLang.compile(HOT_LOOP, new TieredEngine(threshold, compiler));
+            for(int run = 0; run < 5; run++){
+                assertEquals(expected, run(program), "threshold " + threshold + " run " + run);
+            }
+        }
+    }
+
+    private static String run(CompiledProgram program){
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        Map<String, Integer> values = program.run(Map.of(), new ArrayInputSource(new int[0]), new TextOutputSink(captured));
+        return captured.toString(StandardCharsets.UTF_8) + values;
+    }
+
+    private static ProgramNode parse(String source){
+        return ArithLang.parse(new LexicalAnalyzer(source));
+    }
+}
@@ -0,0 +1,69 @@
+package domain;
+
+import domain.engine.InterpreterEngine;
+import globalexceptions.InvalidTokenException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.Reader;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * class for tests of the pipelined front end, which lexes on its own thread while the parser reads the ring
+ */
+class TokenPipelineTest {
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("domain.EngineDifferentialTest#programs")
+    void pipelineMatchesInterpreter(String kind, long seed){
+        String source = ProgramGenerator.generate(kind, seed);
+        int[] input = ProgramGenerator.input(seed);
+        Outcome expected = Outcome.of(ArithLang.parse(new LexicalAnalyzer(source)), new InterpreterEngine(), input);
+        //a small ring makes both sides wait on each other often
+        for(int capacity : new int[]{1, 16, TokenPipeline.DEFAULT_CAPACITY}){
+            try (TokenPipeline tokens = new LexicalAnalyzer(source).pipeline(capacity)){
+                assertEquals(expected, Outcome.of(ArithLang.prepare(new Parser(tokens).parse()), new InterpreterEngine(), input), capacity + "\n" + source);
+            }
+        }
+    }
+
+    @Test
+    void lexerExceptionReachesParser(){
+        String source = "let a := 1\n".repeat(10_000) + "let b := a $ 2\n";
+        try (TokenPipeline tokens = new LexicalAnalyzer(source).pipeline(16)){
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(InvalidTokenException.class, () -> new Parser(tokens).parse()));
+        }
+    }
+
+    @Test
+    void lexerErrorReachesParser(){
+        //the source is read on the lexer thread, which ends with an error after a few buffers
+        Reader reader = new Reader(){
+            private int served;
+
+            @Override
+            public int read(char[] buffer, int offset, int length){
+                if(served > 1 << 16){
+                    throw new OutOfMemoryError("test");
+                }
+                for(int i = 0; i < length; i++){
+                    buffer[offset + i] = "display a\n".charAt((served + i) % 10);
+                }
+                served += length;
+                return length;
+            }
+
+            @Override
+            public void close(){
+            }
+        };
+        try (TokenPipeline tokens = new LexicalAnalyzer(reader).pipeline(16)){
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(OutOfMemoryError.class, () -> new Parser(tokens).parse()));
+        }
+    }
+}